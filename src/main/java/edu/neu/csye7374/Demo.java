@@ -126,7 +126,7 @@ public class Demo {
         System.out.println("8. STRATEGY PATTERN - Device Operations");
         System.out.println("=======================================");
         Light light = (Light) light1;
-        light.setOperationStrategy(new BasicOperationStrategy());
+        light.setOperationStrategy(BasicOperationStrategy.INSTANCE);
 
         System.out.println("Executing operations using strategy:");
         System.out.println("  " + light.executeOperation(Operation.GET_STATUS));
@@ -196,7 +196,7 @@ public class Demo {
         System.out.println("=== STRATEGY PATTERN UPDATES ===");
         System.out.println("=================================");
         Light light2 = new Light("light2", "Bedroom Light");
-        light2.setOperationStrategy(new LightOperationStrategy());
+        light2.setOperationStrategy(LightOperationStrategy.INSTANCE);
         System.out.println("Light2: " + light2);
         light2.executeOperation(Operation.TURN_ON);
         System.out.println("Light2 after turnOn: " + light2);
@@ -206,7 +206,7 @@ public class Demo {
         System.out.println("Light2 after brighten: " + light2);
 
         Thermostat thermostat2 = new Thermostat("thermostat2", "Bedroom Thermostat");
-        thermostat2.setOperationStrategy(new ThermostatOperationStrategy());
+        thermostat2.setOperationStrategy(ThermostatOperationStrategy.INSTANCE);
         System.out.println("Thermostat2: " + thermostat2);
         thermostat2.executeOperation(Operation.TURN_ON);
         System.out.println("Thermostat2 after turnOn: " + thermostat2);
@@ -1,7 +1,13 @@
 package edu.neu.csye7374;
 
+import edu.neu.csye7374.remote.CommandServerLauncher;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.DeviceFleetSimulator;
+import edu.neu.csye7374.simulation.SimulationConfig;
 import javafx.application.Application;
 
+import java.util.Arrays;
+
 /**
  * 
  * @author Yash Zaveri
@@ -18,6 +24,16 @@ public class Driver {
         if (args.length > 0 && args[0].equals("--ui")) {
             // Launch JavaFX UI using Application.launch()
             Application.launch(SmartHomeUI.class, args);
+        } else if (args.length > 0 && args[0].equals("--simulate")) {
+            // Run headless fleet simulation, e.g. --simulate lights=1000 thermostats=100 rate=5000
+            SimulationConfig config = SimulationConfig.fromArgs(Arrays.copyOfRange(args, 1, args.length));
+            new DeviceFleetSimulator(config).run();
+        } else if (args.length > 0 && args[0].equals("--server")) {
+            // Serve remote commands over TCP, e.g. --server port=9090
+            CommandServerLauncher.run(Arrays.copyOfRange(args, 1, args.length));
+        } else if (args.length > 0 && args[0].equals("--bench")) {
+            // Run a named benchmark, e.g. --bench remote requests=500000
+            Benchmarks.run(Arrays.copyOfRange(args, 1, args.length));
         } else {
             // Run console demo
             Demo.demonstrateDesignPatterns();
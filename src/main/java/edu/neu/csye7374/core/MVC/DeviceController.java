@@ -1,7 +1,9 @@
 package edu.neu.csye7374.core.MVC;
 
+import edu.neu.csye7374.core.actor.DeviceActorSystem;
 import edu.neu.csye7374.core.device.IDevice;
 import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.factory.DeviceTypeRegistry;
 import edu.neu.csye7374.core.facade.UIFacade;
 import edu.neu.csye7374.userInterface.UIUpdateObserver;
 import edu.neu.csye7374.devices.concrete.Light;
@@ -9,6 +11,7 @@ import edu.neu.csye7374.devices.concrete.Thermostat;
 import edu.neu.csye7374.devices.concrete.LightColor;
 import edu.neu.csye7374.devices.concrete.ThermostatMode;
 import edu.neu.csye7374.core.memento.DeviceMemento;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -19,6 +22,7 @@ import javafx.beans.binding.Bindings;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.Priority;
+import javafx.util.Duration;
 
 import java.util.Set;
 import java.util.HashMap;
@@ -26,10 +30,18 @@ import java.util.Map;
 import java.util.function.Consumer;
 
 import edu.neu.csye7374.devices.group.DeviceGroup;
+import edu.neu.csye7374.core.registry.DependencyIndex;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
 import edu.neu.csye7374.devices.group.DeviceAdapter;
 import edu.neu.csye7374.devices.group.decorator.GroupSceneDecorator;
 import edu.neu.csye7374.devices.group.decorator.Scene;
+import edu.neu.csye7374.devices.state.PowerState;
 import edu.neu.csye7374.core.template.AutomationRule;
+import edu.neu.csye7374.core.persistence.GroupRecord;
+import edu.neu.csye7374.core.persistence.RuleRecord;
+import edu.neu.csye7374.core.persistence.RuleStore;
+import edu.neu.csye7374.core.provisioning.DeviceProvisioner;
+import edu.neu.csye7374.core.provisioning.ProvisioningReport;
 import edu.neu.csye7374.core.command.DeviceCommand;
 import edu.neu.csye7374.core.command.BasicCommands;
 import edu.neu.csye7374.core.command.LightCommands;
@@ -40,6 +52,8 @@ import edu.neu.csye7374.core.command.DeviceReceiver;
 import edu.neu.csye7374.core.command.CommandExecutor;
 import edu.neu.csye7374.core.command.DeviceCommandFactory;
 import edu.neu.csye7374.core.command.CommandManager;
+import edu.neu.csye7374.core.command.CommandCoalescer;
+import edu.neu.csye7374.core.command.CommandResult;
 import edu.neu.csye7374.devices.automation.AutomationEngine;
 import edu.neu.csye7374.core.builder.RuleBuilder;  
 import edu.neu.csye7374.devices.group.IDeviceComponent;
@@ -69,11 +83,18 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
     // Command stack for undo/redo (already wired via receivers/manager elsewhere if needed)
     private final CommandManager commandManager = new CommandManager();
     
+    // Collapses spinner/slider bursts into one command; flushed once input pauses
+    private static final long COMMAND_BURST_MILLIS = 300;
+    private final CommandCoalescer commandCoalescer = new CommandCoalescer(commandManager, COMMAND_BURST_MILLIS);
+    private final PauseTransition commandFlushTimer = new PauseTransition(Duration.millis(COMMAND_BURST_MILLIS));
+    
     // Automation Engine
     private final AutomationEngine automationEngine = new AutomationEngine();
     
     // Device Groups and Scenes
     private Map<String, DeviceGroup> deviceGroups;
+    // Device ID -> groups it belongs to, so device lookups and deletion skip the group scan
+    private final DependencyIndex<DeviceGroup> groupMembership = new DependencyIndex<>();
     private Map<String, Scene> scenes;
     private ObservableList<String> groupNames;
     private int groupCounter = 0;
@@ -82,10 +103,12 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
     private ObservableList<String> ruleNames;
     private Map<String, AutomationRule> automationRules;
     private int ruleCounter = 0;
+    private static final java.nio.file.Path AUTOMATION_STORE = java.nio.file.Paths.get("automation-rules.shrs");
+    // Device IDs differ on every run, so the devices the rules refer to are saved alongside them
+    private static final java.nio.file.Path AUTOMATION_DEVICES = java.nio.file.Paths.get("automation-devices.csv");
     
     // Command Pattern - Device Receivers for undo/redo functionality
-    private Map<String, LightReceiver> lightReceivers;
-    private Map<String, ThermostatReceiver> thermostatReceivers;
+    private Map<String, DeviceReceiver> receivers;
     
     // Memento Pattern
     private Map<String, DeviceMemento> savedStates;
@@ -97,7 +120,14 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
     @FXML
     public void initialize() {
         facade = UIFacade.getInstance();
+        if (facade.isSequencedExecution()) {
+            // Commands (and the scenes applied through them) and rule actions use the device mailboxes too
+            DeviceActorSystem actors = DeviceActorSystem.getInstance();
+            commandManager.setDeviceActors(actors);
+            automationEngine.setDeviceActors(actors);
+        }
         deviceModels = FXCollections.observableArrayList();
+        commandFlushTimer.setOnFinished(e -> flushCommands());
         
         // Initialize device groups and scenes
         deviceGroups = new HashMap<>();
@@ -109,8 +139,7 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
         automationRules = new HashMap<>();
         
         // Initialize command receivers
-        lightReceivers = new HashMap<>();
-        thermostatReceivers = new HashMap<>();
+        receivers = new HashMap<>();
         
         // Initialize saved states
         savedStates = new HashMap<>();
@@ -131,10 +160,9 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
         
         // Load initial devices (empty at start) and setup UI panels
         loadDevices();
-        // Attach UI observer to existing devices once
-        for (IDevice device : facade.getAllDevices()) {
-            device.addObserver(uiObserver);
-        }
+        // Attach UI observer and property triggers once for all devices, current and future
+        facade.addObserver(uiObserver);
+        facade.addObserver(automationEngine.getPropertyObserver());
         setupAutomationUI();
         setupSceneUI();
         updateStatus("Welcome to your Smart Home! Start by adding devices.");
@@ -143,8 +171,7 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
     
     private void loadDevices() {
         deviceModels.clear();
-        lightReceivers.clear();
-        thermostatReceivers.clear();
+        receivers.clear();
         
         Set<IDevice> devices = facade.getAllDevices();
         for (IDevice device : devices) {
@@ -152,11 +179,7 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
             deviceModels.add(model);
             
             // Initialize receivers for command pattern support
-            if (device instanceof Light) {
-                lightReceivers.put(device.getId(), new LightReceiver((Light) device));
-            } else if (device instanceof Thermostat) {
-                thermostatReceivers.put(device.getId(), new ThermostatReceiver((Thermostat) device));
-            }
+            getReceiver(device.getId());
         }
         updateDeviceList();
     }
@@ -586,7 +609,15 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
             }
         });
         
-        ruleButtonsBox.getChildren().addAll(deleteRuleBtn, viewRuleBtn);
+        Button saveRulesBtn = new Button("Save");
+        saveRulesBtn.setStyle("-fx-background-color: #28a745; -fx-text-fill: white; -fx-font-size: 10px;");
+        saveRulesBtn.setOnAction(e -> saveAutomationStore());
+        
+        Button loadRulesBtn = new Button("Load");
+        loadRulesBtn.setStyle("-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-size: 10px;");
+        loadRulesBtn.setOnAction(e -> loadAutomationStore());
+        
+        ruleButtonsBox.getChildren().addAll(deleteRuleBtn, viewRuleBtn, saveRulesBtn, loadRulesBtn);
         
         automationRuleContainer.getChildren().addAll(title, createRuleBtn, rulesLabel, rulesListView, ruleButtonsBox);
     }
@@ -626,7 +657,7 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
         
         Label whenLabel = new Label("turns");
         ComboBox<String> triggerStateCombo = new ComboBox<>();
-        triggerStateCombo.getItems().addAll("ON", "OFF");
+        triggerStateCombo.getItems().addAll(PowerState.ON.getLabel(), PowerState.OFF.getLabel());
         triggerStateCombo.setPromptText("Select state");
         
         triggerBox.getChildren().addAll(triggerDeviceCombo, whenLabel, triggerStateCombo);
@@ -710,9 +741,15 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
             return false;
         }
         
-        // Create rule name if not provided
+        // Create rule name if not provided, skipping generated names already taken
         if (ruleName == null || ruleName.trim().isEmpty()) {
-            ruleName = "Rule " + (++ruleCounter);
+            do {
+                ruleName = "Rule " + (++ruleCounter);
+            } while (automationRules.containsKey(ruleName));
+        } else if (automationRules.containsKey(ruleName)) {
+            // The name identifies the rule in the saved store, so it must be unique
+            logActivity("An automation rule named '" + ruleName + "' already exists");
+            return false;
         }
         
         // Create the automation rule
@@ -739,16 +776,113 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
         if (rule != null) {
             automationRules.remove(ruleName);
             ruleNames.remove(ruleName);
-            // Note: AutomationEngine doesn't have a remove method, so we'd need to clear and re-add
-            automationEngine.clearRules();
-            for (AutomationRule remainingRule : automationRules.values()) {
-                automationEngine.addRule(remainingRule);
-            }
+            automationEngine.removeRule(rule);
             logActivity("Deleted automation rule: " + ruleName);
             updateStatus("Rule deleted");
         }
     }
     
+    /**
+     * Save all devices, automation rules, groups and scenes: the devices to a
+     * CSV file, the rest to the rule store file
+     */
+    private void saveAutomationStore() {
+        java.util.List<GroupRecord> groupRecords = new java.util.ArrayList<>();
+        for (DeviceGroup group : deviceGroups.values()) {
+            groupRecords.add(GroupRecord.of(group));
+        }
+        java.util.List<RuleRecord> ruleRecords = RuleStore.recordsOf(automationEngine);
+        Set<IDevice> devices = facade.getAllDevices();
+        try {
+            DeviceProvisioner.exportCsv(AUTOMATION_DEVICES, devices);
+            RuleStore.write(AUTOMATION_STORE, ruleRecords, groupRecords, scenes.values());
+            logActivity("Saved " + devices.size() + " devices to " + AUTOMATION_DEVICES + " and "
+                    + ruleRecords.size() + " rules, " + groupRecords.size() + " groups and "
+                    + scenes.size() + " scenes to " + AUTOMATION_STORE);
+            updateStatus("Automation saved");
+        } catch (java.io.IOException e) {
+            logActivity("Failed to save automation: " + e.getMessage());
+            updateStatus("Failed to save automation");
+        }
+    }
+    
+    /**
+     * Load saved devices that are missing, then rules, groups and scenes from
+     * the rule store file. Rules that reference devices not in the system, and
+     * rules and groups whose names already exist, are skipped, so loading twice
+     * adds nothing.
+     */
+    private void loadAutomationStore() {
+        if (!java.nio.file.Files.exists(AUTOMATION_STORE)) {
+            logActivity("No saved automation found at " + AUTOMATION_STORE);
+            return;
+        }
+        RuleStore.LoadResult result;
+        try {
+            if (java.nio.file.Files.exists(AUTOMATION_DEVICES)) {
+                // Devices already registered under their saved IDs count as duplicates and are kept as they are
+                ProvisioningReport devices = facade.importDevices(AUTOMATION_DEVICES);
+                if (devices.getCreated() > 0) {
+                    loadDevices();
+                    logActivity("Restored " + devices.getCreated() + " saved devices");
+                }
+            }
+            // Registry lookups by ID: one map read per rule device, no copy of the device set
+            result = RuleStore.loadInto(AUTOMATION_STORE, automationEngine, DeviceRegistry.getInstance()::getDevice);
+        } catch (java.io.IOException e) {
+            logActivity("Failed to load automation: " + e.getMessage());
+            updateStatus("Failed to load automation");
+            return;
+        }
+        // Add the new names to the list in one change
+        Set<String> listed = new java.util.HashSet<>(ruleNames);
+        Set<String> added = new java.util.LinkedHashSet<>();
+        for (AutomationRule rule : result.getRules()) {
+            automationRules.put(rule.getName(), rule);
+            if (!listed.contains(rule.getName())) {
+                added.add(rule.getName());
+            }
+            // Keep generated rule names unique after loading
+            if (rule.getName().startsWith("Rule ")) {
+                try {
+                    ruleCounter = Math.max(ruleCounter, Integer.parseInt(rule.getName().substring(5)));
+                } catch (NumberFormatException ignored) {
+                    // Not a generated name
+                }
+            }
+        }
+        ruleNames.addAll(added);
+        for (DeviceGroup group : result.getGroups()) {
+            if (deviceGroups.containsKey(group.getName())) {
+                continue;
+            }
+            deviceGroups.put(group.getName(), group);
+            for (IDeviceComponent component : group.getChildren()) {
+                if (component instanceof DeviceAdapter) {
+                    groupMembership.add(((DeviceAdapter) component).getDevice().getId(), group);
+                }
+            }
+            facade.registerGroup(group.getName(), group);
+            if (!groupNames.contains(group.getName())) {
+                groupNames.add(group.getName());
+            }
+            // Keep generated group IDs unique after loading
+            if (group.getId().startsWith("group_")) {
+                try {
+                    groupCounter = Math.max(groupCounter, Integer.parseInt(group.getId().substring(6)));
+                } catch (NumberFormatException ignored) {
+                    // Not a generated ID
+                }
+            }
+        }
+        for (Scene scene : result.getScenes()) {
+            scenes.put(scene.getName(), scene);
+        }
+        updateDeviceList();
+        logActivity(result.toString());
+        updateStatus("Automation loaded");
+    }
+    
     private void viewAutomationRule(String ruleName) {
         AutomationRule rule = automationRules.get(ruleName);
         if (rule != null) {
@@ -764,26 +898,24 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
     }
     
     /**
-     * Get or create a command receiver for a device to enable undo/redo functionality
+     * Get or create a command receiver for a device to enable undo/redo functionality;
+     * the receiver comes from the device type's provider in the DeviceTypeRegistry
      */
-    private LightReceiver getLightReceiver(String deviceId) {
-        return lightReceivers.computeIfAbsent(deviceId, id -> {
+    private DeviceReceiver getReceiver(String deviceId) {
+        return receivers.computeIfAbsent(deviceId, id -> {
             IDevice device = findDeviceById(id);
-            if (device instanceof Light) {
-                return new LightReceiver((Light) device);
-            }
-            return null;
+            return device != null ? DeviceTypeRegistry.getInstance().createReceiver(device) : null;
         });
     }
     
+    private LightReceiver getLightReceiver(String deviceId) {
+        DeviceReceiver receiver = getReceiver(deviceId);
+        return receiver instanceof LightReceiver ? (LightReceiver) receiver : null;
+    }
+    
     private ThermostatReceiver getThermostatReceiver(String deviceId) {
-        return thermostatReceivers.computeIfAbsent(deviceId, id -> {
-            IDevice device = findDeviceById(id);
-            if (device instanceof Thermostat) {
-                return new ThermostatReceiver((Thermostat) device);
-            }
-            return null;
-        });
+        DeviceReceiver receiver = getReceiver(deviceId);
+        return receiver instanceof ThermostatReceiver ? (ThermostatReceiver) receiver : null;
     }
     
     /**
@@ -791,8 +923,21 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
      */
     public void executeCommand(DeviceCommand command) {
         if (command != null) {
-            String result = commandManager.executeCommand(command);
-            logActivity("Command: " + result);
+            CommandResult result = commandCoalescer.run(command);
+            if (result.getStatus() == CommandResult.Status.DEFERRED) {
+                commandFlushTimer.playFromStart();
+            } else {
+                logActivity("Command: " + result.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Run commands held by the coalescer
+     */
+    private void flushCommands() {
+        for (CommandResult result : commandCoalescer.flush()) {
+            logActivity("Command: " + result.getMessage());
         }
     }
     
@@ -867,26 +1012,14 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
     // DeviceCommandFactory interface implementation
     @Override
     public DeviceCommand createTurnOnCommand(IDevice device) {
-        if (device instanceof Light) {
-            LightReceiver receiver = getLightReceiver(device.getId());
-            return receiver != null ? new BasicCommands.TurnOnCommand(receiver) : null;
-        } else if (device instanceof Thermostat) {
-            ThermostatReceiver receiver = getThermostatReceiver(device.getId());
-            return receiver != null ? new BasicCommands.TurnOnCommand(receiver) : null;
-        }
-        return null;
+        DeviceReceiver receiver = getReceiver(device.getId());
+        return receiver != null ? new BasicCommands.TurnOnCommand(receiver) : null;
     }
 
     @Override
     public DeviceCommand createTurnOffCommand(IDevice device) {
-        if (device instanceof Light) {
-            LightReceiver receiver = getLightReceiver(device.getId());
-            return receiver != null ? new BasicCommands.TurnOffCommand(receiver) : null;
-        } else if (device instanceof Thermostat) {
-            ThermostatReceiver receiver = getThermostatReceiver(device.getId());
-            return receiver != null ? new BasicCommands.TurnOffCommand(receiver) : null;
-        }
-        return null;
+        DeviceReceiver receiver = getReceiver(device.getId());
+        return receiver != null ? new BasicCommands.TurnOffCommand(receiver) : null;
     }
 
     @Override
@@ -919,6 +1052,7 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
         String groupName = "Group " + (++groupCounter);
         DeviceGroup group = new DeviceGroup("group_" + groupCounter, groupName);
         deviceGroups.put(groupName, group);
+        facade.registerGroup(groupName, group);
         groupNames.add(groupName);
         logActivity("Created new group: " + groupName);
         updateStatus("Group created");
@@ -942,12 +1076,14 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
             group.removeComponent(component);
             if (component instanceof DeviceAdapter) {
                 DeviceAdapter adapter = (DeviceAdapter) component;
+                groupMembership.remove(adapter.getDevice().getId(), group);
                 logActivity("Removed " + adapter.getDevice().getName() + " from group " + groupName);
             }
         }
         
         // 2. Remove group from deviceGroups map
         deviceGroups.remove(groupName);
+        facade.unregisterGroup(groupName);
         
         // 3. Remove group name from UI list
         groupNames.remove(groupName);
@@ -1032,6 +1168,7 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
         DeviceGroup group = deviceGroups.get(groupName);
         if (group == null) return;
         group.addComponent(new DeviceAdapter(device));
+        groupMembership.add(device.getId(), group);
         // No UI list reset here; group list content didn't change
     }
     
@@ -1046,15 +1183,8 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
      * Find which group a device belongs to
      */
     private String findDeviceGroup(String deviceId) {
-        for (Map.Entry<String, DeviceGroup> entry : deviceGroups.entrySet()) {
-            DeviceGroup group = entry.getValue();
-            if (group.getChildren().stream()
-                    .anyMatch(component -> component instanceof DeviceAdapter && 
-                             ((DeviceAdapter) component).getDevice().getId().equals(deviceId))) {
-                return entry.getKey();
-            }
-        }
-        return null;
+        java.util.List<DeviceGroup> groups = groupMembership.getDependents(deviceId);
+        return groups.isEmpty() ? null : groups.get(0).getName();
     }
     
     /**
@@ -1069,28 +1199,43 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
         
         DeviceGroup group = deviceGroups.get(currentGroupName);
         if (group != null) {
-            // Find the device adapter component to remove
-            IDeviceComponent componentToRemove = null;
-            for (IDeviceComponent component : group.getChildren()) {
-                if (component instanceof DeviceAdapter && 
-                    ((DeviceAdapter) component).getDevice().getId().equals(deviceId)) {
-                    componentToRemove = component;
-                    break;
-                }
+            removeDeviceFromGroup(deviceId, group);
+        }
+    }
+    
+    /**
+     * Remove a device from every group it belongs to (a loaded store can put
+     * one device in several)
+     */
+    private void removeDeviceFromAllGroups(String deviceId) {
+        for (DeviceGroup group : groupMembership.getDependents(deviceId)) {
+            removeDeviceFromGroup(deviceId, group);
+        }
+    }
+    
+    private void removeDeviceFromGroup(String deviceId, DeviceGroup group) {
+        // Find the device adapter component to remove
+        IDeviceComponent componentToRemove = null;
+        for (IDeviceComponent component : group.getChildren()) {
+            if (component instanceof DeviceAdapter && 
+                ((DeviceAdapter) component).getDevice().getId().equals(deviceId)) {
+                componentToRemove = component;
+                break;
             }
+        }
+        
+        if (componentToRemove != null) {
+            // Use the proper removeComponent method
+            group.removeComponent(componentToRemove);
+            groupMembership.remove(deviceId, group);
             
-            if (componentToRemove != null) {
-                // Use the proper removeComponent method
-                group.removeComponent(componentToRemove);
-                
-                IDevice device = findDeviceById(deviceId);
-                if (device != null) {
-                    logActivity("Removed " + device.getName() + " from group " + currentGroupName);
-                    updateStatus("Device removed from group " + currentGroupName);
-                }
-            } else {
-                logActivity("Failed to find device " + deviceId + " in group " + currentGroupName);
+            IDevice device = findDeviceById(deviceId);
+            if (device != null) {
+                logActivity("Removed " + device.getName() + " from group " + group.getName());
+                updateStatus("Device removed from group " + group.getName());
             }
+        } else {
+            logActivity("Failed to find device " + deviceId + " in group " + group.getName());
         }
     }
     
@@ -1122,12 +1267,9 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
     @FXML
     private void handleAddLight() {
         IDevice newDevice = facade.createDevice(DeviceType.LIGHT, "Light " + (deviceModels.size() + 1));
-        newDevice.addObserver(uiObserver);
         
         // Initialize receiver for command pattern support
-        if (newDevice instanceof Light) {
-            lightReceivers.put(newDevice.getId(), new LightReceiver((Light) newDevice));
-        }
+        getReceiver(newDevice.getId());
         
         DeviceViewModel newModel = new DeviceViewModel(newDevice);
         deviceModels.add(newModel);
@@ -1139,12 +1281,9 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
     @FXML
     private void handleAddThermostat() {
         IDevice newDevice = facade.createDevice(DeviceType.THERMOSTAT, "Thermostat " + (deviceModels.size() + 1));
-        newDevice.addObserver(uiObserver);
         
         // Initialize receiver for command pattern support
-        if (newDevice instanceof Thermostat) {
-            thermostatReceivers.put(newDevice.getId(), new ThermostatReceiver((Thermostat) newDevice));
-        }
+        getReceiver(newDevice.getId());
         
         DeviceViewModel newModel = new DeviceViewModel(newDevice);
         deviceModels.add(newModel);
@@ -1168,56 +1307,44 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
         
         String deviceName = deviceToDelete.getName();
         
-        // 1. Remove from any group first
-        removeDeviceFromGroup(deviceId);
-        
-        // 2. Remove UI observer
-        deviceToDelete.removeObserver(uiObserver);
+        // 1. Remove from every group first
+        removeDeviceFromAllGroups(deviceId);
         
-        // 3. Remove command receivers for undo/redo functionality
-        lightReceivers.remove(deviceId);
-        thermostatReceivers.remove(deviceId);
+        // 2. Remove command receivers for undo/redo functionality, and drop any
+        //    command still held for the device so it does not run after deletion
+        receivers.remove(deviceId);
+        commandCoalescer.discard(deviceId);
         
-        // 4. Remove from saved states (memento pattern)
+        // 3. Remove from saved states (memento pattern)
         savedStates.remove(deviceId);
         
-        // 5. Remove from device models list (UI)
+        // 4. Remove from device models list (UI)
         deviceModels.removeIf(model -> model.getId().equals(deviceId));
         
-        // 6. Remove from device registry (core system)
+        // 5. Remove from device registry (core system) and drop its observer subscriptions
         facade.deleteDevice(deviceId);
         
-        // 7. Clean up any automation rules that reference this device
-        cleanupAutomationRulesForDevice(deviceId, deviceName);
+        // 6. Clean up any automation rules that reference this device
+        cleanupAutomationRulesForDevice(deviceId);
         
-        // 8. Update UI and log
+        // 7. Update UI and log
         updateDeviceList();
         updateStatus("Device deleted: " + deviceName);
         logActivity("Deleted device: " + deviceName + " (ID: " + deviceId + ")");
     }
     
     /**
-     * Clean up automation rules that reference a deleted device
+     * Clean up automation rules that reference a deleted device; the engine's
+     * device index finds them without scanning the other rules
      */
-    private void cleanupAutomationRulesForDevice(String deviceId, String deviceName) {
-        // Find and remove automation rules that reference this device
-        java.util.List<String> rulesToRemove = new java.util.ArrayList<>();
-        
-        for (Map.Entry<String, AutomationRule> entry : automationRules.entrySet()) {
-            AutomationRule rule = entry.getValue();
-            // Check if rule references the deleted device (this is a simplified check)
-            // In a real implementation, you'd need to check the rule's trigger and target devices
-            String ruleString = rule.toString().toLowerCase();
-            if (ruleString.contains(deviceName.toLowerCase()) || ruleString.contains(deviceId)) {
-                rulesToRemove.add(entry.getKey());
-            }
-        }
-        
-        // Remove the identified rules
-        for (String ruleName : rulesToRemove) {
-            deleteAutomationRule(ruleName);
+    private void cleanupAutomationRulesForDevice(String deviceId) {
+        for (String ruleName : automationEngine.removeRulesForDevice(deviceId)) {
+            automationRules.remove(ruleName);
+            ruleNames.remove(ruleName);
             logActivity("Removed automation rule '" + ruleName + "' due to device deletion");
         }
+        // Membership was dropped when the device left its groups; clear anything left over
+        groupMembership.removeDevice(deviceId);
     }
     
     @FXML
@@ -1292,14 +1419,14 @@ public class DeviceController implements CommandExecutor, DeviceCommandFactory {
     
     @FXML
     private void handleUndo() {
-        String result = commandManager.undo();
+        String result = commandCoalescer.undo();
         logActivity("Undo: " + result);
         updateStatus("Action undone");
     }
     
     @FXML
     private void handleRedo() {
-        String result = commandManager.redo();
+        String result = commandCoalescer.redo();
         logActivity("Redo: " + result);
         updateStatus("Action redone");
     }
@@ -0,0 +1,106 @@
+package edu.neu.csye7374.core.actor;
+
+import edu.neu.csye7374.core.device.IDevice;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Mailbox for one device. Messages run one at a time, in the order they were
+ * sent, on a shared executor, so a device is never mutated by two threads at
+ * once while different devices proceed in parallel. The actor is scheduled
+ * only while it has messages, and it yields the thread after a batch so a
+ * busy device cannot starve the others.
+ */
+public final class DeviceActor<D extends IDevice> {
+
+    private final D device;
+    private final Executor executor;
+    private final int batchSize;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable drain = this::drain;
+    // Thread draining the mailbox, so a message that waits on this device can run inline
+    private volatile Thread runner;
+
+    DeviceActor(D device, Executor executor, int batchSize) {
+        this.device = device;
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queue a mutation; it runs after every message sent before it
+     */
+    public void tell(Consumer<? super D> message) {
+        mailbox.add(() -> message.accept(device));
+        schedule();
+    }
+
+    /**
+     * Queue a read or mutation and get its result once it has run
+     */
+    public <T> CompletableFuture<T> ask(Function<? super D, T> message) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        mailbox.add(() -> {
+            try {
+                result.complete(message.apply(device));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                throw e;
+            }
+        });
+        schedule();
+        return result;
+    }
+
+    public D getDevice() {
+        return device;
+    }
+
+    /**
+     * True while the calling thread is running one of this actor's messages
+     */
+    boolean isCurrentThread() {
+        return runner == Thread.currentThread();
+    }
+
+    /**
+     * Messages waiting to run
+     */
+    public int getBacklog() {
+        return mailbox.size();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(drain);
+        }
+    }
+
+    private void drain() {
+        runner = Thread.currentThread();
+        try {
+            Runnable message;
+            for (int processed = 0; processed < batchSize && (message = mailbox.poll()) != null; processed++) {
+                try {
+                    message.run();
+                } catch (RuntimeException e) {
+                    System.out.println("ACTOR: Message for " + device.getName() + " failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            runner = null;
+            scheduled.set(false);
+        }
+        // A message may have arrived after the last poll but before the flag was cleared
+        if (!mailbox.isEmpty()) {
+            schedule();
+        }
+    }
+}
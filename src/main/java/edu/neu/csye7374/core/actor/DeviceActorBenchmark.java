@@ -0,0 +1,143 @@
+package edu.neu.csye7374.core.actor;
+
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of per-device mailboxes against one global lock. Producer threads
+ * send messages to random devices; each message does a fixed amount of work
+ * and bumps a plain (non-atomic) per-device counter, so lost updates would
+ * show up as a wrong total. Run for 1, 2, 4 ... threads up to the core count.
+ * Options: devices=1000 messages=2000000 work=200 maxThreads=&lt;cores&gt;
+ */
+public class DeviceActorBenchmark {
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "devices", "messages", "work", "maxThreads");
+        int deviceCount = options.get("devices", 1000, 1);
+        int messages = options.get("messages", 2_000_000, 1);
+        int work = options.get("work", 200, 0);
+        int maxThreads = options.get("maxThreads", Runtime.getRuntime().availableProcessors(), 1);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        try {
+            Light[] devices = new Light[deviceCount];
+            for (int i = 0; i < deviceCount; i++) {
+                devices[i] = new Light("light_" + i, "Light " + i);
+            }
+            out.println("\n=== DEVICE ACTOR BENCHMARK ===");
+            out.printf("%d devices, %d messages, work=%d, %d cores%n", deviceCount, messages, work,
+                    Runtime.getRuntime().availableProcessors());
+            // Warm up both paths
+            runActors(devices, messages / 4, work, 1);
+            runGlobalLock(devices, messages / 4, work, 1);
+            for (int step = 1; ; step *= 2) {
+                int threads = Math.min(step, maxThreads);
+                Result actors = runActors(devices, messages, work, threads);
+                Result locked = runGlobalLock(devices, messages, work, threads);
+                out.printf("%2d threads: actors %,12.0f msg/s (%s)   global lock %,12.0f msg/s (%s)%n", threads,
+                        actors.rate(messages), actors.check(messages), locked.rate(messages), locked.check(messages));
+                if (threads == maxThreads) {
+                    break;
+                }
+            }
+        } finally {
+            quiet.close();
+        }
+    }
+
+    private static Result runActors(Light[] devices, int messages, int work, int threads) {
+        long[] counts = new long[devices.length];
+        try (DeviceActorSystem system = new DeviceActorSystem(threads, DeviceActorSystem.DEFAULT_BATCH_SIZE)) {
+            List<DeviceActor<Light>> actors = new ArrayList<>(devices.length);
+            for (Light device : devices) {
+                actors.add(system.actorFor(device));
+            }
+            long start = System.nanoTime();
+            produce(threads, messages, devices.length, (device, seed) ->
+                    actors.get(device).tell(light -> counts[device] += spin(seed, work)));
+            system.awaitIdle(1, TimeUnit.MINUTES);
+            return new Result(System.nanoTime() - start, counts);
+        }
+    }
+
+    private static Result runGlobalLock(Light[] devices, int messages, int work, int threads) {
+        long[] counts = new long[devices.length];
+        Object lock = new Object();
+        long start = System.nanoTime();
+        produce(threads, messages, devices.length, (device, seed) -> {
+            synchronized (lock) {
+                counts[device] += spin(seed, work);
+            }
+        });
+        return new Result(System.nanoTime() - start, counts);
+    }
+
+    private interface Sender {
+        void send(int device, int seed);
+    }
+
+    private static void produce(int threads, int messages, int devices, Sender sender) {
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int share = messages / threads + (t < messages % threads ? 1 : 0);
+            Random random = new Random(t);
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < share; i++) {
+                    sender.send(random.nextInt(devices), i);
+                }
+            }, "producer-" + t);
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stand-in for per-message device work (encoding, validation); always returns 1
+     */
+    private static long spin(int seed, int work) {
+        long x = seed | 1;
+        for (int i = 0; i < work; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x == 0 ? 2 : 1;
+    }
+
+    private static final class Result {
+        final long nanos;
+        final long total;
+
+        Result(long nanos, long[] counts) {
+            this.nanos = nanos;
+            long sum = 0;
+            for (long count : counts) {
+                sum += count;
+            }
+            this.total = sum;
+        }
+
+        double rate(int messages) {
+            return messages / (nanos / 1e9);
+        }
+
+        String check(int messages) {
+            return total == messages ? "all counted" : "LOST " + (messages - total);
+        }
+    }
+}
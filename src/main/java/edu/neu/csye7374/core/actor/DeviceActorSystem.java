@@ -0,0 +1,122 @@
+package edu.neu.csye7374.core.actor;
+
+import edu.neu.csye7374.core.device.IDevice;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Opt-in execution model with one DeviceActor per device. All actors share a
+ * work-stealing pool in FIFO mode sized to the cores, so thousands of devices
+ * cost a queue each rather than a thread each.
+ */
+public class DeviceActorSystem implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private static class SingletonHelper {
+        private static final DeviceActorSystem INSTANCE =
+                new DeviceActorSystem(Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private final Map<String, DeviceActor<? extends IDevice>> actors = new ConcurrentHashMap<>();
+
+    /**
+     * @param threads Worker threads shared by all actors
+     * @param batchSize Messages an actor runs before yielding its thread
+     */
+    public DeviceActorSystem(int threads, int batchSize) {
+        this.pool = new ForkJoinPool(Math.max(1, threads), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("device-actor-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, true);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Shared system used by the facade and the automation engine when sequenced execution is on
+     */
+    public static DeviceActorSystem getInstance() {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Get the device's actor, creating it on first use
+     */
+    @SuppressWarnings("unchecked")
+    public <D extends IDevice> DeviceActor<D> actorFor(D device) {
+        return (DeviceActor<D>) actors.computeIfAbsent(device.getId(),
+                id -> new DeviceActor<>(device, pool, batchSize));
+    }
+
+    /**
+     * Queue a mutation on the device's mailbox
+     */
+    public void tell(IDevice device, Consumer<? super IDevice> message) {
+        actorFor(device).tell(message);
+    }
+
+    /**
+     * Queue a read or mutation on the device's mailbox and get its result once it has run
+     */
+    public <T> CompletableFuture<T> ask(IDevice device, Function<? super IDevice, T> message) {
+        return actorFor(device).ask(message);
+    }
+
+    /**
+     * Run a read or mutation on the device's mailbox and wait for its result,
+     * for callers that need the result (e.g. a command's undo state). When
+     * called from one of the device's own messages it runs directly, since
+     * waiting would block the mailbox on itself.
+     */
+    public <T> T call(IDevice device, Function<? super IDevice, T> message) {
+        DeviceActor<IDevice> actor = actorFor(device);
+        if (actor.isCurrentThread()) {
+            return message.apply(device);
+        }
+        try {
+            return actor.ask(message).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drop a deleted device's actor; messages already queued still run
+     * @return The removed actor, or null if the device had none
+     */
+    public DeviceActor<? extends IDevice> remove(String deviceId) {
+        return actors.remove(deviceId);
+    }
+
+    public int getActorCount() {
+        return actors.size();
+    }
+
+    /**
+     * Wait until every queued message has run
+     * @return false if the timeout elapsed first
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) {
+        return pool.awaitQuiescence(timeout, unit);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
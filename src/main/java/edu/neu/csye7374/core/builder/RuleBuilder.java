@@ -2,6 +2,11 @@ package edu.neu.csye7374.core.builder;
 
 import edu.neu.csye7374.core.template.AutomationRule;
 import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
+import edu.neu.csye7374.devices.automation.CompiledRule;
+import edu.neu.csye7374.devices.automation.PropertyPredicate;
+import edu.neu.csye7374.devices.automation.RuleDsl;
+import edu.neu.csye7374.devices.automation.ThresholdRule;
 
 /**
  * Simple builder for automation rules using actual device objects
@@ -13,6 +18,9 @@ public class RuleBuilder {
     private String triggerState;
     private IDevice actionDevice;
     private String action;
+    private String property;
+    private PropertyPredicate predicate;
+    private int priority;
     
     public RuleBuilder when(IDevice device, String state) {
         this.triggerDevice = device;
@@ -20,6 +28,17 @@ public class RuleBuilder {
         return this;
     }
     
+    /**
+     * Trigger on a numeric property instead of a state, e.g.
+     * whenProperty(thermostat, "currentTemperature", PropertyPredicate.above(78))
+     */
+    public RuleBuilder whenProperty(IDevice device, String property, PropertyPredicate predicate) {
+        this.triggerDevice = device;
+        this.property = property;
+        this.predicate = predicate;
+        return this;
+    }
+    
     public RuleBuilder then(String action, IDevice device) {
         this.action = action;
         this.actionDevice = device;
@@ -31,10 +50,33 @@ public class RuleBuilder {
         return this;
     }
     
+    /**
+     * Priority for resolving conflicts with other rules fired by the same event; higher wins
+     */
+    public RuleBuilder priority(int priority) {
+        this.priority = priority;
+        return this;
+    }
+    
     public AutomationRule build() {
         if (name == null) {
-            name = "Rule: " + triggerDevice.getName() + " -> " + actionDevice.getName();
+            String trigger = triggerDevice != null ? triggerDevice.getName() : "schedule";
+            name = "Rule: " + trigger + " -> " + actionDevice.getName();
         }
-        return new AutomationRule(name, triggerDevice, triggerState, actionDevice, action);
+        AutomationRule rule = predicate != null
+                ? new ThresholdRule(name, triggerDevice, property, predicate, actionDevice, action)
+                : new AutomationRule(name, triggerDevice, triggerState, actionDevice, action);
+        rule.setPriority(priority);
+        return rule;
+    }
+    
+    /**
+     * Compile a rule written in the rule DSL against the devices in the registry, e.g.
+     * compile("Cool hallway", "when hall.currentTemperature > 78 and door_1 is off then turn on fan_1")
+     * @throws IllegalArgumentException if the rule does not parse or names unknown devices
+     */
+    public static CompiledRule compile(String name, String source) {
+        DeviceRegistry registry = DeviceRegistry.getInstance();
+        return RuleDsl.compile(name, source, registry::getDevice);
     }
-}
\ No newline at end of file
+}
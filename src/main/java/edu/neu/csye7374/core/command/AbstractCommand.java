@@ -9,13 +9,11 @@ public abstract class AbstractCommand implements DeviceCommand {
     
     protected final DeviceReceiver receiver;
     protected final CommandType commandType;
-    protected final String description;
     protected DeviceMemento stateBeforeExecution;
     
-    public AbstractCommand(DeviceReceiver receiver, CommandType commandType, String description) {
+    public AbstractCommand(DeviceReceiver receiver, CommandType commandType) {
         this.receiver = receiver;
         this.commandType = commandType;
-        this.description = description;
     }
     
     @Override
@@ -28,9 +26,13 @@ public abstract class AbstractCommand implements DeviceCommand {
         return commandType;
     }
     
+    /**
+     * Undo by restoring the memento saved before execution
+     */
     @Override
-    public String getDescription() {
-        return description;
+    public CommandResult revert() {
+        return CommandResult.undone(this,
+                restoreStateBeforeExecution() ? CommandResult.Status.OK : CommandResult.Status.NO_STATE, null);
     }
     
     /**
@@ -53,9 +55,17 @@ public abstract class AbstractCommand implements DeviceCommand {
         return false;
     }
     
+    /**
+     * Message for revert() results: "Undid X for device" or "Cannot undo X for device"
+     * @param change What the command changed, e.g. "brightness change"
+     */
+    protected String describeUndo(CommandResult result, String change) {
+        return (result.isOk() ? "Undid " : "Cannot undo ") + change + " for " + receiver.getDeviceName();
+    }
+    
     @Override
     public String toString() {
-        return String.format("%s{device=%s, type=%s, description=%s}", 
-                           getClass().getSimpleName(), receiver.getDeviceName(), commandType, description);
+        return String.format("%s{device=%s, type=%s, description=%s}",
+                           getClass().getSimpleName(), receiver.getDeviceName(), commandType, getDescription());
     }
 }
\ No newline at end of file
@@ -1,47 +1,58 @@
 package edu.neu.csye7374.core.command;
 
-import edu.neu.csye7374.core.memento.DeviceMemento;
+import edu.neu.csye7374.devices.state.PowerState;
 
 /**
- * Basic device commands (turn on, turn off, toggle)
+ * Basic device commands (turn on, turn off, toggle, emergency shutdown). Only the power state
+ * changes, so it is all they save for undo.
  */
 public class BasicCommands {
     
     public static class TurnOnCommand implements DeviceCommand {
         private final DeviceReceiver receiver;
         private final CommandType commandType;
-        private final String description;
-        private DeviceMemento stateBeforeExecution;
+        private PowerState stateBeforeExecution;
         
         public TurnOnCommand(DeviceReceiver receiver) {
             this.receiver = receiver;
             this.commandType = CommandType.TURN_ON;
-            this.description = "Turn on " + receiver.getDeviceName();
         }
         
         @Override
-        public String execute() {
+        public CommandResult run() {
             // Save state before execution for undo
-            saveStateBeforeExecution();
+            stateBeforeExecution = PowerState.of(receiver.isOn());
             
             // Execute the command
             receiver.turnOn();
-            return receiver.getDeviceName() + " turned ON";
+            return CommandResult.executed(this, CommandResult.Status.OK, PowerState.ON);
         }
         
         @Override
-        public String undo() {
-            if (stateBeforeExecution != null) {
-                // Restore the previous state
-                restoreState(stateBeforeExecution);
-                return "Undid turn on for " + receiver.getDeviceName();
+        public CommandResult revert() {
+            if (stateBeforeExecution == null) {
+                return CommandResult.undone(this, CommandResult.Status.NO_STATE, null);
             }
-            return "Cannot undo turn on for " + receiver.getDeviceName() + " - no previous state";
+            // Restore the previous state
+            if (!stateBeforeExecution.isOn()) {
+                receiver.turnOff();
+            }
+            return CommandResult.undone(this, CommandResult.Status.OK, stateBeforeExecution);
+        }
+        
+        @Override
+        public String describe(CommandResult result) {
+            if (!result.isUndo()) {
+                return receiver.getDeviceName() + " turned ON";
+            }
+            return result.isOk()
+                    ? "Undid turn on for " + receiver.getDeviceName()
+                    : "Cannot undo turn on for " + receiver.getDeviceName() + " - no previous state";
         }
         
         @Override
         public String getDescription() {
-            return description;
+            return "Turn on " + receiver.getDeviceName();
         }
         
         @Override
@@ -53,59 +64,49 @@ public class BasicCommands {
         public CommandType getCommandType() {
             return commandType;
         }
-        
-        private void saveStateBeforeExecution() {
-            // This would need to be implemented based on your memento system
-            // For now, we'll create a simple state representation
-            stateBeforeExecution = new DeviceMemento(
-                receiver.getDeviceId(),
-                receiver.getDeviceName(),
-                edu.neu.csye7374.core.factory.DeviceType.valueOf(receiver.getDeviceType()),
-                receiver.isOn(),
-                receiver.getCurrentState()
-            );
-        }
-        
-        private void restoreState(DeviceMemento memento) {
-            // This would need to be implemented based on your memento system
-            // For now, we'll just restore the basic on/off state
-            if (!memento.isOn()) {
-                receiver.turnOff();
-            }
-        }
     }
     
     public static class TurnOffCommand implements DeviceCommand {
         private final DeviceReceiver receiver;
         private final CommandType commandType;
-        private final String description;
-        private DeviceMemento stateBeforeExecution;
+        private PowerState stateBeforeExecution;
         
         public TurnOffCommand(DeviceReceiver receiver) {
             this.receiver = receiver;
             this.commandType = CommandType.TURN_OFF;
-            this.description = "Turn off " + receiver.getDeviceName();
         }
         
         @Override
-        public String execute() {
-            saveStateBeforeExecution();
+        public CommandResult run() {
+            stateBeforeExecution = PowerState.of(receiver.isOn());
             receiver.turnOff();
-            return receiver.getDeviceName() + " turned OFF";
+            return CommandResult.executed(this, CommandResult.Status.OK, PowerState.OFF);
         }
         
         @Override
-        public String undo() {
-            if (stateBeforeExecution != null) {
-                restoreState(stateBeforeExecution);
-                return "Undid turn off for " + receiver.getDeviceName();
+        public CommandResult revert() {
+            if (stateBeforeExecution == null) {
+                return CommandResult.undone(this, CommandResult.Status.NO_STATE, null);
             }
-            return "Cannot undo turn off for " + receiver.getDeviceName() + " - no previous state";
+            if (stateBeforeExecution.isOn()) {
+                receiver.turnOn();
+            }
+            return CommandResult.undone(this, CommandResult.Status.OK, stateBeforeExecution);
+        }
+        
+        @Override
+        public String describe(CommandResult result) {
+            if (!result.isUndo()) {
+                return receiver.getDeviceName() + " turned OFF";
+            }
+            return result.isOk()
+                    ? "Undid turn off for " + receiver.getDeviceName()
+                    : "Cannot undo turn off for " + receiver.getDeviceName() + " - no previous state";
         }
         
         @Override
         public String getDescription() {
-            return description;
+            return "Turn off " + receiver.getDeviceName();
         }
         
         @Override
@@ -117,55 +118,51 @@ public class BasicCommands {
         public CommandType getCommandType() {
             return commandType;
         }
-        
-        private void saveStateBeforeExecution() {
-            stateBeforeExecution = new DeviceMemento(
-                receiver.getDeviceId(),
-                receiver.getDeviceName(),
-                edu.neu.csye7374.core.factory.DeviceType.valueOf(receiver.getDeviceType()),
-                receiver.isOn(),
-                receiver.getCurrentState()
-            );
-        }
-        
-        private void restoreState(DeviceMemento memento) {
-            if (memento.isOn()) {
-                receiver.turnOn();
-            }
-        }
     }
     
     public static class ToggleCommand implements DeviceCommand {
         private final DeviceReceiver receiver;
         private final CommandType commandType;
-        private final String description;
-        private DeviceMemento stateBeforeExecution;
+        private PowerState stateBeforeExecution;
         
         public ToggleCommand(DeviceReceiver receiver) {
             this.receiver = receiver;
             this.commandType = CommandType.TOGGLE;
-            this.description = "Toggle " + receiver.getDeviceName();
         }
         
         @Override
-        public String execute() {
-            saveStateBeforeExecution();
+        public CommandResult run() {
+            stateBeforeExecution = PowerState.of(receiver.isOn());
             receiver.toggle();
-            return receiver.getDeviceName() + " toggled to " + (receiver.isOn() ? "ON" : "OFF");
+            return CommandResult.executed(this, CommandResult.Status.OK, PowerState.of(receiver.isOn()));
         }
         
         @Override
-        public String undo() {
-            if (stateBeforeExecution != null) {
-                restoreState(stateBeforeExecution);
-                return "Undid toggle for " + receiver.getDeviceName();
+        public CommandResult revert() {
+            if (stateBeforeExecution == null) {
+                return CommandResult.undone(this, CommandResult.Status.NO_STATE, null);
             }
-            return "Cannot undo toggle for " + receiver.getDeviceName() + " - no previous state";
+            if (stateBeforeExecution.isOn()) {
+                receiver.turnOn();
+            } else {
+                receiver.turnOff();
+            }
+            return CommandResult.undone(this, CommandResult.Status.OK, stateBeforeExecution);
+        }
+        
+        @Override
+        public String describe(CommandResult result) {
+            if (!result.isUndo()) {
+                return receiver.getDeviceName() + " toggled to " + result.getValue();
+            }
+            return result.isOk()
+                    ? "Undid toggle for " + receiver.getDeviceName()
+                    : "Cannot undo toggle for " + receiver.getDeviceName() + " - no previous state";
         }
         
         @Override
         public String getDescription() {
-            return description;
+            return "Toggle " + receiver.getDeviceName();
         }
         
         @Override
@@ -177,23 +174,61 @@ public class BasicCommands {
         public CommandType getCommandType() {
             return commandType;
         }
+    }
+    
+    /**
+     * Turn a device off as an emergency. Same effect as TurnOffCommand, but
+     * its type routes it to the EMERGENCY lane of a CommandScheduler.
+     */
+    public static class EmergencyShutdownCommand implements DeviceCommand {
+        private final DeviceReceiver receiver;
+        private PowerState stateBeforeExecution;
         
-        private void saveStateBeforeExecution() {
-            stateBeforeExecution = new DeviceMemento(
-                receiver.getDeviceId(),
-                receiver.getDeviceName(),
-                edu.neu.csye7374.core.factory.DeviceType.valueOf(receiver.getDeviceType()),
-                receiver.isOn(),
-                receiver.getCurrentState()
-            );
+        public EmergencyShutdownCommand(DeviceReceiver receiver) {
+            this.receiver = receiver;
         }
         
-        private void restoreState(DeviceMemento memento) {
-            if (memento.isOn()) {
+        @Override
+        public CommandResult run() {
+            stateBeforeExecution = PowerState.of(receiver.isOn());
+            receiver.turnOff();
+            return CommandResult.executed(this, CommandResult.Status.OK, PowerState.OFF);
+        }
+        
+        @Override
+        public CommandResult revert() {
+            if (stateBeforeExecution == null) {
+                return CommandResult.undone(this, CommandResult.Status.NO_STATE, null);
+            }
+            if (stateBeforeExecution.isOn()) {
                 receiver.turnOn();
-            } else {
-                receiver.turnOff();
             }
+            return CommandResult.undone(this, CommandResult.Status.OK, stateBeforeExecution);
+        }
+        
+        @Override
+        public String describe(CommandResult result) {
+            if (!result.isUndo()) {
+                return receiver.getDeviceName() + " shut down (emergency)";
+            }
+            return result.isOk()
+                    ? "Undid emergency shutdown for " + receiver.getDeviceName()
+                    : "Cannot undo emergency shutdown for " + receiver.getDeviceName() + " - no previous state";
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Emergency shutdown of " + receiver.getDeviceName();
+        }
+        
+        @Override
+        public String getDeviceId() {
+            return receiver.getDeviceId();
+        }
+        
+        @Override
+        public CommandType getCommandType() {
+            return CommandType.EMERGENCY_SHUTDOWN;
         }
     }
 }
\ No newline at end of file
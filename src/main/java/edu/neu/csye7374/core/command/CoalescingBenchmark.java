@@ -0,0 +1,156 @@
+package edu.neu.csye7374.core.command;
+
+import edu.neu.csye7374.core.factory.DeviceFactory;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.observer.ObserverRouter;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.devices.concrete.Thermostat;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+/**
+ * Slider and spinner drags straight into the CommandManager versus through a
+ * CommandCoalescer. Each drag sends one brightness (lights) or target
+ * temperature (thermostats) command per 16 ms frame for 2 to 60 frames,
+ * followed by a pause; time comes from a simulated clock, so the run is
+ * deterministic. Everything is then undone, checking that every device is
+ * back where it started. Reports device writes, history size, undo steps per
+ * drag and allocation; timing and allocation include the undos.
+ * Options: lights=100 thermostats=20 drags=50000 window=250
+ */
+public class CoalescingBenchmark {
+
+    private static final long FRAME_MILLIS = 16;
+    private static final long PAUSE_MILLIS = 1000;
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "lights", "thermostats", "drags", "window");
+        int lights = options.get("lights", 100, 1);
+        int thermostats = options.get("thermostats", 20, 0);
+        int drags = options.get("drags", 50_000, 1);
+        int window = options.get("window", 250, 1);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        DeviceReceiver[] receivers = new DeviceReceiver[lights + thermostats];
+        try {
+            for (int i = 0; i < receivers.length; i++) {
+                receivers[i] = i < lights
+                        ? new LightReceiver((Light) DeviceFactory.createDevice(
+                                DeviceType.LIGHT, "bench_light_" + i, "Light " + i))
+                        : new ThermostatReceiver((Thermostat) DeviceFactory.createDevice(
+                                DeviceType.THERMOSTAT, "bench_thermostat_" + i, "Thermostat " + i));
+            }
+            out.println("\n=== COMMAND COALESCING BENCHMARK ===");
+            out.printf("%,d lights, %,d thermostats, %,d drags, %d ms frames, %d ms window%n",
+                    lights, thermostats, drags, FRAME_MILLIS, window);
+
+            // Warm up both paths, then measure
+            drag(receivers, Math.min(drags, 5_000), 0);
+            drag(receivers, Math.min(drags, 5_000), window);
+            Run direct = report(out, "Direct", receivers, drags, 0);
+            Run coalesced = report(out, "Coalesced", receivers, drags, window);
+            out.printf("Same end state before undo: %s%n", direct.checksum == coalesced.checksum ? "yes" : "NO");
+        } finally {
+            ObserverRouter router = ObserverRouter.getInstance();
+            for (DeviceReceiver receiver : receivers) {
+                if (receiver != null) {
+                    router.removeDevice(receiver.getDeviceId());
+                }
+            }
+            quiet.close();
+        }
+    }
+
+    private static Run report(PrintStream out, String label, DeviceReceiver[] receivers, int drags, int window) {
+        System.gc();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocated = allocatedBytes(threads);
+        long start = System.nanoTime();
+        Run run = drag(receivers, drags, window);
+        long nanos = System.nanoTime() - start;
+        allocated = allocatedBytes(threads) - allocated;
+        out.printf("%-9s %,9.1f ms  %,9d commands  %,9d device writes  %,9d in history  %,6d bytes/command  "
+                        + "%.1f undos/drag, %s%n",
+                label, nanos / 1e6, run.commands, run.writes, run.history, allocated / run.commands,
+                (double) run.undos / drags, run.undoMismatches == 0 ? "all restored" : run.undoMismatches + " not restored");
+        return run;
+    }
+
+    private static Run drag(DeviceReceiver[] receivers, int drags, int window) {
+        long[] clock = {0};
+        CommandManager manager = new CommandManager();
+        manager.setLogging(false);
+        CommandInvoker invoker = window > 0 ? new CommandCoalescer(manager, window, () -> clock[0]) : manager;
+        Random random = new Random(42);
+        for (DeviceReceiver receiver : receivers) {
+            if (receiver instanceof LightReceiver) {
+                receiver.setBrightness(50);
+            } else {
+                receiver.setTargetTemperature(70);
+            }
+        }
+        Run run = new Run();
+        for (int d = 0; d < drags; d++) {
+            DeviceReceiver receiver = receivers[random.nextInt(receivers.length)];
+            int frames = 2 + random.nextInt(59);
+            int from = random.nextInt(101);
+            for (int f = 0; f < frames; f++) {
+                int position = Math.max(0, Math.min(100, from + (f % 2 == 0 ? f : -f)));
+                invoker.run(receiver instanceof LightReceiver
+                        ? new LightCommands.SetBrightnessCommand((LightReceiver) receiver, position)
+                        : new ThermostatCommands.SetTargetTemperatureCommand(
+                                (ThermostatReceiver) receiver, 50 + position * 0.4));
+                run.commands++;
+                clock[0] += FRAME_MILLIS;
+            }
+            clock[0] += PAUSE_MILLIS;
+            if (invoker instanceof CommandCoalescer) {
+                ((CommandCoalescer) invoker).flushDue();
+            }
+        }
+        run.writes = manager.getStatistics().getExecutedCount(CommandType.SET_BRIGHTNESS)
+                + manager.getStatistics().getExecutedCount(CommandType.SET_TARGET_TEMPERATURE);
+        run.history = manager.getCommandCount();
+        for (DeviceReceiver receiver : receivers) {
+            run.checksum = run.checksum * 31 + (long) (value(receiver) * 10);
+        }
+
+        // Undo everything: the devices must end up where they started
+        while (invoker.canUndo()) {
+            invoker.undoLast();
+            run.undos++;
+        }
+        for (DeviceReceiver receiver : receivers) {
+            if (value(receiver) != (receiver instanceof LightReceiver ? 50 : 70)) {
+                run.undoMismatches++;
+            }
+        }
+        return run;
+    }
+
+    private static double value(DeviceReceiver receiver) {
+        return receiver instanceof LightReceiver ? receiver.getBrightness() : receiver.getTargetTemperature();
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static final class Run {
+        long commands;
+        long writes;
+        long history;
+        long checksum;
+        long undos;
+        int undoMismatches;
+    }
+}
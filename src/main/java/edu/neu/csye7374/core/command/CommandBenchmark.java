@@ -0,0 +1,129 @@
+package edu.neu.csye7374.core.command;
+
+import edu.neu.csye7374.core.factory.DeviceFactory;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.observer.ObserverRouter;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.devices.concrete.Thermostat;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Per-command cost through the CommandManager: creating a command, running
+ * it and recording it in history, with every eighth command undone. Three
+ * paths: messages plus the console log (the old behaviour), messages only,
+ * and structured results only. Devices log their own changes, so the device
+ * side is silenced rather than removed; it costs the same on every path.
+ * Options: lights=1000 thermostats=100 commands=2000000 history=10000
+ */
+public class CommandBenchmark {
+
+    private static final String[] MODES = {"COOL", "HEAT", "AUTO"};
+
+    private enum Path { LOGGED, MESSAGES, RESULTS }
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "lights", "thermostats", "commands", "history");
+        int lights = options.get("lights", 1000, 1);
+        int thermostats = options.get("thermostats", 100, 1);
+        int commands = options.get("commands", 2_000_000, 1);
+        int history = options.get("history", 10_000, 1);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        DeviceReceiver[] receivers = new DeviceReceiver[lights + thermostats];
+        try {
+            for (int i = 0; i < receivers.length; i++) {
+                receivers[i] = i < lights
+                        ? new LightReceiver((Light) DeviceFactory.createDevice(
+                                DeviceType.LIGHT, "bench_light_" + i, "Light " + i))
+                        : new ThermostatReceiver((Thermostat) DeviceFactory.createDevice(
+                                DeviceType.THERMOSTAT, "bench_thermostat_" + i, "Thermostat " + i));
+            }
+            out.println("\n=== COMMAND BENCHMARK ===");
+            out.printf("%,d lights, %,d thermostats, %,d commands per run, history cleared every %,d%n",
+                    lights, thermostats, commands, history);
+
+            CommandManager manager = new CommandManager();
+            // Warm up every path, then measure
+            for (Path path : Path.values()) {
+                run(manager, receivers, Math.min(commands, 200_000), history, path);
+            }
+            for (Path path : Path.values()) {
+                ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                long allocated = allocatedBytes(threads);
+                long start = System.nanoTime();
+                long checksum = run(manager, receivers, commands, history, path);
+                long nanos = System.nanoTime() - start;
+                allocated = allocatedBytes(threads) - allocated;
+                out.printf("%-8s %,9.1f ms  %6.1f ns/op  %,6d bytes/op  (checksum %d)%n",
+                        path == Path.LOGGED ? "Logged" : path == Path.MESSAGES ? "Messages" : "Results",
+                        nanos / 1e6, (double) nanos / commands, allocated / commands, checksum);
+            }
+        } finally {
+            ObserverRouter router = ObserverRouter.getInstance();
+            for (DeviceReceiver receiver : receivers) {
+                if (receiver != null) {
+                    router.removeDevice(receiver.getDeviceId());
+                }
+            }
+            quiet.close();
+        }
+    }
+
+    private static long run(CommandManager manager, DeviceReceiver[] receivers, int commands, int history, Path path) {
+        manager.clearHistory();
+        manager.setLogging(path == Path.LOGGED);
+        long checksum = 0;
+        for (int i = 0; i < commands; i++) {
+            DeviceCommand command = command(receivers[i % receivers.length], i / receivers.length);
+            if (path == Path.RESULTS) {
+                if (manager.run(command).isOk()) {
+                    checksum++;
+                }
+                if ((i & 7) == 7 && manager.undoLast().isOk()) {
+                    checksum++;
+                }
+            } else {
+                checksum += manager.executeCommand(command).length();
+                if ((i & 7) == 7) {
+                    checksum += manager.undo().length();
+                }
+            }
+            if (manager.getCommandCount() >= history) {
+                manager.clearHistory();
+            }
+        }
+        manager.setLogging(true);
+        return checksum;
+    }
+
+    private static DeviceCommand command(DeviceReceiver receiver, int round) {
+        if (receiver instanceof LightReceiver) {
+            LightReceiver light = (LightReceiver) receiver;
+            switch (round % 4) {
+                case 0: return new LightCommands.SetBrightnessCommand(light, round % 101);
+                case 1: return new LightCommands.DimCommand(light, 10);
+                case 2: return new LightCommands.BrightenCommand(light, 10);
+                default: return new BasicCommands.ToggleCommand(light);
+            }
+        }
+        ThermostatReceiver thermostat = (ThermostatReceiver) receiver;
+        switch (round % 3) {
+            case 0: return new ThermostatCommands.SetTargetTemperatureCommand(thermostat, 65 + round % 10);
+            case 1: return new ThermostatCommands.SetModeCommand(thermostat, MODES[round % MODES.length]);
+            default: return new BasicCommands.ToggleCommand(thermostat);
+        }
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,211 @@
+package edu.neu.csye7374.core.command;
+
+import edu.neu.csye7374.core.metrics.Counter;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Ingest stage in front of a CommandInvoker that collapses bursts, e.g. the
+ * SetBrightnessCommands from a dragged slider. A last-write-wins command is
+ * held for up to the window; a later command that supersedes it (same device
+ * and type, see DeviceCommand.isSupersededBy) replaces it, and only the last
+ * one of the burst runs. That is one device write, one memento and one history
+ * entry per burst, so undo goes straight back to the pre-burst value.
+ * Other commands run at once, after any held command for the same device.
+ * Like the timing wheel, nothing runs on its own: call flushDue() when the
+ * window may have passed (submitting a command does too). Not thread-safe.
+ */
+public class CommandCoalescer implements CommandInvoker {
+
+    private final CommandInvoker target;
+    private final long windowMillis;
+    private final LongSupplier clockMillis;
+    // Held commands by device ID, in burst start order
+    private final Map<String, Burst> held = new LinkedHashMap<>();
+    private final Counter coalesced = MetricsRegistry.getInstance().counter("command.coalesced");
+    private long submitted;
+    private long collapsed;
+
+    /**
+     * @param windowMillis Longest a command is held; 0 passes everything straight through
+     */
+    public CommandCoalescer(CommandInvoker target, long windowMillis) {
+        this(target, windowMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param windowMillis Longest a command is held; 0 passes everything straight through
+     * @param clockMillis Time source in milliseconds (injectable for testing)
+     */
+    public CommandCoalescer(CommandInvoker target, long windowMillis, LongSupplier clockMillis) {
+        this.target = target;
+        this.windowMillis = Math.max(0, windowMillis);
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * Submit a command. Returns a DEFERRED result if it is held; the result
+     * of running it later is not reported here.
+     */
+    @Override
+    public CommandResult run(DeviceCommand command) {
+        if (command == null || windowMillis == 0) {
+            return target.run(command);
+        }
+        submitted++;
+        long now = clockMillis.getAsLong();
+        flushDue(now);
+        String deviceId = command.getDeviceId();
+        Burst burst = held.get(deviceId);
+        if (burst != null && burst.command.isSupersededBy(command)) {
+            burst.command = command;
+            collapsed++;
+            coalesced.increment();
+            return CommandResult.executed(command, CommandResult.Status.DEFERRED, null);
+        }
+        if (burst != null) {
+            held.remove(deviceId);
+            target.run(burst.command);
+        }
+        if (!command.getCommandType().isLastWriteWins()) {
+            return target.run(command);
+        }
+        held.put(deviceId, new Burst(command, now));
+        return CommandResult.executed(command, CommandResult.Status.DEFERRED, null);
+    }
+
+    /**
+     * Run every held command whose window has closed
+     * @return Number of commands run
+     */
+    public int flushDue() {
+        return held.isEmpty() ? 0 : flushDue(clockMillis.getAsLong());
+    }
+
+    private int flushDue(long now) {
+        int ran = 0;
+        Iterator<Burst> bursts = held.values().iterator();
+        while (bursts.hasNext()) {
+            Burst burst = bursts.next();
+            if (now - burst.startMillis < windowMillis) {
+                break;
+            }
+            bursts.remove();
+            target.run(burst.command);
+            ran++;
+        }
+        return ran;
+    }
+
+    /**
+     * Run every held command now
+     * @return Results in the order the commands ran
+     */
+    public List<CommandResult> flush() {
+        List<CommandResult> results = new ArrayList<>(held.size());
+        for (Burst burst : held.values()) {
+            results.add(target.run(burst.command));
+        }
+        held.clear();
+        return results;
+    }
+
+    /**
+     * Undo the last command; held commands run first so they can be undone
+     */
+    @Override
+    public CommandResult undoLast() {
+        flush();
+        return target.undoLast();
+    }
+
+    @Override
+    public CommandResult redoLast() {
+        flush();
+        return target.redoLast();
+    }
+
+    @Override
+    public boolean canUndo() {
+        return !held.isEmpty() || target.canUndo();
+    }
+
+    /**
+     * False while commands are held: running them will clear the redo stack
+     */
+    @Override
+    public boolean canRedo() {
+        return held.isEmpty() && target.canRedo();
+    }
+
+    /**
+     * History of the target; held commands are not in it yet
+     */
+    @Override
+    public List<DeviceCommand> getCommandHistory() {
+        return target.getCommandHistory();
+    }
+
+    /**
+     * Run held commands, then clear the target's history
+     */
+    @Override
+    public void clearHistory() {
+        flush();
+        target.clearHistory();
+    }
+
+    /**
+     * Drop the command held for a device without running it, e.g. when the
+     * device is deleted
+     * @return The dropped command, or null if none was held
+     */
+    public DeviceCommand discard(String deviceId) {
+        Burst burst = held.remove(deviceId);
+        return burst != null ? burst.command : null;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Number of commands currently held
+     */
+    public int getHeldCount() {
+        return held.size();
+    }
+
+    /**
+     * Commands submitted while coalescing was enabled
+     */
+    public long getSubmittedCount() {
+        return submitted;
+    }
+
+    /**
+     * Commands dropped because a later one superseded them
+     */
+    public long getCollapsedCount() {
+        return collapsed;
+    }
+
+    /**
+     * The command currently held for one device, and when its burst began
+     */
+    private static final class Burst {
+        DeviceCommand command;
+        final long startMillis;
+
+        Burst(DeviceCommand command, long startMillis) {
+            this.command = command;
+            this.startMillis = startMillis;
+        }
+    }
+}
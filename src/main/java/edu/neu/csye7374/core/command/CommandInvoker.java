@@ -6,24 +6,49 @@ package edu.neu.csye7374.core.command;
  */
 public interface CommandInvoker {
     
+    /**
+     * Execute a command; only commands whose result is OK enter the history
+     * @param command The command to execute
+     * @return Structured result; its message is only built if asked for
+     */
+    CommandResult run(DeviceCommand command);
+    
+    /**
+     * Undo the last command
+     * @return Structured result of the undo operation
+     */
+    CommandResult undoLast();
+    
+    /**
+     * Redo the last undone command
+     * @return Structured result of the redo operation
+     */
+    CommandResult redoLast();
+    
     /**
      * Execute a command
      * @param command The command to execute
      * @return Result of command execution
      */
-    String executeCommand(DeviceCommand command);
+    default String executeCommand(DeviceCommand command) {
+        return run(command).getMessage();
+    }
     
     /**
      * Undo the last command
      * @return Result of undo operation
      */
-    String undo();
+    default String undo() {
+        return undoLast().getMessage();
+    }
     
     /**
      * Redo the last undone command
      * @return Result of redo operation
      */
-    String redo();
+    default String redo() {
+        return redoLast().getMessage();
+    }
     
     /**
      * Check if undo is available
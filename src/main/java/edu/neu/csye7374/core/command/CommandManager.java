@@ -1,16 +1,28 @@
 package edu.neu.csye7374.core.command;
 
+import edu.neu.csye7374.core.actor.DeviceActorSystem;
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+import edu.neu.csye7374.core.metrics.MetricsRegistry.CommandPhase;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
+
 import java.util.*;
 
 /**
  * Concrete invoker implementation
- * Manages command execution, history, and undo/redo functionality
+ * Manages command execution, history, and undo/redo functionality.
+ * run/undoLast/redoLast return structured results; messages and command
+ * descriptions are only built when a caller or the console log needs them.
  */
 public class CommandManager implements CommandInvoker {
     
     private final Stack<DeviceCommand> commandHistory;
     private final Stack<DeviceCommand> redoStack;
     private final Map<String, List<DeviceCommand>> deviceCommandHistory;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final CommandStatistics statistics = new CommandStatistics();
+    private boolean logging = true;
+    private volatile DeviceActorSystem deviceActors;
     
     public CommandManager() {
         this.commandHistory = new Stack<>();
@@ -19,14 +31,22 @@ public class CommandManager implements CommandInvoker {
     }
     
     @Override
-    public String executeCommand(DeviceCommand command) {
+    public CommandResult run(DeviceCommand command) {
         if (command == null) {
-            return "Error: Cannot execute null command";
+            return CommandResult.failed(CommandResult.Status.EMPTY, null, "Error: Cannot execute null command");
         }
         
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
         try {
             // Execute the command
-            String result = command.execute();
+            CommandResult result = apply(command, false);
+            if (!result.isOk()) {
+                // Rejected (e.g. out of range): the device did not change, so there is nothing to undo
+                if (logging) {
+                    System.out.println("Command not executed: " + result.getMessage());
+                }
+                return result;
+            }
             
             // Add to command history
             commandHistory.push(command);
@@ -37,54 +57,115 @@ public class CommandManager implements CommandInvoker {
             
             // Clear redo stack since we're executing a new command
             redoStack.clear();
+            statistics.recordExecute(command);
             
-            System.out.println("Command executed: " + command.getDescription());
+            if (logging) {
+                System.out.println("Command executed: " + command.getDescription());
+            }
+            record(CommandPhase.EXECUTE, command, start);
             return result;
             
         } catch (Exception e) {
-            return "Error executing command: " + e.getMessage();
+            metrics.counter("command.errors").increment();
+            return CommandResult.failed(CommandResult.Status.ERROR, command, "Error executing command: " + e.getMessage());
         }
     }
     
     @Override
-    public String undo() {
+    public CommandResult undoLast() {
         if (commandHistory.isEmpty()) {
-            return "No commands to undo";
+            return CommandResult.failed(CommandResult.Status.EMPTY, null, "No commands to undo");
         }
         
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        DeviceCommand command = null;
         try {
-            DeviceCommand command = commandHistory.pop();
-            String result = command.undo();
+            command = commandHistory.pop();
+            CommandResult result = apply(command, true);
             
             // Add to redo stack
             redoStack.push(command);
+            statistics.recordUndo(command);
             
-            System.out.println("Command undone: " + command.getDescription());
+            if (logging) {
+                System.out.println("Command undone: " + command.getDescription());
+            }
+            record(CommandPhase.UNDO, command, start);
             return result;
             
         } catch (Exception e) {
-            return "Error undoing command: " + e.getMessage();
+            metrics.counter("command.errors").increment();
+            return CommandResult.failed(CommandResult.Status.ERROR, command, "Error undoing command: " + e.getMessage());
         }
     }
     
     @Override
-    public String redo() {
+    public CommandResult redoLast() {
         if (redoStack.isEmpty()) {
-            return "No commands to redo";
+            return CommandResult.failed(CommandResult.Status.EMPTY, null, "No commands to redo");
         }
         
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        DeviceCommand command = null;
         try {
-            DeviceCommand command = redoStack.pop();
-            String result = command.execute();
+            command = redoStack.pop();
+            CommandResult result = apply(command, false);
             
             // Add back to command history
             commandHistory.push(command);
+            statistics.recordRedo(command);
             
-            System.out.println("Command redone: " + command.getDescription());
+            if (logging) {
+                System.out.println("Command redone: " + command.getDescription());
+            }
+            record(CommandPhase.REDO, command, start);
             return result;
             
         } catch (Exception e) {
-            return "Error redoing command: " + e.getMessage();
+            metrics.counter("command.errors").increment();
+            return CommandResult.failed(CommandResult.Status.ERROR, command, "Error redoing command: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Run commands, undos and redos on their device's mailbox and wait for the
+     * result, so they are sequenced with the other changes queued for that
+     * device (see UIFacade.setSequencedExecution). Commands for devices that
+     * are not in the DeviceRegistry still run on the calling thread.
+     * @param deviceActors Actor system to use, or null to run on the calling thread
+     */
+    public void setDeviceActors(DeviceActorSystem deviceActors) {
+        this.deviceActors = deviceActors;
+    }
+    
+    private CommandResult apply(DeviceCommand command, boolean revert) {
+        DeviceActorSystem actors = deviceActors;
+        String deviceId = command.getDeviceId();
+        IDevice device = actors != null && deviceId != null ? DeviceRegistry.getInstance().getDevice(deviceId) : null;
+        if (device == null) {
+            return revert ? command.revert() : command.run();
+        }
+        return actors.call(device, target -> revert ? command.revert() : command.run());
+    }
+    
+    /**
+     * Turn the per-command "Command executed: ..." console lines on or off.
+     * Off skips building descriptions entirely (load runs, servers).
+     */
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+    }
+    
+    public boolean isLogging() {
+        return logging;
+    }
+    
+    /**
+     * Record the latency of a command phase (skipped when metrics were disabled at start)
+     */
+    private void record(CommandPhase phase, DeviceCommand command, long start) {
+        if (start != 0) {
+            metrics.commandTimer(phase, command.getCommandType()).recordSince(start);
         }
     }
     
@@ -108,7 +189,10 @@ public class CommandManager implements CommandInvoker {
         commandHistory.clear();
         redoStack.clear();
         deviceCommandHistory.clear();
-        System.out.println("Command history cleared");
+        statistics.clearHistory();
+        if (logging) {
+            System.out.println("Command history cleared");
+        }
     }
     
     /**
@@ -122,15 +206,18 @@ public class CommandManager implements CommandInvoker {
     
     /**
      * Get command statistics
-     * @return Map of command type to count
+     * @return Map of command type to count of commands in the history
      */
     public Map<CommandType, Integer> getCommandStatistics() {
-        Map<CommandType, Integer> stats = new HashMap<>();
-        for (DeviceCommand command : commandHistory) {
-            CommandType type = command.getCommandType();
-            stats.put(type, stats.getOrDefault(type, 0) + 1);
-        }
-        return stats;
+        return statistics.toHistoryMap();
+    }
+    
+    /**
+     * Get the live command counters (O(1), allocation-free reads)
+     * @return Statistics maintained as commands execute, undo and redo
+     */
+    public CommandStatistics getStatistics() {
+        return statistics;
     }
     
     /**
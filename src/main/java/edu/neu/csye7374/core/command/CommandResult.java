@@ -0,0 +1,127 @@
+package edu.neu.csye7374.core.command;
+
+/**
+ * Outcome of running or reverting a DeviceCommand: a status, the command and
+ * the value it applied. The human-readable message is only built when
+ * getMessage() is called, by the command's describe(), so callers that only
+ * check the status never pay for string building.
+ */
+public final class CommandResult {
+
+    /**
+     * What happened to the command
+     */
+    public enum Status {
+        /** Applied (or reverted) */
+        OK,
+        /** The device refused the value, e.g. out of range */
+        REJECTED,
+        /** Undo had no saved state to restore */
+        NO_STATE,
+        /** Nothing to do: null command, or nothing to undo/redo */
+        EMPTY,
+        /** Held by a CommandCoalescer; runs when its window closes unless a later command replaces it */
+        DEFERRED,
+        /** Dropped from a CommandScheduler queue before it ran */
+        CANCELLED,
+        /** The command threw */
+        ERROR
+    }
+
+    private final Status status;
+    private final DeviceCommand command;
+    private final boolean undo;
+    private final Object value;
+    private String message;
+
+    private CommandResult(Status status, DeviceCommand command, boolean undo, Object value, String message) {
+        this.status = status;
+        this.command = command;
+        this.undo = undo;
+        this.value = value;
+        this.message = message;
+    }
+
+    /**
+     * Result of DeviceCommand.run()
+     * @param value Value the device ended up with, or null if the command type implies it
+     */
+    public static CommandResult executed(DeviceCommand command, Status status, Object value) {
+        return new CommandResult(status, command, false, value, null);
+    }
+
+    /**
+     * Result of DeviceCommand.revert()
+     * @param value Value the device was restored to, or null if the command type implies it
+     */
+    public static CommandResult undone(DeviceCommand command, Status status, Object value) {
+        return new CommandResult(status, command, true, value, null);
+    }
+
+    /**
+     * Result that never reached the command (or that it threw), with a fixed message
+     * @param command The command involved, or null
+     */
+    public static CommandResult failed(Status status, DeviceCommand command, String message) {
+        return new CommandResult(status, command, false, null, message);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+
+    /**
+     * True for the result of an undo, false for execute and redo
+     */
+    public boolean isUndo() {
+        return undo;
+    }
+
+    /**
+     * @return The command, or null for EMPTY results
+     */
+    public DeviceCommand getCommand() {
+        return command;
+    }
+
+    public String getDeviceId() {
+        return command != null ? command.getDeviceId() : null;
+    }
+
+    public CommandType getCommandType() {
+        return command != null ? command.getCommandType() : null;
+    }
+
+    /**
+     * Value applied or restored: a Number, Boolean or String depending on the
+     * command, or null if the command type says it all (e.g. TURN_ON)
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Human-readable message, built on first call
+     */
+    public String getMessage() {
+        String text = message;
+        if (text == null) {
+            if (status == Status.DEFERRED) {
+                text = "Queued: " + command.getDescription();
+            } else {
+                text = command.describe(this);
+            }
+            message = text;
+        }
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -0,0 +1,411 @@
+package edu.neu.csye7374.core.command;
+
+import edu.neu.csye7374.core.metrics.Counter;
+import edu.neu.csye7374.core.metrics.LatencyHistogram;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Priority command scheduler. Commands are queued in one of four lanes and
+ * run one at a time on a single dispatcher thread, always from the highest
+ * lane that has work, so the target invoker (e.g. a CommandManager) is never
+ * used by two threads at once.
+ * An interactive command waits at most for the command already running plus
+ * the emergency and interactive commands queued before it, however much
+ * automation or bulk work is queued, as long as that work is submitted as
+ * individual commands. An emergency command also cancels the queued
+ * automation and bulk commands for its device, which would otherwise undo it
+ * once they ran.
+ * Lower lanes only run while the higher ones are empty.
+ * Each lane is bounded (except EMERGENCY); submit blocks while it is full.
+ * Per-lane metrics: scheduler.&lt;lane&gt;.submitted/completed/cancelled
+ * counters and a scheduler.&lt;lane&gt;.wait timer (time spent queued).
+ */
+public class CommandScheduler implements AutoCloseable {
+
+    /**
+     * Scheduling lanes, highest priority first
+     */
+    public enum Lane {
+        EMERGENCY(Integer.MAX_VALUE),
+        INTERACTIVE(1024),
+        AUTOMATION(4096),
+        BULK(4096);
+
+        private final int defaultCapacity;
+        private final String prefix = "scheduler." + name().toLowerCase() + ".";
+
+        Lane(int defaultCapacity) {
+            this.defaultCapacity = defaultCapacity;
+        }
+
+        public int getDefaultCapacity() {
+            return defaultCapacity;
+        }
+
+        /**
+         * Default lane for a command type: EMERGENCY for emergency shutdowns,
+         * INTERACTIVE for everything else
+         */
+        public static Lane of(CommandType type) {
+            return type == CommandType.EMERGENCY_SHUTDOWN ? EMERGENCY : INTERACTIVE;
+        }
+    }
+
+    private static final Lane[] LANES = Lane.values();
+    // Lanes whose queued commands for a device an emergency command cancels
+    private static final Lane[] PREEMPTED_LANES = {Lane.AUTOMATION, Lane.BULK};
+
+    private final CommandInvoker target;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final LaneQueue[] lanes = new LaneQueue[LANES.length];
+    private final Thread dispatcher;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private boolean closed;
+
+    /**
+     * Start a scheduler with the default lane capacities
+     */
+    public CommandScheduler(CommandInvoker target) {
+        this(target, null);
+    }
+
+    /**
+     * @param capacities Queue bound per lane, indexed by ordinal, or null for the defaults
+     */
+    public CommandScheduler(CommandInvoker target, int[] capacities) {
+        this.target = target;
+        for (Lane lane : LANES) {
+            int capacity = capacities != null ? Math.max(1, capacities[lane.ordinal()]) : lane.defaultCapacity;
+            lanes[lane.ordinal()] = new LaneQueue(lane, capacity, lock.newCondition());
+        }
+        this.dispatcher = new Thread(this::dispatch, "command-scheduler");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Queue a command in its type's default lane (see Lane.of)
+     */
+    public CompletableFuture<CommandResult> submit(DeviceCommand command) {
+        return submit(command, Lane.of(command.getCommandType()));
+    }
+
+    /**
+     * Queue a command, blocking while the lane is full
+     * @return Completes with the command's result once it has run, or with a
+     *         CANCELLED result if it is dropped first
+     * @throws IllegalStateException if the scheduler is closed
+     */
+    public CompletableFuture<CommandResult> submit(DeviceCommand command, Lane lane) {
+        return enqueue(new Task(command, false), lane);
+    }
+
+    /**
+     * Queue an undo of the last command in the INTERACTIVE lane, so it runs in
+     * order with the commands around it
+     */
+    public CompletableFuture<CommandResult> undo() {
+        return enqueue(new Task(null, true), Lane.INTERACTIVE);
+    }
+
+    /**
+     * A CommandExecutor that queues into one lane, e.g. for scenes or imports
+     */
+    public CommandExecutor executor(Lane lane) {
+        return command -> submit(command, lane);
+    }
+
+    private CompletableFuture<CommandResult> enqueue(Task task, Lane lane) {
+        LaneQueue queue = lanes[lane.ordinal()];
+        List<Task> preempted = null;
+        lock.lock();
+        try {
+            while (!closed && queue.tasks.size() >= queue.capacity) {
+                queue.notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                throw new IllegalStateException("Command scheduler is closed");
+            }
+            if (lane == Lane.EMERGENCY && task.command != null) {
+                for (Lane lower : PREEMPTED_LANES) {
+                    List<Task> removed = lanes[lower.ordinal()].removeFor(task.command.getDeviceId());
+                    if (removed != null) {
+                        lanes[lower.ordinal()].recordCancelled(removed.size());
+                        if (preempted == null) {
+                            preempted = removed;
+                        } else {
+                            preempted.addAll(removed);
+                        }
+                    }
+                }
+            }
+            task.enqueuedNanos = System.nanoTime();
+            queue.tasks.addLast(task);
+            queue.maxDepth = Math.max(queue.maxDepth, queue.tasks.size());
+            queue.recordSubmitted();
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (preempted != null) {
+            for (Task cancelled : preempted) {
+                cancelled.cancel();
+            }
+        }
+        return task.result;
+    }
+
+    /**
+     * Drop every command queued in a lane (e.g. to abort an import)
+     * @return Number of commands cancelled
+     */
+    public int cancel(Lane lane) {
+        LaneQueue queue = lanes[lane.ordinal()];
+        List<Task> dropped;
+        lock.lock();
+        try {
+            dropped = new ArrayList<>(queue.tasks);
+            queue.tasks.clear();
+            queue.notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        queue.recordCancelled(dropped.size());
+        for (Task task : dropped) {
+            task.cancel();
+        }
+        return dropped.size();
+    }
+
+    /**
+     * Commands currently queued in a lane
+     */
+    public int getQueued(Lane lane) {
+        lock.lock();
+        try {
+            return lanes[lane.ordinal()].tasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deepest a lane's queue has been
+     */
+    public int getMaxQueued(Lane lane) {
+        lock.lock();
+        try {
+            return lanes[lane.ordinal()].maxDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSubmitted(Lane lane) {
+        return lanes[lane.ordinal()].submitted.get();
+    }
+
+    public long getCompleted(Lane lane) {
+        return lanes[lane.ordinal()].completed.get();
+    }
+
+    public long getCancelled(Lane lane) {
+        return lanes[lane.ordinal()].cancelled.get();
+    }
+
+    /**
+     * Time commands in a lane spent queued, across all schedulers (recorded
+     * while metrics are enabled)
+     */
+    public LatencyHistogram getWaitTimer(Lane lane) {
+        return lanes[lane.ordinal()].wait;
+    }
+
+    /**
+     * Stop accepting commands, run everything already queued and stop the dispatcher
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            workAvailable.signal();
+            for (LaneQueue queue : lanes) {
+                queue.notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (Thread.currentThread() == dispatcher) {
+            return;
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while draining the command scheduler", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("CommandScheduler{");
+        lock.lock();
+        try {
+            for (LaneQueue queue : lanes) {
+                if (queue.lane.ordinal() > 0) {
+                    text.append(", ");
+                }
+                text.append(queue.lane).append("=").append(queue.tasks.size()).append(" queued/")
+                        .append(queue.maxDepth).append(" max/").append(queue.completed.get()).append(" done/")
+                        .append(queue.cancelled.get()).append(" cancelled");
+            }
+        } finally {
+            lock.unlock();
+        }
+        return text.append('}').toString();
+    }
+
+    // ---- Dispatcher ----
+
+    private void dispatch() {
+        while (true) {
+            Task task;
+            LaneQueue queue;
+            lock.lock();
+            try {
+                while ((queue = highestWithWork()) == null) {
+                    if (closed) {
+                        return;
+                    }
+                    workAvailable.awaitUninterruptibly();
+                }
+                task = queue.tasks.pollFirst();
+                queue.notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            if (metrics.isEnabled()) {
+                queue.wait.recordSince(task.enqueuedNanos);
+            }
+            CommandResult result;
+            try {
+                result = task.undo ? target.undoLast() : target.run(task.command);
+            } catch (RuntimeException e) {
+                result = CommandResult.failed(CommandResult.Status.ERROR, task.command,
+                        "Error executing command: " + e.getMessage());
+            }
+            queue.recordCompleted();
+            task.result.complete(result);
+        }
+    }
+
+    private LaneQueue highestWithWork() {
+        for (LaneQueue queue : lanes) {
+            if (!queue.tasks.isEmpty()) {
+                return queue;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One lane's queue and metrics; the queue is guarded by the scheduler lock
+     */
+    private static final class LaneQueue {
+        final Lane lane;
+        final int capacity;
+        final Condition notFull;
+        final ArrayDeque<Task> tasks = new ArrayDeque<>();
+        int maxDepth;
+        // This scheduler's counts; the registry counters add up every scheduler
+        final Counter submitted;
+        final Counter completed;
+        final Counter cancelled;
+        final Counter totalSubmitted;
+        final Counter totalCompleted;
+        final Counter totalCancelled;
+        final LatencyHistogram wait;
+
+        LaneQueue(Lane lane, int capacity, Condition notFull) {
+            this.lane = lane;
+            this.capacity = capacity;
+            this.notFull = notFull;
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            this.submitted = new Counter(lane.prefix + "submitted");
+            this.completed = new Counter(lane.prefix + "completed");
+            this.cancelled = new Counter(lane.prefix + "cancelled");
+            this.totalSubmitted = metrics.counter(lane.prefix + "submitted");
+            this.totalCompleted = metrics.counter(lane.prefix + "completed");
+            this.totalCancelled = metrics.counter(lane.prefix + "cancelled");
+            this.wait = metrics.timer(lane.prefix + "wait");
+        }
+
+        void recordSubmitted() {
+            submitted.increment();
+            totalSubmitted.increment();
+        }
+
+        void recordCompleted() {
+            completed.increment();
+            totalCompleted.increment();
+        }
+
+        void recordCancelled(int count) {
+            cancelled.add(count);
+            totalCancelled.add(count);
+        }
+
+        /**
+         * Remove the queued tasks for one device
+         */
+        List<Task> removeFor(String deviceId) {
+            List<Task> removed = null;
+            Iterator<Task> it = tasks.iterator();
+            while (it.hasNext()) {
+                Task task = it.next();
+                if (task.command != null && task.command.getDeviceId().equals(deviceId)) {
+                    it.remove();
+                    if (removed == null) {
+                        removed = new ArrayList<>();
+                    }
+                    removed.add(task);
+                }
+            }
+            if (removed == null) {
+                return null;
+            }
+            notFull.signalAll();
+            return removed;
+        }
+    }
+
+    private static final class Task {
+        final DeviceCommand command;
+        final boolean undo;
+        final CompletableFuture<CommandResult> result = new CompletableFuture<>();
+        long enqueuedNanos;
+
+        Task(DeviceCommand command, boolean undo) {
+            this.command = command;
+            this.undo = undo;
+        }
+
+        void cancel() {
+            result.complete(CommandResult.failed(CommandResult.Status.CANCELLED, command,
+                    "Cancelled: " + (undo ? "undo" : command.getDescription())));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package edu.neu.csye7374.core.command;
+
+import edu.neu.csye7374.core.metrics.SlidingWindowCounter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live command counters maintained incrementally by CommandManager.
+ * Per-type counters are indexed by CommandType ordinal, so reads are O(1)
+ * and do not allocate; rates come from one-second sliding windows.
+ */
+public class CommandStatistics {
+
+    /** Longest window (seconds) available for rate queries */
+    public static final int MAX_RATE_WINDOW_SECONDS = 300;
+
+    private final LongAdder[] executed;
+    private final LongAdder[] undone;
+    private final LongAdder[] redone;
+    private final LongAdder[] inHistory;
+    private final Map<String, LongAdder> deviceCounts = new ConcurrentHashMap<>();
+    private final SlidingWindowCounter executeRate = new SlidingWindowCounter(MAX_RATE_WINDOW_SECONDS);
+    private final SlidingWindowCounter[] executeRateByType;
+
+    public CommandStatistics() {
+        int types = CommandType.values().length;
+        executed = newAdders(types);
+        undone = newAdders(types);
+        redone = newAdders(types);
+        inHistory = newAdders(types);
+        executeRateByType = new SlidingWindowCounter[types];
+        for (int i = 0; i < types; i++) {
+            executeRateByType[i] = new SlidingWindowCounter(MAX_RATE_WINDOW_SECONDS);
+        }
+    }
+
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    void recordExecute(DeviceCommand command) {
+        int type = command.getCommandType().ordinal();
+        executed[type].increment();
+        inHistory[type].increment();
+        deviceCounts.computeIfAbsent(command.getDeviceId(), id -> new LongAdder()).increment();
+        executeRate.increment();
+        executeRateByType[type].increment();
+    }
+
+    void recordUndo(DeviceCommand command) {
+        int type = command.getCommandType().ordinal();
+        undone[type].increment();
+        inHistory[type].decrement();
+    }
+
+    void recordRedo(DeviceCommand command) {
+        int type = command.getCommandType().ordinal();
+        redone[type].increment();
+        inHistory[type].increment();
+    }
+
+    /**
+     * Reset the history-derived counters; lifetime totals and rates are kept
+     */
+    void clearHistory() {
+        for (LongAdder adder : inHistory) {
+            adder.reset();
+        }
+        deviceCounts.clear();
+    }
+
+    /**
+     * Number of commands of a type currently in the undo history
+     */
+    public long getHistoryCount(CommandType type) {
+        return inHistory[type.ordinal()].sum();
+    }
+
+    /**
+     * Number of commands executed for a device since the history was last cleared
+     */
+    public long getDeviceCount(String deviceId) {
+        LongAdder adder = deviceCounts.get(deviceId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public long getExecutedCount(CommandType type) {
+        return executed[type.ordinal()].sum();
+    }
+
+    public long getUndoneCount(CommandType type) {
+        return undone[type.ordinal()].sum();
+    }
+
+    public long getRedoneCount(CommandType type) {
+        return redone[type.ordinal()].sum();
+    }
+
+    /**
+     * Commands executed per second over the most recent window
+     * @param windowSeconds Window length (at most MAX_RATE_WINDOW_SECONDS)
+     */
+    public double getExecuteRate(int windowSeconds) {
+        return executeRate.rate(windowSeconds);
+    }
+
+    /**
+     * Commands of a type executed per second over the most recent window
+     * @param type The command type
+     * @param windowSeconds Window length (at most MAX_RATE_WINDOW_SECONDS)
+     */
+    public double getExecuteRate(CommandType type, int windowSeconds) {
+        return executeRateByType[type.ordinal()].rate(windowSeconds);
+    }
+
+    /**
+     * Copy the per-type history counts into a map (allocates; prefer getHistoryCount for polling)
+     */
+    public Map<CommandType, Integer> toHistoryMap() {
+        Map<CommandType, Integer> stats = new EnumMap<>(CommandType.class);
+        for (CommandType type : CommandType.values()) {
+            long count = inHistory[type.ordinal()].sum();
+            if (count > 0) {
+                stats.put(type, (int) count);
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CommandStatistics{inHistory=%s, rate1s=%.1f/s, rate60s=%.1f/s}",
+                toHistoryMap(), getExecuteRate(1), getExecuteRate(60));
+    }
+}
@@ -5,32 +5,47 @@ package edu.neu.csye7374.core.command;
  */
 public enum CommandType {
     // Basic device operations
-    TURN_ON("Turn On"),
-    TURN_OFF("Turn Off"),
-    TOGGLE("Toggle"),
+    TURN_ON("Turn On", false),
+    TURN_OFF("Turn Off", false),
+    TOGGLE("Toggle", false),
     
     // Light-specific operations
-    SET_BRIGHTNESS("Set Brightness"),
-    SET_COLOR("Set Color"),
-    DIM("Dim"),
-    BRIGHTEN("Brighten"),
+    SET_BRIGHTNESS("Set Brightness", true),
+    SET_COLOR("Set Color", true),
+    DIM("Dim", false),
+    BRIGHTEN("Brighten", false),
     
     // Thermostat-specific operations
-    SET_TARGET_TEMPERATURE("Set Target Temperature"),
-    SET_CURRENT_TEMPERATURE("Set Current Temperature"),
-    SET_MODE("Set Mode"),
+    SET_TARGET_TEMPERATURE("Set Target Temperature", true),
+    SET_CURRENT_TEMPERATURE("Set Current Temperature", true),
+    SET_MODE("Set Mode", true),
+    
+    // Schema-driven operations (any device property)
+    SET_PROPERTY("Set Property", true),
     
     // Advanced operations
-    RESET_TO_DEFAULT("Reset to Default"),
-    EMERGENCY_SHUTDOWN("Emergency Shutdown");
+    RESET_TO_DEFAULT("Reset to Default", true),
+    EMERGENCY_SHUTDOWN("Emergency Shutdown", false);
     
     private final String displayName;
+    private final boolean lastWriteWins;
     
-    CommandType(String displayName) {
+    CommandType(String displayName, boolean lastWriteWins) {
         this.displayName = displayName;
+        this.lastWriteWins = lastWriteWins;
     }
     
     public String getDisplayName() {
         return displayName;
     }
+    
+    /**
+     * True if the command sets an absolute value, so of two such commands in
+     * a row only the last one matters (relative ones like DIM accumulate).
+     * Power commands are false: they come from single clicks, not drags, and
+     * must apply at once so the next click sees the new state.
+     */
+    public boolean isLastWriteWins() {
+        return lastWriteWins;
+    }
 }
\ No newline at end of file
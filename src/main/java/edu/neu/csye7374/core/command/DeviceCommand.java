@@ -2,24 +2,49 @@ package edu.neu.csye7374.core.command;
 
 /**
  * Command interface for the Command pattern
- * Defines the contract for all device commands
+ * Defines the contract for all device commands. run() and revert() do the
+ * work and return a structured result; messages are only built on demand by
+ * describe(), so the per-command path does no string building.
  */
 public interface DeviceCommand {
     
+    /**
+     * Execute the command
+     * @return Structured result of the command execution
+     */
+    CommandResult run();
+    
+    /**
+     * Undo the command
+     * @return Structured result of the undo operation
+     */
+    CommandResult revert();
+    
+    /**
+     * Build the human-readable message for one of this command's results
+     * @param result A result returned by run() or revert()
+     * @return Result message
+     */
+    String describe(CommandResult result);
+    
     /**
      * Execute the command
      * @return Result message of the command execution
      */
-    String execute();
+    default String execute() {
+        return run().getMessage();
+    }
     
     /**
      * Undo the command
      * @return Result message of the undo operation
      */
-    String undo();
+    default String undo() {
+        return revert().getMessage();
+    }
     
     /**
-     * Get the command description
+     * Get the command description (built on each call)
      * @return Description of what the command does
      */
     String getDescription();
@@ -35,4 +60,17 @@ public interface DeviceCommand {
      * @return Type of command
      */
     CommandType getCommandType();
+    
+    /**
+     * Whether this command, not yet run, can be dropped in favour of a later
+     * one (see CommandCoalescer). By default: same device and the same
+     * last-write-wins command type.
+     * @param next The later command
+     * @return True if running only next gives the same end state
+     */
+    default boolean isSupersededBy(DeviceCommand next) {
+        return getCommandType().isLastWriteWins()
+                && next.getCommandType() == getCommandType()
+                && next.getDeviceId().equals(getDeviceId());
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package edu.neu.csye7374.core.command;
 
 import edu.neu.csye7374.core.memento.DeviceMemento;
+import edu.neu.csye7374.core.property.PropertySchema;
 
 /**
  * Receiver interface for the Command pattern
@@ -29,6 +30,11 @@ public interface DeviceReceiver {
     void setMode(String mode);
     String getMode();
     
+    // Schema-driven properties, available on every device type
+    PropertySchema getSchema();
+    Object getProperty(int slot);
+    boolean setProperty(int slot, Object value);
+    
     // Utility methods
     String getDeviceId();
     String getDeviceName();
@@ -9,24 +9,28 @@ public class LightCommands {
         private final int brightness;
         
         public SetBrightnessCommand(LightReceiver receiver, int brightness) {
-            super(receiver, CommandType.SET_BRIGHTNESS, 
-                  "Set brightness of " + receiver.getDeviceName() + " to " + brightness + "%");
+            super(receiver, CommandType.SET_BRIGHTNESS);
             this.brightness = brightness;
         }
         
         @Override
-        public String execute() {
+        public CommandResult run() {
             saveStateBeforeExecution();
             receiver.setBrightness(brightness);
-            return receiver.getDeviceName() + " brightness set to " + brightness + "%";
+            return CommandResult.executed(this, CommandResult.Status.OK, brightness);
         }
         
         @Override
-        public String undo() {
-            if (restoreStateBeforeExecution()) {
-                return "Undid brightness change for " + receiver.getDeviceName();
+        public String describe(CommandResult result) {
+            if (result.isUndo()) {
+                return describeUndo(result, "brightness change");
             }
-            return "Cannot undo brightness change for " + receiver.getDeviceName();
+            return receiver.getDeviceName() + " brightness set to " + brightness + "%";
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Set brightness of " + receiver.getDeviceName() + " to " + brightness + "%";
         }
     }
     
@@ -34,24 +38,28 @@ public class LightCommands {
         private final String color;
         
         public SetColorCommand(LightReceiver receiver, String color) {
-            super(receiver, CommandType.SET_COLOR, 
-                  "Set color of " + receiver.getDeviceName() + " to " + color);
+            super(receiver, CommandType.SET_COLOR);
             this.color = color;
         }
         
         @Override
-        public String execute() {
+        public CommandResult run() {
             saveStateBeforeExecution();
             receiver.setColor(color);
-            return receiver.getDeviceName() + " color set to " + color;
+            return CommandResult.executed(this, CommandResult.Status.OK, color);
         }
         
         @Override
-        public String undo() {
-            if (restoreStateBeforeExecution()) {
-                return "Undid color change for " + receiver.getDeviceName();
+        public String describe(CommandResult result) {
+            if (result.isUndo()) {
+                return describeUndo(result, "color change");
             }
-            return "Cannot undo color change for " + receiver.getDeviceName();
+            return receiver.getDeviceName() + " color set to " + color;
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Set color of " + receiver.getDeviceName() + " to " + color;
         }
     }
     
@@ -59,24 +67,28 @@ public class LightCommands {
         private final int dimAmount;
         
         public DimCommand(LightReceiver receiver, int dimAmount) {
-            super(receiver, CommandType.DIM, 
-                  "Dim " + receiver.getDeviceName() + " by " + dimAmount + "%");
+            super(receiver, CommandType.DIM);
             this.dimAmount = dimAmount;
         }
         
         @Override
-        public String execute() {
+        public CommandResult run() {
             saveStateBeforeExecution();
             receiver.dim(dimAmount);
-            return receiver.getDeviceName() + " dimmed to " + receiver.getBrightness() + "%";
+            return CommandResult.executed(this, CommandResult.Status.OK, receiver.getBrightness());
         }
         
         @Override
-        public String undo() {
-            if (restoreStateBeforeExecution()) {
-                return "Undid dim operation for " + receiver.getDeviceName();
+        public String describe(CommandResult result) {
+            if (result.isUndo()) {
+                return describeUndo(result, "dim operation");
             }
-            return "Cannot undo dim operation for " + receiver.getDeviceName();
+            return receiver.getDeviceName() + " dimmed to " + result.getValue() + "%";
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Dim " + receiver.getDeviceName() + " by " + dimAmount + "%";
         }
     }
     
@@ -84,24 +96,28 @@ public class LightCommands {
         private final int brightenAmount;
         
         public BrightenCommand(LightReceiver receiver, int brightenAmount) {
-            super(receiver, CommandType.BRIGHTEN, 
-                  "Brighten " + receiver.getDeviceName() + " by " + brightenAmount + "%");
+            super(receiver, CommandType.BRIGHTEN);
             this.brightenAmount = brightenAmount;
         }
         
         @Override
-        public String execute() {
+        public CommandResult run() {
             saveStateBeforeExecution();
             receiver.brighten(brightenAmount);
-            return receiver.getDeviceName() + " brightened to " + receiver.getBrightness() + "%";
+            return CommandResult.executed(this, CommandResult.Status.OK, receiver.getBrightness());
         }
         
         @Override
-        public String undo() {
-            if (restoreStateBeforeExecution()) {
-                return "Undid brighten operation for " + receiver.getDeviceName();
+        public String describe(CommandResult result) {
+            if (result.isUndo()) {
+                return describeUndo(result, "brighten operation");
             }
-            return "Cannot undo brighten operation for " + receiver.getDeviceName();
+            return receiver.getDeviceName() + " brightened to " + result.getValue() + "%";
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Brighten " + receiver.getDeviceName() + " by " + brightenAmount + "%";
         }
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package edu.neu.csye7374.core.command;
 import edu.neu.csye7374.devices.concrete.Light;
 import edu.neu.csye7374.devices.concrete.LightColor;
 import edu.neu.csye7374.core.memento.DeviceMemento;
+import edu.neu.csye7374.core.property.PropertySchema;
 
 /**
  * Light receiver that implements DeviceReceiver interface
@@ -129,33 +130,35 @@ public class LightReceiver implements DeviceReceiver {
         return light.getCurrentState();
     }
     
+    // Schema-driven properties
+    @Override
+    public PropertySchema getSchema() {
+        return light.getSchema();
+    }
+    
+    @Override
+    public Object getProperty(int slot) {
+        return light.getProperty(slot);
+    }
+    
+    @Override
+    public boolean setProperty(int slot, Object value) {
+        return light.setProperty(slot, value);
+    }
+    
     // Getter for the underlying light device
     public Light getLight() {
         return light;
     }
 
-        // Memento methods
-        @Override
-        public DeviceMemento saveState() {
-            DeviceMemento memento = light.saveState();
-            // Add light-specific state
-            memento.setDeviceSpecificState("brightness", light.getBrightness());
-            memento.setDeviceSpecificState("color", light.getColor()); // Store as LightColor enum, not String
-            return memento;
-        }
-        
-        @Override
-        public void restoreState(DeviceMemento memento) {
-            light.restoreState(memento);
-            // Restore light-specific state only if values are different
-            Integer brightness = memento.getBrightness();
-            LightColor color = memento.getColor();
-            
-            if (brightness != null && brightness != light.getBrightness()) {
-                light.setBrightness(brightness);
-            }
-            if (color != null && !color.equals(light.getColor())) {
-                light.setColor(color);
-            }
-        }
-}
\ No newline at end of file
+    // Memento methods; the device memento carries brightness and color in its property slots
+    @Override
+    public DeviceMemento saveState() {
+        return light.saveState();
+    }
+    
+    @Override
+    public void restoreState(DeviceMemento memento) {
+        light.restoreState(memento);
+    }
+}
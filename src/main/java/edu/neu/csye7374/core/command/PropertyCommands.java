@@ -0,0 +1,72 @@
+package edu.neu.csye7374.core.command;
+
+import edu.neu.csye7374.core.property.PropertyDescriptor;
+
+/**
+ * Schema-driven commands that work for any device property
+ */
+public class PropertyCommands {
+    
+    public static class SetPropertyCommand extends AbstractCommand {
+        private final PropertyDescriptor property;
+        private final Object value;
+        
+        /**
+         * @param slot Property slot in the receiver's schema
+         * @param value Value of the property's kind (Number, enum constant or enum name)
+         */
+        public SetPropertyCommand(DeviceReceiver receiver, int slot, Object value) {
+            this(receiver, receiver.getSchema().get(slot), value);
+        }
+        
+        private SetPropertyCommand(DeviceReceiver receiver, PropertyDescriptor property, Object value) {
+            super(receiver, CommandType.SET_PROPERTY);
+            this.property = property;
+            this.value = value;
+        }
+        
+        /**
+         * REJECTED with the requested value if it is out of range, otherwise
+         * OK with the value the device now reports
+         */
+        @Override
+        public CommandResult run() {
+            saveStateBeforeExecution();
+            if (!receiver.setProperty(property.getSlot(), value)) {
+                return CommandResult.executed(this, CommandResult.Status.REJECTED, value);
+            }
+            return CommandResult.executed(this, CommandResult.Status.OK, receiver.getProperty(property.getSlot()));
+        }
+        
+        @Override
+        public String describe(CommandResult result) {
+            if (result.isUndo()) {
+                return describeUndo(result, property.getLabel() + " change");
+            }
+            if (result.getStatus() == CommandResult.Status.REJECTED) {
+                return receiver.getDeviceName() + " " + property.getLabel() + " out of range: " + result.getValue();
+            }
+            return receiver.getDeviceName() + " " + property.getLabel() + " set to "
+                    + result.getValue() + property.getUnit();
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Set " + property.getLabel() + " of " + receiver.getDeviceName() + " to " + value;
+        }
+        
+        /**
+         * Only a later write to the same property supersedes this one
+         */
+        @Override
+        public boolean isSupersededBy(DeviceCommand next) {
+            return next instanceof SetPropertyCommand
+                    && ((SetPropertyCommand) next).property.getSlot() == property.getSlot()
+                    && next.getDeviceId().equals(getDeviceId());
+        }
+        
+        public PropertyDescriptor getProperty() {
+            return property;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package edu.neu.csye7374.core.command;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceTypeRegistry;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.devices.concrete.LightColor;
+import edu.neu.csye7374.devices.concrete.Thermostat;
+import edu.neu.csye7374.devices.concrete.ThermostatMode;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Headless DeviceCommandFactory that caches one receiver per device.
+ * Lets code outside the JavaFX controller build undoable commands.
+ */
+public class ReceiverCommandFactory implements DeviceCommandFactory {
+
+    private final Map<String, DeviceReceiver> receivers = new ConcurrentHashMap<>();
+
+    /**
+     * Get (or create) the receiver for a device; receivers come from the
+     * device type's provider in the DeviceTypeRegistry
+     * @param device The device to adapt
+     * @return The receiver, or null if the device type has no receiver
+     */
+    public DeviceReceiver getReceiver(IDevice device) {
+        return receivers.computeIfAbsent(device.getId(), id -> DeviceTypeRegistry.getInstance().createReceiver(device));
+    }
+
+    public LightReceiver getLightReceiver(Light light) {
+        return (LightReceiver) getReceiver(light);
+    }
+
+    public ThermostatReceiver getThermostatReceiver(Thermostat thermostat) {
+        return (ThermostatReceiver) getReceiver(thermostat);
+    }
+
+    /**
+     * Drop the cached receiver for a removed device
+     * @param deviceId The device ID
+     */
+    public void removeReceiver(String deviceId) {
+        receivers.remove(deviceId);
+    }
+
+    @Override
+    public DeviceCommand createTurnOnCommand(IDevice device) {
+        DeviceReceiver receiver = getReceiver(device);
+        return receiver != null ? new BasicCommands.TurnOnCommand(receiver) : null;
+    }
+
+    @Override
+    public DeviceCommand createTurnOffCommand(IDevice device) {
+        DeviceReceiver receiver = getReceiver(device);
+        return receiver != null ? new BasicCommands.TurnOffCommand(receiver) : null;
+    }
+
+    /**
+     * Create a toggle command for a device
+     */
+    public DeviceCommand createToggleCommand(IDevice device) {
+        DeviceReceiver receiver = getReceiver(device);
+        return receiver != null ? new BasicCommands.ToggleCommand(receiver) : null;
+    }
+
+    /**
+     * Create a command that sets any property in the device's schema
+     * @return The command, or null if the device has no receiver or no such property
+     */
+    public DeviceCommand createSetPropertyCommand(IDevice device, String property, Object value) {
+        DeviceReceiver receiver = getReceiver(device);
+        int slot = device.getSchema().slotOf(property);
+        return receiver != null && slot >= 0 ? new PropertyCommands.SetPropertyCommand(receiver, slot, value) : null;
+    }
+
+    @Override
+    public DeviceCommand createSetBrightnessCommand(Light light, Integer brightness) {
+        return new LightCommands.SetBrightnessCommand(getLightReceiver(light), brightness);
+    }
+
+    @Override
+    public DeviceCommand createSetColorCommand(Light light, LightColor color) {
+        return new LightCommands.SetColorCommand(getLightReceiver(light), color.toString());
+    }
+
+    @Override
+    public DeviceCommand createSetTargetTemperatureCommand(Thermostat thermostat, Double temperature) {
+        return new ThermostatCommands.SetTargetTemperatureCommand(getThermostatReceiver(thermostat), temperature);
+    }
+
+    @Override
+    public DeviceCommand createSetModeCommand(Thermostat thermostat, ThermostatMode mode) {
+        return new ThermostatCommands.SetModeCommand(getThermostatReceiver(thermostat), mode.toString());
+    }
+}
@@ -0,0 +1,120 @@
+package edu.neu.csye7374.core.command;
+
+import edu.neu.csye7374.core.factory.DeviceFactory;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.metrics.LatencyHistogram;
+import edu.neu.csye7374.core.observer.ObserverRouter;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Interactive latency under a bulk flood. A producer thread queues bulk
+ * brightness commands as fast as the scheduler accepts them while the main
+ * thread sends one interactive toggle every couple of milliseconds and waits
+ * for it; early on, one emergency shutdown is sent instead. Run once with
+ * every command in a single lane (arrival order) and once with lanes.
+ * Options: lights=1000 bulk=300000 interactive=300 intervalMillis=2
+ */
+public class SchedulerBenchmark {
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "lights", "bulk", "interactive", "intervalMillis");
+        int lights = options.get("lights", 1000, 1);
+        int bulk = options.get("bulk", 300_000, 1);
+        int interactive = options.get("interactive", 300, 2);
+        int intervalMillis = options.get("intervalMillis", 2, 0);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        LightReceiver[] receivers = new LightReceiver[lights];
+        try {
+            for (int i = 0; i < lights; i++) {
+                receivers[i] = new LightReceiver((Light) DeviceFactory.createDevice(
+                        DeviceType.LIGHT, "bench_light_" + i, "Light " + i));
+            }
+            out.println("\n=== COMMAND SCHEDULER BENCHMARK ===");
+            out.printf("%,d lights, %,d bulk commands, %,d interactive commands every %d ms, 1 emergency%n",
+                    lights, bulk, interactive, intervalMillis);
+            // Warm up both modes, then measure
+            flood(null, receivers, Math.min(bulk, 50_000), Math.min(interactive, 50), intervalMillis, false);
+            flood(null, receivers, Math.min(bulk, 50_000), Math.min(interactive, 50), intervalMillis, true);
+            flood(out, receivers, bulk, interactive, intervalMillis, false);
+            flood(out, receivers, bulk, interactive, intervalMillis, true);
+        } finally {
+            ObserverRouter router = ObserverRouter.getInstance();
+            for (LightReceiver receiver : receivers) {
+                if (receiver != null) {
+                    router.removeDevice(receiver.getDeviceId());
+                }
+            }
+            quiet.close();
+        }
+    }
+
+    private static void flood(PrintStream out, LightReceiver[] receivers, int bulk, int interactive,
+                              int intervalMillis, boolean lanes) {
+        CommandManager manager = new CommandManager();
+        manager.setLogging(false);
+        LatencyHistogram latency = new LatencyHistogram("interactive");
+        long emergencyNanos = 0;
+        CommandResult emergencyResult = null;
+        long start = System.nanoTime();
+        long bulkNanos;
+        String summary;
+        try (CommandScheduler scheduler = new CommandScheduler(manager)) {
+            CommandScheduler.Lane bulkLane = CommandScheduler.Lane.BULK;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < bulk; i++) {
+                    scheduler.submit(new LightCommands.SetBrightnessCommand(receivers[i % receivers.length], i % 101),
+                            bulkLane);
+                }
+            }, "bulk-producer");
+            producer.start();
+            Random random = new Random(7);
+            for (int i = 0; i < interactive && producer.isAlive(); i++) {
+                LightReceiver receiver = receivers[random.nextInt(receivers.length)];
+                long sent = System.nanoTime();
+                if (i == Math.min(10, interactive / 2)) {
+                    DeviceCommand shutdown = new BasicCommands.EmergencyShutdownCommand(receivers[0]);
+                    emergencyResult = scheduler.submit(shutdown, lanes ? CommandScheduler.Lane.EMERGENCY : bulkLane).join();
+                    emergencyNanos = System.nanoTime() - sent;
+                    continue;
+                }
+                CompletableFuture<CommandResult> result = scheduler.submit(new BasicCommands.ToggleCommand(receiver),
+                        lanes ? CommandScheduler.Lane.INTERACTIVE : bulkLane);
+                result.join();
+                latency.recordSince(sent);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(intervalMillis));
+            }
+            join(producer);
+            summary = scheduler.toString();
+        }
+        bulkNanos = System.nanoTime() - start;
+        if (out == null) {
+            return;
+        }
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        out.printf("%-8s interactive p50 %,8.2f ms  p99 %,8.2f ms  max %,8.2f ms (%d sent)  emergency %,8.2f ms%s"
+                        + "  bulk %,.0f commands/s%n",
+                lanes ? "Lanes" : "One lane", snapshot.getP50() / 1e6, snapshot.getP99() / 1e6,
+                snapshot.getMaxNanos() / 1e6, snapshot.getCount(), emergencyNanos / 1e6,
+                emergencyResult != null && emergencyResult.isOk() ? "" : " (not run)",
+                bulk / (bulkNanos / 1e9));
+        out.println("         " + summary);
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
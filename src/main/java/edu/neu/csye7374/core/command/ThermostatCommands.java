@@ -9,32 +9,36 @@ public class ThermostatCommands {
         private final ThermostatReceiver receiver;
         private final double temperature;
         private final CommandType commandType;
-        private final String description;
         private double previousTemperature;
         
         public SetTargetTemperatureCommand(ThermostatReceiver receiver, double temperature) {
             this.receiver = receiver;
             this.temperature = temperature;
             this.commandType = CommandType.SET_TARGET_TEMPERATURE;
-            this.description = "Set target temperature of " + receiver.getDeviceName() + " to " + temperature + "°F";
         }
         
         @Override
-        public String execute() {
+        public CommandResult run() {
             this.previousTemperature = receiver.getTargetTemperature();
             receiver.setTargetTemperature(temperature);
-            return receiver.getDeviceName() + " target temperature set to " + temperature + "°F";
+            return CommandResult.executed(this, CommandResult.Status.OK, temperature);
         }
         
         @Override
-        public String undo() {
+        public CommandResult revert() {
             receiver.setTargetTemperature(previousTemperature);
-            return receiver.getDeviceName() + " target temperature restored to " + previousTemperature + "°F";
+            return CommandResult.undone(this, CommandResult.Status.OK, previousTemperature);
+        }
+        
+        @Override
+        public String describe(CommandResult result) {
+            return receiver.getDeviceName() + " target temperature " + (result.isUndo() ? "restored" : "set")
+                    + " to " + result.getValue() + "°F";
         }
         
         @Override
         public String getDescription() {
-            return description;
+            return "Set target temperature of " + receiver.getDeviceName() + " to " + temperature + "°F";
         }
         
         @Override
@@ -52,32 +56,36 @@ public class ThermostatCommands {
         private final ThermostatReceiver receiver;
         private final String mode;
         private final CommandType commandType;
-        private final String description;
         private String previousMode;
         
         public SetModeCommand(ThermostatReceiver receiver, String mode) {
             this.receiver = receiver;
             this.mode = mode;
             this.commandType = CommandType.SET_MODE;
-            this.description = "Set mode of " + receiver.getDeviceName() + " to " + mode;
         }
         
         @Override
-        public String execute() {
+        public CommandResult run() {
             this.previousMode = receiver.getMode();
             receiver.setMode(mode);
-            return receiver.getDeviceName() + " mode set to " + mode;
+            return CommandResult.executed(this, CommandResult.Status.OK, mode);
         }
         
         @Override
-        public String undo() {
+        public CommandResult revert() {
             receiver.setMode(previousMode);
-            return receiver.getDeviceName() + " mode restored to " + previousMode;
+            return CommandResult.undone(this, CommandResult.Status.OK, previousMode);
+        }
+        
+        @Override
+        public String describe(CommandResult result) {
+            return receiver.getDeviceName() + " mode " + (result.isUndo() ? "restored" : "set")
+                    + " to " + result.getValue();
         }
         
         @Override
         public String getDescription() {
-            return description;
+            return "Set mode of " + receiver.getDeviceName() + " to " + mode;
         }
         
         @Override
@@ -3,6 +3,7 @@ package edu.neu.csye7374.core.command;
 import edu.neu.csye7374.devices.concrete.Thermostat;
 import edu.neu.csye7374.devices.concrete.ThermostatMode;
 import edu.neu.csye7374.core.memento.DeviceMemento;
+import edu.neu.csye7374.core.property.PropertySchema;
 
 /**
  * Thermostat receiver that implements DeviceReceiver interface
@@ -125,38 +126,35 @@ public class ThermostatReceiver implements DeviceReceiver {
         return thermostat.getCurrentState();
     }
     
+    // Schema-driven properties
+    @Override
+    public PropertySchema getSchema() {
+        return thermostat.getSchema();
+    }
+    
+    @Override
+    public Object getProperty(int slot) {
+        return thermostat.getProperty(slot);
+    }
+    
+    @Override
+    public boolean setProperty(int slot, Object value) {
+        return thermostat.setProperty(slot, value);
+    }
+    
     // Getter for the underlying thermostat device
     public Thermostat getThermostat() {
         return thermostat;
     }
 
-    // Memento methods
+    // Memento methods; the device memento carries temperatures and mode in its property slots
     @Override
     public DeviceMemento saveState() {
-        DeviceMemento memento = thermostat.saveState();
-        // Add thermostat-specific state
-        memento.setDeviceSpecificState("currentTemperature", thermostat.getCurrentTemperature());
-        memento.setDeviceSpecificState("targetTemperature", thermostat.getTargetTemperature());
-        memento.setDeviceSpecificState("mode", thermostat.getMode()); // Store as ThermostatMode enum, not String
-        return memento;
+        return thermostat.saveState();
     }
     
     @Override
     public void restoreState(DeviceMemento memento) {
         thermostat.restoreState(memento);
-        // Restore thermostat-specific state
-        Double currentTemp = memento.getCurrentTemperature();
-        Double targetTemp = memento.getTargetTemperature();
-        ThermostatMode mode = memento.getThermostatMode();
-        
-        if (currentTemp != null && !currentTemp.equals(thermostat.getCurrentTemperature())) {
-            thermostat.setCurrentTemperature(currentTemp);
-        }
-        if (targetTemp != null && !targetTemp.equals(thermostat.getTargetTemperature())) {
-            thermostat.setTargetTemperature(targetTemp);
-        }
-        if (mode != null && !mode.equals(thermostat.getMode())) {
-            thermostat.setMode(mode);
-        }
     }
-}
\ No newline at end of file
+}
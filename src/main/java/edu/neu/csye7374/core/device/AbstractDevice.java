@@ -1,50 +1,53 @@
 package edu.neu.csye7374.core.device;
 
 import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
 import edu.neu.csye7374.core.observer.DeviceObserver;
+import edu.neu.csye7374.core.observer.ObserverRouter;
 import edu.neu.csye7374.core.memento.DeviceMemento;
-import edu.neu.csye7374.devices.state.DeviceState;
-import edu.neu.csye7374.devices.state.OnState;
-import edu.neu.csye7374.devices.state.OffState;
+import edu.neu.csye7374.core.property.PropertyDescriptor;
+import edu.neu.csye7374.core.property.PropertyKind;
+import edu.neu.csye7374.core.property.PropertySchema;
+import edu.neu.csye7374.core.property.PropertyStore;
+import edu.neu.csye7374.devices.state.PowerState;
 import edu.neu.csye7374.flyweight.DeviceFlyweightFactory;
 import edu.neu.csye7374.flyweight.DeviceFlyweightFactory.DeviceFlyweight;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-
 /**
  * Abstract base class for all devices
  * Implements Observer, Memento, and Prototype patterns
  */
 public abstract class AbstractDevice implements IDevice {
     
-    // Device properties
-    protected final String id;
-    protected final String name;
+    // Device properties; not final because a recycled device takes a new identity (see reuse())
+    protected String id;
+    protected String name;
     protected final DeviceType type;
     
-    // State management
-    protected DeviceState currentState;
-    protected boolean isOn;
-    protected String state;
+    // State management; volatile so readers on other threads see the latest
+    // write (writes are serialized by the caller or by a DeviceActor)
+    protected volatile PowerState powerState;
+    
+    // Type-specific properties, one slot per schema entry
+    protected final PropertySchema schema;
+    protected PropertyStore properties;
     
-    // Observer pattern
-    protected final List<DeviceObserver> observers = new CopyOnWriteArrayList<>();
+    // Observer pattern: subscriptions live in the shared router, keyed by device ID
+    private static final ObserverRouter ROUTER = ObserverRouter.getInstance();
     
     // Flyweight pattern
     protected final DeviceFlyweight flyweight;
     
-    // State objects
-    protected final OnState onState = new OnState();
-    protected final OffState offState = new OffState();
+    // Recycling protocol: true while the device sits in a DevicePool
+    private boolean scrubbed;
     
     public AbstractDevice(String id, String name, DeviceType type) {
         this.id = id;
         this.name = name;
         this.type = type;
-        this.isOn = false;
-        this.state = "OFF";
-        this.currentState = offState;
+        this.powerState = PowerState.OFF;
+        this.schema = PropertySchema.forType(type);
+        this.properties = schema.newStore();
         
         // Get flyweight for this device type
         this.flyweight = DeviceFlyweightFactory.getFlyweight(type);
@@ -61,58 +64,122 @@ public abstract class AbstractDevice implements IDevice {
     public DeviceType getType() { return type; }
     
     @Override
-    public boolean isOn() { return isOn; }
+    public boolean isOn() { return powerState.isOn(); }
     
     @Override
     public void turnOn() {
-        currentState.turnOn(this);
-        // Note: State change notification is handled by setState() called from state classes
+        powerState.getBehavior().turnOn(this);
+        // Note: State change notification is handled by setPowerState() called from state classes
     }
     
     @Override
     public void turnOff() {
-        currentState.turnOff(this);
-        // Note: State change notification is handled by setState() called from state classes
+        powerState.getBehavior().turnOff(this);
+        // Note: State change notification is handled by setPowerState() called from state classes
     }
     
     @Override
     public void toggle() {
-        currentState.toggle(this);
+        powerState.getBehavior().toggle(this);
     }
     
     @Override
-    public String getCurrentState() { return state; }
+    public PowerState getPowerState() { return powerState; }
+    
+    @Override
+    public void setPowerState(PowerState state) {
+        PowerState oldState = this.powerState;
+        this.powerState = state;
+        notifyObservers(oldState, state);
+    }
     
     @Override
-    public void setState(String state) {
-        String oldState = this.state;
-        this.state = state;
-        this.isOn = "ON".equals(state);
-        this.currentState = this.isOn ? onState : offState;
-        notifyObservers(oldState, this.state);
+    public void initPowerState(PowerState state) {
+        this.powerState = state;
+    }
+    
+    // Schema-driven properties
+    @Override
+    public PropertySchema getSchema() { return schema; }
+    
+    @Override
+    public Object getProperty(int slot) {
+        return schema.get(slot).decode(properties.get(slot));
+    }
+    
+    @Override
+    public double getNumericProperty(int slot) {
+        return schema.get(slot).toDouble(properties.get(slot));
+    }
+    
+    @Override
+    public boolean setProperty(int slot, Object value) {
+        return setRawProperty(slot, schema.get(slot).encode(value));
+    }
+    
+    @Override
+    public boolean initProperty(int slot, long raw) {
+        if (!schema.get(slot).accepts(raw)) {
+            return false;
+        }
+        properties.set(slot, raw);
+        return true;
+    }
+    
+    /**
+     * Set a property from its packed value; the path every typed setter takes
+     * @return false if the value is out of range
+     */
+    protected boolean setRawProperty(int slot, long raw) {
+        PropertyDescriptor descriptor = schema.get(slot);
+        if (!descriptor.accepts(raw)) {
+            return false;
+        }
+        long oldRaw = properties.set(slot, raw);
+        System.out.println(name + " " + descriptor.getLabel() + (descriptor.isReading() ? " is " : " set to ")
+                + descriptor.format(raw));
+        if (!descriptor.isReading() || oldRaw != raw) {
+            notifyPropertyChange(descriptor, oldRaw, raw);
+        }
+        return true;
+    }
+    
+    private void notifyPropertyChange(PropertyDescriptor descriptor, long oldRaw, long newRaw) {
+        if (descriptor.getKind() == PropertyKind.INT) {
+            notifyPropertyChange(descriptor.getName(), (int) oldRaw, (int) newRaw);
+        } else if (descriptor.getKind() == PropertyKind.DOUBLE) {
+            notifyPropertyChange(descriptor.getName(), descriptor.toDouble(oldRaw), descriptor.toDouble(newRaw));
+        } else {
+            notifyPropertyChange(descriptor.getName(), descriptor.decode(oldRaw), descriptor.decode(newRaw));
+        }
     }
     
     // Observer pattern implementation
     @Override
     public void addObserver(DeviceObserver observer) {
-        if (observer != null && !observers.contains(observer)) {
-            observers.add(observer);
-        }
+        ROUTER.subscribe(id, observer);
     }
     
     @Override
     public void removeObserver(DeviceObserver observer) {
-        observers.remove(observer);
+        ROUTER.unsubscribe(id, observer);
     }
     
     @Override
     public void notifyObservers() {
-        notifyObservers(null, this.state);
+        notifyObservers(null, this.powerState);
     }
     
-    protected void notifyObservers(String oldState, String newState) {
-        for (DeviceObserver observer : observers) {
-            observer.onDeviceStateChanged(this, oldState, newState);
+    protected void notifyObservers(PowerState oldState, PowerState newState) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (DeviceObserver observer : ROUTER.observersFor(this)) {
+            if (metrics.isEnabled()) {
+                long start = System.nanoTime();
+                observer.onDevicePowerStateChanged(this, oldState, newState);
+                metrics.observerTimer(observer.getObserverName()).recordSince(start);
+            } else {
+                observer.onDevicePowerStateChanged(this, oldState, newState);
+            }
         }
     }
 
@@ -123,25 +190,92 @@ public abstract class AbstractDevice implements IDevice {
      * @param newValue The new value
      */
     protected void notifyPropertyChange(String propertyName, Object oldValue, Object newValue) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (DeviceObserver observer : ROUTER.observersFor(this)) {
+            if (metrics.isEnabled()) {
+                long start = System.nanoTime();
+                observer.onDevicePropertyChanged(this, propertyName, oldValue, newValue);
+                metrics.observerTimer(observer.getObserverName()).recordSince(start);
+            } else {
+                observer.onDevicePropertyChanged(this, propertyName, oldValue, newValue);
+            }
+        }
+    }
+    
+    /**
+     * Notify observers of an integer property change.
+     * Numeric observers get the raw values; others get them boxed as Integer.
+     */
+    protected void notifyPropertyChange(String propertyName, int oldValue, int newValue) {
+        DeviceObserver[] observers = ROUTER.observersFor(this);
+        if (observers.length > 0) {
+            notifyNumericPropertyChange(observers, propertyName, oldValue, newValue, oldValue, newValue);
+        }
+    }
+    
+    /**
+     * Notify observers of a decimal property change.
+     * Numeric observers get the raw values; others get them boxed as Double.
+     */
+    protected void notifyPropertyChange(String propertyName, double oldValue, double newValue) {
+        DeviceObserver[] observers = ROUTER.observersFor(this);
+        if (observers.length > 0) {
+            notifyNumericPropertyChange(observers, propertyName, oldValue, newValue, oldValue, newValue);
+        }
+    }
+    
+    private void notifyNumericPropertyChange(DeviceObserver[] observers, String propertyName,
+                                             double oldNumber, double newNumber, Object oldValue, Object newValue) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
         for (DeviceObserver observer : observers) {
-            observer.onDevicePropertyChanged(this, propertyName, oldValue, newValue);
+            if (metrics.isEnabled()) {
+                long start = System.nanoTime();
+                observer.onDeviceNumericPropertyChanged(this, propertyName, oldNumber, newNumber);
+                observer.onDevicePropertyChanged(this, propertyName, oldValue, newValue);
+                metrics.observerTimer(observer.getObserverName()).recordSince(start);
+            } else {
+                observer.onDeviceNumericPropertyChanged(this, propertyName, oldNumber, newNumber);
+                observer.onDevicePropertyChanged(this, propertyName, oldValue, newValue);
+            }
+        }
+    }
+    
+    /**
+     * Notify observers of a batch of sensor samples for one property
+     */
+    protected void notifySamples(String propertyName, double previous, double[] samples, int offset, int length) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (DeviceObserver observer : ROUTER.observersFor(this)) {
+            if (metrics.isEnabled()) {
+                long start = System.nanoTime();
+                observer.onSensorSamples(this, propertyName, previous, samples, offset, length);
+                metrics.observerTimer(observer.getObserverName()).recordSince(start);
+            } else {
+                observer.onSensorSamples(this, propertyName, previous, samples, offset, length);
+            }
         }
     }
     
     // Memento pattern implementation
     @Override
     public DeviceMemento saveState() {
-        return new DeviceMemento(id, name, type, isOn, state);
+        return new DeviceMemento(id, name, type, powerState, properties.snapshot());
     }
     
     @Override
     public void restoreState(DeviceMemento memento) {
         if (memento != null && memento.getDeviceId().equals(this.id)) {
-            String oldState = this.state;
-            this.isOn = memento.isOn();
-            this.state = memento.getState();
-            this.currentState = this.isOn ? onState : offState;
-            notifyObservers(oldState, this.state);
+            PowerState oldState = this.powerState;
+            this.powerState = memento.getPowerState();
+            notifyObservers(oldState, this.powerState);
+            long[] saved = memento.getProperties();
+            if (saved != null && saved.length == properties.size()) {
+                for (int slot = 0; slot < saved.length; slot++) {
+                    if (saved[slot] != properties.get(slot)) {
+                        setRawProperty(slot, saved[slot]);
+                    }
+                }
+            }
         }
     }
     
@@ -149,15 +283,52 @@ public abstract class AbstractDevice implements IDevice {
     @Override
     public IDevice clone() {
         try {
-            AbstractDevice cloned = (AbstractDevice) super.clone();
-            // Reset observers for cloned device
-            cloned.observers.clear();
-            return cloned;
+            // The clone keeps the ID, so it reaches the same subscribers,
+            // but gets its own copy of the property values
+            AbstractDevice copy = (AbstractDevice) super.clone();
+            copy.properties = properties.copy();
+            return copy;
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException("Clone not supported", e);
         }
     }
     
+    // Recycling protocol (see DevicePool)
+    /**
+     * Scrub a deleted device for reuse: power off, default properties and
+     * whatever onReset() clears. Called by the pool, under its lock, when the
+     * device is released; only for devices nothing else references any more.
+     * @return false if the device was already scrubbed (released twice)
+     */
+    public final boolean scrub() {
+        if (scrubbed) {
+            return false;
+        }
+        this.powerState = PowerState.OFF;
+        schema.resetStore(properties);
+        onReset();
+        this.scrubbed = true;
+        return true;
+    }
+    
+    /**
+     * Give a scrubbed device its new identity, as if just constructed
+     */
+    public final void reuse(String id, String name) {
+        if (!scrubbed) {
+            throw new IllegalStateException("Device is in use: " + this.id);
+        }
+        this.id = id;
+        this.name = name;
+        this.scrubbed = false;
+    }
+    
+    /**
+     * Hook for scrub(): reset type-specific state to what the constructor sets
+     */
+    protected void onReset() {
+    }
+    
     // Flyweight pattern - get shared data
     public DeviceFlyweight getFlyweight() {
         return flyweight;
@@ -166,6 +337,6 @@ public abstract class AbstractDevice implements IDevice {
     @Override
     public String toString() {
         return String.format("%s{id=%s, name=%s, type=%s, state=%s, on=%s}", 
-                           getClass().getSimpleName(), id, name, type, state, isOn);
+                           getClass().getSimpleName(), id, name, type, powerState, powerState.isOn());
     }
 } 
@@ -3,6 +3,8 @@ package edu.neu.csye7374.core.device;
 import edu.neu.csye7374.core.factory.DeviceType;
 import edu.neu.csye7374.core.observer.DeviceObserver;
 import edu.neu.csye7374.core.memento.DeviceMemento;
+import edu.neu.csye7374.core.property.PropertySchema;
+import edu.neu.csye7374.devices.state.PowerState;
 
 /**
  * Core interface for all smart home devices
@@ -28,10 +30,49 @@ public interface IDevice extends Cloneable {
     DeviceMemento saveState();
     void restoreState(DeviceMemento memento);
     
+    // Schema-driven properties, addressed by slot (see getSchema().slotOf(name))
+    PropertySchema getSchema();
+    Object getProperty(int slot);
+    double getNumericProperty(int slot);
+    
+    /**
+     * Set a property from a value of its kind (Number, enum constant or enum name)
+     * @return false if the value is out of range
+     * @throws IllegalArgumentException if the value does not fit the property's kind
+     */
+    boolean setProperty(int slot, Object value);
+    
+    /**
+     * Seed a property from its packed value (see PropertyDescriptor) before the
+     * device is registered; nothing is logged and observers are not notified
+     * @return false if the value is out of range
+     */
+    boolean initProperty(int slot, long raw);
+    
     // Prototype pattern methods
     IDevice clone();
     
     // State management
-    String getCurrentState();
-    void setState(String state);
+    PowerState getPowerState();
+    void setPowerState(PowerState state);
+    
+    /**
+     * Seed the power state before the device is registered, without notifying observers
+     */
+    void initPowerState(PowerState state);
+    
+    /**
+     * Power state label ("ON"/"OFF")
+     */
+    default String getCurrentState() {
+        return getPowerState().getLabel();
+    }
+    
+    /**
+     * Set the power state from its label
+     * @throws IllegalArgumentException if the label names no power state
+     */
+    default void setState(String state) {
+        setPowerState(PowerState.fromLabel(state));
+    }
 } 
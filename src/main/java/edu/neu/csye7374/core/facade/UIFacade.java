@@ -1,19 +1,33 @@
 package edu.neu.csye7374.core.facade;
 
+import edu.neu.csye7374.core.actor.DeviceActor;
+import edu.neu.csye7374.core.actor.DeviceActorSystem;
 import edu.neu.csye7374.core.device.IDevice;
 import edu.neu.csye7374.core.factory.DeviceFactory;
+import edu.neu.csye7374.core.factory.DevicePool;
 import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.provisioning.DeviceProvisioner;
+import edu.neu.csye7374.core.provisioning.ProvisioningReport;
+import edu.neu.csye7374.core.registry.DeviceIdGenerator;
 import edu.neu.csye7374.core.registry.DeviceRegistry;
+import edu.neu.csye7374.core.observer.DeviceEventHub;
 import edu.neu.csye7374.core.observer.DeviceObserver;
+import edu.neu.csye7374.core.observer.EventFilter;
+import edu.neu.csye7374.core.observer.EventSubscription;
+import edu.neu.csye7374.core.observer.ObserverRouter;
+import edu.neu.csye7374.devices.group.IDeviceComponent;
 import edu.neu.csye7374.devices.concrete.Light;
 import edu.neu.csye7374.devices.concrete.Thermostat;
 import edu.neu.csye7374.devices.concrete.LightColor;
 import edu.neu.csye7374.devices.concrete.ThermostatMode;
 import edu.neu.csye7374.core.strategy.Operation;
-import edu.neu.csye7374.core.strategy.LightOperationStrategy;
-import edu.neu.csye7374.core.strategy.ThermostatOperationStrategy;
+import edu.neu.csye7374.core.strategy.StrategyRegistry;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Enhanced Facade Pattern Implementation
@@ -24,9 +38,14 @@ public class UIFacade {
     
     private static UIFacade instance;
     private final DeviceRegistry deviceRegistry;
+    private final DeviceEventHub eventHub;
+    private final StrategyRegistry strategies;
+    private volatile boolean sequenced;
     
     private UIFacade() {
         this.deviceRegistry = DeviceRegistry.getInstance();
+        this.eventHub = DeviceEventHub.getInstance();
+        this.strategies = StrategyRegistry.getInstance();
     }
     
     public static UIFacade getInstance() {
@@ -38,12 +57,26 @@ public class UIFacade {
     
     // Simple device operations
     public IDevice createDevice(DeviceType type, String name) {
-        String id = type.toString().toLowerCase() + "_" + System.currentTimeMillis();
+        String id = DeviceIdGenerator.getInstance().nextId(type);
         IDevice device = DeviceFactory.createDevice(type, id, name);
         deviceRegistry.registerDevice(device);
         return device;
     }
     
+    /**
+     * Bulk-create devices from a CSV or JSON-lines file (see DeviceDefinition),
+     * registering them in parallel batches
+     * @return Counts, the first errors and rows per second
+     */
+    public ProvisioningReport importDevices(Path file) throws IOException {
+        ProvisioningReport report = new DeviceProvisioner(deviceRegistry).importFile(file);
+        System.out.println("PROVISIONING: Imported " + file.getFileName() + ": " + report);
+        for (String error : report.getErrors()) {
+            System.out.println("  -> " + error);
+        }
+        return report;
+    }
+    
     public Set<IDevice> getAllDevices() {
         return deviceRegistry.getAllDevices();
     }
@@ -51,49 +84,55 @@ public class UIFacade {
     public void turnOnDevice(String deviceId) {
         IDevice device = findDeviceById(deviceId);
         if (device != null) {
-            device.turnOn();
+            mutate(device, IDevice::turnOn);
         }
     }
     
     public void turnOffDevice(String deviceId) {
         IDevice device = findDeviceById(deviceId);
         if (device != null) {
-            device.turnOff();
+            mutate(device, IDevice::turnOff);
         }
     }
     
+    /**
+     * Observe every device, including devices created later; registered once
+     * in the shared ObserverRouter rather than on each device
+     */
     public void addObserver(DeviceObserver observer) {
-        for (IDevice device : deviceRegistry.getAllDevices()) {
-            device.addObserver(observer);
-        }
+        ObserverRouter.getInstance().subscribeAll(observer);
+    }
+    
+    public void removeObserver(DeviceObserver observer) {
+        ObserverRouter.getInstance().unsubscribeAll(observer);
     }
     
     // Enhanced device operations for specific device types
     public void setLightBrightness(String deviceId, int brightness) {
         IDevice device = findDeviceById(deviceId);
         if (device instanceof Light) {
-            ((Light) device).setBrightness(brightness);
+            mutate(device, light -> ((Light) light).setBrightness(brightness));
         }
     }
     
     public void setLightColor(String deviceId, LightColor color) {
         IDevice device = findDeviceById(deviceId);
         if (device instanceof Light) {
-            ((Light) device).setColor(color);
+            mutate(device, light -> ((Light) light).setColor(color));
         }
     }
     
     public void setThermostatTemperature(String deviceId, double temperature) {
         IDevice device = findDeviceById(deviceId);
         if (device instanceof Thermostat) {
-            ((Thermostat) device).setTargetTemperature(temperature);
+            mutate(device, thermostat -> ((Thermostat) thermostat).setTargetTemperature(temperature));
         }
     }
     
     public void setThermostatMode(String deviceId, ThermostatMode mode) {
         IDevice device = findDeviceById(deviceId);
         if (device instanceof Thermostat) {
-            ((Thermostat) device).setMode(mode);
+            mutate(device, thermostat -> ((Thermostat) thermostat).setMode(mode));
         }
     }
     
@@ -101,9 +140,7 @@ public class UIFacade {
     public String executeLightStrategy(String deviceId, Operation operation) {
         IDevice device = findDeviceById(deviceId);
         if (device instanceof Light) {
-            Light light = (Light) device;
-            light.setOperationStrategy(new LightOperationStrategy());
-            return light.executeOperation(operation);
+            return call(device, light -> strategies.getStrategy(DeviceType.LIGHT).execute(light, operation));
         }
         return "Device not found or not a light";
     }
@@ -111,13 +148,21 @@ public class UIFacade {
     public String executeThermostatStrategy(String deviceId, Operation operation) {
         IDevice device = findDeviceById(deviceId);
         if (device instanceof Thermostat) {
-            Thermostat thermostat = (Thermostat) device;
-            thermostat.setOperationStrategy(new ThermostatOperationStrategy());
-            return thermostat.executeOperation(operation);
+            return call(device, thermostat -> strategies.getStrategy(DeviceType.THERMOSTAT).execute(thermostat, operation));
         }
         return "Device not found or not a thermostat";
     }
     
+    /**
+     * Run an operation with the shared strategy for the device's type,
+     * without building a result string
+     * @return false if the device is not found or its strategy does not support the operation
+     */
+    public boolean performOperation(String deviceId, Operation operation) {
+        IDevice device = findDeviceById(deviceId);
+        return device != null && call(device, target -> strategies.getStrategy(target.getType()).perform(target, operation));
+    }
+    
     // Device state management
     public String getDeviceStatus(String deviceId) {
         IDevice device = findDeviceById(deviceId);
@@ -146,18 +191,87 @@ public class UIFacade {
     }
     
     /**
-     * Delete a device from the system
+     * Delete a device from the system. With the DevicePool enabled the device
+     * is scrubbed and recycled, so do not keep using the returned object. If
+     * the device has a mailbox (sequenced execution), it is recycled from that
+     * mailbox once the messages already queued for it have run.
      * @param deviceId The ID of the device to delete
      * @return The removed device, or null if not found
      */
     public IDevice deleteDevice(String deviceId) {
-        return deviceRegistry.unregisterDevice(deviceId);
+        IDevice device = deviceRegistry.unregisterDevice(deviceId);
+        if (device != null) {
+            ObserverRouter.getInstance().removeDevice(deviceId);
+            DeviceActor<? extends IDevice> actor = DeviceActorSystem.getInstance().remove(deviceId);
+            if (actor != null && DevicePool.getInstance().isEnabled()) {
+                // Messages already queued still run; recycle the device only after them
+                actor.tell(queued -> DevicePool.getInstance().release(queued));
+            } else {
+                DevicePool.getInstance().release(device);
+            }
+        }
+        return device;
+    }
+    
+    // Event streaming
+    /**
+     * Subscribe to state and property changes instead of polling getAllDevices()
+     * @param filter Devices to follow (EventFilter.all() for everything)
+     * @return Subscription with a bounded buffer; close it when done
+     */
+    public EventSubscription subscribeToEvents(EventFilter filter) {
+        return eventHub.subscribe(filter);
+    }
+    
+    /**
+     * Expose a group to event subscribers filtering by group name
+     */
+    public void registerGroup(String name, IDeviceComponent group) {
+        eventHub.registerGroup(name, group);
+    }
+    
+    public void unregisterGroup(String name) {
+        eventHub.unregisterGroup(name);
+    }
+    
+    // Sequenced execution
+    /**
+     * Route this facade's device mutations through per-device mailboxes
+     * (DeviceActorSystem) instead of running them on the calling thread.
+     * Setters and power changes then return before they are applied; observers
+     * report the change when it happens. Strategy operations (performOperation,
+     * executeLightStrategy, executeThermostatStrategy) run on the mailbox and
+     * wait for their result, so a read-modify-write such as DIM is not
+     * interleaved with other changes to the device.
+     * Other mutation paths have their own switches, all taking
+     * DeviceActorSystem.getInstance(): AutomationEngine.setDeviceActors for rule
+     * actions, CommandManager.setDeviceActors for commands (including scenes
+     * applied through commands) and GroupSceneDecorator.setDeviceActors for
+     * scenes applied directly. The GUI controller turns on the first two for
+     * its own engine and command manager when this is on before it starts.
+     * Code that calls device methods itself stays on the calling thread.
+     */
+    public void setSequencedExecution(boolean sequenced) {
+        this.sequenced = sequenced;
+    }
+    
+    public boolean isSequencedExecution() {
+        return sequenced;
+    }
+    
+    private void mutate(IDevice device, Consumer<IDevice> change) {
+        if (sequenced) {
+            DeviceActorSystem.getInstance().tell(device, change);
+        } else {
+            change.accept(device);
+        }
+    }
+    
+    private <T> T call(IDevice device, Function<? super IDevice, T> operation) {
+        return sequenced ? DeviceActorSystem.getInstance().call(device, operation) : operation.apply(device);
     }
     
     private IDevice findDeviceById(String deviceId) {
-        return deviceRegistry.getAllDevices().stream()
-                .filter(device -> device.getId().equals(deviceId))
-                .findFirst()
-                .orElse(null);
+        return deviceRegistry.getDevice(deviceId);
     }
 }
@@ -1,18 +1,23 @@
     package edu.neu.csye7374.core.factory;
 
     import edu.neu.csye7374.core.device.IDevice;
-    import edu.neu.csye7374.devices.concrete.Light;
-    import edu.neu.csye7374.devices.concrete.Thermostat;
+
+    import java.util.List;
 
     /**
      * Factory class for creating different types of devices
-     * Implements Factory pattern for device creation
+     * Implements Factory pattern for device creation; each type's constructor
+     * comes from its provider in the DeviceTypeRegistry
      */
     public class DeviceFactory {
         
         // Device type constants
         public static final String LIGHT = DeviceType.LIGHT.name();
         public static final String THERMOSTAT = DeviceType.THERMOSTAT.name();
+        public static final String MOTION_SENSOR = DeviceType.MOTION_SENSOR.name();
+        public static final String CONTACT_SENSOR = DeviceType.CONTACT_SENSOR.name();
+        public static final String POWER_METER = DeviceType.POWER_METER.name();
+        public static final String HUMIDITY_SENSOR = DeviceType.HUMIDITY_SENSOR.name();
         
         /**
          * Create a device of the specified type
@@ -26,15 +31,15 @@
                 return null;
             }
             
-            switch (deviceType) {
-                case LIGHT:
-                    return new Light(id, name);
-                case THERMOSTAT:
-                    return new Thermostat(id, name);
-                default:
-                    System.err.println("Unknown device type: " + deviceType);
-                    return null;
+            // A recycled device if the DevicePool is enabled and has one free
+            IDevice device = DevicePool.getInstance().acquire(deviceType, id, name);
+            if (device == null) {
+                device = DeviceTypeRegistry.getInstance().createDevice(deviceType, id, name);
+            }
+            if (device == null) {
+                System.err.println("Unknown device type: " + deviceType);
             }
+            return device;
         }
         
         /**
@@ -52,7 +57,12 @@
          * @return Array of supported device types
          */
         public static String[] getSupportedDeviceTypes() {
-            return new String[]{LIGHT, THERMOSTAT};
+            List<DeviceType> types = DeviceTypeRegistry.getInstance().getSupportedTypes();
+            String[] names = new String[types.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = types.get(i).name();
+            }
+            return names;
         }
         
         /**
@@ -65,8 +75,10 @@
                 return false;
             }
             
-            String upperType = deviceType.toUpperCase();
-            return upperType.equals(LIGHT) || 
-                upperType.equals(THERMOSTAT);
+            try {
+                return DeviceTypeRegistry.getInstance().isSupported(DeviceType.valueOf(deviceType.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
         }
     } 
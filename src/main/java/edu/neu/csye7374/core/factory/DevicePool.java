@@ -0,0 +1,145 @@
+package edu.neu.csye7374.core.factory;
+
+import edu.neu.csye7374.core.device.AbstractDevice;
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.metrics.Counter;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+
+import java.util.ArrayDeque;
+
+/**
+ * Optional recycling pool for deleted devices, one bounded free list per
+ * DeviceType. UIFacade.deleteDevice releases devices here and
+ * DeviceFactory.createDevice takes them back out, so churny simulations
+ * reuse device objects instead of allocating new ones.
+ * Disabled (capacity 0) by default. Enable it only where deleted devices are
+ * not referenced elsewhere, e.g. by undo history or cached receivers: a
+ * recycled device comes back with a new ID and name.
+ */
+public class DevicePool {
+
+    private static class SingletonHelper {
+        private static final DevicePool INSTANCE = new DevicePool();
+    }
+
+    private final FreeList[] free = new FreeList[DeviceType.values().length];
+    private volatile int capacity;
+    private final Counter recycled;
+    private final Counter released;
+    private final Counter discarded;
+
+    private DevicePool() {
+        for (int i = 0; i < free.length; i++) {
+            free[i] = new FreeList();
+        }
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.recycled = metrics.counter("pool.recycled");
+        this.released = metrics.counter("pool.released");
+        this.discarded = metrics.counter("pool.discarded");
+    }
+
+    /**
+     * Get the singleton instance
+     * @return DevicePool instance
+     */
+    public static DevicePool getInstance() {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Set how many free devices are kept per type; 0 disables the pool and drops its contents
+     */
+    public void setCapacity(int perType) {
+        this.capacity = Math.max(0, perType);
+        for (FreeList list : free) {
+            synchronized (list) {
+                while (list.devices.size() > capacity) {
+                    list.devices.pollLast();
+                }
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Take a free device of the given type and give it a new identity
+     * @return The recycled device, or null if none is free
+     */
+    public IDevice acquire(DeviceType type, String id, String name) {
+        if (capacity == 0) {
+            return null;
+        }
+        FreeList list = free[type.ordinal()];
+        AbstractDevice device;
+        synchronized (list) {
+            device = list.devices.pollFirst();
+        }
+        if (device == null) {
+            return null;
+        }
+        device.reuse(id, name);
+        recycled.increment();
+        return device;
+    }
+
+    /**
+     * Scrub a deleted device and keep it for reuse. The caller must already
+     * have unregistered it and dropped its subscriptions.
+     * @return false if the pool is disabled or full, the device cannot be
+     *         recycled, or it was already released
+     */
+    public boolean release(IDevice device) {
+        if (capacity == 0 || !(device instanceof AbstractDevice)) {
+            return false;
+        }
+        FreeList list = free[device.getType().ordinal()];
+        synchronized (list) {
+            if (list.devices.size() >= capacity) {
+                discarded.increment();
+                return false;
+            }
+            AbstractDevice recyclable = (AbstractDevice) device;
+            if (!recyclable.scrub()) {
+                return false;
+            }
+            list.devices.addFirst(recyclable);
+        }
+        released.increment();
+        return true;
+    }
+
+    /**
+     * Number of free devices of a type
+     */
+    public int size(DeviceType type) {
+        FreeList list = free[type.ordinal()];
+        synchronized (list) {
+            return list.devices.size();
+        }
+    }
+
+    /**
+     * Drop every free device (for testing/reset purposes)
+     */
+    public void clear() {
+        for (FreeList list : free) {
+            synchronized (list) {
+                list.devices.clear();
+            }
+        }
+    }
+
+    /**
+     * Free devices of one type, most recently released first
+     */
+    private static final class FreeList {
+        final ArrayDeque<AbstractDevice> devices = new ArrayDeque<>();
+    }
+}
@@ -0,0 +1,116 @@
+package edu.neu.csye7374.core.factory;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.facade.UIFacade;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+/**
+ * Sustained create/delete churn through UIFacade, with and without the
+ * DevicePool. A fixed-size live fleet of lights, thermostats and sensors has
+ * one random device deleted and a new one created per operation, each new
+ * device getting a property write. Reports time, bytes allocated per
+ * operation and collector activity.
+ * Options: live=10000 ops=2000000 capacity=1024
+ */
+public class DevicePoolBenchmark {
+
+    private static final DeviceType[] TYPES = {
+            DeviceType.LIGHT, DeviceType.LIGHT, DeviceType.LIGHT, DeviceType.THERMOSTAT, DeviceType.MOTION_SENSOR
+    };
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "live", "ops", "capacity");
+        int live = options.get("live", 10_000, 1);
+        int ops = options.get("ops", 2_000_000, 1);
+        int capacity = options.get("capacity", 1024, 1);
+
+        DevicePool pool = DevicePool.getInstance();
+        int previousCapacity = pool.getCapacity();
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        try {
+            out.println("\n=== DEVICE POOL BENCHMARK ===");
+            out.printf("%,d live devices, %,d create/delete operations, pool capacity %,d per type%n",
+                    live, ops, capacity);
+            // Warm up both paths, then measure
+            pool.setCapacity(0);
+            churn(live, Math.min(ops, 200_000), 1);
+            pool.setCapacity(capacity);
+            churn(live, Math.min(ops, 200_000), 1);
+
+            pool.setCapacity(0);
+            report(out, "No pool", live, ops);
+            pool.setCapacity(capacity);
+            report(out, "Pooled", live, ops);
+            out.printf("Pool: %,d lights, %,d thermostats free at the end%n",
+                    pool.size(DeviceType.LIGHT), pool.size(DeviceType.THERMOSTAT));
+        } finally {
+            pool.setCapacity(previousCapacity);
+            quiet.close();
+        }
+    }
+
+    private static void report(PrintStream out, String label, int live, int ops) {
+        System.gc();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocatedBefore = allocatedBytes(threads);
+        long collectionsBefore = 0;
+        long gcMillisBefore = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectionsBefore += Math.max(0, gc.getCollectionCount());
+            gcMillisBefore += Math.max(0, gc.getCollectionTime());
+        }
+        long start = System.nanoTime();
+        churn(live, ops, 2);
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBytes(threads) - allocatedBefore;
+        long collections = -collectionsBefore;
+        long gcMillis = -gcMillisBefore;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        out.printf("%-8s %,9.1f ms  %,12.0f ops/s  %,6d bytes/op  %,5d GCs  %,6d ms in GC%n",
+                label, nanos / 1e6, ops / (nanos / 1e9), allocatedBefore < 0 ? -1 : allocated / ops,
+                collections, gcMillis);
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Keep `live` devices, replacing a random one per operation
+     */
+    private static void churn(int live, int ops, long seed) {
+        UIFacade facade = UIFacade.getInstance();
+        Random random = new Random(seed);
+        IDevice[] fleet = new IDevice[live];
+        for (int i = 0; i < live; i++) {
+            fleet[i] = facade.createDevice(TYPES[i % TYPES.length], "Churn " + i);
+        }
+        for (int op = 0; op < ops; op++) {
+            int slot = random.nextInt(live);
+            facade.deleteDevice(fleet[slot].getId());
+            IDevice device = facade.createDevice(TYPES[random.nextInt(TYPES.length)], "Churn");
+            if (device instanceof Light) {
+                ((Light) device).setBrightness(op % 101);
+            }
+            fleet[slot] = device;
+        }
+        for (IDevice device : fleet) {
+            facade.deleteDevice(device.getId());
+        }
+    }
+}
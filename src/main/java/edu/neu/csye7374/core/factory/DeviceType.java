@@ -1,6 +1,8 @@
 package edu.neu.csye7374.core.factory;
 
 public enum DeviceType {
-    LIGHT, THERMOSTAT, GROUP;
+    LIGHT, THERMOSTAT, GROUP,
+    // Sensors report samples through SensorDevice.ingest
+    MOTION_SENSOR, CONTACT_SENSOR, POWER_METER, HUMIDITY_SENSOR;
 }
 
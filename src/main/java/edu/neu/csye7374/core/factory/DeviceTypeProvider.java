@@ -0,0 +1,53 @@
+package edu.neu.csye7374.core.factory;
+
+import edu.neu.csye7374.core.command.DeviceReceiver;
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.strategy.BasicOperationStrategy;
+import edu.neu.csye7374.core.strategy.DeviceOperationStrategy;
+
+import java.util.List;
+
+/**
+ * Service provider for one device type. Implementations are discovered with
+ * ServiceLoader (listed in META-INF/services/edu.neu.csye7374.core.factory.DeviceTypeProvider)
+ * and indexed by type in the DeviceTypeRegistry, so a new kind of device
+ * plugs in without editing the factory, flyweight or command switches.
+ * Saved state needs no codec of its own: mementos capture the property
+ * slots that the capabilities listed here define.
+ */
+public interface DeviceTypeProvider {
+
+    /**
+     * The type this provider creates
+     */
+    DeviceType getType();
+
+    /**
+     * Create a device of this type
+     */
+    IDevice create(String id, String name);
+
+    // Flyweight (intrinsic, shared) data
+    String getManufacturer();
+    String getModel();
+
+    /**
+     * Capabilities of the type, which define its property schema
+     */
+    List<String> getCapabilities();
+
+    /**
+     * Command receiver for a device of this type
+     * @return The receiver, or null if the type takes no commands
+     */
+    default DeviceReceiver createReceiver(IDevice device) {
+        return null;
+    }
+
+    /**
+     * Operation strategy shared by all devices of this type (see StrategyRegistry); must be stateless
+     */
+    default DeviceOperationStrategy getOperationStrategy() {
+        return BasicOperationStrategy.INSTANCE;
+    }
+}
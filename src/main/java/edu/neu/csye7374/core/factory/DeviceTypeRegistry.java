@@ -0,0 +1,102 @@
+package edu.neu.csye7374.core.factory;
+
+import edu.neu.csye7374.core.command.DeviceReceiver;
+import edu.neu.csye7374.core.device.IDevice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of DeviceTypeProviders, indexed by DeviceType ordinal. Providers
+ * are loaded once through ServiceLoader; creating a device is a single array
+ * lookup followed by the provider's constructor call.
+ */
+public class DeviceTypeRegistry {
+
+    private static class SingletonHelper {
+        private static final DeviceTypeRegistry INSTANCE = new DeviceTypeRegistry();
+    }
+
+    private final DeviceTypeProvider[] providers = new DeviceTypeProvider[DeviceType.values().length];
+
+    private DeviceTypeRegistry() {
+        try {
+            for (DeviceTypeProvider provider : ServiceLoader.load(DeviceTypeProvider.class,
+                    DeviceTypeRegistry.class.getClassLoader())) {
+                if (providers[provider.getType().ordinal()] != null) {
+                    System.out.println("DEVICE TYPES: Ignoring duplicate provider " + provider.getClass().getName()
+                            + " for " + provider.getType());
+                    continue;
+                }
+                providers[provider.getType().ordinal()] = provider;
+            }
+        } catch (ServiceConfigurationError e) {
+            System.err.println("DEVICE TYPES: Failed to load providers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the singleton instance
+     * @return DeviceTypeRegistry instance
+     */
+    public static DeviceTypeRegistry getInstance() {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Register or replace the provider for its type, e.g. from a plugin loaded at runtime.
+     * Register before the type's first device is created: the flyweight and
+     * property schema are built from the provider on first use.
+     * @return The provider it replaced, or null
+     */
+    public synchronized DeviceTypeProvider register(DeviceTypeProvider provider) {
+        int index = provider.getType().ordinal();
+        DeviceTypeProvider previous = providers[index];
+        providers[index] = provider;
+        return previous;
+    }
+
+    /**
+     * @return The provider, or null if the type has none
+     */
+    public DeviceTypeProvider getProvider(DeviceType type) {
+        return providers[type.ordinal()];
+    }
+
+    public boolean isSupported(DeviceType type) {
+        return type != null && providers[type.ordinal()] != null;
+    }
+
+    /**
+     * Types that have a provider, in declaration order
+     */
+    public List<DeviceType> getSupportedTypes() {
+        List<DeviceType> types = new ArrayList<>();
+        for (DeviceType type : DeviceType.values()) {
+            if (providers[type.ordinal()] != null) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Create a device of the given type
+     * @return The device, or null if the type has no provider
+     */
+    public IDevice createDevice(DeviceType type, String id, String name) {
+        DeviceTypeProvider provider = providers[type.ordinal()];
+        return provider != null ? provider.create(id, name) : null;
+    }
+
+    /**
+     * Command receiver for a device
+     * @return The receiver, or null if the device's type takes no commands
+     */
+    public DeviceReceiver createReceiver(IDevice device) {
+        DeviceTypeProvider provider = providers[device.getType().ordinal()];
+        return provider != null ? provider.createReceiver(device) : null;
+    }
+}
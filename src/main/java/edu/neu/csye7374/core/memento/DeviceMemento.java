@@ -1,8 +1,11 @@
 package edu.neu.csye7374.core.memento;
 
 import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.property.PropertyDescriptor;
+import edu.neu.csye7374.core.property.PropertySchema;
 import edu.neu.csye7374.devices.concrete.LightColor;
 import edu.neu.csye7374.devices.concrete.ThermostatMode;
+import edu.neu.csye7374.devices.state.PowerState;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -17,20 +20,27 @@ public class DeviceMemento {
     private final String deviceId;
     private final String deviceName;
     private final DeviceType deviceType;
-    private final boolean isOn;
-    private final String state;
+    private final PowerState state;
+    private final long[] properties;
     private final long timestamp;
     
     // Device-specific state storage
     private final Map<String, Object> deviceSpecificState;
     
-    public DeviceMemento(String deviceId, String deviceName, DeviceType deviceType,
-                        boolean isOn, String state) {
+    public DeviceMemento(String deviceId, String deviceName, DeviceType deviceType, PowerState state) {
+        this(deviceId, deviceName, deviceType, state, null);
+    }
+    
+    /**
+     * @param properties Packed property values in the device type's schema slot order
+     */
+    public DeviceMemento(String deviceId, String deviceName, DeviceType deviceType, PowerState state,
+                        long[] properties) {
         this.deviceId = deviceId;
         this.deviceName = deviceName;
         this.deviceType = deviceType;
-        this.isOn = isOn;
         this.state = state;
+        this.properties = properties;
         this.timestamp = System.currentTimeMillis();
         this.deviceSpecificState = new HashMap<>();
     }
@@ -39,10 +49,31 @@ public class DeviceMemento {
     public String getDeviceId() { return deviceId; }
     public String getDeviceName() { return deviceName; }
     public DeviceType getDeviceType() { return deviceType; }
-    public boolean isOn() { return isOn; }
-    public String getState() { return state; }
+    public boolean isOn() { return state.isOn(); }
+    public PowerState getPowerState() { return state; }
+    public String getState() { return state.getLabel(); }
     public long getTimestamp() { return timestamp; }
     
+    /**
+     * Packed property values by schema slot, or null if none were captured
+     */
+    public long[] getProperties() { return properties; }
+    
+    /**
+     * Saved value of a property by name, from the schema slots or else the
+     * device-specific map
+     * @return The value, or null if it was not saved
+     */
+    public Object getProperty(String name) {
+        if (properties != null) {
+            PropertyDescriptor descriptor = PropertySchema.forType(deviceType).get(name);
+            if (descriptor != null && descriptor.getSlot() < properties.length) {
+                return descriptor.decode(properties[descriptor.getSlot()]);
+            }
+        }
+        return deviceSpecificState.get(name);
+    }
+    
     // Methods for device-specific state
     public void setDeviceSpecificState(String key, Object value) {
         deviceSpecificState.put(key, value);
@@ -76,31 +107,38 @@ public class DeviceMemento {
     
     // Convenience methods for common device properties
     public Integer getBrightness() {
-        return (Integer) deviceSpecificState.get("brightness");
+        return (Integer) getProperty("brightness");
     }
     
     public LightColor getColor() {
-        return (LightColor) deviceSpecificState.get("color");
+        return (LightColor) getProperty("color");
     }
     
     public Double getCurrentTemperature() {
-        return (Double) deviceSpecificState.get("currentTemperature");
+        return (Double) getProperty("currentTemperature");
     }
     
     public Double getTargetTemperature() {
-        return (Double) deviceSpecificState.get("targetTemperature");
+        return (Double) getProperty("targetTemperature");
     }
     
     public ThermostatMode getThermostatMode() {
-        return (ThermostatMode) deviceSpecificState.get("mode");
+        return (ThermostatMode) getProperty("mode");
     }
     
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("DeviceMemento{id=%s, name=%s, type=%s, on=%s, state=%s, time=%d", 
-                               deviceId, deviceName, deviceType, isOn, state, timestamp));
+                               deviceId, deviceName, deviceType, state.isOn(), state, timestamp));
         
+        if (properties != null) {
+            PropertySchema schema = PropertySchema.forType(deviceType);
+            for (int slot = 0; slot < properties.length && slot < schema.size(); slot++) {
+                sb.append(", ").append(schema.get(slot).getName()).append('=')
+                  .append(schema.get(slot).decode(properties[slot]));
+            }
+        }
         if (!deviceSpecificState.isEmpty()) {
             sb.append(", specificState=").append(deviceSpecificState);
         }
@@ -0,0 +1,41 @@
+package edu.neu.csye7374.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named lock-free counter backed by a LongAdder
+ */
+public class Counter {
+
+    private final String name;
+    private final LongAdder adder = new LongAdder();
+
+    public Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        adder.increment();
+    }
+
+    public void add(long delta) {
+        adder.add(delta);
+    }
+
+    public long get() {
+        return adder.sum();
+    }
+
+    public void reset() {
+        adder.reset();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + get();
+    }
+}
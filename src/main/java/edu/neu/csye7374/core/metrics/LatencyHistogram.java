@@ -0,0 +1,178 @@
+package edu.neu.csye7374.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear latency histogram in the style of HdrHistogram.
+ * Values (nanoseconds) are bucketed by power of two, and each power of two is
+ * split into 2^subBucketBits linear sub-buckets, so the relative error is
+ * bounded by 1 / 2^(subBucketBits - 1). Recording is a single atomic increment.
+ */
+public class LatencyHistogram {
+
+    /** Largest tracked exponent; values of 2^41 ns (~36.6 minutes) and up land in the last bucket */
+    private static final int MAX_EXPONENT = 40;
+
+    private final String name;
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final int halfCount;
+    private final AtomicLongArray buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param name Metric name
+     * @param subBucketBits Linear resolution per power of two (7 gives under 1% error)
+     */
+    public LatencyHistogram(String name, int subBucketBits) {
+        if (subBucketBits < 2 || subBucketBits > 10) {
+            throw new IllegalArgumentException("subBucketBits must be between 2 and 10");
+        }
+        this.name = name;
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.halfCount = subBucketCount >> 1;
+        this.buckets = new AtomicLongArray(subBucketCount + (MAX_EXPONENT - subBucketBits + 1) * halfCount);
+    }
+
+    public LatencyHistogram(String name) {
+        this(name, 7);
+    }
+
+    /**
+     * Record one latency value
+     * @param nanos Latency in nanoseconds; negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(indexFor(value));
+        count.increment();
+        sum.add(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since a System.nanoTime() start stamp
+     * @param startNanos Value returned by System.nanoTime() before the measured work
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    int indexFor(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return buckets.length() - 1;
+        }
+        int shift = exponent - subBucketBits + 1;
+        int sub = (int) (value >>> shift) - halfCount;
+        return subBucketCount + (shift - 1) * halfCount + sub;
+    }
+
+    /**
+     * Representative (midpoint) value of a bucket
+     */
+    long valueAt(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int offset = index - subBucketCount;
+        int shift = offset / halfCount + 1;
+        long lower = (long) (offset % halfCount + halfCount) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Take a point-in-time copy of this histogram
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return new Snapshot(name, counts, total, sum.sum(), max.get());
+    }
+
+    /**
+     * Reset all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Immutable copy of a histogram with percentile queries
+     */
+    public class Snapshot {
+        private final String name;
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(String name, long[] counts, long count, long sum, long max) {
+            this.name = name;
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public String getName() { return name; }
+        public long getCount() { return count; }
+        public long getMaxNanos() { return max; }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Get the value at a percentile
+         * @param percentile Percentile in the range 0-100
+         * @return Latency in nanoseconds (bucket midpoint, capped at the recorded max)
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(valueAt(i), max);
+                }
+            }
+            return max;
+        }
+
+        public long getP50() { return getPercentile(50.0); }
+        public long getP99() { return getPercentile(99.0); }
+        public long getP999() { return getPercentile(99.9); }
+    }
+}
@@ -0,0 +1,195 @@
+package edu.neu.csye7374.core.metrics;
+
+import edu.neu.csye7374.core.command.CommandType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton registry of counters and latency histograms for the command,
+ * observer and automation pipeline. Command timers are pre-allocated per
+ * CommandType so the hot path is an array lookup; observer and rule timers
+ * are created on first use. Rules share one timer unless per-rule timers are
+ * turned on, since a fleet can have tens of thousands of rules.
+ */
+public class MetricsRegistry {
+
+    /**
+     * Command pipeline phases that are timed separately
+     */
+    public enum CommandPhase {
+        EXECUTE, UNDO, REDO;
+
+        private final String prefix = "command." + name().toLowerCase() + ".";
+    }
+
+    // Rule and observer timers can number in the thousands, so they use coarser buckets (~6% error)
+    private static final int FINE_RESOLUTION = 7;
+    private static final int COARSE_RESOLUTION = 4;
+
+    private static class SingletonHelper {
+        private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    }
+
+    private volatile boolean enabled = true;
+    private volatile boolean perRuleTimers;
+
+    private final LatencyHistogram[][] commandTimers;
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    // Keyed by raw observer/rule name so lookups on the hot path do not build strings
+    private final Map<String, LatencyHistogram> observerTimers = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> ruleTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final LatencyHistogram allRulesTimer = timer("automation.rules");
+
+    private MetricsRegistry() {
+        CommandPhase[] phases = CommandPhase.values();
+        CommandType[] types = CommandType.values();
+        commandTimers = new LatencyHistogram[phases.length][types.length];
+        for (CommandPhase phase : phases) {
+            for (CommandType type : types) {
+                commandTimers[phase.ordinal()][type.ordinal()] =
+                        new LatencyHistogram(phase.prefix + type.name(), FINE_RESOLUTION);
+            }
+        }
+    }
+
+    public static MetricsRegistry getInstance() {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Check whether timing is enabled; callers skip System.nanoTime() when it is not
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the timer for a command type and phase
+     */
+    public LatencyHistogram commandTimer(CommandPhase phase, CommandType type) {
+        return commandTimers[phase.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * Get the timer for an observer's callbacks
+     * @param observerName Name reported by DeviceObserver.getObserverName()
+     */
+    public LatencyHistogram observerTimer(String observerName) {
+        return observerTimers.computeIfAbsent(observerName,
+                name -> new LatencyHistogram("observer." + name, COARSE_RESOLUTION));
+    }
+
+    /**
+     * Get the timer for an automation rule's execution: the shared
+     * automation.rules timer, or the rule's own timer (keyed by name) when
+     * per-rule timers are on
+     * @param ruleName Rule name
+     */
+    public LatencyHistogram ruleTimer(String ruleName) {
+        if (!perRuleTimers) {
+            return allRulesTimer;
+        }
+        return ruleTimers.computeIfAbsent(ruleName,
+                name -> new LatencyHistogram("automation.rule." + name, COARSE_RESOLUTION));
+    }
+
+    /**
+     * Give each rule name its own timer (about 2.5 KB each) instead of the
+     * shared one. Off by default; turning it off drops the per-rule timers.
+     */
+    public void setPerRuleTimers(boolean perRuleTimers) {
+        this.perRuleTimers = perRuleTimers;
+        if (!perRuleTimers) {
+            ruleTimers.clear();
+        }
+    }
+
+    public boolean isPerRuleTimers() {
+        return perRuleTimers;
+    }
+
+    /**
+     * Drop a removed rule's timer
+     */
+    public void removeRuleTimer(String ruleName) {
+        ruleTimers.remove(ruleName);
+    }
+
+    /**
+     * Drop every per-rule timer, e.g. when an engine's rules are cleared
+     */
+    public void clearRuleTimers() {
+        ruleTimers.clear();
+    }
+
+    /**
+     * Get or create a general purpose timer
+     */
+    public LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, n -> new LatencyHistogram(n, FINE_RESOLUTION));
+    }
+
+    /**
+     * Get or create a counter
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Take a snapshot of every counter and every timer that has recorded at least one value
+     */
+    public MetricsSnapshot snapshot() {
+        List<LatencyHistogram.Snapshot> histogramSnapshots = new ArrayList<>();
+        for (LatencyHistogram[] phaseTimers : commandTimers) {
+            for (LatencyHistogram timer : phaseTimers) {
+                if (timer.getCount() > 0) {
+                    histogramSnapshots.add(timer.snapshot());
+                }
+            }
+        }
+        for (Map<String, LatencyHistogram> group : List.of(timers, observerTimers, ruleTimers)) {
+            for (LatencyHistogram timer : group.values()) {
+                if (timer.getCount() > 0) {
+                    histogramSnapshots.add(timer.snapshot());
+                }
+            }
+        }
+        List<Counter> counterList = new ArrayList<>(counters.values());
+        return new MetricsSnapshot(System.currentTimeMillis(), counterList, histogramSnapshots);
+    }
+
+    /**
+     * Write a snapshot to a local file
+     * @param path Target file
+     * @param json true for JSON, false for plain text
+     */
+    public void exportTo(Path path, boolean json) throws IOException {
+        snapshot().writeTo(path, json);
+    }
+
+    /**
+     * Reset all recorded values (for testing/reset purposes)
+     */
+    public void reset() {
+        for (LatencyHistogram[] phaseTimers : commandTimers) {
+            for (LatencyHistogram timer : phaseTimers) {
+                timer.reset();
+            }
+        }
+        timers.values().forEach(LatencyHistogram::reset);
+        observerTimers.values().forEach(LatencyHistogram::reset);
+        ruleTimers.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(Counter::reset);
+    }
+}
@@ -0,0 +1,151 @@
+package edu.neu.csye7374.core.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Point-in-time view of the metrics registry with plain text and JSON export
+ */
+public class MetricsSnapshot {
+
+    private final long timestamp;
+    private final List<String> counterNames = new ArrayList<>();
+    private final List<Long> counterValues = new ArrayList<>();
+    private final List<LatencyHistogram.Snapshot> histograms;
+
+    MetricsSnapshot(long timestamp, List<Counter> counters, List<LatencyHistogram.Snapshot> histograms) {
+        this.timestamp = timestamp;
+        counters.sort(Comparator.comparing(Counter::getName));
+        for (Counter counter : counters) {
+            counterNames.add(counter.getName());
+            counterValues.add(counter.get());
+        }
+        this.histograms = new ArrayList<>(histograms);
+        this.histograms.sort(Comparator.comparing(LatencyHistogram.Snapshot::getName));
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public List<LatencyHistogram.Snapshot> getHistograms() {
+        return new ArrayList<>(histograms);
+    }
+
+    /**
+     * Get a histogram snapshot by name
+     * @return The snapshot, or null if that timer recorded nothing
+     */
+    public LatencyHistogram.Snapshot getHistogram(String name) {
+        for (LatencyHistogram.Snapshot histogram : histograms) {
+            if (histogram.getName().equals(name)) {
+                return histogram;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get a counter value by name
+     * @return The value, or 0 if the counter does not exist
+     */
+    public long getCounter(String name) {
+        int index = counterNames.indexOf(name);
+        return index < 0 ? 0 : counterValues.get(index);
+    }
+
+    /**
+     * Render as an aligned plain text table (latencies in microseconds)
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        if (!counterNames.isEmpty()) {
+            sb.append("Counters:\n");
+            for (int i = 0; i < counterNames.size(); i++) {
+                sb.append(String.format("  %-50s %12d%n", counterNames.get(i), counterValues.get(i)));
+            }
+        }
+        if (!histograms.isEmpty()) {
+            sb.append(String.format("Timers (us):%n  %-50s %10s %10s %10s %10s %10s %10s%n",
+                    "name", "count", "mean", "p50", "p99", "p999", "max"));
+            for (LatencyHistogram.Snapshot h : histograms) {
+                sb.append(String.format("  %-50s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                        h.getName(), h.getCount(), h.getMeanNanos() / 1000.0,
+                        h.getP50() / 1000.0, h.getP99() / 1000.0, h.getP999() / 1000.0,
+                        h.getMaxNanos() / 1000.0));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Render as JSON (latencies in nanoseconds)
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"timestamp\":").append(timestamp).append(",\"counters\":{");
+        for (int i = 0; i < counterNames.size(); i++) {
+            if (i > 0) sb.append(',');
+            appendJsonString(sb, counterNames.get(i));
+            sb.append(':').append(counterValues.get(i));
+        }
+        sb.append("},\"timers\":{");
+        for (int i = 0; i < histograms.size(); i++) {
+            LatencyHistogram.Snapshot h = histograms.get(i);
+            if (i > 0) sb.append(',');
+            appendJsonString(sb, h.getName());
+            sb.append(":{\"count\":").append(h.getCount())
+              .append(",\"meanNanos\":").append(Math.round(h.getMeanNanos()))
+              .append(",\"p50Nanos\":").append(h.getP50())
+              .append(",\"p99Nanos\":").append(h.getP99())
+              .append(",\"p999Nanos\":").append(h.getP999())
+              .append(",\"maxNanos\":").append(h.getMaxNanos())
+              .append('}');
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    /**
+     * Write this snapshot to a local file
+     * @param path Target file
+     * @param json true for JSON, false for plain text
+     */
+    public void writeTo(Path path, boolean json) throws IOException {
+        Files.write(path, (json ? toJson() : toText()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Append a quoted, escaped JSON string
+     */
+    public static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
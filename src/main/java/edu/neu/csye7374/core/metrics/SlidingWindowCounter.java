@@ -0,0 +1,110 @@
+package edu.neu.csye7374.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free event counter over a sliding time window of one-second buckets.
+ * Buckets are recycled in a ring, so recording and reading never allocate.
+ * Each bucket packs its second and its count into one long that is updated
+ * by compare-and-set, so recycling a bucket and counting into it are a single
+ * atomic step and no increment is lost or counted against the wrong second.
+ */
+public class SlidingWindowCounter {
+
+    // Bucket layout: second relative to baseSecond in the high 32 bits (about 68 years either
+    // way), count (saturating) in the low 32 bits
+    private static final int COUNT_BITS = 32;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    // Older than any real second, so an empty bucket is recycled on first use
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int windowSeconds;
+    private final AtomicLongArray buckets;
+    private final LongSupplier clockMillis;
+    private final long baseSecond;
+
+    /**
+     * @param windowSeconds Longest window that can be queried
+     */
+    public SlidingWindowCounter(int windowSeconds) {
+        this(windowSeconds, System::currentTimeMillis);
+    }
+
+    /**
+     * @param windowSeconds Longest window that can be queried
+     * @param clockMillis Time source in milliseconds (injectable for testing)
+     */
+    public SlidingWindowCounter(int windowSeconds, LongSupplier clockMillis) {
+        if (windowSeconds < 1) {
+            throw new IllegalArgumentException("windowSeconds must be at least 1");
+        }
+        this.windowSeconds = windowSeconds;
+        this.buckets = new AtomicLongArray(windowSeconds);
+        this.clockMillis = clockMillis;
+        this.baseSecond = clockMillis.getAsLong() / 1000;
+        for (int i = 0; i < windowSeconds; i++) {
+            buckets.set(i, EMPTY);
+        }
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void add(long delta) {
+        long absolute = clockMillis.getAsLong() / 1000;
+        int index = (int) Math.floorMod(absolute, (long) windowSeconds);
+        long second = absolute - baseSecond;
+        while (true) {
+            long packed = buckets.get(index);
+            long bucketSecond = packed >> COUNT_BITS;
+            if (bucketSecond > second) {
+                // The bucket already moved on to a later second, so this second has left the window
+                return;
+            }
+            long count = bucketSecond == second ? packed & COUNT_MASK : 0;
+            long updated = (second << COUNT_BITS) | Math.max(0, Math.min(COUNT_MASK, count + delta));
+            if (buckets.compareAndSet(index, packed, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sum of events over the most recent seconds, including the current one
+     * @param seconds Window length, capped at the configured maximum
+     */
+    public long sum(int seconds) {
+        int window = Math.max(1, Math.min(seconds, windowSeconds));
+        long now = clockMillis.getAsLong() / 1000 - baseSecond;
+        long total = 0;
+        for (int i = 0; i < windowSeconds; i++) {
+            long packed = buckets.get(i);
+            long bucketSecond = packed >> COUNT_BITS;
+            if (bucketSecond > now - window && bucketSecond <= now) {
+                total += packed & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Average events per second over the most recent seconds
+     * @param seconds Window length, capped at the configured maximum
+     */
+    public double rate(int seconds) {
+        int window = Math.max(1, Math.min(seconds, windowSeconds));
+        return (double) sum(window) / window;
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void reset() {
+        for (int i = 0; i < windowSeconds; i++) {
+            buckets.set(i, EMPTY);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.neu.csye7374.core.observer;
+
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.metrics.MetricsSnapshot;
+
+/**
+ * Immutable state or property delta published by the DeviceEventHub.
+ * One instance is shared by every subscriber that receives it.
+ */
+public final class DeviceEvent {
+
+    public enum Kind {
+        STATE,
+        PROPERTY
+    }
+
+    private final long sequence;
+    private final long timestampMillis;
+    private final String deviceId;
+    private final DeviceType deviceType;
+    private final Kind kind;
+    private final String property;
+    private final String oldValue;
+    private final String newValue;
+
+    DeviceEvent(long sequence, long timestampMillis, String deviceId, DeviceType deviceType,
+                Kind kind, String property, String oldValue, String newValue) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.deviceId = deviceId;
+        this.deviceType = deviceType;
+        this.kind = kind;
+        this.property = property;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    public long getSequence() { return sequence; }
+    public long getTimestampMillis() { return timestampMillis; }
+    public String getDeviceId() { return deviceId; }
+    public DeviceType getDeviceType() { return deviceType; }
+    public Kind getKind() { return kind; }
+    /** Property name for PROPERTY events, "state" for STATE events */
+    public String getProperty() { return property; }
+    public String getOldValue() { return oldValue; }
+    public String getNewValue() { return newValue; }
+
+    /**
+     * Tab-separated line: sequence, timestamp, device, type, kind, property, old, new
+     */
+    public String toLine() {
+        return sequence + "\t" + timestampMillis + "\t" + deviceId + "\t" + deviceType + "\t" + kind
+                + "\t" + property + "\t" + oldValue + "\t" + newValue;
+    }
+
+    /**
+     * Single-line JSON object, suitable for an SSE data field
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"sequence\":").append(sequence)
+            .append(",\"timestamp\":").append(timestampMillis)
+            .append(",\"device\":");
+        MetricsSnapshot.appendJsonString(json, deviceId);
+        json.append(",\"type\":\"").append(deviceType).append('"')
+            .append(",\"kind\":\"").append(kind).append('"')
+            .append(",\"property\":");
+        MetricsSnapshot.appendJsonString(json, property);
+        json.append(",\"old\":");
+        appendNullable(json, oldValue);
+        json.append(",\"new\":");
+        appendNullable(json, newValue);
+        return json.append('}').toString();
+    }
+
+    private static void appendNullable(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+        } else {
+            MetricsSnapshot.appendJsonString(json, value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceEvent{" + toLine().replace('\t', ' ') + "}";
+    }
+}
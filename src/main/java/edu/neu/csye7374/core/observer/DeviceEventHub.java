@@ -0,0 +1,149 @@
+package edu.neu.csye7374.core.observer;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.metrics.Counter;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+import edu.neu.csye7374.core.observer.EventSubscription.OverflowPolicy;
+import edu.neu.csye7374.devices.group.IDeviceComponent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Singleton fan-out point for device state and property deltas.
+ * The hub subscribes once to every device through the ObserverRouter and
+ * pushes each change into the bounded buffers of the subscriptions whose
+ * EventFilter matches, so dashboards can follow changes without polling the
+ * registry and devices need no registration of their own.
+ */
+public class DeviceEventHub implements DeviceObserver {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static class SingletonHelper {
+        private static final DeviceEventHub INSTANCE = new DeviceEventHub();
+    }
+
+    private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Map<String, IDeviceComponent> groups = new ConcurrentHashMap<>();
+    private final AtomicLong nextSubscriptionId = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+
+    private DeviceEventHub() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.publishedCounter = metrics.counter("events.published");
+        this.droppedCounter = metrics.counter("events.dropped");
+        ObserverRouter.getInstance().subscribeAll(this);
+    }
+
+    /**
+     * Get the singleton instance
+     * @return DeviceEventHub instance
+     */
+    public static DeviceEventHub getInstance() {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Make a group available to subscribers filtering by group name
+     */
+    public void registerGroup(String name, IDeviceComponent group) {
+        groups.put(name, group);
+    }
+
+    public void unregisterGroup(String name) {
+        groups.remove(name);
+    }
+
+    /**
+     * Look up a group by the name it was registered under
+     */
+    public IDeviceComponent getGroup(String name) {
+        return groups.get(name);
+    }
+
+    /**
+     * Subscribe with the default buffer size, dropping the oldest events when full
+     */
+    public EventSubscription subscribe(EventFilter filter) {
+        return subscribe(filter, DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Subscribe to device events
+     * @param filter Which devices to receive events for
+     * @param capacity Maximum number of buffered events
+     * @param overflowPolicy What to do when the consumer falls behind
+     * @return The subscription to poll events from
+     */
+    public EventSubscription subscribe(EventFilter filter, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Subscription capacity must be positive");
+        }
+        EventSubscription subscription = new EventSubscription(nextSubscriptionId.incrementAndGet(),
+                filter != null ? filter : EventFilter.all(), capacity, overflowPolicy, this);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void unsubscribe(EventSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void onDeviceStateChanged(IDevice device, String oldState, String newState) {
+        publish(device, DeviceEvent.Kind.STATE, "state", oldState, newState);
+    }
+
+    @Override
+    public void onDevicePropertyChanged(IDevice device, String propertyName, Object oldValue, Object newValue) {
+        publish(device, DeviceEvent.Kind.PROPERTY, propertyName,
+                oldValue != null ? String.valueOf(oldValue) : null,
+                newValue != null ? String.valueOf(newValue) : null);
+    }
+
+    private void publish(IDevice device, DeviceEvent.Kind kind, String property, String oldValue, String newValue) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        DeviceEvent event = null;
+        for (EventSubscription subscription : subscriptions) {
+            if (!subscription.getFilter().matches(device.getId(), device.getType())) {
+                continue;
+            }
+            if (event == null) {
+                // Build the event once, only when someone wants it
+                event = new DeviceEvent(sequence.incrementAndGet(), System.currentTimeMillis(),
+                        device.getId(), device.getType(), kind, property, oldValue, newValue);
+                publishedCounter.increment();
+            }
+            long droppedBefore = subscription.getDroppedCount();
+            boolean accepted = subscription.offer(event);
+            boolean dropped = subscription.getDroppedCount() != droppedBefore;
+            if (!accepted) {
+                // Also false when the consumer closed the subscription itself; only an overflow drops the event
+                if (dropped) {
+                    System.out.println("EVENTS: Disconnected slow subscriber " + subscription.getId());
+                }
+                unsubscribe(subscription);
+            }
+            if (dropped) {
+                droppedCounter.increment();
+            }
+        }
+    }
+
+    @Override
+    public String getObserverName() {
+        return "Device Event Hub";
+    }
+}
@@ -1,6 +1,7 @@
 package edu.neu.csye7374.core.observer;
 
 import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.devices.state.PowerState;
 
 /**
  * Observer interface for device state changes
@@ -16,6 +17,17 @@ public interface DeviceObserver {
      */
     void onDeviceStateChanged(IDevice device, String oldState, String newState);
     
+    /**
+     * Called when a device's power state changes. The default forwards the
+     * labels to onDeviceStateChanged; override to work with the enum directly.
+     * @param device The device that changed
+     * @param oldState The previous state, or null when re-notifying the current one
+     * @param newState The new state
+     */
+    default void onDevicePowerStateChanged(IDevice device, PowerState oldState, PowerState newState) {
+        onDeviceStateChanged(device, oldState != null ? oldState.getLabel() : null, newState.getLabel());
+    }
+    
     /**
      * Called when a device is turned on
      * @param device The device that was turned on
@@ -40,6 +52,37 @@ public interface DeviceObserver {
     default void onDevicePropertyChanged(IDevice device, String propertyName, Object oldValue, Object newValue) {
     }
     
+    /**
+     * Called before onDevicePropertyChanged when a numeric property changes,
+     * with unboxed values (brightness, temperatures, ...)
+     * @param device The device that changed
+     * @param propertyName The name of the property that changed
+     * @param oldValue The previous value
+     * @param newValue The new value
+     */
+    default void onDeviceNumericPropertyChanged(IDevice device, String propertyName, double oldValue, double newValue) {
+    }
+    
+    /**
+     * Called once per batch of sensor samples instead of once per sample. The
+     * default reports the batch as a single property change to its last sample,
+     * so observers that only track the latest value need not override it.
+     * @param device The sensor that reported
+     * @param propertyName The reading the samples are for
+     * @param previous The reading before the batch
+     * @param samples Sample buffer; valid only for the duration of the call
+     * @param offset Index of the first sample
+     * @param length Number of samples (at least 1)
+     */
+    default void onSensorSamples(IDevice device, String propertyName, double previous,
+                                 double[] samples, int offset, int length) {
+        double last = samples[offset + length - 1];
+        if (last != previous) {
+            onDeviceNumericPropertyChanged(device, propertyName, previous, last);
+            onDevicePropertyChanged(device, propertyName, previous, last);
+        }
+    }
+    
     /**
      * Get the observer's name/identifier
      * @return Observer name
@@ -0,0 +1,97 @@
+package edu.neu.csye7374.core.observer;
+
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.devices.group.IDeviceComponent;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable subscriber filter. A device matches when it passes every
+ * configured criterion; device IDs and group members are combined, so a
+ * filter with both accepts devices named directly or contained in the groups.
+ * Groups are resolved to their leaf devices when the filter is built.
+ */
+public final class EventFilter {
+
+    private static final EventFilter ALL = new Builder().build();
+
+    private final Set<String> deviceIds;
+    private final Set<DeviceType> types;
+
+    private EventFilter(Builder builder) {
+        this.deviceIds = !builder.restrictDevices ? null : Collections.unmodifiableSet(new HashSet<>(builder.deviceIds));
+        this.types = builder.types.isEmpty() ? null : EnumSet.copyOf(builder.types);
+    }
+
+    /**
+     * Filter that accepts every device
+     */
+    public static EventFilter all() {
+        return ALL;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean matches(String deviceId, DeviceType type) {
+        return (deviceIds == null || deviceIds.contains(deviceId))
+                && (types == null || types.contains(type));
+    }
+
+    @Override
+    public String toString() {
+        return "EventFilter{devices=" + (deviceIds == null ? "*" : deviceIds)
+                + ", types=" + (types == null ? "*" : types) + "}";
+    }
+
+    public static class Builder {
+        private final Set<String> deviceIds = new HashSet<>();
+        private final Set<DeviceType> types = EnumSet.noneOf(DeviceType.class);
+        // Set once a device or group is named, so an empty group matches nothing
+        private boolean restrictDevices;
+
+        public Builder device(String deviceId) {
+            if (deviceId != null && !deviceId.isEmpty()) {
+                deviceIds.add(deviceId);
+                restrictDevices = true;
+            }
+            return this;
+        }
+
+        public Builder type(DeviceType type) {
+            if (type != null) {
+                types.add(type);
+            }
+            return this;
+        }
+
+        /**
+         * Accept every leaf device currently in the group (recursively)
+         */
+        public Builder group(IDeviceComponent group) {
+            if (group != null) {
+                addLeaves(group);
+                restrictDevices = true;
+            }
+            return this;
+        }
+
+        private void addLeaves(IDeviceComponent component) {
+            if (component.getType() == DeviceType.GROUP) {
+                for (IDeviceComponent child : component.getChildren()) {
+                    addLeaves(child);
+                }
+            } else {
+                deviceIds.add(component.getId());
+            }
+        }
+
+        public EventFilter build() {
+            return new EventFilter(this);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package edu.neu.csye7374.core.observer;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One consumer's view of the DeviceEventHub: a filter plus a bounded buffer.
+ * The hub offers events from the device's thread and never blocks; when the
+ * buffer is full the overflow policy decides what a slow consumer loses.
+ */
+public class EventSubscription implements AutoCloseable {
+
+    public enum OverflowPolicy {
+        /** Discard the oldest buffered event to make room (consumer sees the latest state) */
+        DROP_OLDEST,
+        /** Discard the incoming event */
+        DROP_NEWEST,
+        /** Close the subscription; the consumer must resubscribe */
+        DISCONNECT
+    }
+
+    private final long id;
+    private final EventFilter filter;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final DeviceEventHub hub;
+
+    private final ArrayDeque<DeviceEvent> buffer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+
+    EventSubscription(long id, EventFilter filter, int capacity, OverflowPolicy overflowPolicy, DeviceEventHub hub) {
+        this.id = id;
+        this.filter = filter;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.hub = hub;
+        this.buffer = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    public long getId() { return id; }
+    public EventFilter getFilter() { return filter; }
+    public int getCapacity() { return capacity; }
+    public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+    /** Events accepted into the buffer; under DROP_OLDEST some of them may later be dropped unread */
+    public long getEnqueuedCount() { return enqueued.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public boolean isClosed() { return closed; }
+
+    /**
+     * Called by the hub; never blocks the publishing thread
+     * @return false if the subscription was closed by this offer (DISCONNECT policy)
+     */
+    boolean offer(DeviceEvent event) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (buffer.size() >= capacity) {
+                switch (overflowPolicy) {
+                    case DROP_OLDEST:
+                        buffer.pollFirst();
+                        dropped.incrementAndGet();
+                        break;
+                    case DROP_NEWEST:
+                        dropped.incrementAndGet();
+                        return true;
+                    case DISCONNECT:
+                    default:
+                        dropped.incrementAndGet();
+                        closed = true;
+                        notEmpty.signalAll();
+                        return false;
+                }
+            }
+            buffer.addLast(event);
+            enqueued.incrementAndGet();
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait up to the timeout for the next event
+     * @return The event, or null on timeout or when the subscription is closed and drained
+     */
+    public DeviceEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (buffer.isEmpty()) {
+                if (closed || nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return buffer.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move up to maxEvents buffered events into the target list without waiting
+     * @return Number of events moved
+     */
+    public int drainTo(List<DeviceEvent> target, int maxEvents) {
+        lock.lock();
+        try {
+            int moved = 0;
+            while (moved < maxEvents && !buffer.isEmpty()) {
+                target.add(buffer.pollFirst());
+                moved++;
+            }
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop receiving events and detach from the hub
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        hub.unsubscribe(this);
+    }
+
+    @Override
+    public String toString() {
+        return "EventSubscription{id=" + id + ", " + filter + ", buffered=" + size() + "/" + capacity
+                + ", policy=" + overflowPolicy + ", enqueued=" + enqueued.get() + ", dropped=" + dropped.get()
+                + (closed ? ", closed" : "") + "}";
+    }
+}
@@ -0,0 +1,228 @@
+package edu.neu.csye7374.core.observer;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceType;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton subscription table shared by all devices. Observers subscribe to
+ * every device, to one device type, or to one device ID; devices ask the
+ * router for their observers when they notify instead of each carrying a
+ * list. Every table entry is an immutable array that is replaced on change,
+ * so notification reads a snapshot without locking or copying. Devices with
+ * no observers of their own share one merged array per type; a device with
+ * its own observers caches its merged array next to them, so a change to one
+ * device never invalidates another device's cache.
+ */
+public class ObserverRouter {
+
+    private static final DeviceObserver[] NONE = new DeviceObserver[0];
+
+    private static class SingletonHelper {
+        private static final ObserverRouter INSTANCE = new ObserverRouter();
+    }
+
+    private volatile DeviceObserver[] global = NONE;
+    private final DeviceObserver[][] byType = new DeviceObserver[DeviceType.values().length][];
+    private final Map<String, DeviceEntry> byDevice = new ConcurrentHashMap<>();
+    // Global + type observers per type ordinal, rebuilt on change
+    private volatile DeviceObserver[][] typeRoutes;
+
+    private ObserverRouter() {
+        Arrays.fill(byType, NONE);
+        rebuildTypeRoutes();
+    }
+
+    /**
+     * Get the singleton instance
+     * @return ObserverRouter instance
+     */
+    public static ObserverRouter getInstance() {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Observers of a device: all-device, then type, then device subscriptions
+     * @return Shared snapshot; do not modify
+     */
+    public DeviceObserver[] observersFor(IDevice device) {
+        DeviceObserver[] shared = typeRoutes[device.getType().ordinal()];
+        DeviceEntry entry = byDevice.get(device.getId());
+        if (entry == null) {
+            return shared;
+        }
+        // The entry is replaced when the device's own observers change, and the
+        // cache is rebuilt when the shared array it was merged from is replaced
+        Route route = entry.route;
+        if (route != null && route.shared == shared) {
+            return route.observers;
+        }
+        DeviceObserver[] merged = concat(shared, entry.observers);
+        entry.route = new Route(shared, merged);
+        return merged;
+    }
+
+    // ---- All devices ----
+
+    /**
+     * Observe every device, including devices created later
+     * @return false if the observer was already subscribed
+     */
+    public synchronized boolean subscribeAll(DeviceObserver observer) {
+        DeviceObserver[] updated = add(global, observer);
+        if (updated == global) {
+            return false;
+        }
+        global = updated;
+        rebuildTypeRoutes();
+        return true;
+    }
+
+    public synchronized boolean unsubscribeAll(DeviceObserver observer) {
+        DeviceObserver[] updated = remove(global, observer);
+        if (updated == global) {
+            return false;
+        }
+        global = updated;
+        rebuildTypeRoutes();
+        return true;
+    }
+
+    // ---- Device types ----
+
+    public synchronized boolean subscribe(DeviceType type, DeviceObserver observer) {
+        DeviceObserver[] updated = add(byType[type.ordinal()], observer);
+        if (updated == byType[type.ordinal()]) {
+            return false;
+        }
+        byType[type.ordinal()] = updated;
+        rebuildTypeRoutes();
+        return true;
+    }
+
+    public synchronized boolean unsubscribe(DeviceType type, DeviceObserver observer) {
+        DeviceObserver[] updated = remove(byType[type.ordinal()], observer);
+        if (updated == byType[type.ordinal()]) {
+            return false;
+        }
+        byType[type.ordinal()] = updated;
+        rebuildTypeRoutes();
+        return true;
+    }
+
+    // ---- Single devices ----
+
+    public synchronized boolean subscribe(String deviceId, DeviceObserver observer) {
+        DeviceEntry entry = byDevice.get(deviceId);
+        DeviceObserver[] existing = entry != null ? entry.observers : NONE;
+        DeviceObserver[] updated = add(existing, observer);
+        if (updated == existing) {
+            return false;
+        }
+        byDevice.put(deviceId, new DeviceEntry(updated));
+        return true;
+    }
+
+    public synchronized boolean unsubscribe(String deviceId, DeviceObserver observer) {
+        DeviceEntry entry = byDevice.get(deviceId);
+        if (entry == null) {
+            return false;
+        }
+        DeviceObserver[] updated = remove(entry.observers, observer);
+        if (updated == entry.observers) {
+            return false;
+        }
+        if (updated.length == 0) {
+            byDevice.remove(deviceId);
+        } else {
+            byDevice.put(deviceId, new DeviceEntry(updated));
+        }
+        return true;
+    }
+
+    /**
+     * Drop every subscription to a deleted device
+     */
+    public synchronized void removeDevice(String deviceId) {
+        byDevice.remove(deviceId);
+    }
+
+    /**
+     * Number of devices with subscriptions of their own
+     */
+    public int getSubscribedDeviceCount() {
+        return byDevice.size();
+    }
+
+    // ---- Internals ----
+
+    private void rebuildTypeRoutes() {
+        DeviceObserver[][] routes = new DeviceObserver[byType.length][];
+        for (int t = 0; t < byType.length; t++) {
+            routes[t] = byType[t].length == 0 ? global : concat(global, byType[t]);
+        }
+        typeRoutes = routes;
+    }
+
+    private static DeviceObserver[] add(DeviceObserver[] observers, DeviceObserver observer) {
+        if (observer == null) {
+            return observers;
+        }
+        for (DeviceObserver existing : observers) {
+            if (existing.equals(observer)) {
+                return observers;
+            }
+        }
+        DeviceObserver[] updated = Arrays.copyOf(observers, observers.length + 1);
+        updated[observers.length] = observer;
+        return updated;
+    }
+
+    private static DeviceObserver[] remove(DeviceObserver[] observers, DeviceObserver observer) {
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i].equals(observer)) {
+                DeviceObserver[] updated = new DeviceObserver[observers.length - 1];
+                System.arraycopy(observers, 0, updated, 0, i);
+                System.arraycopy(observers, i + 1, updated, i, observers.length - i - 1);
+                return updated;
+            }
+        }
+        return observers;
+    }
+
+    /**
+     * Join two snapshots, skipping observers already in the first
+     */
+    private static DeviceObserver[] concat(DeviceObserver[] first, DeviceObserver[] second) {
+        DeviceObserver[] merged = first;
+        for (DeviceObserver observer : second) {
+            merged = add(merged, observer);
+        }
+        return merged;
+    }
+
+    /**
+     * One device's own observers (immutable) and its cached merged array
+     */
+    private static final class DeviceEntry {
+        final DeviceObserver[] observers;
+        volatile Route route;
+
+        DeviceEntry(DeviceObserver[] observers) {
+            this.observers = observers;
+        }
+    }
+
+    private static final class Route {
+        final DeviceObserver[] shared;
+        final DeviceObserver[] observers;
+
+        Route(DeviceObserver[] shared, DeviceObserver[] observers) {
+            this.shared = shared;
+            this.observers = observers;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package edu.neu.csye7374.core.persistence;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.devices.group.DeviceAdapter;
+import edu.neu.csye7374.devices.group.DeviceGroup;
+import edu.neu.csye7374.devices.group.IDeviceComponent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Stored form of a device group: its members as device IDs and nested group IDs
+ */
+public final class GroupRecord {
+
+    private final String id;
+    private final String name;
+    private final List<String> deviceIds;
+    private final List<String> groupIds;
+
+    public GroupRecord(String id, String name, List<String> deviceIds, List<String> groupIds) {
+        this.id = id;
+        this.name = name;
+        this.deviceIds = Collections.unmodifiableList(new ArrayList<>(deviceIds));
+        this.groupIds = Collections.unmodifiableList(new ArrayList<>(groupIds));
+    }
+
+    public static GroupRecord of(DeviceGroup group) {
+        List<String> deviceIds = new ArrayList<>();
+        List<String> groupIds = new ArrayList<>();
+        for (IDeviceComponent child : group.getChildren()) {
+            if (child instanceof DeviceAdapter) {
+                deviceIds.add(((DeviceAdapter) child).getDevice().getId());
+            } else if (child instanceof DeviceGroup) {
+                groupIds.add(child.getId());
+            }
+        }
+        return new GroupRecord(group.getId(), group.getName(), deviceIds, groupIds);
+    }
+
+    /**
+     * Rebuild the group; members that cannot be resolved are left out
+     * @param devices Device lookup by ID
+     * @param groups Lookup for nested groups already rebuilt, by group ID
+     */
+    public DeviceGroup toGroup(Function<String, IDevice> devices, Function<String, DeviceGroup> groups) {
+        DeviceGroup group = new DeviceGroup(id, name);
+        for (String deviceId : deviceIds) {
+            IDevice device = devices.apply(deviceId);
+            if (device != null) {
+                group.addComponent(new DeviceAdapter(device));
+            }
+        }
+        for (String groupId : groupIds) {
+            DeviceGroup nested = groups.apply(groupId);
+            if (nested != null) {
+                group.addComponent(nested);
+            }
+        }
+        return group;
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public List<String> getDeviceIds() { return deviceIds; }
+    public List<String> getGroupIds() { return groupIds; }
+}
@@ -0,0 +1,141 @@
+package edu.neu.csye7374.core.persistence;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.template.AutomationRule;
+import edu.neu.csye7374.devices.automation.CompiledRule;
+import edu.neu.csye7374.devices.automation.PropertyPredicate;
+import edu.neu.csye7374.devices.automation.RuleDsl;
+import edu.neu.csye7374.devices.automation.ThresholdRule;
+
+import java.util.function.Function;
+
+/**
+ * Stored form of an automation rule. Devices are referenced by ID and only
+ * resolved to IDevice objects when the rule is rebuilt.
+ */
+public final class RuleRecord {
+
+    public enum Kind {
+        /** "When device is STATE, do action" */
+        STATE,
+        /** Numeric property predicate, see ThresholdRule */
+        THRESHOLD,
+        /** Rule DSL source, see RuleDsl */
+        DSL
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final int priority;
+    private final String triggerDeviceId;
+    private final String triggerState;
+    private final String property;
+    private final PropertyPredicate predicate;
+    private final String actionDeviceId;
+    private final String action;
+    private final String source;
+
+    private RuleRecord(Kind kind, String name, int priority, String triggerDeviceId, String triggerState,
+                       String property, PropertyPredicate predicate, String actionDeviceId, String action,
+                       String source) {
+        this.kind = kind;
+        this.name = name;
+        this.priority = priority;
+        this.triggerDeviceId = triggerDeviceId;
+        this.triggerState = triggerState;
+        this.property = property;
+        this.predicate = predicate;
+        this.actionDeviceId = actionDeviceId;
+        this.action = action;
+        this.source = source;
+    }
+
+    public static RuleRecord state(String name, int priority, String triggerDeviceId, String triggerState,
+                                   String actionDeviceId, String action) {
+        return new RuleRecord(Kind.STATE, name, priority, triggerDeviceId, triggerState, null, null,
+                actionDeviceId, action, null);
+    }
+
+    public static RuleRecord threshold(String name, int priority, String sourceDeviceId, String property,
+                                       PropertyPredicate predicate, String actionDeviceId, String action) {
+        return new RuleRecord(Kind.THRESHOLD, name, priority, sourceDeviceId, null, property, predicate,
+                actionDeviceId, action, null);
+    }
+
+    public static RuleRecord dsl(String name, int priority, String source) {
+        return new RuleRecord(Kind.DSL, name, priority, null, null, null, null, null, null, source);
+    }
+
+    /**
+     * Capture a device-triggered or threshold rule
+     * @throws IllegalArgumentException for rules without a trigger device (those only run on a schedule)
+     */
+    public static RuleRecord of(AutomationRule rule) {
+        if (rule instanceof ThresholdRule) {
+            ThresholdRule threshold = (ThresholdRule) rule;
+            return threshold(rule.getName(), rule.getPriority(), threshold.getSourceDeviceId(),
+                    threshold.getProperty(), threshold.getPredicate(), rule.getActionDeviceId(), rule.getAction());
+        }
+        if (!rule.hasTrigger()) {
+            throw new IllegalArgumentException("Rule has no trigger device: " + rule.getName());
+        }
+        return state(rule.getName(), rule.getPriority(), rule.getTriggerDeviceId(), rule.getTriggerState(),
+                rule.getActionDeviceId(), rule.getAction());
+    }
+
+    public static RuleRecord of(CompiledRule rule) {
+        return dsl(rule.getName(), rule.getPriority(), rule.getSource());
+    }
+
+    /**
+     * Rebuild a STATE or THRESHOLD rule
+     * @return The rule, or null if one of its devices is not available
+     */
+    public AutomationRule toRule(Function<String, IDevice> devices) {
+        IDevice trigger = devices.apply(triggerDeviceId);
+        IDevice target = devices.apply(actionDeviceId);
+        if (trigger == null || target == null) {
+            return null;
+        }
+        AutomationRule rule = kind == Kind.THRESHOLD
+                ? new ThresholdRule(name, trigger, property, predicate, target, action)
+                : new AutomationRule(name, trigger, triggerState, target, action);
+        rule.setPriority(priority);
+        return rule;
+    }
+
+    /**
+     * Compile a DSL rule
+     * @throws IllegalArgumentException if the source no longer compiles, e.g. a device is missing
+     */
+    public CompiledRule toCompiledRule(Function<String, IDevice> devices) {
+        CompiledRule rule = RuleDsl.compile(name, source, devices);
+        rule.setPriority(priority);
+        return rule;
+    }
+
+    public Kind getKind() { return kind; }
+    public String getName() { return name; }
+    public int getPriority() { return priority; }
+    public String getTriggerDeviceId() { return triggerDeviceId; }
+    public String getTriggerState() { return triggerState; }
+    public String getProperty() { return property; }
+    public PropertyPredicate getPredicate() { return predicate; }
+    public String getActionDeviceId() { return actionDeviceId; }
+    public String getAction() { return action; }
+    public String getSource() { return source; }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case STATE:
+                return "Rule: " + name + " (When " + triggerDeviceId + " is " + triggerState + ", "
+                        + action + " " + actionDeviceId + ")";
+            case THRESHOLD:
+                return "Rule: " + name + " (When " + triggerDeviceId + " " + property + " " + predicate + ", "
+                        + action + " " + actionDeviceId + ")";
+            default:
+                return "Rule: " + name + " (" + source + ")";
+        }
+    }
+}
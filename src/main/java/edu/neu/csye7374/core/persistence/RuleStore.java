@@ -0,0 +1,593 @@
+package edu.neu.csye7374.core.persistence;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.template.AutomationRule;
+import edu.neu.csye7374.devices.automation.AutomationEngine;
+import edu.neu.csye7374.devices.automation.CompiledRule;
+import edu.neu.csye7374.devices.automation.PropertyPredicate;
+import edu.neu.csye7374.devices.concrete.LightColor;
+import edu.neu.csye7374.devices.concrete.ThermostatMode;
+import edu.neu.csye7374.devices.group.DeviceGroup;
+import edu.neu.csye7374.devices.group.decorator.Scene;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Compact binary file for automation rules, device groups and scenes.
+ *
+ * <pre>
+ *   header:  int magic "SHRS", u16 version
+ *   records: u8 tag, then the record body; ints are unsigned varints
+ *     STRING  varint length, UTF-8 bytes     (appended to the string table)
+ *     GROUP   id, name, n, n device ids, m, m group ids
+ *     SCENE   name, u8 presence flags, then each present field
+ *     RULE    u8 kind, name, zigzag priority, then per kind:
+ *               STATE      trigger id, state, action device id, action
+ *               THRESHOLD  source id, property, u8 predicate, double, double, action device id, action
+ *               DSL        source
+ *     END     varint record count
+ * </pre>
+ *
+ * Every string field is an index into the string table, and each string is
+ * written once before its first use, so repeated device IDs, states and
+ * actions cost a byte or two. The file can be read as a stream in one pass.
+ */
+public final class RuleStore {
+
+    public static final int MAGIC = 0x53485253; // "SHRS"
+    public static final int VERSION = 1;
+
+    private static final int TAG_END = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_GROUP = 2;
+    private static final int TAG_SCENE = 3;
+    private static final int TAG_RULE = 4;
+
+    private static final int SCENE_LIGHTS_ON = 1;
+    private static final int SCENE_BRIGHTNESS = 1 << 1;
+    private static final int SCENE_COLOR = 1 << 2;
+    private static final int SCENE_THERMOSTAT_ON = 1 << 3;
+    private static final int SCENE_TARGET = 1 << 4;
+    private static final int SCENE_MODE = 1 << 5;
+
+    private RuleStore() {
+    }
+
+    /**
+     * Receives records as they are read
+     */
+    public interface Visitor {
+        default void onGroup(GroupRecord group) {}
+        default void onScene(Scene scene) {}
+        default void onRule(RuleRecord rule) {}
+    }
+
+    // ---- Writing ----
+
+    /**
+     * Write to a temporary file and move it over the target, so a crash never leaves a half-written store
+     */
+    public static void write(Path path, Collection<RuleRecord> rules, Collection<GroupRecord> groups,
+                             Collection<Scene> scenes) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                write(out, rules, groups, scenes);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static void write(OutputStream stream, Collection<RuleRecord> rules, Collection<GroupRecord> groups,
+                             Collection<Scene> scenes) throws IOException {
+        Writer writer = new Writer(new DataOutputStream(new BufferedOutputStream(stream, 1 << 16)));
+        writer.out.writeInt(MAGIC);
+        writer.out.writeShort(VERSION);
+        for (GroupRecord group : groups) {
+            writer.writeGroup(group);
+        }
+        for (Scene scene : scenes) {
+            writer.writeScene(scene);
+        }
+        for (RuleRecord rule : rules) {
+            writer.writeRule(rule);
+        }
+        writer.out.writeByte(TAG_END);
+        writer.writeVarint(writer.records);
+        writer.out.flush();
+    }
+
+    /**
+     * Capture every device-triggered, threshold and DSL rule in the engine
+     * (schedules and debounced rules are not stored)
+     */
+    public static List<RuleRecord> recordsOf(AutomationEngine engine) {
+        List<RuleRecord> records = new ArrayList<>();
+        for (AutomationRule rule : engine.getRules()) {
+            if (rule.hasTrigger()) {
+                records.add(RuleRecord.of(rule));
+            }
+        }
+        for (AutomationRule rule : engine.getThresholdRules()) {
+            records.add(RuleRecord.of(rule));
+        }
+        for (CompiledRule rule : engine.getCompiledRules()) {
+            records.add(RuleRecord.of(rule));
+        }
+        return records;
+    }
+
+    private static final class Writer {
+        final DataOutputStream out;
+        final Map<String, Integer> strings = new HashMap<>();
+        int records;
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeGroup(GroupRecord group) throws IOException {
+            int id = intern(group.getId());
+            int name = intern(group.getName());
+            int[] devices = internAll(group.getDeviceIds());
+            int[] groups = internAll(group.getGroupIds());
+            out.writeByte(TAG_GROUP);
+            writeVarint(id);
+            writeVarint(name);
+            writeRefs(devices);
+            writeRefs(groups);
+            records++;
+        }
+
+        void writeScene(Scene scene) throws IOException {
+            int name = intern(scene.getName());
+            int color = scene.getLightColor() == null ? -1 : intern(scene.getLightColor().name());
+            int mode = scene.getThermostatMode() == null ? -1 : intern(scene.getThermostatMode().name());
+            int flags = (scene.getLightsOn() != null ? SCENE_LIGHTS_ON : 0)
+                    | (scene.getLightBrightness() != null ? SCENE_BRIGHTNESS : 0)
+                    | (color >= 0 ? SCENE_COLOR : 0)
+                    | (scene.getThermostatOn() != null ? SCENE_THERMOSTAT_ON : 0)
+                    | (scene.getThermostatTargetTemperature() != null ? SCENE_TARGET : 0)
+                    | (mode >= 0 ? SCENE_MODE : 0);
+            out.writeByte(TAG_SCENE);
+            writeVarint(name);
+            out.writeByte(flags);
+            if (scene.getLightsOn() != null) {
+                out.writeBoolean(scene.getLightsOn());
+            }
+            if (scene.getLightBrightness() != null) {
+                writeVarint(scene.getLightBrightness());
+            }
+            if (color >= 0) {
+                writeVarint(color);
+            }
+            if (scene.getThermostatOn() != null) {
+                out.writeBoolean(scene.getThermostatOn());
+            }
+            if (scene.getThermostatTargetTemperature() != null) {
+                out.writeDouble(scene.getThermostatTargetTemperature());
+            }
+            if (mode >= 0) {
+                writeVarint(mode);
+            }
+            records++;
+        }
+
+        void writeRule(RuleRecord rule) throws IOException {
+            int name = intern(rule.getName());
+            switch (rule.getKind()) {
+                case STATE: {
+                    int trigger = intern(rule.getTriggerDeviceId());
+                    int state = intern(rule.getTriggerState());
+                    int target = intern(rule.getActionDeviceId());
+                    int action = intern(rule.getAction());
+                    writeRuleHeader(rule, name);
+                    writeVarint(trigger);
+                    writeVarint(state);
+                    writeVarint(target);
+                    writeVarint(action);
+                    break;
+                }
+                case THRESHOLD: {
+                    int trigger = intern(rule.getTriggerDeviceId());
+                    int property = intern(rule.getProperty());
+                    int target = intern(rule.getActionDeviceId());
+                    int action = intern(rule.getAction());
+                    PropertyPredicate predicate = rule.getPredicate();
+                    writeRuleHeader(rule, name);
+                    writeVarint(trigger);
+                    writeVarint(property);
+                    out.writeByte(predicate.getKind().ordinal());
+                    out.writeDouble(predicate.getFirst());
+                    out.writeDouble(predicate.getSecond());
+                    writeVarint(target);
+                    writeVarint(action);
+                    break;
+                }
+                case DSL:
+                default: {
+                    int source = intern(rule.getSource());
+                    writeRuleHeader(rule, name);
+                    writeVarint(source);
+                }
+            }
+            records++;
+        }
+
+        private void writeRuleHeader(RuleRecord rule, int name) throws IOException {
+            out.writeByte(TAG_RULE);
+            out.writeByte(rule.getKind().ordinal());
+            writeVarint(name);
+            writeVarint((rule.getPriority() << 1) ^ (rule.getPriority() >> 31));
+        }
+
+        private int intern(String value) throws IOException {
+            if (value == null) {
+                throw new IOException("Cannot store a null string");
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                return index;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(TAG_STRING);
+            writeVarint(bytes.length);
+            out.write(bytes);
+            int assigned = strings.size();
+            strings.put(value, assigned);
+            return assigned;
+        }
+
+        private int[] internAll(List<String> values) throws IOException {
+            int[] refs = new int[values.size()];
+            for (int i = 0; i < refs.length; i++) {
+                refs[i] = intern(values.get(i));
+            }
+            return refs;
+        }
+
+        private void writeRefs(int[] refs) throws IOException {
+            writeVarint(refs.length);
+            for (int ref : refs) {
+                writeVarint(ref);
+            }
+        }
+
+        void writeVarint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    // ---- Reading ----
+
+    /**
+     * Stream the records of a store to a visitor
+     * @return Number of records read
+     * @throws IOException if the file is not a rule store, has an unsupported version or is truncated
+     */
+    public static int read(Path path, Visitor visitor) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in, visitor);
+        }
+    }
+
+    public static int read(InputStream stream, Visitor visitor) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a rule store");
+        }
+        int version = in.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported rule store version " + version + " (expected " + VERSION + ")");
+        }
+        List<String> strings = new ArrayList<>();
+        byte[] buffer = new byte[256];
+        PropertyPredicate.Kind[] predicateKinds = PropertyPredicate.Kind.values();
+        RuleRecord.Kind[] ruleKinds = RuleRecord.Kind.values();
+        int records = 0;
+        try {
+            while (true) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case TAG_STRING: {
+                        int length = readVarint(in);
+                        if (length > buffer.length) {
+                            buffer = new byte[Math.max(length, buffer.length * 2)];
+                        }
+                        in.readFully(buffer, 0, length);
+                        strings.add(new String(buffer, 0, length, StandardCharsets.UTF_8));
+                        break;
+                    }
+                    case TAG_GROUP: {
+                        String id = strings.get(readVarint(in));
+                        String name = strings.get(readVarint(in));
+                        List<String> devices = readRefs(in, strings);
+                        List<String> groups = readRefs(in, strings);
+                        visitor.onGroup(new GroupRecord(id, name, devices, groups));
+                        records++;
+                        break;
+                    }
+                    case TAG_SCENE:
+                        visitor.onScene(readScene(in, strings));
+                        records++;
+                        break;
+                    case TAG_RULE:
+                        visitor.onRule(readRule(in, strings, ruleKinds, predicateKinds));
+                        records++;
+                        break;
+                    case TAG_END: {
+                        int expected = readVarint(in);
+                        if (expected != records) {
+                            throw new IOException("Rule store has " + records + " records, header says " + expected);
+                        }
+                        return records;
+                    }
+                    default:
+                        throw new IOException("Unknown record tag " + tag + " after " + records + " records");
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Rule store is truncated after " + records + " records", e);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Rule store references an unknown string after " + records + " records", e);
+        }
+    }
+
+    private static Scene readScene(DataInputStream in, List<String> strings) throws IOException {
+        Scene.Builder builder = new Scene.Builder(strings.get(readVarint(in)));
+        int flags = in.readUnsignedByte();
+        if ((flags & SCENE_LIGHTS_ON) != 0) {
+            builder.lightsOn(in.readBoolean());
+        }
+        if ((flags & SCENE_BRIGHTNESS) != 0) {
+            builder.lightBrightness(readVarint(in));
+        }
+        if ((flags & SCENE_COLOR) != 0) {
+            builder.lightColor(LightColor.valueOf(strings.get(readVarint(in))));
+        }
+        if ((flags & SCENE_THERMOSTAT_ON) != 0) {
+            builder.thermostatOn(in.readBoolean());
+        }
+        if ((flags & SCENE_TARGET) != 0) {
+            builder.thermostatTarget(in.readDouble());
+        }
+        if ((flags & SCENE_MODE) != 0) {
+            builder.thermostatMode(ThermostatMode.valueOf(strings.get(readVarint(in))));
+        }
+        return builder.build();
+    }
+
+    private static RuleRecord readRule(DataInputStream in, List<String> strings, RuleRecord.Kind[] ruleKinds,
+                                       PropertyPredicate.Kind[] predicateKinds) throws IOException {
+        int kind = in.readUnsignedByte();
+        if (kind >= ruleKinds.length) {
+            throw new IOException("Unknown rule kind " + kind);
+        }
+        String name = strings.get(readVarint(in));
+        int zigzag = readVarint(in);
+        int priority = (zigzag >>> 1) ^ -(zigzag & 1);
+        switch (ruleKinds[kind]) {
+            case STATE:
+                return RuleRecord.state(name, priority, strings.get(readVarint(in)), strings.get(readVarint(in)),
+                        strings.get(readVarint(in)), strings.get(readVarint(in)));
+            case THRESHOLD: {
+                String trigger = strings.get(readVarint(in));
+                String property = strings.get(readVarint(in));
+                int predicateKind = in.readUnsignedByte();
+                if (predicateKind >= predicateKinds.length) {
+                    throw new IOException("Unknown predicate kind " + predicateKind);
+                }
+                PropertyPredicate predicate = PropertyPredicate.of(predicateKinds[predicateKind],
+                        in.readDouble(), in.readDouble());
+                return RuleRecord.threshold(name, priority, trigger, property, predicate,
+                        strings.get(readVarint(in)), strings.get(readVarint(in)));
+            }
+            case DSL:
+            default:
+                return RuleRecord.dsl(name, priority, strings.get(readVarint(in)));
+        }
+    }
+
+    private static List<String> readRefs(DataInputStream in, List<String> strings) throws IOException {
+        int count = readVarint(in);
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(strings.get(readVarint(in)));
+        }
+        return values;
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    // ---- Loading into the engine ----
+
+    /**
+     * Stream a store into an engine, rebuilding rules against the given devices
+     * @param devices Device lookup by ID, typically DeviceRegistry.getInstance()::getDevice
+     * @return Loaded groups and scenes plus counts; rules whose devices are missing, and rules
+     *         named like one already in the engine (e.g. when loading twice), are skipped
+     */
+    public static LoadResult loadInto(Path path, AutomationEngine engine, Function<String, IDevice> devices)
+            throws IOException {
+        long start = System.nanoTime();
+        Set<String> existing = new HashSet<>();
+        for (AutomationRule rule : engine.getRules()) {
+            existing.add(rule.getName());
+        }
+        for (AutomationRule rule : engine.getThresholdRules()) {
+            existing.add(rule.getName());
+        }
+        for (CompiledRule rule : engine.getCompiledRules()) {
+            existing.add(rule.getName());
+        }
+        EngineLoader loader = new EngineLoader(devices, existing);
+        read(path, loader);
+        engine.addRules(loader.rules);
+        engine.addCompiledRules(loader.compiledRules);
+
+        // Rebuild groups after the whole stream so nested groups resolve regardless of order
+        Map<String, GroupRecord> groupRecords = new LinkedHashMap<>();
+        for (GroupRecord record : loader.groups) {
+            groupRecords.put(record.getId(), record);
+        }
+        Map<String, DeviceGroup> built = new LinkedHashMap<>();
+        for (GroupRecord record : loader.groups) {
+            buildGroup(record, groupRecords, built, devices);
+        }
+        return new LoadResult(loader.rules, loader.compiledRules, new ArrayList<>(built.values()), loader.scenes,
+                loader.skipped, loader.alreadyLoaded, System.nanoTime() - start);
+    }
+
+    private static DeviceGroup buildGroup(GroupRecord record, Map<String, GroupRecord> records,
+                                          Map<String, DeviceGroup> built, Function<String, IDevice> devices) {
+        DeviceGroup group = built.get(record.getId());
+        if (group != null) {
+            return group;
+        }
+        // Reserve the slot first so a cycle in the file ends instead of recursing forever
+        built.put(record.getId(), null);
+        group = record.toGroup(devices, id -> {
+            if (built.containsKey(id)) {
+                return built.get(id);
+            }
+            GroupRecord nested = records.get(id);
+            return nested == null ? null : buildGroup(nested, records, built, devices);
+        });
+        built.put(record.getId(), group);
+        return group;
+    }
+
+    private static final class EngineLoader implements Visitor {
+        final Function<String, IDevice> devices;
+        final List<AutomationRule> rules = new ArrayList<>();
+        final List<CompiledRule> compiledRules = new ArrayList<>();
+        final List<GroupRecord> groups = new ArrayList<>();
+        final List<Scene> scenes = new ArrayList<>();
+        final Set<String> existing;
+        int skipped;
+        int alreadyLoaded;
+
+        EngineLoader(Function<String, IDevice> devices, Set<String> existing) {
+            this.devices = devices;
+            this.existing = existing;
+        }
+
+        @Override
+        public void onGroup(GroupRecord group) {
+            groups.add(group);
+        }
+
+        @Override
+        public void onScene(Scene scene) {
+            scenes.add(scene);
+        }
+
+        @Override
+        public void onRule(RuleRecord record) {
+            if (!existing.add(record.getName())) {
+                alreadyLoaded++;
+                return;
+            }
+            if (record.getKind() == RuleRecord.Kind.DSL) {
+                try {
+                    compiledRules.add(record.toCompiledRule(devices));
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                }
+                return;
+            }
+            AutomationRule rule = record.toRule(devices);
+            if (rule == null) {
+                skipped++;
+            } else {
+                rules.add(rule);
+            }
+        }
+    }
+
+    /**
+     * What loadInto restored
+     */
+    public static final class LoadResult {
+        private final List<AutomationRule> rules;
+        private final List<CompiledRule> compiledRules;
+        private final List<DeviceGroup> groups;
+        private final List<Scene> scenes;
+        private final int rulesSkipped;
+        private final int rulesAlreadyLoaded;
+        private final long elapsedNanos;
+
+        LoadResult(List<AutomationRule> rules, List<CompiledRule> compiledRules, List<DeviceGroup> groups,
+                   List<Scene> scenes, int rulesSkipped, int rulesAlreadyLoaded, long elapsedNanos) {
+            this.rules = rules;
+            this.compiledRules = compiledRules;
+            this.groups = groups;
+            this.scenes = scenes;
+            this.rulesSkipped = rulesSkipped;
+            this.rulesAlreadyLoaded = rulesAlreadyLoaded;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** State and threshold rules added to the engine */
+        public List<AutomationRule> getRules() { return rules; }
+        /** DSL rules added to the engine */
+        public List<CompiledRule> getCompiledRules() { return compiledRules; }
+        public List<DeviceGroup> getGroups() { return groups; }
+        public List<Scene> getScenes() { return scenes; }
+        public int getRulesLoaded() { return rules.size() + compiledRules.size(); }
+        /** Rules not restored because a device they reference is missing */
+        public int getRulesSkipped() { return rulesSkipped; }
+        /** Rules not restored because the engine already has a rule with that name */
+        public int getRulesAlreadyLoaded() { return rulesAlreadyLoaded; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("Loaded %d rules (%d skipped, %d already loaded), %d groups, %d scenes in %.1f ms",
+                    getRulesLoaded(), rulesSkipped, rulesAlreadyLoaded, groups.size(), scenes.size(),
+                    elapsedNanos / 1e6);
+        }
+    }
+}
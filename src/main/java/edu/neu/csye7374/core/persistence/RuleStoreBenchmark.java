@@ -0,0 +1,113 @@
+package edu.neu.csye7374.core.persistence;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.devices.automation.AutomationClock;
+import edu.neu.csye7374.devices.automation.AutomationEngine;
+import edu.neu.csye7374.devices.automation.PropertyPredicate;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.devices.concrete.LightColor;
+import edu.neu.csye7374.devices.concrete.Thermostat;
+import edu.neu.csye7374.devices.group.decorator.Scene;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Writes a large rule set to a RuleStore file and measures cold loads of it
+ * into a fresh AutomationEngine. The mix is mostly state rules with some
+ * threshold and DSL rules, plus groups and scenes.
+ * Options: rules=100000 lights=1000 thermostats=100 dslPercent=5 rounds=3
+ */
+public class RuleStoreBenchmark {
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "rules", "lights", "thermostats", "dslPercent", "rounds");
+        int ruleCount = options.get("rules", 100_000, 1);
+        int lights = options.get("lights", 1000, 2);
+        int thermostats = options.get("thermostats", 100, 1);
+        int dslPercent = options.get("dslPercent", 5, 0, 100);
+        int rounds = options.get("rounds", 3, 1);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        Path file = null;
+        try {
+            Map<String, IDevice> devices = new HashMap<>();
+            for (int i = 0; i < lights; i++) {
+                devices.put("light_" + i, new Light("light_" + i, "Light " + i));
+            }
+            for (int i = 0; i < thermostats; i++) {
+                devices.put("thermostat_" + i, new Thermostat("thermostat_" + i, "Thermostat " + i));
+            }
+
+            Random random = new Random(11);
+            List<RuleRecord> rules = new ArrayList<>(ruleCount);
+            for (int i = 0; i < ruleCount; i++) {
+                String target = "light_" + random.nextInt(lights);
+                int roll = random.nextInt(100);
+                if (roll < dslPercent) {
+                    rules.add(RuleRecord.dsl("Rule " + i, 0, "when light_" + random.nextInt(lights)
+                            + " is on and thermostat_" + random.nextInt(thermostats) + ".currentTemperature > "
+                            + (65 + random.nextInt(15)) + " then turn on " + target));
+                } else if (roll < dslPercent + 10) {
+                    rules.add(RuleRecord.threshold("Rule " + i, 0, "thermostat_" + random.nextInt(thermostats),
+                            "currentTemperature", PropertyPredicate.above(65 + random.nextInt(15), 1),
+                            target, "turn on"));
+                } else {
+                    rules.add(RuleRecord.state("Rule " + i, random.nextInt(3), "light_" + random.nextInt(lights),
+                            random.nextBoolean() ? "ON" : "OFF", target, random.nextBoolean() ? "turn on" : "turn off"));
+                }
+            }
+            List<GroupRecord> groups = new ArrayList<>();
+            for (int g = 0; g < 50; g++) {
+                List<String> members = new ArrayList<>();
+                for (int m = 0; m < 20; m++) {
+                    members.add("light_" + random.nextInt(lights));
+                }
+                groups.add(new GroupRecord("group_" + g, "Group " + g, members, List.of()));
+            }
+            List<Scene> scenes = new ArrayList<>();
+            for (int s = 0; s < 10; s++) {
+                scenes.add(new Scene.Builder("Scene " + s).lightsOn(true).lightBrightness(10 * s)
+                        .lightColor(LightColor.values()[s % LightColor.values().length]).build());
+            }
+
+            file = Files.createTempFile("rules", ".shrs");
+            long start = System.nanoTime();
+            RuleStore.write(file, rules, groups, scenes);
+            long writeNanos = System.nanoTime() - start;
+
+            out.println("\n=== RULE STORE BENCHMARK ===");
+            out.printf("Store:    %d rules (%d%% DSL), %d groups, %d scenes%n", ruleCount, dslPercent,
+                    groups.size(), scenes.size());
+            out.printf("Write:    %.1f ms, %d bytes (%.1f bytes/rule)%n", writeNanos / 1e6, Files.size(file),
+                    (double) Files.size(file) / ruleCount);
+
+            for (int round = 1; round <= rounds; round++) {
+                AutomationEngine engine = new AutomationEngine(AutomationClock.system());
+                RuleStore.LoadResult result = RuleStore.loadInto(file, engine, devices::get);
+                out.printf("Load %d:   %s%n", round, result);
+            }
+        } catch (IOException e) {
+            out.println("Rule store benchmark failed: " + e.getMessage());
+        } finally {
+            quiet.close();
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // Temporary file; nothing else to do
+                }
+            }
+        }
+    }
+}
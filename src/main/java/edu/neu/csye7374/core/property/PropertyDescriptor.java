@@ -0,0 +1,163 @@
+package edu.neu.csye7374.core.property;
+
+import java.util.Locale;
+
+/**
+ * Typed description of one device property: its slot in the device's
+ * PropertyStore, value kind, valid range and default. Converts values to and
+ * from the packed long the store holds.
+ */
+public final class PropertyDescriptor {
+
+    private final int slot;
+    private final String name;
+    private final String label;
+    private final PropertyKind kind;
+    private final String unit;
+    private final double min;
+    private final double max;
+    private final long defaultRaw;
+    private final Enum<?>[] constants;
+    private final boolean reading;
+
+    PropertyDescriptor(int slot, String name, String label, PropertyKind kind, String unit,
+                       double min, double max, Object defaultValue, Class<? extends Enum<?>> enumType,
+                       boolean reading) {
+        this.slot = slot;
+        this.name = name;
+        this.label = label;
+        this.kind = kind;
+        this.unit = unit;
+        this.min = min;
+        this.max = max;
+        this.constants = enumType != null ? enumType.getEnumConstants() : null;
+        this.reading = reading;
+        this.defaultRaw = encode(defaultValue);
+    }
+
+    public int getSlot() { return slot; }
+    public String getName() { return name; }
+    public String getLabel() { return label; }
+    public PropertyKind getKind() { return kind; }
+    public String getUnit() { return unit; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public long getDefaultRaw() { return defaultRaw; }
+
+    /**
+     * Whether the value is reported by the device (a sensor reading) rather than
+     * set by the user; readings notify observers only when the value changes
+     */
+    public boolean isReading() { return reading; }
+
+    /**
+     * Pack a value for the store
+     * @throws IllegalArgumentException if the value does not fit this property's kind
+     */
+    public long encode(Object value) {
+        switch (kind) {
+            case INT:
+                if (value instanceof Number) {
+                    return ((Number) value).intValue();
+                }
+                break;
+            case DOUBLE:
+                if (value instanceof Number) {
+                    return Double.doubleToRawLongBits(((Number) value).doubleValue());
+                }
+                break;
+            case ENUM:
+                if (value instanceof Enum && ((Enum<?>) value).getDeclaringClass() == constants.getClass().getComponentType()) {
+                    return ((Enum<?>) value).ordinal();
+                }
+                if (value instanceof String) {
+                    return enumOrdinal((String) value);
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+    }
+
+    public long encode(double value) {
+        if (kind == PropertyKind.INT) {
+            return (long) value;
+        } else if (kind == PropertyKind.DOUBLE) {
+            return Double.doubleToRawLongBits(value);
+        }
+        throw new IllegalArgumentException(name + " is not numeric");
+    }
+
+    /**
+     * Pack a value given as text: a number (or true/false for 1/0) for numeric
+     * kinds, a constant name for enums
+     * @throws IllegalArgumentException if the text does not fit the property's kind
+     */
+    public long parse(String text) {
+        if (kind == PropertyKind.ENUM) {
+            return enumOrdinal(text);
+        }
+        if (text.equals("true") || text.equals("false")) {
+            return encode(text.equals("true") ? 1 : 0);
+        }
+        try {
+            return encode(Double.parseDouble(text.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + text);
+        }
+    }
+
+    /**
+     * Unpack a stored value (Integer, Double or the enum constant)
+     */
+    public Object decode(long raw) {
+        switch (kind) {
+            case INT:
+                return (int) raw;
+            case DOUBLE:
+                return Double.longBitsToDouble(raw);
+            default:
+                return constants[(int) raw];
+        }
+    }
+
+    /**
+     * Numeric view of a stored value; enums report their ordinal
+     */
+    public double toDouble(long raw) {
+        return kind == PropertyKind.DOUBLE ? Double.longBitsToDouble(raw) : raw;
+    }
+
+    /**
+     * Whether a packed value is within range
+     */
+    public boolean accepts(long raw) {
+        if (kind == PropertyKind.ENUM) {
+            return raw >= 0 && raw < constants.length;
+        }
+        double value = toDouble(raw);
+        return value >= min && value <= max;
+    }
+
+    /**
+     * Display form of a stored value, e.g. "75%" or "72.0°F"
+     */
+    public String format(long raw) {
+        return decode(raw) + unit;
+    }
+
+    private long enumOrdinal(String value) {
+        for (Enum<?> constant : constants) {
+            if (constant.name().equalsIgnoreCase(value.trim())) {
+                return constant.ordinal();
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + name + ": " + value.toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public String toString() {
+        return name + "#" + slot + ":" + kind;
+    }
+}
@@ -0,0 +1,15 @@
+package edu.neu.csye7374.core.property;
+
+/**
+ * Value kinds a device property slot can hold. Every kind is packed into a
+ * long: integers as-is, decimals as their IEEE bits, enums as the ordinal.
+ */
+public enum PropertyKind {
+    INT,
+    DOUBLE,
+    ENUM;
+
+    public boolean isNumeric() {
+        return this != ENUM;
+    }
+}
@@ -0,0 +1,187 @@
+package edu.neu.csye7374.core.property;
+
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.devices.concrete.LightColor;
+import edu.neu.csye7374.devices.concrete.ThermostatMode;
+import edu.neu.csye7374.flyweight.DeviceFlyweightFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Property layout for one device type. Built once per type from the
+ * capabilities listed in its flyweight, and shared by every device of that
+ * type; each property gets a fixed integer slot so devices, commands and
+ * mementos address values by index instead of by name.
+ */
+public final class PropertySchema {
+
+    private static final PropertySchema[] SCHEMAS = new PropertySchema[DeviceType.values().length];
+
+    private final DeviceType type;
+    private final PropertyDescriptor[] descriptors;
+    private final Map<String, PropertyDescriptor> byName;
+
+    private PropertySchema(DeviceType type, List<PropertyDescriptor> descriptors) {
+        this.type = type;
+        this.descriptors = descriptors.toArray(new PropertyDescriptor[0]);
+        Map<String, PropertyDescriptor> names = new HashMap<>();
+        for (PropertyDescriptor descriptor : descriptors) {
+            names.put(descriptor.getName(), descriptor);
+        }
+        this.byName = names;
+    }
+
+    /**
+     * Get the shared schema for a device type
+     */
+    public static PropertySchema forType(DeviceType type) {
+        PropertySchema schema = SCHEMAS[type.ordinal()];
+        if (schema == null) {
+            synchronized (SCHEMAS) {
+                schema = SCHEMAS[type.ordinal()];
+                if (schema == null) {
+                    schema = build(type);
+                    SCHEMAS[type.ordinal()] = schema;
+                }
+            }
+        }
+        return schema;
+    }
+
+    public DeviceType getType() { return type; }
+
+    /**
+     * Number of slots
+     */
+    public int size() {
+        return descriptors.length;
+    }
+
+    public PropertyDescriptor get(int slot) {
+        return descriptors[slot];
+    }
+
+    /**
+     * @return The property, or null if this type has none by that name
+     */
+    public PropertyDescriptor get(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * @return The property's slot, or -1 if this type has none by that name
+     */
+    public int slotOf(String name) {
+        PropertyDescriptor descriptor = byName.get(name);
+        return descriptor != null ? descriptor.getSlot() : -1;
+    }
+
+    /**
+     * Slot of a property the caller's device class relies on
+     * @throws IllegalStateException if the type's capabilities do not define it
+     */
+    public int requireSlot(String name) {
+        int slot = slotOf(name);
+        if (slot < 0) {
+            throw new IllegalStateException(type + " has no property " + name);
+        }
+        return slot;
+    }
+
+    public List<PropertyDescriptor> getDescriptors() {
+        return Collections.unmodifiableList(Arrays.asList(descriptors));
+    }
+
+    /**
+     * Fresh store holding every property's default
+     */
+    public PropertyStore newStore() {
+        PropertyStore store = new PropertyStore(descriptors.length);
+        resetStore(store);
+        return store;
+    }
+
+    /**
+     * Put every slot of a store back to its default, for recycled devices
+     */
+    public void resetStore(PropertyStore store) {
+        for (PropertyDescriptor descriptor : descriptors) {
+            store.set(descriptor.getSlot(), descriptor.getDefaultRaw());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PropertySchema{" + type + ", " + Arrays.toString(descriptors) + "}";
+    }
+
+    // ---- Capability catalog ----
+
+    private static PropertySchema build(DeviceType type) {
+        Builder builder = new Builder();
+        for (String capability : DeviceFlyweightFactory.getFlyweight(type).getCapabilities()) {
+            switch (capability) {
+                case "Brightness":
+                    builder.intProperty("brightness", "brightness", "%", 0, 100, 100);
+                    break;
+                case "Color":
+                    builder.enumProperty("color", "color", LightColor.class, LightColor.BRIGHT_WHITE);
+                    break;
+                case "Temperature":
+                    builder.reading("currentTemperature", "current temperature", "°F", 72.0);
+                    builder.doubleProperty("targetTemperature", "target temperature", "°F", 50, 90, 72.0);
+                    break;
+                case "Mode":
+                    builder.enumProperty("mode", "mode", ThermostatMode.class, ThermostatMode.HEAT);
+                    break;
+                case "Motion":
+                    builder.reading("motion", "motion", "", 0);
+                    break;
+                case "Contact":
+                    builder.reading("open", "open", "", 0);
+                    break;
+                case "Power":
+                    builder.reading("power", "power", "W", 0);
+                    break;
+                case "Humidity":
+                    builder.reading("humidity", "humidity", "%", 45.0);
+                    break;
+                default:
+                    System.out.println("PROPERTIES: No properties defined for capability " + capability);
+            }
+        }
+        return new PropertySchema(type, builder.descriptors);
+    }
+
+    private static final class Builder {
+        private final List<PropertyDescriptor> descriptors = new ArrayList<>();
+
+        void intProperty(String name, String label, String unit, int min, int max, int defaultValue) {
+            add(name, label, PropertyKind.INT, unit, min, max, defaultValue, null, false);
+        }
+
+        void doubleProperty(String name, String label, String unit, double min, double max, double defaultValue) {
+            add(name, label, PropertyKind.DOUBLE, unit, min, max, defaultValue, null, false);
+        }
+
+        void reading(String name, String label, String unit, double defaultValue) {
+            add(name, label, PropertyKind.DOUBLE, unit, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                    defaultValue, null, true);
+        }
+
+        <E extends Enum<E>> void enumProperty(String name, String label, Class<E> type, E defaultValue) {
+            add(name, label, PropertyKind.ENUM, "", 0, 0, defaultValue, type, false);
+        }
+
+        private void add(String name, String label, PropertyKind kind, String unit, double min, double max,
+                         Object defaultValue, Class<? extends Enum<?>> enumType, boolean reading) {
+            descriptors.add(new PropertyDescriptor(descriptors.size(), name, label, kind, unit, min, max,
+                    defaultValue, enumType, reading));
+        }
+    }
+}
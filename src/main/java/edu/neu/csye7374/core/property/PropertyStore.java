@@ -0,0 +1,62 @@
+package edu.neu.csye7374.core.property;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-device property values, one packed long per schema slot. Reads and
+ * writes are volatile, like the device fields they replace.
+ */
+public final class PropertyStore {
+
+    private final AtomicLongArray values;
+
+    PropertyStore(int size) {
+        this.values = new AtomicLongArray(size);
+    }
+
+    public int size() {
+        return values.length();
+    }
+
+    public long get(int slot) {
+        return values.get(slot);
+    }
+
+    public int getInt(int slot) {
+        return (int) values.get(slot);
+    }
+
+    public double getDouble(int slot) {
+        return Double.longBitsToDouble(values.get(slot));
+    }
+
+    /**
+     * Store a packed value
+     * @return The previous packed value
+     */
+    public long set(int slot, long raw) {
+        return values.getAndSet(slot, raw);
+    }
+
+    /**
+     * Independent store with the same values, for cloned devices
+     */
+    public PropertyStore copy() {
+        PropertyStore copy = new PropertyStore(values.length());
+        for (int i = 0; i < values.length(); i++) {
+            copy.values.set(i, values.get(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Copy of every slot, for mementos
+     */
+    public long[] snapshot() {
+        long[] copy = new long[values.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = values.get(i);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,338 @@
+package edu.neu.csye7374.core.provisioning;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.property.PropertyDescriptor;
+import edu.neu.csye7374.devices.state.PowerState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One device to provision: its type, name, optional ID and power state, and
+ * initial property values as text keyed by property name.
+ *
+ * <pre>
+ *   CSV:         type,name[,id[,property=value ...]]
+ *                LIGHT,Kitchen Light,,brightness=40,color=WARM_WHITE,state=ON
+ *   JSON lines:  {"type":"LIGHT","name":"Kitchen Light","brightness":40,"state":"ON"}
+ * </pre>
+ *
+ * A missing or empty ID is generated on import. "state" sets the power state;
+ * every other key names a property in the type's schema.
+ */
+public final class DeviceDefinition {
+
+    private final DeviceType type;
+    private final String name;
+    private final String id;
+    private final PowerState powerState;
+    private final Map<String, String> properties;
+
+    public DeviceDefinition(DeviceType type, String name, String id, PowerState powerState,
+                            Map<String, String> properties) {
+        if (type == null) {
+            throw new IllegalArgumentException("Missing device type");
+        }
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Missing device name");
+        }
+        this.type = type;
+        this.name = name;
+        this.id = id == null || id.isEmpty() ? null : id;
+        this.powerState = powerState;
+        this.properties = properties.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(properties);
+    }
+
+    public DeviceDefinition(DeviceType type, String name) {
+        this(type, name, null, null, Collections.emptyMap());
+    }
+
+    /**
+     * Parse a CSV row; fields may be double-quoted, with "" for a quote
+     * @throws IllegalArgumentException if the row is malformed
+     */
+    public static DeviceDefinition parseCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        int pos = 0;
+        int length = line.length();
+        while (true) {
+            StringBuilder field = new StringBuilder();
+            while (pos < length && line.charAt(pos) == ' ') {
+                pos++;
+            }
+            if (pos < length && line.charAt(pos) == '"') {
+                pos++;
+                while (true) {
+                    if (pos >= length) {
+                        throw new IllegalArgumentException("Unterminated quote");
+                    }
+                    char c = line.charAt(pos++);
+                    if (c == '"') {
+                        if (pos < length && line.charAt(pos) == '"') {
+                            field.append('"');
+                            pos++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                }
+                while (pos < length && line.charAt(pos) != ',') {
+                    pos++;
+                }
+            } else {
+                int end = line.indexOf(',', pos);
+                if (end < 0) {
+                    end = length;
+                }
+                field.append(line, pos, end);
+                pos = end;
+            }
+            fields.add(field.toString().trim());
+            if (pos >= length) {
+                break;
+            }
+            pos++;
+        }
+
+        if (fields.size() < 2) {
+            throw new IllegalArgumentException("Expected type,name[,id[,property=value ...]]");
+        }
+        Map<String, String> properties = new LinkedHashMap<>();
+        PowerState state = null;
+        for (int i = 3; i < fields.size(); i++) {
+            String field = fields.get(i);
+            if (field.isEmpty()) {
+                continue;
+            }
+            int eq = field.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected property=value: " + field);
+            }
+            String key = field.substring(0, eq).trim();
+            String value = field.substring(eq + 1).trim();
+            if (key.equals("state")) {
+                state = PowerState.fromLabel(value);
+            } else {
+                properties.put(key, value);
+            }
+        }
+        return new DeviceDefinition(parseType(fields.get(0)), fields.get(1), fields.size() > 2 ? fields.get(2) : null,
+                state, properties);
+    }
+
+    /**
+     * Parse a flat JSON object on one line; values are strings, numbers,
+     * booleans or null (null values are ignored)
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static DeviceDefinition parseJson(String line) {
+        JsonReader reader = new JsonReader(line);
+        Map<String, String> properties = new LinkedHashMap<>();
+        String type = null;
+        String name = null;
+        String id = null;
+        PowerState state = null;
+        reader.expect('{');
+        if (!reader.consume('}')) {
+            do {
+                String key = reader.string();
+                reader.expect(':');
+                String value = reader.value();
+                if (value == null) {
+                    continue;
+                }
+                switch (key) {
+                    case "type": type = value; break;
+                    case "name": name = value; break;
+                    case "id": id = value; break;
+                    case "state": state = PowerState.fromLabel(value); break;
+                    default: properties.put(key, value);
+                }
+            } while (reader.consume(','));
+            reader.expect('}');
+        }
+        reader.end();
+        if (type == null) {
+            throw new IllegalArgumentException("Missing device type");
+        }
+        return new DeviceDefinition(parseType(type), name, id, state, properties);
+    }
+
+    /**
+     * Definition that recreates a device as it is now: same ID, power state
+     * and property values
+     */
+    public static DeviceDefinition of(IDevice device) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (PropertyDescriptor descriptor : device.getSchema().getDescriptors()) {
+            Object value = device.getProperty(descriptor.getSlot());
+            properties.put(descriptor.getName(), value instanceof Enum ? ((Enum<?>) value).name() : String.valueOf(value));
+        }
+        return new DeviceDefinition(device.getType(), device.getName(), device.getId(), device.getPowerState(),
+                properties);
+    }
+
+    /**
+     * CSV row in the format parseCsv() reads
+     */
+    public String toCsv() {
+        StringBuilder row = new StringBuilder(type.name()).append(',').append(csvField(name))
+                .append(',').append(id != null ? csvField(id) : "");
+        if (powerState != null) {
+            row.append(",state=").append(powerState.getLabel());
+        }
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            row.append(',').append(csvField(property.getKey() + "=" + property.getValue()));
+        }
+        return row.toString();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.trim().equals(value)) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static DeviceType parseType(String text) {
+        try {
+            return DeviceType.valueOf(text.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown device type: " + text);
+        }
+    }
+
+    public DeviceType getType() { return type; }
+    public String getName() { return name; }
+
+    /**
+     * @return The ID, or null to have one generated
+     */
+    public String getId() { return id; }
+
+    /**
+     * @return The initial power state, or null to leave the device off
+     */
+    public PowerState getPowerState() { return powerState; }
+    public Map<String, String> getProperties() { return properties; }
+
+    @Override
+    public String toString() {
+        return type + " " + name + (id != null ? " (" + id + ")" : "") + (powerState != null ? " " + powerState : "")
+                + (properties.isEmpty() ? "" : " " + properties);
+    }
+
+    /**
+     * Just enough of a JSON reader for one flat object
+     */
+    private static final class JsonReader {
+        private final String text;
+        private int pos;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void end() {
+            skipWhitespace();
+            if (pos < text.length()) {
+                throw error("Unexpected text after object");
+            }
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Bad unicode escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    default: sb.append(escaped);
+                }
+            }
+        }
+
+        /**
+         * A string, or the literal text of a number or boolean; null for JSON null
+         */
+        String value() {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == '"') {
+                return string();
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("Expected a value");
+            }
+            String literal = text.substring(start, pos);
+            if (literal.charAt(0) == '{' || literal.charAt(0) == '[') {
+                throw error("Nested values are not supported");
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at column " + (pos + 1));
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package edu.neu.csye7374.core.provisioning;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceTypeRegistry;
+import edu.neu.csye7374.core.metrics.Counter;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+import edu.neu.csye7374.core.property.PropertyDescriptor;
+import edu.neu.csye7374.core.registry.DeviceIdGenerator;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk device provisioning. Definitions are streamed from a CSV or JSON-lines
+ * file (see DeviceDefinition) in batches; each batch is parsed, created,
+ * seeded and registered on a worker thread. At most two batches per worker
+ * are in memory at once, so files of any size import in constant space.
+ * Devices are seeded before registration, so an import logs nothing per
+ * device and observers only see devices once they exist.
+ */
+public class DeviceProvisioner {
+
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    /**
+     * Input format
+     */
+    public enum Format {
+        CSV,
+        JSON_LINES;
+
+        /**
+         * JSON lines for .jsonl, .ndjson and .json files, CSV otherwise
+         */
+        public static Format forPath(Path path) {
+            String name = path.getFileName().toString().toLowerCase();
+            return name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json") ? JSON_LINES : CSV;
+        }
+    }
+
+    private static final Counter PROVISIONED = MetricsRegistry.getInstance().counter("devices.provisioned");
+
+    private final DeviceRegistry registry;
+    private final DeviceIdGenerator ids = DeviceIdGenerator.getInstance();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Provision into the shared registry
+     */
+    public DeviceProvisioner() {
+        this(DeviceRegistry.getInstance());
+    }
+
+    /**
+     * New devices publish events like any other device: the DeviceEventHub
+     * observes every device through the ObserverRouter, so nothing is attached here
+     */
+    public DeviceProvisioner(DeviceRegistry registry) {
+        this.registry = registry;
+    }
+
+    public int getBatchSize() { return batchSize; }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public int getThreads() { return threads; }
+
+    /**
+     * Worker threads; 1 imports on the calling thread
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Import a file, choosing the format from its extension
+     */
+    public ProvisioningReport importFile(Path path) throws IOException {
+        return importFile(path, Format.forPath(path));
+    }
+
+    public ProvisioningReport importFile(Path path, Format format) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return importLines(reader, format);
+        }
+    }
+
+    /**
+     * Import definitions line by line. Blank lines and lines starting with '#'
+     * are skipped, as is a CSV header line starting with "type,".
+     */
+    public ProvisioningReport importLines(BufferedReader reader, Format format) throws IOException {
+        ProvisioningReport report = new ProvisioningReport();
+        long start = System.nanoTime();
+        try (Workers workers = new Workers()) {
+            String[] lines = new String[batchSize];
+            long[] lineNumbers = new long[batchSize];
+            int count = 0;
+            long lineNumber = 0;
+            boolean first = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.charAt(0) == '#') {
+                    continue;
+                }
+                if (first && format == Format.CSV && line.regionMatches(true, 0, "type,", 0, 5)) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                lines[count] = line;
+                lineNumbers[count] = lineNumber;
+                if (++count == batchSize) {
+                    workers.submit(new LineBatch(report, lines, lineNumbers, count, format));
+                    lines = new String[batchSize];
+                    lineNumbers = new long[batchSize];
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                workers.submit(new LineBatch(report, lines, lineNumbers, count, format));
+            }
+        }
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Provision definitions already in memory; errors are reported by row index
+     */
+    public ProvisioningReport provision(List<DeviceDefinition> definitions) {
+        ProvisioningReport report = new ProvisioningReport();
+        long start = System.nanoTime();
+        try (Workers workers = new Workers()) {
+            for (int from = 0; from < definitions.size(); from += batchSize) {
+                workers.submit(new DefinitionBatch(report, definitions, from, Math.min(definitions.size(), from + batchSize)));
+            }
+        }
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Write devices as a CSV file that importFile() recreates them from, with
+     * their IDs, power states and property values
+     */
+    public static void exportCsv(Path path, Collection<IDevice> devices) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("type,name,id,properties");
+            writer.newLine();
+            for (IDevice device : devices) {
+                writer.write(DeviceDefinition.of(device).toCsv());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Create and seed a device without registering it
+     * @throws IllegalArgumentException if the type is unsupported or a property is unknown or out of range
+     */
+    public IDevice create(DeviceDefinition definition) {
+        DeviceTypeRegistry types = DeviceTypeRegistry.getInstance();
+        if (!types.isSupported(definition.getType())) {
+            throw new IllegalArgumentException("Unsupported device type: " + definition.getType());
+        }
+        String id = definition.getId() != null ? definition.getId() : ids.nextId(definition.getType());
+        IDevice device = types.createDevice(definition.getType(), id, definition.getName());
+        if (definition.getPowerState() != null) {
+            device.initPowerState(definition.getPowerState());
+        }
+        for (Map.Entry<String, String> property : definition.getProperties().entrySet()) {
+            PropertyDescriptor descriptor = device.getSchema().get(property.getKey());
+            if (descriptor == null) {
+                throw new IllegalArgumentException("Unknown property for " + definition.getType() + ": "
+                        + property.getKey());
+            }
+            if (!device.initProperty(descriptor.getSlot(), descriptor.parse(property.getValue()))) {
+                throw new IllegalArgumentException(property.getKey() + " out of range: " + property.getValue());
+            }
+        }
+        return device;
+    }
+
+    // ---- Batches ----
+
+    /**
+     * A slice of work; counts its own results and merges them into the report once
+     */
+    private abstract class Batch implements Runnable {
+        private long created;
+        private long duplicates;
+        private long rejected;
+        private final List<String> errors = new ArrayList<>();
+        private final ProvisioningReport report;
+
+        Batch(ProvisioningReport report) {
+            this.report = report;
+        }
+
+        abstract int size();
+
+        abstract DeviceDefinition definition(int index);
+
+        abstract String location(int index);
+
+        @Override
+        public void run() {
+            for (int i = 0; i < size(); i++) {
+                try {
+                    IDevice device = create(definition(i));
+                    if (registry.registerDevice(device)) {
+                        created++;
+                    } else {
+                        duplicates++;
+                    }
+                } catch (RuntimeException e) {
+                    // Any failure rejects just this row, so the rest of the batch is still created and counted
+                    rejected++;
+                    if (errors.size() < ProvisioningReport.MAX_ERRORS) {
+                        errors.add(location(i) + ": " + (e instanceof IllegalArgumentException
+                                ? e.getMessage() : e.toString()));
+                    }
+                }
+            }
+            PROVISIONED.add(created);
+            report.merge(created, duplicates, rejected, errors);
+        }
+    }
+
+    private final class LineBatch extends Batch {
+        private final String[] lines;
+        private final long[] lineNumbers;
+        private final int count;
+        private final Format format;
+
+        LineBatch(ProvisioningReport report, String[] lines, long[] lineNumbers, int count, Format format) {
+            super(report);
+            this.lines = lines;
+            this.lineNumbers = lineNumbers;
+            this.count = count;
+            this.format = format;
+        }
+
+        @Override
+        int size() { return count; }
+
+        @Override
+        DeviceDefinition definition(int index) {
+            return format == Format.CSV ? DeviceDefinition.parseCsv(lines[index]) : DeviceDefinition.parseJson(lines[index]);
+        }
+
+        @Override
+        String location(int index) { return "line " + lineNumbers[index]; }
+    }
+
+    private final class DefinitionBatch extends Batch {
+        private final List<DeviceDefinition> definitions;
+        private final int from;
+        private final int to;
+
+        DefinitionBatch(ProvisioningReport report, List<DeviceDefinition> definitions, int from, int to) {
+            super(report);
+            this.definitions = definitions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        int size() { return to - from; }
+
+        @Override
+        DeviceDefinition definition(int index) { return definitions.get(from + index); }
+
+        @Override
+        String location(int index) { return "row " + (from + index); }
+    }
+
+    /**
+     * Runs batches on a fixed pool, or inline for one thread. submit() blocks
+     * while two batches per worker are queued or running.
+     */
+    private final class Workers implements AutoCloseable {
+        private final ExecutorService pool;
+        private final Semaphore inFlight;
+
+        Workers() {
+            if (threads == 1) {
+                this.pool = null;
+                this.inFlight = null;
+            } else {
+                this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable, "device-provisioner");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                this.inFlight = new Semaphore(threads * 2);
+            }
+        }
+
+        void submit(Batch batch) {
+            if (pool == null) {
+                batch.run();
+                return;
+            }
+            inFlight.acquireUninterruptibly();
+            pool.execute(() -> {
+                try {
+                    batch.run();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            if (pool == null) {
+                return;
+            }
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Provisioning interrupted", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package edu.neu.csye7374.core.provisioning;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.observer.ObserverRouter;
+import edu.neu.csye7374.core.registry.DeviceIdGenerator;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
+import edu.neu.csye7374.devices.concrete.LightColor;
+import edu.neu.csye7374.devices.concrete.ThermostatMode;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Bulk import throughput. Writes a CSV and a JSON-lines file of mixed
+ * devices (lights, thermostats and sensors, a quarter without IDs, plus one
+ * duplicate and one invalid row) and imports each into the shared registry
+ * with one worker and with all workers. Also shows how many IDs the old
+ * "type_currentTimeMillis" scheme repeats in a tight loop.
+ * Options: devices=1000000 threads=&lt;cores&gt; batch=4096
+ */
+public class ProvisioningBenchmark {
+
+    private static final LightColor[] COLORS = LightColor.values();
+    private static final ThermostatMode[] MODES = ThermostatMode.values();
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "devices", "threads", "batch");
+        int devices = options.get("devices", 1_000_000, 1);
+        int threads = options.get("threads", Runtime.getRuntime().availableProcessors(), 1);
+        int batch = options.get("batch", DeviceProvisioner.DEFAULT_BATCH_SIZE, 1);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        Path csv = null;
+        Path jsonl = null;
+        try {
+            out.println("\n=== PROVISIONING BENCHMARK ===");
+            compareIds(out, Math.min(devices, 200_000));
+
+            csv = Files.createTempFile("devices", ".csv");
+            jsonl = Files.createTempFile("devices", ".jsonl");
+            long start = System.nanoTime();
+            writeFiles(csv, jsonl, devices);
+            out.printf("Wrote %,d rows per format in %,.1f ms (CSV %,d KB, JSON lines %,d KB)%n", devices + 2,
+                    (System.nanoTime() - start) / 1e6, Files.size(csv) / 1024, Files.size(jsonl) / 1024);
+
+            int[] workerCounts = threads > 1 ? new int[]{1, threads} : new int[]{1};
+            for (Path file : new Path[]{csv, jsonl}) {
+                for (int workers : workerCounts) {
+                    importOnce(out, file, workers, batch);
+                }
+            }
+        } catch (IOException e) {
+            out.println("Benchmark failed: " + e.getMessage());
+        } finally {
+            deleteQuietly(csv);
+            deleteQuietly(jsonl);
+            quiet.close();
+        }
+    }
+
+    private static void compareIds(PrintStream out, int count) {
+        Set<String> legacy = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            legacy.add("light_" + System.currentTimeMillis());
+        }
+        Set<String> generated = new HashSet<>();
+        DeviceIdGenerator ids = DeviceIdGenerator.getInstance();
+        for (int i = 0; i < count; i++) {
+            generated.add(ids.nextId(DeviceType.LIGHT));
+        }
+        out.printf("IDs in a tight loop: currentTimeMillis %,d unique of %,d, DeviceIdGenerator %,d unique%n",
+                legacy.size(), count, generated.size());
+    }
+
+    private static void importOnce(PrintStream out, Path file, int workers, int batch) throws IOException {
+        DeviceRegistry registry = DeviceRegistry.getInstance();
+        Set<String> existing = new HashSet<>();
+        for (IDevice device : registry.getAllDevices()) {
+            existing.add(device.getId());
+        }
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        DeviceProvisioner provisioner = new DeviceProvisioner(registry);
+        provisioner.setThreads(workers);
+        provisioner.setBatchSize(batch);
+        ProvisioningReport report = provisioner.importFile(file);
+
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        out.printf("%-10s %2d worker(s)  %s, ~%d bytes/device%n",
+                DeviceProvisioner.Format.forPath(file) == DeviceProvisioner.Format.CSV ? "CSV" : "JSON lines",
+                workers, report, report.getCreated() > 0 ? (heapAfter - heapBefore) / report.getCreated() : 0);
+        for (String error : report.getErrors()) {
+            out.println("  -> " + error);
+        }
+
+        ObserverRouter router = ObserverRouter.getInstance();
+        for (IDevice device : registry.getAllDevices()) {
+            if (!existing.contains(device.getId())) {
+                registry.unregisterDevice(device.getId());
+                router.removeDevice(device.getId());
+            }
+        }
+    }
+
+    private static void writeFiles(Path csv, Path jsonl, int devices) throws IOException {
+        try (BufferedWriter csvOut = Files.newBufferedWriter(csv, StandardCharsets.UTF_8);
+             BufferedWriter jsonOut = Files.newBufferedWriter(jsonl, StandardCharsets.UTF_8)) {
+            csvOut.write("type,name,id,properties...\n");
+            for (int i = 0; i < devices; i++) {
+                String type;
+                String name;
+                String[] keys;
+                String[] values;
+                switch (i % 10) {
+                    case 7:
+                        type = "THERMOSTAT";
+                        name = "Thermostat " + i;
+                        keys = new String[]{"targetTemperature", "mode"};
+                        values = new String[]{String.valueOf(65 + i % 10), MODES[i % MODES.length].name()};
+                        break;
+                    case 8:
+                        type = "MOTION_SENSOR";
+                        name = "Motion " + i;
+                        keys = new String[0];
+                        values = keys;
+                        break;
+                    case 9:
+                        type = "POWER_METER";
+                        name = "Meter " + i;
+                        keys = new String[]{"power"};
+                        values = new String[]{String.valueOf(i % 2000)};
+                        break;
+                    default:
+                        type = "LIGHT";
+                        name = "Light " + i;
+                        keys = new String[]{"brightness", "color"};
+                        values = new String[]{String.valueOf(i % 101), COLORS[i % COLORS.length].name()};
+                }
+                String id = i % 4 == 3 ? "" : "bench_" + i;
+                String state = i % 3 == 0 ? "ON" : null;
+                writeRow(csvOut, jsonOut, type, name, id, state, keys, values);
+            }
+            // One ID already used above, one unknown type
+            writeRow(csvOut, jsonOut, "LIGHT", "Duplicate", "bench_0", null, new String[0], new String[0]);
+            writeRow(csvOut, jsonOut, "LAMP", "Invalid", "bench_invalid", null, new String[0], new String[0]);
+        }
+    }
+
+    private static void writeRow(BufferedWriter csv, BufferedWriter jsonl, String type, String name, String id,
+                                 String state, String[] keys, String[] values) throws IOException {
+        csv.write(type);
+        csv.write(',');
+        csv.write(name);
+        csv.write(',');
+        csv.write(id);
+        jsonl.write("{\"type\":\"" + type + "\",\"name\":\"" + name + "\"");
+        if (!id.isEmpty()) {
+            jsonl.write(",\"id\":\"" + id + "\"");
+        }
+        if (state != null) {
+            csv.write(",state=" + state);
+            jsonl.write(",\"state\":\"" + state + "\"");
+        }
+        for (int k = 0; k < keys.length; k++) {
+            csv.write(',' + keys[k] + '=' + values[k]);
+            boolean numeric = Character.isDigit(values[k].charAt(0));
+            jsonl.write(",\"" + keys[k] + "\":" + (numeric ? values[k] : "\"" + values[k] + "\""));
+        }
+        csv.write('\n');
+        jsonl.write("}\n");
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Temp file; the OS cleans it up eventually
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package edu.neu.csye7374.core.provisioning;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a provisioning run: rows created, skipped as duplicate IDs or
+ * rejected, the first few errors, and throughput
+ */
+public final class ProvisioningReport {
+
+    /** Errors kept for display; later ones are only counted */
+    public static final int MAX_ERRORS = 20;
+
+    private long created;
+    private long duplicates;
+    private long rejected;
+    private long nanos;
+    private final List<String> errors = new ArrayList<>();
+
+    synchronized void merge(long created, long duplicates, long rejected, List<String> errors) {
+        this.created += created;
+        this.duplicates += duplicates;
+        this.rejected += rejected;
+        for (String error : errors) {
+            if (this.errors.size() >= MAX_ERRORS) {
+                break;
+            }
+            this.errors.add(error);
+        }
+    }
+
+    synchronized void finish(long nanos) {
+        this.nanos = nanos;
+    }
+
+    public synchronized long getRows() { return created + duplicates + rejected; }
+    public synchronized long getCreated() { return created; }
+    public synchronized long getDuplicates() { return duplicates; }
+    public synchronized long getRejected() { return rejected; }
+    public synchronized long getElapsedNanos() { return nanos; }
+
+    /**
+     * The first MAX_ERRORS errors, e.g. "line 12: Unknown device type: LAMP"
+     */
+    public synchronized List<String> getErrors() {
+        return Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    public synchronized double getRowsPerSecond() {
+        return nanos > 0 ? getRows() / (nanos / 1e9) : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%,d rows in %,.1f ms (%,.0f rows/s): %,d created, %,d duplicate, %,d rejected",
+                getRows(), nanos / 1e6, getRowsPerSecond(), created, duplicates, rejected);
+    }
+}
@@ -0,0 +1,72 @@
+package edu.neu.csye7374.core.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index from device ID to the objects that depend on the device
+ * (rules, groups, ...). Lets a device deletion find its dependents in time
+ * proportional to their number instead of scanning everything.
+ * Dependents are compared by equals/hashCode, which for rules and groups is
+ * identity.
+ */
+public class DependencyIndex<T> {
+
+    private final Map<String, Set<T>> byDevice = new HashMap<>();
+
+    /**
+     * Record that dependent references the device; adding twice is harmless
+     */
+    public synchronized void add(String deviceId, T dependent) {
+        byDevice.computeIfAbsent(deviceId, id -> new LinkedHashSet<>()).add(dependent);
+    }
+
+    public synchronized void addAll(Iterable<String> deviceIds, T dependent) {
+        for (String deviceId : deviceIds) {
+            add(deviceId, dependent);
+        }
+    }
+
+    public synchronized void remove(String deviceId, T dependent) {
+        Set<T> dependents = byDevice.get(deviceId);
+        if (dependents != null && dependents.remove(dependent) && dependents.isEmpty()) {
+            byDevice.remove(deviceId);
+        }
+    }
+
+    public synchronized void removeAll(Iterable<String> deviceIds, T dependent) {
+        for (String deviceId : deviceIds) {
+            remove(deviceId, dependent);
+        }
+    }
+
+    /**
+     * Drop the device from the index
+     * @return Its dependents, in the order they were added
+     */
+    public synchronized List<T> removeDevice(String deviceId) {
+        Set<T> dependents = byDevice.remove(deviceId);
+        return dependents == null ? Collections.emptyList() : new ArrayList<>(dependents);
+    }
+
+    public synchronized List<T> getDependents(String deviceId) {
+        Set<T> dependents = byDevice.get(deviceId);
+        return dependents == null ? Collections.emptyList() : new ArrayList<>(dependents);
+    }
+
+    /**
+     * Number of devices with at least one dependent
+     */
+    public synchronized int getDeviceCount() {
+        return byDevice.size();
+    }
+
+    public synchronized void clear() {
+        byDevice.clear();
+    }
+}
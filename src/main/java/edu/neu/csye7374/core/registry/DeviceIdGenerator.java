@@ -0,0 +1,51 @@
+package edu.neu.csye7374.core.registry;
+
+import edu.neu.csye7374.core.factory.DeviceType;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Singleton source of device IDs such as "light_m2x7k1qa_42": the type, the
+ * process start time in base 36 and a sequence number. IDs never repeat
+ * within a run, however fast they are requested, and runs started at
+ * different milliseconds never share one.
+ */
+public class DeviceIdGenerator {
+
+    private static class SingletonHelper {
+        private static final DeviceIdGenerator INSTANCE = new DeviceIdGenerator();
+    }
+
+    private final String[] prefixes = new String[DeviceType.values().length];
+    private final AtomicLong sequence = new AtomicLong();
+
+    private DeviceIdGenerator() {
+        String epoch = Long.toString(System.currentTimeMillis(), 36);
+        for (DeviceType type : DeviceType.values()) {
+            prefixes[type.ordinal()] = type.name().toLowerCase(Locale.ROOT) + "_" + epoch + "_";
+        }
+    }
+
+    /**
+     * Get the singleton instance
+     * @return DeviceIdGenerator instance
+     */
+    public static DeviceIdGenerator getInstance() {
+        return SingletonHelper.INSTANCE;
+    }
+
+    /**
+     * Next unique ID for a device of the given type
+     */
+    public String nextId(DeviceType type) {
+        return prefixes[type.ordinal()] + sequence.incrementAndGet();
+    }
+
+    /**
+     * Number of IDs handed out so far
+     */
+    public long getIssuedCount() {
+        return sequence.get();
+    }
+}
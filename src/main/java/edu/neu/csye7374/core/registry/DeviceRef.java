@@ -0,0 +1,77 @@
+package edu.neu.csye7374.core.registry;
+
+import edu.neu.csye7374.core.device.IDevice;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Reference to a device by ID that does not keep the device alive.
+ * The last resolved device is cached weakly and reused only while it still
+ * has this ID and no device has been removed from the DeviceRegistry since;
+ * otherwise the ID is looked up in the registry again. A deleted device
+ * (still reachable from undo history, or recycled by a DevicePool under a
+ * new ID) is therefore never returned.
+ */
+public final class DeviceRef {
+
+    private final String id;
+    private volatile Cached cached;
+
+    public DeviceRef(IDevice device) {
+        this.id = device.getId();
+        DeviceRegistry registry = DeviceRegistry.getInstance();
+        long removals = registry.getRemovalCount();
+        // Trust the device until the next removal only if it is the one registered under its ID
+        this.cached = new Cached(device, registry.getDevice(id) == device ? removals : -1);
+    }
+
+    public DeviceRef(String id) {
+        this.id = id;
+        this.cached = new Cached(null, -1);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return The device, or null if it no longer exists
+     */
+    public IDevice get() {
+        DeviceRegistry registry = DeviceRegistry.getInstance();
+        long removals = registry.getRemovalCount();
+        Cached current = cached;
+        IDevice device = current.get();
+        if (device != null && current.removals == removals && id.equals(device.getId())) {
+            return device;
+        }
+        device = registry.getDevice(id);
+        cached = new Cached(device, removals);
+        return device;
+    }
+
+    /**
+     * Device name for display, falling back to the ID once the device is gone
+     */
+    public String getName() {
+        IDevice device = get();
+        return device != null ? device.getName() : id;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+
+    /**
+     * Weakly cached device with the registry removal count it was checked at
+     */
+    private static final class Cached extends WeakReference<IDevice> {
+        final long removals;
+
+        Cached(IDevice device, long removals) {
+            super(device);
+            this.removals = removals;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Singleton DeviceRegistry for centralized device management
@@ -21,6 +22,9 @@ public class DeviceRegistry {
     // Thread-safe device storage
     private final Map<String, IDevice> devices = new ConcurrentHashMap<>();
     
+    // Bumped whenever a device is removed, so DeviceRefs know to re-check their cache
+    private final AtomicLong removals = new AtomicLong();
+    
     // Private constructor to prevent instantiation
     private DeviceRegistry() {}
     
@@ -50,7 +54,11 @@ public class DeviceRegistry {
      * @return The removed device, or null if not found
      */
     public IDevice unregisterDevice(String deviceId) {
-        return devices.remove(deviceId);
+        IDevice removed = devices.remove(deviceId);
+        if (removed != null) {
+            removals.incrementAndGet();
+        }
+        return removed;
     }
     
     /**
@@ -103,5 +111,14 @@ public class DeviceRegistry {
      */
     public void clearAllDevices() {
         devices.clear();
+        removals.incrementAndGet();
+    }
+    
+    /**
+     * Number of removals so far; a cached device is still registered as long
+     * as this has not changed since it was looked up
+     */
+    public long getRemovalCount() {
+        return removals.get();
     }
 }
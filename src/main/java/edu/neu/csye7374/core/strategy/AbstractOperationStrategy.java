@@ -0,0 +1,79 @@
+package edu.neu.csye7374.core.strategy;
+
+import edu.neu.csye7374.core.device.IDevice;
+
+/**
+ * Base for table-driven strategies: one handler and one result formatter per
+ * Operation, indexed by ordinal and filled in once by the subclass
+ * constructor. Handlers are non-capturing lambdas, so dispatch allocates
+ * nothing; result strings are only built by describe().
+ */
+public abstract class AbstractOperationStrategy implements DeviceOperationStrategy {
+    
+    /**
+     * Applies an operation to a device of the strategy's class
+     */
+    @FunctionalInterface
+    protected interface OperationHandler {
+        void apply(IDevice device);
+    }
+    
+    /**
+     * Describes the device after an operation
+     */
+    @FunctionalInterface
+    protected interface ResultFormatter {
+        String describe(IDevice device);
+    }
+    
+    private final Class<? extends IDevice> deviceClass;
+    private final OperationHandler[] handlers = new OperationHandler[Operation.values().length];
+    private final ResultFormatter[] results = new ResultFormatter[Operation.values().length];
+    
+    /**
+     * @param deviceClass Devices this strategy accepts
+     */
+    protected AbstractOperationStrategy(Class<? extends IDevice> deviceClass) {
+        this.deviceClass = deviceClass;
+    }
+    
+    /**
+     * Register the handler and result for an operation
+     */
+    protected final void on(Operation operation, OperationHandler handler, ResultFormatter result) {
+        handlers[operation.ordinal()] = handler;
+        results[operation.ordinal()] = result;
+    }
+    
+    public boolean supports(Operation operation) {
+        return handlers[operation.ordinal()] != null;
+    }
+    
+    @Override
+    public boolean perform(IDevice device, Operation operation) {
+        OperationHandler handler = handlers[operation.ordinal()];
+        if (handler == null || !deviceClass.isInstance(device)) {
+            return false;
+        }
+        handler.apply(device);
+        return true;
+    }
+    
+    @Override
+    public String describe(IDevice device, Operation operation, boolean performed) {
+        if (performed) {
+            return results[operation.ordinal()].describe(device);
+        }
+        if (!deviceClass.isInstance(device)) {
+            return "Error: Device is not a " + deviceClass.getSimpleName();
+        }
+        return unsupported(operation);
+    }
+    
+    /**
+     * Result for an operation without a handler
+     */
+    protected String unsupported(Operation operation) {
+        return "Unsupported operation for " + deviceClass.getSimpleName() + ": " + operation;
+    }
+}
@@ -6,25 +6,22 @@ import edu.neu.csye7374.core.device.IDevice;
  * Basic operation strategy for devices
  * Implements common device operations
  */
-public class BasicOperationStrategy implements DeviceOperationStrategy {
+public class BasicOperationStrategy extends AbstractOperationStrategy {
+    
+    public static final BasicOperationStrategy INSTANCE = new BasicOperationStrategy();
+    
+    private BasicOperationStrategy() {
+        super(IDevice.class);
+        on(Operation.TURN_ON, IDevice::turnOn, device -> device.getName() + " turned ON");
+        on(Operation.TURN_OFF, IDevice::turnOff, device -> device.getName() + " turned OFF");
+        on(Operation.TOGGLE, IDevice::toggle, device -> device.getName() + " toggled");
+        on(Operation.GET_STATUS, device -> { },
+                device -> device.getName() + " is " + (device.isOn() ? "ON" : "OFF"));
+    }
     
     @Override
-    public String execute(IDevice device, Operation operation) {
-        switch (operation) {
-            case TURN_ON:
-                device.turnOn();
-                return device.getName() + " turned ON";
-            case TURN_OFF:
-                device.turnOff();
-                return device.getName() + " turned OFF";
-            case TOGGLE:
-                device.toggle();
-                return device.getName() + " toggled";
-            case GET_STATUS:
-                return device.getName() + " is " + (device.isOn() ? "ON" : "OFF");
-            default:
-                return "Unknown operation: " + operation;
-        }
+    protected String unsupported(Operation operation) {
+        return "Unknown operation: " + operation;
     }
     
     @Override
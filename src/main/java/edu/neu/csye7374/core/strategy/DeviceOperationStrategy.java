@@ -4,7 +4,10 @@ import edu.neu.csye7374.core.device.IDevice;
 
 /**
  * Strategy interface for device operations
- * Part of the Strategy pattern implementation
+ * Part of the Strategy pattern implementation.
+ * Strategies are stateless and shared (see StrategyRegistry); perform() runs
+ * an operation without building a result string, describe() builds it only
+ * when the caller wants it.
  */
 public interface DeviceOperationStrategy {
     
@@ -14,7 +17,21 @@ public interface DeviceOperationStrategy {
      * @param operation Operations from enum
      * @return Result of the operation
      */
-    String execute(IDevice device, Operation operation);
+    default String execute(IDevice device, Operation operation) {
+        return describe(device, operation, perform(device, operation));
+    }
+    
+    /**
+     * Run the operation without building a result
+     * @return false if the strategy does not support the operation or device
+     */
+    boolean perform(IDevice device, Operation operation);
+    
+    /**
+     * Result text for an operation that was just performed
+     * @param performed What perform() returned
+     */
+    String describe(IDevice device, Operation operation, boolean performed);
     
     /**
      * Get the strategy name
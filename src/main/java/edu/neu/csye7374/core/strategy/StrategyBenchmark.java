@@ -0,0 +1,103 @@
+package edu.neu.csye7374.core.strategy;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceFactory;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.observer.ObserverRouter;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Operation dispatch through the shared strategies, with result strings
+ * (execute) and without (perform). The status mix runs GET_STATUS only, so
+ * it isolates the strategy; the device mix also toggles, dims and switches
+ * modes, which includes the devices' own logging.
+ * Options: lights=1000 thermostats=100 operations=5000000
+ */
+public class StrategyBenchmark {
+
+    private static final Operation[] LIGHT_MIX = {
+            Operation.GET_STATUS, Operation.TOGGLE, Operation.DIM, Operation.BRIGHTEN
+    };
+    private static final Operation[] THERMOSTAT_MIX = {
+            Operation.GET_STATUS, Operation.TOGGLE, Operation.SET_COOL_MODE, Operation.SET_HEAT_MODE
+    };
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "lights", "thermostats", "operations");
+        int lights = options.get("lights", 1000, 1);
+        int thermostats = options.get("thermostats", 100, 1);
+        int operations = options.get("operations", 5_000_000, 1);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        IDevice[] devices = new IDevice[lights + thermostats];
+        try {
+            for (int i = 0; i < devices.length; i++) {
+                devices[i] = i < lights
+                        ? DeviceFactory.createDevice(DeviceType.LIGHT, "bench_light_" + i, "Light " + i)
+                        : DeviceFactory.createDevice(DeviceType.THERMOSTAT, "bench_thermostat_" + i, "Thermostat " + i);
+            }
+            out.println("\n=== STRATEGY BENCHMARK ===");
+            out.printf("%,d lights, %,d thermostats, %,d operations per run%n", lights, thermostats, operations);
+
+            // Warm up every path, then measure
+            for (int mix = 0; mix < 2; mix++) {
+                run(devices, Math.min(operations, 500_000), mix == 1, true);
+                run(devices, Math.min(operations, 500_000), mix == 1, false);
+            }
+            for (int mix = 0; mix < 2; mix++) {
+                for (int strings = 1; strings >= 0; strings--) {
+                    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                    long allocated = allocatedBytes(threads);
+                    long start = System.nanoTime();
+                    long checksum = run(devices, operations, mix == 1, strings == 1);
+                    long nanos = System.nanoTime() - start;
+                    allocated = allocatedBytes(threads) - allocated;
+                    out.printf("%-7s %-8s %,9.1f ms  %6.1f ns/op  %,6d bytes/op  (checksum %d)%n",
+                            mix == 0 ? "Status" : "Devices", strings == 1 ? "execute" : "perform",
+                            nanos / 1e6, (double) nanos / operations, allocated / operations, checksum);
+                }
+            }
+        } finally {
+            ObserverRouter router = ObserverRouter.getInstance();
+            for (IDevice device : devices) {
+                if (device != null) {
+                    router.removeDevice(device.getId());
+                }
+            }
+            quiet.close();
+        }
+    }
+
+    private static long run(IDevice[] devices, int operations, boolean mixed, boolean strings) {
+        StrategyRegistry registry = StrategyRegistry.getInstance();
+        long checksum = 0;
+        for (int i = 0; i < operations; i++) {
+            IDevice device = devices[i % devices.length];
+            Operation operation = Operation.GET_STATUS;
+            if (mixed) {
+                Operation[] mix = device.getType() == DeviceType.LIGHT ? LIGHT_MIX : THERMOSTAT_MIX;
+                operation = mix[(i / devices.length) % mix.length];
+            }
+            DeviceOperationStrategy strategy = registry.getStrategy(device.getType());
+            if (strings) {
+                checksum += strategy.execute(device, operation).length();
+            } else if (strategy.perform(device, operation)) {
+                checksum++;
+            }
+        }
+        return checksum;
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
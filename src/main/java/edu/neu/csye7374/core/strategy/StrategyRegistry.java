@@ -0,0 +1,51 @@
+package edu.neu.csye7374.core.strategy;
+
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.factory.DeviceTypeProvider;
+import edu.neu.csye7374.core.factory.DeviceTypeRegistry;
+
+/**
+ * Singleton table of the shared, stateless operation strategy for each
+ * DeviceType, indexed by ordinal. Devices start with their type's strategy,
+ * so neither device construction nor strategy calls allocate one.
+ */
+public class StrategyRegistry {
+    
+    private static class SingletonHelper {
+        private static final StrategyRegistry INSTANCE = new StrategyRegistry();
+    }
+    
+    private final DeviceOperationStrategy[] strategies = new DeviceOperationStrategy[DeviceType.values().length];
+    
+    private StrategyRegistry() {
+        DeviceTypeRegistry types = DeviceTypeRegistry.getInstance();
+        for (DeviceType type : DeviceType.values()) {
+            DeviceTypeProvider provider = types.getProvider(type);
+            DeviceOperationStrategy strategy = provider != null ? provider.getOperationStrategy() : null;
+            strategies[type.ordinal()] = strategy != null ? strategy : BasicOperationStrategy.INSTANCE;
+        }
+    }
+    
+    /**
+     * Get the singleton instance
+     * @return StrategyRegistry instance
+     */
+    public static StrategyRegistry getInstance() {
+        return SingletonHelper.INSTANCE;
+    }
+    
+    /**
+     * The shared strategy for a device type
+     */
+    public DeviceOperationStrategy getStrategy(DeviceType type) {
+        return strategies[type.ordinal()];
+    }
+    
+    /**
+     * Replace the strategy for a type; devices created afterwards start with it.
+     * The strategy is shared by every such device, so it must be stateless.
+     */
+    public void register(DeviceType type, DeviceOperationStrategy strategy) {
+        strategies[type.ordinal()] = strategy;
+    }
+}
@@ -1,6 +1,5 @@
 package edu.neu.csye7374.core.strategy;
 
-import edu.neu.csye7374.core.device.IDevice;
 import edu.neu.csye7374.devices.concrete.Thermostat;
 import edu.neu.csye7374.devices.concrete.ThermostatMode;
 
@@ -8,45 +7,27 @@ import edu.neu.csye7374.devices.concrete.ThermostatMode;
  * Specialized operation strategy for Thermostat devices
  * Implements thermostat-specific operations and behaviors
  */
-public class ThermostatOperationStrategy implements DeviceOperationStrategy {
+public class ThermostatOperationStrategy extends AbstractOperationStrategy {
     
-    @Override
-    public String execute(IDevice device, Operation operation) {
-        if (!(device instanceof Thermostat)) {
-            return "Error: Device is not a Thermostat";
-        }
-        
-        Thermostat thermostat = (Thermostat) device;
-        
-        switch (operation) {
-            case TURN_ON:
-                thermostat.turnOn();
-                return thermostat.getName() + " turned ON (Target: " + thermostat.getTargetTemperature() + "°F)";
-                
-            case TURN_OFF:
-                thermostat.turnOff();
-                return thermostat.getName() + " turned OFF";
-                
-            case TOGGLE:
-                thermostat.toggle();
-                return thermostat.getName() + " toggled to " + (thermostat.isOn() ? "ON" : "OFF");
-                
-            case GET_STATUS:
-                return thermostat.getName() + " is " + (thermostat.isOn() ? "ON" : "OFF") + 
-                       " (Current: " + thermostat.getCurrentTemperature() + "°F, Target: " + 
-                       thermostat.getTargetTemperature() + "°F, Mode: " + thermostat.getMode() + ")";
-                
-            case SET_HEAT_MODE:
-                thermostat.setMode(ThermostatMode.HEAT);
-                return thermostat.getName() + " mode set to " + ThermostatMode.HEAT;
-                
-            case SET_COOL_MODE:
-                thermostat.setMode(ThermostatMode.COOL);
-                return thermostat.getName() + " mode set to " + ThermostatMode.COOL;
-                
-            default:
-                return "Unsupported operation for Thermostat: " + operation;
-        }
+    public static final ThermostatOperationStrategy INSTANCE = new ThermostatOperationStrategy();
+    
+    private ThermostatOperationStrategy() {
+        super(Thermostat.class);
+        on(Operation.TURN_ON, device -> device.turnOn(),
+                device -> device.getName() + " turned ON (Target: " + ((Thermostat) device).getTargetTemperature() + "°F)");
+        on(Operation.TURN_OFF, device -> device.turnOff(), device -> device.getName() + " turned OFF");
+        on(Operation.TOGGLE, device -> device.toggle(),
+                device -> device.getName() + " toggled to " + (device.isOn() ? "ON" : "OFF"));
+        on(Operation.GET_STATUS, device -> { }, device -> {
+            Thermostat thermostat = (Thermostat) device;
+            return thermostat.getName() + " is " + (thermostat.isOn() ? "ON" : "OFF") + 
+                   " (Current: " + thermostat.getCurrentTemperature() + "°F, Target: " + 
+                   thermostat.getTargetTemperature() + "°F, Mode: " + thermostat.getMode() + ")";
+        });
+        on(Operation.SET_HEAT_MODE, device -> ((Thermostat) device).setMode(ThermostatMode.HEAT),
+                device -> device.getName() + " mode set to " + ThermostatMode.HEAT);
+        on(Operation.SET_COOL_MODE, device -> ((Thermostat) device).setMode(ThermostatMode.COOL),
+                device -> device.getName() + " mode set to " + ThermostatMode.COOL);
     }
     
     @Override
@@ -58,4 +39,4 @@ public class ThermostatOperationStrategy implements DeviceOperationStrategy {
     public String getStrategyDescription() {
         return "Handles thermostat-specific operations including on/off control and mode management";
     }
-}
\ No newline at end of file
+}
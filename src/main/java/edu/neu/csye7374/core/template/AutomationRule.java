@@ -1,31 +1,60 @@
 package edu.neu.csye7374.core.template;
 
 import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.registry.DeviceRef;
+import edu.neu.csye7374.devices.state.PowerState;
 
 /**
- * Automation rule template with device objects
+ * Automation rule template. Devices are held by ID with a weak cache, so a
+ * rule never keeps a deleted device alive.
  */
 public class AutomationRule {
     
     private final String name;
-    private final IDevice triggerDevice;
-    private final String triggerState;
-    private final IDevice actionDevice;
+    private final DeviceRef triggerDevice;
+    private final PowerState triggerState;
+    private final DeviceRef actionDevice;
     private final String action;
+    private final RuleAction ruleAction;
+    private int priority;
     
-    public AutomationRule(String name, IDevice triggerDevice, String triggerState, IDevice actionDevice, String action) {
+    public AutomationRule(String name, IDevice triggerDevice, PowerState triggerState, IDevice actionDevice, String action) {
         this.name = name;
-        this.triggerDevice = triggerDevice;
+        this.triggerDevice = triggerDevice != null ? new DeviceRef(triggerDevice) : null;
         this.triggerState = triggerState;
-        this.actionDevice = actionDevice;
+        this.actionDevice = new DeviceRef(actionDevice);
         this.action = action;
+        this.ruleAction = RuleAction.fromLabel(action);
+    }
+    
+    /**
+     * Create a rule from a trigger state label ("ON"/"OFF")
+     * @throws IllegalArgumentException if the label names no power state
+     */
+    public AutomationRule(String name, IDevice triggerDevice, String triggerState, IDevice actionDevice, String action) {
+        this(name, triggerDevice, triggerDevice != null ? PowerState.fromLabel(triggerState) : null, actionDevice, action);
+    }
+    
+    /**
+     * Create a rule without a device trigger, run only by the automation scheduler
+     */
+    public AutomationRule(String name, IDevice actionDevice, String action) {
+        this(name, null, (PowerState) null, actionDevice, action);
     }
     
     /**
      * Check if this rule should be triggered
      */
-    public boolean shouldTrigger(IDevice device, String state) {
-        return triggerDevice.equals(device) && triggerState.equals(state);
+    public boolean shouldTrigger(IDevice device, PowerState state) {
+        return triggerState == state && triggerDevice != null && device != null
+                && triggerDevice.getId().equals(device.getId());
+    }
+    
+    /**
+     * Whether the rule reacts to device state changes (false for purely scheduled rules)
+     */
+    public boolean hasTrigger() {
+        return triggerDevice != null;
     }
     
     /**
@@ -35,31 +64,60 @@ public class AutomationRule {
         System.out.println("AUTOMATION: Executing rule: " + name);
         System.out.println("  -> " + action + " " + actionDevice.getName());
         
-        // Execute the actual action
-        switch (action.toLowerCase()) {
-            case "turn on":
-                actionDevice.turnOn();
-                break;
-            case "turn off":
-                actionDevice.turnOff();
-                break;
-            case "toggle":
-                actionDevice.toggle();
-                break;
-            default:
-                System.out.println("  -> Unknown action: " + action);
+        IDevice device = actionDevice.get();
+        if (device == null) {
+            System.out.println("  -> Device no longer exists: " + actionDevice.getId());
+            return;
+        }
+        // Execute the actual action (resolved once in the constructor)
+        if (ruleAction != null) {
+            ruleAction.apply(device);
+        } else {
+            System.out.println("  -> Unknown action: " + action);
         }
     }
     
     // Getters
     public String getName() { return name; }
-    public IDevice getTriggerDevice() { return triggerDevice; }
-    public String getTriggerState() { return triggerState; }
-    public IDevice getActionDevice() { return actionDevice; }
+    public String getTriggerDeviceId() { return triggerDevice != null ? triggerDevice.getId() : null; }
+    public PowerState getTriggerPowerState() { return triggerState; }
+    
+    /**
+     * Trigger state label, or null for scheduled rules
+     */
+    public String getTriggerState() { return triggerState != null ? triggerState.getLabel() : null; }
+    public String getActionDeviceId() { return actionDevice.getId(); }
+    
+    /**
+     * @return The trigger device, or null for scheduled rules or once the device is gone
+     */
+    public IDevice getTriggerDevice() { return triggerDevice != null ? triggerDevice.get() : null; }
+    
+    /**
+     * @return The action device, or null once it has been deleted
+     */
+    public IDevice getActionDevice() { return actionDevice.get(); }
+    
+    /**
+     * Action device name for display, or its ID once the device is gone
+     */
+    public String getActionDeviceName() { return actionDevice.getName(); }
     public String getAction() { return action; }
+    public RuleAction getRuleAction() { return ruleAction; }
+    public int getPriority() { return priority; }
+    
+    /**
+     * Set the priority used when rules firing on the same event conflict; higher wins
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
     
     @Override
     public String toString() {
+        if (triggerDevice == null) {
+            return "Rule: " + name + " (" + action + " " + actionDevice.getName() + ")";
+        }
         return "Rule: " + name + " (When " + triggerDevice.getName() + " is " + triggerState + 
                ", " + action + " " + actionDevice.getName() + ")";
     }
@@ -0,0 +1,58 @@
+package edu.neu.csye7374.core.template;
+
+import edu.neu.csye7374.core.device.IDevice;
+
+/**
+ * Power actions an automation rule can perform, resolved once from the
+ * rule's action text instead of on every firing
+ */
+public enum RuleAction {
+    TURN_ON("turn on"),
+    TURN_OFF("turn off"),
+    TOGGLE("toggle");
+
+    private final String label;
+
+    RuleAction(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Apply the action to a device
+     */
+    public void apply(IDevice device) {
+        switch (this) {
+            case TURN_ON:
+                device.turnOn();
+                break;
+            case TURN_OFF:
+                device.turnOff();
+                break;
+            case TOGGLE:
+            default:
+                device.toggle();
+                break;
+        }
+    }
+
+    /**
+     * Resolve action text such as "Turn On" or "toggle"
+     * @return The action, or null if the text is not a known action
+     */
+    public static RuleAction fromLabel(String text) {
+        if (text == null) {
+            return null;
+        }
+        String normalized = text.trim();
+        for (RuleAction action : values()) {
+            if (action.label.equalsIgnoreCase(normalized) || action.name().equalsIgnoreCase(normalized)) {
+                return action;
+            }
+        }
+        return null;
+    }
+}
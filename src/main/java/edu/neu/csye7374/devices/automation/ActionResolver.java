@@ -0,0 +1,215 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.core.actor.DeviceActorSystem;
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+import edu.neu.csye7374.core.template.RuleAction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the actions of all rules fired by one event and applies them
+ * together. For each device only one power action survives (and one action
+ * per settable property); the winner is the highest-priority action or the
+ * last one proposed, depending on the policy. A winner that would leave the
+ * device as it is does nothing, so each device makes at most one power
+ * transition per event. Everything else is suppressed and reported.
+ *
+ * A resolver handles a single event; actions that trigger further state
+ * changes start new events with their own resolver.
+ */
+public class ActionResolver {
+
+    public enum Policy {
+        /** Higher rule priority wins; ties go to the rule that fired last */
+        PRIORITY,
+        /** The rule that fired last wins */
+        LAST_WRITER
+    }
+
+    private static final String POWER = "power";
+
+    private final Policy policy;
+    // When set, winning actions are queued on the devices' mailboxes instead of run here
+    private final DeviceActorSystem actors;
+    // Winning intent per device ID + property, in first-proposed order
+    private final Map<String, ActionIntent> winners = new LinkedHashMap<>();
+    private final List<Suppressed> suppressed = new ArrayList<>();
+    private int sequence;
+
+    public ActionResolver(Policy policy) {
+        this(policy, null);
+    }
+
+    /**
+     * @param actors Actor system to apply actions through, or null to apply them on the calling thread
+     */
+    public ActionResolver(Policy policy, DeviceActorSystem actors) {
+        this.policy = policy;
+        this.actors = actors;
+    }
+
+    /**
+     * Propose a power action on a device
+     */
+    public void propose(String ruleName, int priority, IDevice device, RuleAction action) {
+        offer(new ActionIntent(ruleName, priority, sequence++, device, POWER, action.getLabel(), action, null));
+    }
+
+    /**
+     * Propose setting a device property, e.g. brightness
+     * @param description Text for logs and reports, e.g. "set brightness = 40"
+     */
+    public void proposeSet(String ruleName, int priority, IDevice device, String property,
+                           String description, Runnable apply) {
+        offer(new ActionIntent(ruleName, priority, sequence++, device, property, description, null, apply));
+    }
+
+    public boolean isEmpty() {
+        return winners.isEmpty();
+    }
+
+    private void offer(ActionIntent intent) {
+        String key = intent.device.getId() + "\u0000" + intent.property;
+        ActionIntent current = winners.get(key);
+        if (current == null) {
+            winners.put(key, intent);
+        } else if (policy == Policy.LAST_WRITER || intent.priority >= current.priority) {
+            winners.put(key, intent);
+            suppressed.add(new Suppressed(current, "overridden by " + intent.ruleName));
+        } else {
+            suppressed.add(new Suppressed(intent, "overridden by " + current.ruleName));
+        }
+    }
+
+    /**
+     * Apply the winning actions and report what ran and what was suppressed
+     */
+    public ResolutionReport resolve() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        boolean timed = metrics.isEnabled();
+        List<ActionIntent> executed = new ArrayList<>(winners.size());
+        for (ActionIntent intent : winners.values()) {
+            if (intent.power != null) {
+                boolean target = intent.power == RuleAction.TOGGLE ? !intent.device.isOn()
+                        : intent.power == RuleAction.TURN_ON;
+                if (target == intent.device.isOn()) {
+                    suppressed.add(new Suppressed(intent, "no change"));
+                    continue;
+                }
+            }
+            System.out.println("AUTOMATION: Executing rule: " + intent.ruleName);
+            System.out.println("  -> " + intent.description + " " + intent.device.getName());
+            long start = timed ? System.nanoTime() : 0;
+            if (actors != null) {
+                actors.tell(intent.device, device -> intent.run());
+            } else {
+                intent.run();
+            }
+            if (timed) {
+                metrics.ruleTimer(intent.ruleName).recordSince(start);
+            }
+            executed.add(intent);
+        }
+        for (Suppressed entry : suppressed) {
+            System.out.println("AUTOMATION: Suppressed rule: " + entry.intent.ruleName + " ("
+                    + entry.intent.description + " " + entry.intent.device.getName() + "): " + entry.reason);
+        }
+        if (!suppressed.isEmpty()) {
+            metrics.counter("automation.actions.suppressed").add(suppressed.size());
+        }
+        return new ResolutionReport(executed, suppressed);
+    }
+
+    /**
+     * One rule's proposed action
+     */
+    public static final class ActionIntent {
+        private final String ruleName;
+        private final int priority;
+        private final int sequence;
+        private final IDevice device;
+        private final String property;
+        private final String description;
+        private final RuleAction power;
+        private final Runnable apply;
+
+        ActionIntent(String ruleName, int priority, int sequence, IDevice device, String property,
+                     String description, RuleAction power, Runnable apply) {
+            this.ruleName = ruleName;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.device = device;
+            this.property = property;
+            this.description = description;
+            this.power = power;
+            this.apply = apply;
+        }
+
+        public String getRuleName() { return ruleName; }
+        public int getPriority() { return priority; }
+        public int getSequence() { return sequence; }
+        public IDevice getDevice() { return device; }
+        public String getProperty() { return property; }
+        public String getDescription() { return description; }
+
+        void run() {
+            if (power != null) {
+                power.apply(device);
+            } else {
+                apply.run();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return ruleName + ": " + description + " " + device.getName();
+        }
+    }
+
+    /**
+     * An action that was not applied, with the reason
+     */
+    public static final class Suppressed {
+        private final ActionIntent intent;
+        private final String reason;
+
+        Suppressed(ActionIntent intent, String reason) {
+            this.intent = intent;
+            this.reason = reason;
+        }
+
+        public ActionIntent getIntent() { return intent; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return intent + " (" + reason + ")";
+        }
+    }
+
+    /**
+     * Outcome of resolving one event
+     */
+    public static final class ResolutionReport {
+        private final List<ActionIntent> executed;
+        private final List<Suppressed> suppressed;
+
+        ResolutionReport(List<ActionIntent> executed, List<Suppressed> suppressed) {
+            this.executed = Collections.unmodifiableList(executed);
+            this.suppressed = Collections.unmodifiableList(new ArrayList<>(suppressed));
+        }
+
+        public List<ActionIntent> getExecuted() { return executed; }
+        public List<Suppressed> getSuppressed() { return suppressed; }
+
+        @Override
+        public String toString() {
+            return "Executed " + executed + ", suppressed " + suppressed;
+        }
+    }
+}
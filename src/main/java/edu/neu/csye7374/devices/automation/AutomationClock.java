@@ -0,0 +1,44 @@
+package edu.neu.csye7374.devices.automation;
+
+import java.time.ZoneId;
+
+/**
+ * Time source for the automation scheduler.
+ * Injected so schedules can be tested deterministically with a ManualClock.
+ */
+public interface AutomationClock {
+
+    /**
+     * Current time in epoch milliseconds
+     */
+    long millis();
+
+    /**
+     * Time zone used to evaluate cron expressions
+     */
+    ZoneId getZone();
+
+    /**
+     * Clock backed by System.currentTimeMillis() in the default time zone
+     */
+    static AutomationClock system() {
+        return SystemClock.INSTANCE;
+    }
+
+    final class SystemClock implements AutomationClock {
+        private static final SystemClock INSTANCE = new SystemClock();
+
+        private SystemClock() {
+        }
+
+        @Override
+        public long millis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+    }
+}
@@ -1,54 +1,638 @@
 package edu.neu.csye7374.devices.automation;
 
+import edu.neu.csye7374.core.actor.DeviceActorSystem;
 import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.metrics.LatencyHistogram;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+import edu.neu.csye7374.core.observer.DeviceObserver;
+import edu.neu.csye7374.core.registry.DependencyIndex;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
 import edu.neu.csye7374.core.template.AutomationRule;
+import edu.neu.csye7374.devices.automation.AutomationScheduler.Debouncer;
+import edu.neu.csye7374.devices.automation.AutomationScheduler.ScheduledTask;
+import edu.neu.csye7374.devices.state.PowerState;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Automation engine using device objects
  */
 public class AutomationEngine {
-    
-    private final List<AutomationRule> rules;
-    
+
+    // Insertion-ordered sets so removing a rule does not scan the others. Guarded by this;
+    // event processing (UI, actor and ticker threads) iterates the snapshots below instead
+    private final Set<AutomationRule> rules;
+    private final Map<AutomationRule, ScheduledTask> scheduledRules = new LinkedHashMap<>();
+    private final Map<AutomationRule, Debouncer> debouncedRules = new LinkedHashMap<>();
+    // Copies of rules and debouncedRules, dropped on every change and rebuilt on the next event
+    private volatile List<AutomationRule> ruleSnapshot;
+    private volatile List<Map.Entry<AutomationRule, Debouncer>> debouncedSnapshot;
+    // Threshold rules bucketed by device ID, then property name; arrays are replaced on change
+    private final Map<String, Map<String, ThresholdRule[]>> thresholdRules = new ConcurrentHashMap<>();
+    // Compiled DSL rules, with identical conditions shared between rules
+    private final ConditionNetwork conditionNetwork = new ConditionNetwork();
+    private final Set<CompiledRule> compiledRuleList = new LinkedHashSet<>();
+    // Device ID -> rules that read or change it, for cascading device deletion
+    private final DependencyIndex<AutomationRule> ruleIndex = new DependencyIndex<>();
+    private final DependencyIndex<CompiledRule> compiledRuleIndex = new DependencyIndex<>();
+    private final DeviceObserver propertyObserver = new PropertyTriggerObserver();
+    private volatile ActionResolver.Policy conflictPolicy = ActionResolver.Policy.PRIORITY;
+    private volatile ActionResolver.ResolutionReport lastResolution;
+    private volatile DeviceActorSystem deviceActors;
+    private final AutomationScheduler scheduler;
+    // Start the background ticker on first use when running on the system clock
+    private final boolean autoStartScheduler;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final LatencyHistogram processTimer = metrics.timer("automation.processStateChange");
+
     public AutomationEngine() {
-        this.rules = new ArrayList<>();
+        this(new AutomationScheduler(AutomationClock.system()), true);
     }
-    
+
+    /**
+     * Create an engine on an injected clock; call getScheduler().runDueTasks()
+     * (or getScheduler().start()) to fire time-based rules
+     */
+    public AutomationEngine(AutomationClock clock) {
+        this(new AutomationScheduler(clock), false);
+    }
+
+    private AutomationEngine(AutomationScheduler scheduler, boolean autoStartScheduler) {
+        this.rules = new LinkedHashSet<>();
+        this.scheduler = scheduler;
+        this.autoStartScheduler = autoStartScheduler;
+    }
+
     /**
      * Add a rule
      */
-    public void addRule(AutomationRule rule) {
+    public synchronized void addRule(AutomationRule rule) {
+        if (rule instanceof ThresholdRule) {
+            addThresholdRule((ThresholdRule) rule);
+            return;
+        }
         rules.add(rule);
+        ruleSnapshot = null;
+        index(rule);
         System.out.println("AUTOMATION: Added rule: " + rule.getName());
     }
-    
+
+    /**
+     * Add many rules at once, e.g. when loading a stored rule set; logs one line
+     * and copies each threshold bucket once instead of once per rule
+     */
+    public synchronized void addRules(Collection<? extends AutomationRule> newRules) {
+        Map<String, Map<String, List<ThresholdRule>>> thresholds = new HashMap<>();
+        for (AutomationRule rule : newRules) {
+            if (rule instanceof ThresholdRule) {
+                ThresholdRule threshold = (ThresholdRule) rule;
+                thresholds.computeIfAbsent(threshold.getSourceDeviceId(), id -> new HashMap<>())
+                        .computeIfAbsent(threshold.getProperty(), property -> new ArrayList<>())
+                        .add(threshold);
+            } else {
+                rules.add(rule);
+            }
+            index(rule);
+        }
+        ruleSnapshot = null;
+        for (Map.Entry<String, Map<String, List<ThresholdRule>>> device : thresholds.entrySet()) {
+            Map<String, ThresholdRule[]> byProperty =
+                    thresholdRules.computeIfAbsent(device.getKey(), id -> new ConcurrentHashMap<>());
+            for (Map.Entry<String, List<ThresholdRule>> property : device.getValue().entrySet()) {
+                ThresholdRule[] existing = byProperty.getOrDefault(property.getKey(), new ThresholdRule[0]);
+                ThresholdRule[] updated = Arrays.copyOf(existing, existing.length + property.getValue().size());
+                for (int i = 0; i < property.getValue().size(); i++) {
+                    updated[existing.length + i] = property.getValue().get(i);
+                }
+                byProperty.put(property.getKey(), updated);
+            }
+        }
+        System.out.println("AUTOMATION: Added " + newRules.size() + " rules");
+    }
+
+    /**
+     * Remove a rule wherever it is registered: device-triggered, threshold,
+     * scheduled or debounced
+     * @return true if the rule was found
+     */
+    public synchronized boolean removeRule(AutomationRule rule) {
+        boolean removed = rules.remove(rule);
+        if (removed) {
+            ruleSnapshot = null;
+        }
+        if (rule instanceof ThresholdRule) {
+            ThresholdRule threshold = (ThresholdRule) rule;
+            Map<String, ThresholdRule[]> byProperty = thresholdRules.get(threshold.getSourceDeviceId());
+            ThresholdRule[] bucket = byProperty == null ? null : byProperty.get(threshold.getProperty());
+            if (bucket != null) {
+                List<ThresholdRule> remaining = new ArrayList<>(Arrays.asList(bucket));
+                if (remaining.remove(threshold)) {
+                    removed = true;
+                    if (remaining.isEmpty()) {
+                        byProperty.remove(threshold.getProperty());
+                    } else {
+                        byProperty.put(threshold.getProperty(), remaining.toArray(new ThresholdRule[0]));
+                    }
+                }
+            }
+        }
+        ScheduledTask task = scheduledRules.remove(rule);
+        if (task != null) {
+            task.cancel();
+            removed = true;
+        }
+        Debouncer debouncer = debouncedRules.remove(rule);
+        if (debouncer != null) {
+            debouncedSnapshot = null;
+            debouncer.cancel();
+            removed = true;
+        }
+        if (removed) {
+            unindex(rule);
+            metrics.removeRuleTimer(rule.getName());
+            System.out.println("AUTOMATION: Removed rule: " + rule.getName());
+        }
+        return removed;
+    }
+
+    /**
+     * Remove every rule that reads or changes a device, e.g. because the device
+     * was deleted. Runs in time proportional to the affected rules.
+     * @return Names of the removed rules
+     */
+    public synchronized List<String> removeRulesForDevice(String deviceId) {
+        List<String> removed = new ArrayList<>();
+        for (AutomationRule rule : ruleIndex.removeDevice(deviceId)) {
+            if (removeRule(rule)) {
+                removed.add(rule.getName());
+            }
+        }
+        for (CompiledRule rule : compiledRuleIndex.removeDevice(deviceId)) {
+            if (removeCompiledRule(rule)) {
+                removed.add(rule.getName());
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Get the rules that read or change a device
+     */
+    public List<AutomationRule> getRulesForDevice(String deviceId) {
+        return ruleIndex.getDependents(deviceId);
+    }
+
+    private void index(AutomationRule rule) {
+        ruleIndex.addAll(deviceIdsOf(rule), rule);
+    }
+
+    private void unindex(AutomationRule rule) {
+        ruleIndex.removeAll(deviceIdsOf(rule), rule);
+    }
+
+    private static List<String> deviceIdsOf(AutomationRule rule) {
+        List<String> ids = new ArrayList<>(2);
+        ids.add(rule.getActionDeviceId());
+        if (rule.getTriggerDeviceId() != null) {
+            ids.add(rule.getTriggerDeviceId());
+        }
+        if (rule instanceof ThresholdRule) {
+            ids.add(((ThresholdRule) rule).getSourceDeviceId());
+        }
+        return ids;
+    }
+
+    /**
+     * Run a rule's action whenever the cron expression matches, e.g. "0 23 * * *"
+     * @param cron Five-field cron expression
+     * @param rule Rule to execute (its trigger, if any, is ignored)
+     * @return Handle for cancelling the schedule
+     */
+    public synchronized ScheduledTask scheduleRule(String cron, AutomationRule rule) {
+        ScheduledTask task = scheduler.scheduleCron(CronExpression.parse(cron), () -> fire(rule));
+        scheduledRules.put(rule, task);
+        index(rule);
+        ensureSchedulerRunning();
+        System.out.println("AUTOMATION: Scheduled rule: " + rule.getName() + " at '" + cron + "'");
+        return task;
+    }
+
+    /**
+     * Run a rule's action once after a delay
+     */
+    public synchronized ScheduledTask scheduleRuleAfter(Duration delay, AutomationRule rule) {
+        ScheduledTask task = scheduler.schedule(delay, () -> fire(rule));
+        scheduledRules.put(rule, task);
+        index(rule);
+        ensureSchedulerRunning();
+        System.out.println("AUTOMATION: Scheduled rule: " + rule.getName() + " in " + delay);
+        return task;
+    }
+
+    /**
+     * Add a rule that fires only after its trigger state has held for the quiet
+     * period, e.g. "turn the light off if the sensor stays OFF for 10 minutes".
+     * Any other state change of the trigger device cancels the pending run.
+     */
+    public synchronized void addDebouncedRule(AutomationRule rule, Duration quietPeriod) {
+        if (!rule.hasTrigger()) {
+            throw new IllegalArgumentException("Debounced rules need a trigger device");
+        }
+        debouncedRules.put(rule, scheduler.debounce(quietPeriod, () -> fire(rule)));
+        debouncedSnapshot = null;
+        index(rule);
+        ensureSchedulerRunning();
+        System.out.println("AUTOMATION: Added debounced rule: " + rule.getName() + " (quiet " + quietPeriod + ")");
+    }
+
+    /**
+     * Add a rule triggered by a numeric property. The engine only sees property
+     * changes of devices observed by getPropertyObserver().
+     */
+    public synchronized void addThresholdRule(ThresholdRule rule) {
+        Map<String, ThresholdRule[]> byProperty =
+                thresholdRules.computeIfAbsent(rule.getSourceDeviceId(), id -> new ConcurrentHashMap<>());
+        ThresholdRule[] existing = byProperty.getOrDefault(rule.getProperty(), new ThresholdRule[0]);
+        ThresholdRule[] updated = Arrays.copyOf(existing, existing.length + 1);
+        updated[existing.length] = rule;
+        byProperty.put(rule.getProperty(), updated);
+        index(rule);
+        System.out.println("AUTOMATION: Added threshold rule: " + rule.getName());
+    }
+
+    /**
+     * Add a rule written in the rule DSL, e.g.
+     * {@code when sensor_1 is on and hall.currentTemperature > 78 then turn on fan_1}.
+     * Devices are resolved through the registry once, here.
+     * @throws IllegalArgumentException if the rule does not parse or names unknown devices
+     */
+    public CompiledRule addRule(String name, String source) {
+        CompiledRule rule = RuleDsl.compile(name, source, DeviceRegistry.getInstance()::getDevice);
+        addCompiledRule(rule);
+        return rule;
+    }
+
+    /**
+     * Add a compiled DSL rule to the condition network; it is re-evaluated
+     * only through the nodes affected by a device change
+     */
+    public synchronized void addCompiledRule(CompiledRule rule) {
+        conditionNetwork.addRule(rule);
+        compiledRuleList.add(rule);
+        index(rule);
+        System.out.println("AUTOMATION: Added compiled rule: " + rule.getName());
+    }
+
+    /**
+     * Add many compiled DSL rules at once, logging one line
+     */
+    public synchronized void addCompiledRules(Collection<CompiledRule> newRules) {
+        for (CompiledRule rule : newRules) {
+            conditionNetwork.addRule(rule);
+            compiledRuleList.add(rule);
+            index(rule);
+        }
+        System.out.println("AUTOMATION: Added " + newRules.size() + " compiled rules");
+    }
+
+    /**
+     * Remove a compiled DSL rule
+     * @return true if the rule was registered
+     */
+    public synchronized boolean removeCompiledRule(CompiledRule rule) {
+        if (compiledRuleList.remove(rule)) {
+            unindex(rule);
+            metrics.removeRuleTimer(rule.getName());
+        }
+        return conditionNetwork.removeRule(rule);
+    }
+
+    private void index(CompiledRule rule) {
+        compiledRuleIndex.addAll(rule.getTriggerDeviceIds(), rule);
+        compiledRuleIndex.addAll(rule.getActionDeviceIds(), rule);
+    }
+
+    private void unindex(CompiledRule rule) {
+        compiledRuleIndex.removeAll(rule.getTriggerDeviceIds(), rule);
+        compiledRuleIndex.removeAll(rule.getActionDeviceIds(), rule);
+    }
+
     /**
-     * Process a device state change
+     * Evaluate the threshold rules for one property update; only rules on
+     * this device and property are looked at
+     */
+    public void processPropertyChange(IDevice device, String property, double value) {
+        ActionResolver resolver = null;
+        Map<String, ThresholdRule[]> byProperty = thresholdRules.get(device.getId());
+        ThresholdRule[] bucket = byProperty == null ? null : byProperty.get(property);
+        if (bucket != null) {
+            for (ThresholdRule rule : bucket) {
+                if (rule.update(value)) {
+                    resolver = propose(resolver, rule);
+                }
+            }
+        }
+        resolver = proposeCompiledRules(device, resolver);
+        resolve(resolver);
+    }
+
+    /**
+     * Process a batch of sensor samples. Threshold rules see every sample in
+     * order, so a crossing inside the batch still fires; rule conditions in
+     * the network are evaluated once, against the last sample.
+     */
+    public void processSampleBatch(IDevice device, String property, double[] samples, int offset, int length) {
+        ActionResolver resolver = null;
+        Map<String, ThresholdRule[]> byProperty = thresholdRules.get(device.getId());
+        ThresholdRule[] bucket = byProperty == null ? null : byProperty.get(property);
+        if (bucket != null) {
+            for (int i = offset; i < offset + length; i++) {
+                double value = samples[i];
+                for (ThresholdRule rule : bucket) {
+                    if (rule.update(value)) {
+                        resolver = propose(resolver, rule);
+                    }
+                }
+            }
+        }
+        resolver = proposeCompiledRules(device, resolver);
+        resolve(resolver);
+    }
+
+    private ActionResolver proposeCompiledRules(IDevice device, ActionResolver resolver) {
+        // Actions run after propagation has finished; they may change devices and re-enter the network
+        List<CompiledRule> fired = conditionNetwork.deviceChanged(device.getId());
+        if (fired.isEmpty()) {
+            return resolver;
+        }
+        if (resolver == null) {
+            resolver = new ActionResolver(conflictPolicy, deviceActors);
+        }
+        for (CompiledRule rule : fired) {
+            rule.proposeActions(resolver);
+        }
+        return resolver;
+    }
+
+    private ActionResolver propose(ActionResolver resolver, AutomationRule rule) {
+        IDevice actionDevice = rule.getActionDevice();
+        if (rule.getRuleAction() == null || actionDevice == null) {
+            // Unknown action text or deleted device: let the rule report it
+            fire(rule);
+            return resolver;
+        }
+        if (resolver == null) {
+            resolver = new ActionResolver(conflictPolicy, deviceActors);
+        }
+        resolver.propose(rule.getName(), rule.getPriority(), actionDevice, rule.getRuleAction());
+        return resolver;
+    }
+
+    private void resolve(ActionResolver resolver) {
+        if (resolver != null && !resolver.isEmpty()) {
+            lastResolution = resolver.resolve();
+        }
+    }
+
+    /**
+     * Choose how conflicting actions from rules fired by the same event are resolved
+     */
+    public void setConflictPolicy(ActionResolver.Policy conflictPolicy) {
+        this.conflictPolicy = conflictPolicy;
+    }
+
+    public ActionResolver.Policy getConflictPolicy() {
+        return conflictPolicy;
+    }
+
+    /**
+     * Apply rule actions through per-device mailboxes, so a cascade never
+     * mutates a device concurrently with the UI or another cascade
+     * @param deviceActors Actor system to use, or null to apply actions on the calling thread
+     */
+    public void setDeviceActors(DeviceActorSystem deviceActors) {
+        this.deviceActors = deviceActors;
+    }
+
+    /**
+     * Get what ran and what was suppressed for the most recent event that fired rules
+     * @return The report, or null if no event has fired rules yet
+     */
+    public ActionResolver.ResolutionReport getLastResolution() {
+        return lastResolution;
+    }
+
+    /**
+     * Observer to attach to devices whose numeric properties drive threshold rules
+     */
+    public DeviceObserver getPropertyObserver() {
+        return propertyObserver;
+    }
+
+    /**
+     * Process a device state change. Actions of all rules fired by the change
+     * are resolved together, so each device makes at most one power transition.
      */
     public void processStateChange(IDevice device, String state) {
+        processStateChange(device, PowerState.fromLabel(state));
+    }
+
+    /**
+     * Process a device power state change
+     */
+    public void processStateChange(IDevice device, PowerState state) {
+        boolean timed = metrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
         System.out.println("AUTOMATION: Processing state change - " + device.getName() + " is now " + state);
-        
-        for (AutomationRule rule : rules) {
+
+        ActionResolver resolver = null;
+        for (AutomationRule rule : ruleSnapshot()) {
+            if (rule.shouldTrigger(device, state)) {
+                resolver = propose(resolver, rule);
+            }
+        }
+        for (Map.Entry<AutomationRule, Debouncer> entry : debouncedSnapshot()) {
+            AutomationRule rule = entry.getKey();
             if (rule.shouldTrigger(device, state)) {
-                rule.execute();
+                entry.getValue().touch();
+            } else if (device.getId().equals(rule.getTriggerDeviceId())) {
+                entry.getValue().cancel();
             }
         }
+        resolver = proposeCompiledRules(device, resolver);
+        resolve(resolver);
+        if (timed) {
+            processTimer.recordSince(start);
+        }
+    }
+
+    private List<AutomationRule> ruleSnapshot() {
+        List<AutomationRule> snapshot = ruleSnapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = ruleSnapshot;
+                if (snapshot == null) {
+                    snapshot = List.copyOf(rules);
+                    ruleSnapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private List<Map.Entry<AutomationRule, Debouncer>> debouncedSnapshot() {
+        List<Map.Entry<AutomationRule, Debouncer>> snapshot = debouncedSnapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = debouncedSnapshot;
+                if (snapshot == null) {
+                    snapshot = new ArrayList<>(debouncedRules.size());
+                    for (Map.Entry<AutomationRule, Debouncer> entry : debouncedRules.entrySet()) {
+                        snapshot.add(Map.entry(entry.getKey(), entry.getValue()));
+                    }
+                    debouncedSnapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private void fire(AutomationRule rule) {
+        if (metrics.isEnabled()) {
+            long ruleStart = System.nanoTime();
+            rule.execute();
+            metrics.ruleTimer(rule.getName()).recordSince(ruleStart);
+        } else {
+            rule.execute();
+        }
     }
-    
+
+    private void ensureSchedulerRunning() {
+        if (autoStartScheduler && !scheduler.isRunning()) {
+            scheduler.start();
+        }
+    }
+
+    /**
+     * Snapshot the rules and the state of their devices for a dry run;
+     * simulating events on the result never touches the real devices
+     */
+    public RuleSimulator dryRun() {
+        return new RuleSimulator(this);
+    }
+
+    /**
+     * Get the scheduler driving time-based rules
+     */
+    public AutomationScheduler getScheduler() {
+        return scheduler;
+    }
+
     /**
      * Get all rules
      */
     public List<AutomationRule> getRules() {
-        return new ArrayList<>(rules);
+        return new ArrayList<>(ruleSnapshot());
     }
-    
+
+    /**
+     * Get rules run on a schedule (cron or delay)
+     */
+    public synchronized List<AutomationRule> getScheduledRules() {
+        return new ArrayList<>(scheduledRules.keySet());
+    }
+
+    /**
+     * Get rules triggered by numeric properties
+     */
+    public List<ThresholdRule> getThresholdRules() {
+        List<ThresholdRule> result = new ArrayList<>();
+        for (Map<String, ThresholdRule[]> byProperty : thresholdRules.values()) {
+            for (ThresholdRule[] bucket : byProperty.values()) {
+                result.addAll(Arrays.asList(bucket));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get compiled DSL rules
+     */
+    public synchronized List<CompiledRule> getCompiledRules() {
+        return new ArrayList<>(compiledRuleList);
+    }
+
+    /**
+     * Get the shared condition network behind the compiled DSL rules
+     */
+    public ConditionNetwork getConditionNetwork() {
+        return conditionNetwork;
+    }
+
+    /**
+     * Get debounced rules
+     */
+    public synchronized List<AutomationRule> getDebouncedRules() {
+        return new ArrayList<>(debouncedRules.keySet());
+    }
+
     /**
      * Clear all rules
      */
-    public void clearRules() {
+    public synchronized void clearRules() {
         rules.clear();
+        ruleSnapshot = null;
+        for (ScheduledTask task : scheduledRules.values()) {
+            task.cancel();
+        }
+        scheduledRules.clear();
+        for (Debouncer debouncer : debouncedRules.values()) {
+            debouncer.cancel();
+        }
+        debouncedRules.clear();
+        debouncedSnapshot = null;
+        thresholdRules.clear();
+        ruleIndex.clear();
+        conditionNetwork.clear();
+        compiledRuleList.clear();
+        compiledRuleIndex.clear();
+        metrics.clearRuleTimers();
         System.out.println("AUTOMATION: Cleared all rules");
     }
+
+    /**
+     * Forwards numeric property changes to the threshold rule buckets
+     */
+    private class PropertyTriggerObserver implements DeviceObserver {
+
+        @Override
+        public void onDeviceStateChanged(IDevice device, String oldState, String newState) {
+            // State changes reach the engine through processStateChange
+        }
+
+        @Override
+        public void onDeviceNumericPropertyChanged(IDevice device, String propertyName, double oldValue, double newValue) {
+            processPropertyChange(device, propertyName, newValue);
+        }
+
+        @Override
+        public void onSensorSamples(IDevice device, String propertyName, double previous,
+                                    double[] samples, int offset, int length) {
+            processSampleBatch(device, propertyName, samples, offset, length);
+        }
+
+        @Override
+        public String getObserverName() {
+            return "Automation Property Triggers";
+        }
+    }
 }
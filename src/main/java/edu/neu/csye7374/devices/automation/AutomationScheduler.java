@@ -0,0 +1,203 @@
+package edu.neu.csye7374.devices.automation;
+
+import java.time.Duration;
+
+/**
+ * Time-based scheduling for the automation engine, backed by a TimingWheel.
+ * Supports one-shot delays, cron schedules and debounced tasks. Time comes
+ * from an injectable AutomationClock: with the system clock, start() runs a
+ * background ticker; with a ManualClock, call runDueTasks() after advancing it.
+ */
+public class AutomationScheduler implements AutoCloseable {
+
+    public static final long DEFAULT_TICK_MILLIS = 100;
+
+    private final AutomationClock clock;
+    private final TimingWheel wheel;
+    private Thread ticker;
+    private volatile boolean running;
+
+    public AutomationScheduler(AutomationClock clock) {
+        this(clock, DEFAULT_TICK_MILLIS);
+    }
+
+    public AutomationScheduler(AutomationClock clock, long tickMillis) {
+        this.clock = clock;
+        this.wheel = new TimingWheel(tickMillis, clock.millis());
+    }
+
+    public AutomationClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Run a task once after a delay
+     */
+    public ScheduledTask schedule(Duration delay, Runnable task) {
+        return scheduleAt(clock.millis() + delay.toMillis(), task);
+    }
+
+    /**
+     * Run a task once at the given epoch time
+     */
+    public ScheduledTask scheduleAt(long epochMillis, Runnable task) {
+        ScheduledTask scheduled = new ScheduledTask(null, task);
+        scheduled.timeout = wheel.schedule(epochMillis, scheduled::fire);
+        return scheduled;
+    }
+
+    /**
+     * Run a task every time the cron expression matches
+     */
+    public ScheduledTask scheduleCron(CronExpression cron, Runnable task) {
+        ScheduledTask scheduled = new ScheduledTask(cron, task);
+        scheduled.scheduleNext(clock.millis());
+        return scheduled;
+    }
+
+    /**
+     * Create a debouncer that runs the task once the quiet period passes without another touch()
+     */
+    public Debouncer debounce(Duration quietPeriod, Runnable task) {
+        return new Debouncer(quietPeriod.toMillis(), task);
+    }
+
+    /**
+     * Run every task that is due at the clock's current time
+     * @return Number of timers fired
+     */
+    public int runDueTasks() {
+        return wheel.advanceTo(clock.millis());
+    }
+
+    public int getPendingCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Start a daemon thread that runs due tasks every tick
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        ticker = new Thread(() -> {
+            while (running) {
+                runDueTasks();
+                try {
+                    Thread.sleep(wheel.getTickMillis());
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "automation-scheduler");
+        ticker.setDaemon(true);
+        ticker.start();
+        System.out.println("AUTOMATION: Scheduler started (tick " + wheel.getTickMillis() + " ms)");
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (ticker != null) {
+            ticker.interrupt();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Handle to a one-shot or cron task
+     */
+    public class ScheduledTask {
+        private final CronExpression cron;
+        private final Runnable task;
+        private volatile TimingWheel.Timeout timeout;
+        private volatile long scheduledFor;
+        private volatile boolean cancelled;
+
+        private ScheduledTask(CronExpression cron, Runnable task) {
+            this.cron = cron;
+            this.task = task;
+        }
+
+        private void scheduleNext(long afterMillis) {
+            long next = cron.nextFireAfter(afterMillis, clock.getZone());
+            if (next >= 0 && !cancelled) {
+                scheduledFor = next;
+                timeout = wheel.schedule(next, this::fire);
+            }
+        }
+
+        private void fire() {
+            if (cancelled) {
+                return;
+            }
+            if (cron != null) {
+                // Reschedule first so a slow or failing task cannot stop the schedule
+                scheduleNext(Math.max(clock.millis(), scheduledFor));
+            }
+            task.run();
+        }
+
+        public void cancel() {
+            cancelled = true;
+            TimingWheel.Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isRepeating() {
+            return cron != null;
+        }
+
+        /**
+         * Epoch milliseconds of the next run, or -1 if nothing is pending
+         */
+        public long getNextFireMillis() {
+            TimingWheel.Timeout current = timeout;
+            return current != null && current.isPending() ? current.getDeadlineMillis() : -1;
+        }
+    }
+
+    /**
+     * Restartable timer: each touch() pushes the deadline out by the quiet period
+     */
+    public class Debouncer {
+        private final long quietMillis;
+        private final Runnable task;
+        private TimingWheel.Timeout timeout;
+
+        private Debouncer(long quietMillis, Runnable task) {
+            this.quietMillis = quietMillis;
+            this.task = task;
+        }
+
+        public synchronized void touch() {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            timeout = wheel.schedule(clock.millis() + quietMillis, task);
+        }
+
+        public synchronized void cancel() {
+            if (timeout != null) {
+                timeout.cancel();
+                timeout = null;
+            }
+        }
+
+        public synchronized boolean isPending() {
+            return timeout != null && timeout.isPending();
+        }
+    }
+}
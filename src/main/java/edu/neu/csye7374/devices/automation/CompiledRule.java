@@ -0,0 +1,160 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.template.RuleAction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Rule produced by RuleDsl.compile. Devices are resolved and properties bound
+ * at compile time, so evaluating the condition and running the actions does
+ * no lookups, string matching or allocation. Like ThresholdRule, the rule
+ * fires when its condition becomes true, not on every change while it holds.
+ */
+public class CompiledRule {
+
+    private final String name;
+    private final String source;
+    private final RuleDsl.Condition conditionTree;
+    private final BooleanSupplier condition;
+    private final RuleDsl.ActionNode[] actionNodes;
+    private final IDevice[] actionDevices;
+    private final Runnable[] actions;
+    // "set property = value" per SET action, built once for conflict reports
+    private final String[] setLabels;
+    private final String[] triggerDeviceIds;
+    private final Function<String, IDevice> devices;
+    private int priority;
+    private boolean active;
+
+    CompiledRule(String name, String source, RuleDsl.Condition conditionTree, BooleanSupplier condition,
+                 RuleDsl.ActionNode[] actionNodes, IDevice[] actionDevices, Runnable[] actions,
+                 String[] triggerDeviceIds, Function<String, IDevice> devices) {
+        this.name = name;
+        this.source = source;
+        this.conditionTree = conditionTree;
+        this.condition = condition;
+        this.actionNodes = actionNodes;
+        this.actionDevices = actionDevices;
+        this.actions = actions;
+        this.setLabels = new String[actionNodes.length];
+        for (int i = 0; i < actionNodes.length; i++) {
+            RuleDsl.ActionNode node = actionNodes[i];
+            if (node.getKind() == RuleDsl.ActionNode.Kind.SET) {
+                setLabels[i] = "set " + node.getProperty() + " = " + node.getValue();
+            }
+        }
+        this.triggerDeviceIds = triggerDeviceIds;
+        this.devices = devices;
+    }
+
+    /**
+     * Evaluate the condition without changing the rule's edge state
+     */
+    public boolean test() {
+        return condition.getAsBoolean();
+    }
+
+    /**
+     * Re-evaluate after a change to one of the trigger devices
+     * @return true if the condition just became true and the rule should fire
+     */
+    public boolean update() {
+        boolean wasActive = active;
+        active = condition.getAsBoolean();
+        return active && !wasActive;
+    }
+
+    /**
+     * Set the edge state when the condition is tracked elsewhere, e.g. by a ConditionNetwork
+     */
+    void setActive(boolean active) {
+        this.active = active;
+    }
+
+    /**
+     * Run the actions in order
+     */
+    public void execute() {
+        System.out.println("AUTOMATION: Executing rule: " + name);
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    /**
+     * Hand the actions to a resolver instead of running them directly
+     */
+    public void proposeActions(ActionResolver resolver) {
+        for (int i = 0; i < actions.length; i++) {
+            RuleDsl.ActionNode node = actionNodes[i];
+            switch (node.getKind()) {
+                case TURN_ON:
+                    resolver.propose(name, priority, actionDevices[i], RuleAction.TURN_ON);
+                    break;
+                case TURN_OFF:
+                    resolver.propose(name, priority, actionDevices[i], RuleAction.TURN_OFF);
+                    break;
+                case TOGGLE:
+                    resolver.propose(name, priority, actionDevices[i], RuleAction.TOGGLE);
+                    break;
+                case SET:
+                default:
+                    resolver.proposeSet(name, priority, actionDevices[i], node.getProperty(),
+                            setLabels[i], actions[i]);
+            }
+        }
+    }
+
+    public String getName() { return name; }
+    public int getPriority() { return priority; }
+
+    /**
+     * Set the priority used when rules firing on the same event conflict; higher wins
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public String getSource() { return source; }
+    public RuleDsl.Condition getConditionTree() { return conditionTree; }
+
+    /**
+     * Device lookup the rule was compiled against
+     */
+    Function<String, IDevice> getDevices() { return devices; }
+
+    /**
+     * Parsed actions, in source order
+     */
+    RuleDsl.ActionNode[] getActionNodes() { return actionNodes; }
+    public boolean isActive() { return active; }
+
+    /**
+     * IDs of the devices the condition reads; changes to any of them re-evaluate the rule
+     */
+    public List<String> getTriggerDeviceIds() {
+        return List.of(triggerDeviceIds);
+    }
+
+    /**
+     * IDs of the devices the actions change, without duplicates
+     */
+    public List<String> getActionDeviceIds() {
+        List<String> ids = new ArrayList<>(actionNodes.length);
+        for (RuleDsl.ActionNode node : actionNodes) {
+            if (!ids.contains(node.getDeviceId())) {
+                ids.add(node.getDeviceId());
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        return "Rule: " + name + " (" + source + ")";
+    }
+}
@@ -0,0 +1,328 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.core.device.IDevice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Discrimination network over compiled DSL rules, in the style of Rete.
+ *
+ * Every distinct condition (by its canonical key) becomes one node shared by
+ * all rules that contain it. Leaf tests ("hall.currentTemperature > 78",
+ * "sensor_1 is on") are alpha nodes indexed by device; and / or / not are
+ * beta nodes that remember how many of their children currently hold, so a
+ * change only adjusts counters along the paths above the tests it flipped.
+ * Nodes are settled in height order, so a rule sees one consistent result per
+ * device change even when several of its tests flip together.
+ */
+public class ConditionNetwork {
+
+    private final Map<String, Node> nodesByKey = new HashMap<>();
+    private final Map<String, List<AlphaNode>> alphaByDevice = new HashMap<>();
+    private final Map<CompiledRule, Node> roots = new HashMap<>();
+    // Beta nodes waiting to settle during a propagation, one list per height
+    private final List<List<BetaNode>> pending = new ArrayList<>();
+    private int alphaCount;
+    private int betaCount;
+    private long nodesVisited;
+
+    /**
+     * Add a rule, reusing any nodes already built for identical conditions.
+     * The rule starts in its current state, so a condition that already holds
+     * does not fire until it becomes false and true again.
+     */
+    public synchronized void addRule(CompiledRule rule) {
+        if (roots.containsKey(rule)) {
+            return;
+        }
+        Node root = build(rule.getConditionTree(), rule.getDevices());
+        root.terminals.add(rule);
+        rule.setActive(root.value);
+        roots.put(rule, root);
+    }
+
+    /**
+     * Remove a rule and any nodes no other rule uses
+     * @return true if the rule was in the network
+     */
+    public synchronized boolean removeRule(CompiledRule rule) {
+        Node root = roots.remove(rule);
+        if (root == null) {
+            return false;
+        }
+        removeIdentity(root.terminals, rule);
+        release(root);
+        return true;
+    }
+
+    /**
+     * Re-evaluate the tests on one device and propagate the changes
+     * @return Rules whose condition just became true, in no particular order
+     */
+    public synchronized List<CompiledRule> deviceChanged(String deviceId) {
+        List<AlphaNode> alphas = alphaByDevice.get(deviceId);
+        if (alphas == null) {
+            return List.of();
+        }
+        List<CompiledRule> fired = null;
+        int maxHeight = 0;
+        for (int a = 0; a < alphas.size(); a++) {
+            AlphaNode alpha = alphas.get(a);
+            nodesVisited++;
+            boolean now = alpha.test.getAsBoolean();
+            if (now != alpha.value) {
+                alpha.value = now;
+                fired = collectFired(alpha, fired);
+                maxHeight = Math.max(maxHeight, notifyParents(alpha));
+            }
+        }
+        for (int height = 1; height <= maxHeight; height++) {
+            List<BetaNode> level = pending.get(height);
+            for (int i = 0; i < level.size(); i++) {
+                BetaNode beta = level.get(i);
+                beta.queued = false;
+                nodesVisited++;
+                boolean now = beta.evaluate();
+                if (now != beta.value) {
+                    beta.value = now;
+                    fired = collectFired(beta, fired);
+                    maxHeight = Math.max(maxHeight, notifyParents(beta));
+                }
+            }
+            level.clear();
+        }
+        return fired == null ? List.of() : fired;
+    }
+
+    /**
+     * Number of shared leaf tests
+     */
+    public synchronized int getAlphaNodeCount() {
+        return alphaCount;
+    }
+
+    /**
+     * Number of shared and / or / not nodes
+     */
+    public synchronized int getBetaNodeCount() {
+        return betaCount;
+    }
+
+    public synchronized int getRuleCount() {
+        return roots.size();
+    }
+
+    /**
+     * Total nodes evaluated by deviceChanged so far
+     */
+    public synchronized long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    public synchronized void clear() {
+        nodesByKey.clear();
+        alphaByDevice.clear();
+        roots.clear();
+        for (List<BetaNode> level : pending) {
+            level.clear();
+        }
+        alphaCount = 0;
+        betaCount = 0;
+    }
+
+    // ---- Propagation ----
+
+    private List<CompiledRule> collectFired(Node node, List<CompiledRule> fired) {
+        for (int i = 0; i < node.terminals.size(); i++) {
+            CompiledRule rule = node.terminals.get(i);
+            rule.setActive(node.value);
+            if (node.value) {
+                if (fired == null) {
+                    fired = new ArrayList<>();
+                }
+                fired.add(rule);
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * Push a child's flip into its parents' counters and queue them
+     * @return Highest height queued
+     */
+    private int notifyParents(Node child) {
+        int delta = child.value ? 1 : -1;
+        int maxHeight = 0;
+        for (int i = 0; i < child.parents.size(); i++) {
+            BetaNode beta = child.parents.get(i);
+            beta.trueChildren += delta;
+            if (!beta.queued) {
+                beta.queued = true;
+                pending.get(beta.height).add(beta);
+            }
+            maxHeight = Math.max(maxHeight, beta.height);
+        }
+        return maxHeight;
+    }
+
+    // ---- Construction ----
+
+    /**
+     * Leaf tests are bound with the device lookup of the rule that first needs them
+     */
+    private Node build(RuleDsl.Condition condition, Function<String, IDevice> devices) {
+        String key = condition.key();
+        Node existing = nodesByKey.get(key);
+        if (existing != null) {
+            existing.references++;
+            return existing;
+        }
+        Node node;
+        if (condition instanceof RuleDsl.Junction || condition instanceof RuleDsl.Negation) {
+            node = buildBeta(condition, key, devices);
+        } else {
+            node = buildAlpha(condition, key, devices);
+        }
+        node.references = 1;
+        nodesByKey.put(key, node);
+        return node;
+    }
+
+    private AlphaNode buildAlpha(RuleDsl.Condition condition, String key, Function<String, IDevice> devices) {
+        String deviceId = condition instanceof RuleDsl.StateTest
+                ? ((RuleDsl.StateTest) condition).getDeviceId()
+                : ((RuleDsl.Comparison) condition).getDeviceId();
+        AlphaNode alpha = new AlphaNode(key, deviceId, condition.compile(devices));
+        alpha.value = alpha.test.getAsBoolean();
+        alphaByDevice.computeIfAbsent(deviceId, id -> new ArrayList<>()).add(alpha);
+        alphaCount++;
+        return alpha;
+    }
+
+    private BetaNode buildBeta(RuleDsl.Condition condition, String key, Function<String, IDevice> devices) {
+        List<RuleDsl.Condition> childConditions;
+        BetaNode.Kind kind;
+        if (condition instanceof RuleDsl.Negation) {
+            kind = BetaNode.Kind.NOT;
+            childConditions = List.of(((RuleDsl.Negation) condition).getChild());
+        } else {
+            RuleDsl.Junction junction = (RuleDsl.Junction) condition;
+            kind = junction.isAnd() ? BetaNode.Kind.AND : BetaNode.Kind.OR;
+            childConditions = junction.getChildren();
+        }
+        Node[] children = new Node[childConditions.size()];
+        int height = 0;
+        int trueChildren = 0;
+        for (int i = 0; i < children.length; i++) {
+            children[i] = build(childConditions.get(i), devices);
+            height = Math.max(height, children[i].height);
+            if (children[i].value) {
+                trueChildren++;
+            }
+        }
+        BetaNode beta = new BetaNode(key, kind, children, height + 1);
+        beta.trueChildren = trueChildren;
+        beta.value = beta.evaluate();
+        for (Node child : children) {
+            child.parents.add(beta);
+        }
+        while (pending.size() <= beta.height) {
+            pending.add(new ArrayList<>());
+        }
+        betaCount++;
+        return beta;
+    }
+
+    private void release(Node node) {
+        if (--node.references > 0) {
+            return;
+        }
+        nodesByKey.remove(node.key);
+        if (node instanceof AlphaNode) {
+            AlphaNode alpha = (AlphaNode) node;
+            List<AlphaNode> remaining = alphaByDevice.get(alpha.deviceId);
+            removeIdentity(remaining, alpha);
+            if (remaining.isEmpty()) {
+                alphaByDevice.remove(alpha.deviceId);
+            }
+            alphaCount--;
+        } else {
+            BetaNode beta = (BetaNode) node;
+            for (Node child : beta.children) {
+                removeIdentity(child.parents, beta);
+                release(child);
+            }
+            betaCount--;
+        }
+    }
+
+    /**
+     * Remove one occurrence of element (a node may list the same parent twice, e.g. "a and a")
+     */
+    private static <T> void removeIdentity(List<T> list, T element) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == element) {
+                list.remove(i);
+                return;
+            }
+        }
+    }
+
+    // ---- Nodes ----
+
+    private abstract static class Node {
+        final String key;
+        final int height;
+        boolean value;
+        int references;
+        // Lists rather than arrays: widely shared nodes collect thousands of parents and rules
+        final List<BetaNode> parents = new ArrayList<>(2);
+        final List<CompiledRule> terminals = new ArrayList<>(1);
+
+        Node(String key, int height) {
+            this.key = key;
+            this.height = height;
+        }
+    }
+
+    private static final class AlphaNode extends Node {
+        final String deviceId;
+        final BooleanSupplier test;
+
+        AlphaNode(String key, String deviceId, BooleanSupplier test) {
+            super(key, 0);
+            this.deviceId = deviceId;
+            this.test = test;
+        }
+    }
+
+    private static final class BetaNode extends Node {
+        enum Kind { AND, OR, NOT }
+
+        final Kind kind;
+        final Node[] children;
+        // Partial-match memory: how many children currently hold
+        int trueChildren;
+        boolean queued;
+
+        BetaNode(String key, Kind kind, Node[] children, int height) {
+            super(key, height);
+            this.kind = kind;
+            this.children = children;
+        }
+
+        boolean evaluate() {
+            switch (kind) {
+                case AND: return trueChildren == children.length;
+                case OR: return trueChildren > 0;
+                case NOT:
+                default: return trueChildren == 0;
+            }
+        }
+    }
+}
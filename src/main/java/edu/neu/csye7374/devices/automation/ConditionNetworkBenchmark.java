@@ -0,0 +1,169 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.devices.concrete.Thermostat;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds many DSL rules drawn from a small pool of shared conditions and
+ * drives random device changes through two evaluators: per-device rule
+ * buckets that re-evaluate each affected rule's whole condition, and the
+ * shared ConditionNetwork. Both must fire the same rules.
+ * Options: rules=50000 lights=200 thermostats=50 contexts=500 events=20000
+ */
+public class ConditionNetworkBenchmark {
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "rules", "lights", "thermostats", "contexts", "events");
+        int ruleCount = options.get("rules", 50_000, 1);
+        int lights = options.get("lights", 200, 2);
+        int thermostats = options.get("thermostats", 50, 1);
+        int contexts = options.get("contexts", 500, 1);
+        int events = options.get("events", 20_000, 1);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        try {
+            Map<String, IDevice> devices = new HashMap<>();
+            List<IDevice> sources = new ArrayList<>();
+            for (int i = 0; i < lights; i++) {
+                Light light = new Light("l" + i, "Light " + i);
+                devices.put(light.getId(), light);
+                sources.add(light);
+            }
+            for (int i = 0; i < thermostats; i++) {
+                Thermostat thermostat = new Thermostat("t" + i, "Thermostat " + i);
+                devices.put(thermostat.getId(), thermostat);
+                sources.add(thermostat);
+            }
+            devices.put("out", new Light("out", "Output"));
+
+            Random random = new Random(7);
+            String[] contextPool = new String[contexts];
+            for (int i = 0; i < contexts; i++) {
+                contextPool[i] = "(" + randomTest(random, lights, thermostats) + " and "
+                        + randomTest(random, lights, thermostats) + ")";
+            }
+            String[] ruleSources = new String[ruleCount];
+            for (int i = 0; i < ruleCount; i++) {
+                String context = contextPool[random.nextInt(contexts)];
+                String extra = randomTest(random, lights, thermostats);
+                ruleSources[i] = random.nextInt(4) == 0
+                        ? "when " + context + " and (" + extra + " or not " + randomTest(random, lights, thermostats) + ") then turn on out"
+                        : "when " + context + " and " + extra + " then turn on out";
+            }
+
+            // Baseline: rules bucketed by trigger device, each condition evaluated in full
+            long start = System.nanoTime();
+            Map<String, List<CompiledRule>> bucketLists = new HashMap<>();
+            int treeNodes = 0;
+            for (int i = 0; i < ruleCount; i++) {
+                CompiledRule rule = RuleDsl.compile("r" + i, ruleSources[i], devices::get);
+                rule.update();
+                treeNodes += countNodes(rule.getConditionTree());
+                for (String deviceId : rule.getTriggerDeviceIds()) {
+                    bucketLists.computeIfAbsent(deviceId, id -> new ArrayList<>()).add(rule);
+                }
+            }
+            Map<String, CompiledRule[]> buckets = new HashMap<>();
+            for (Map.Entry<String, List<CompiledRule>> entry : bucketLists.entrySet()) {
+                buckets.put(entry.getKey(), entry.getValue().toArray(new CompiledRule[0]));
+            }
+            long bucketBuildNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ConditionNetwork network = new ConditionNetwork();
+            for (int i = 0; i < ruleCount; i++) {
+                network.addRule(RuleDsl.compile("r" + i, ruleSources[i], devices::get));
+            }
+            long networkBuildNanos = System.nanoTime() - start;
+
+            out.println("\n=== CONDITION NETWORK BENCHMARK ===");
+            out.printf("Rules:        %d over %d devices, %d shared contexts%n", ruleCount, sources.size(), contexts);
+            out.printf("Nodes:        %d in rule trees -> %d alpha + %d beta shared%n",
+                    treeNodes, network.getAlphaNodeCount(), network.getBetaNodeCount());
+            out.printf("Build:        buckets %.0f ms, network %.0f ms%n", bucketBuildNanos / 1e6, networkBuildNanos / 1e6);
+
+            // Repeat once so the second round runs on warmed-up code
+            for (int round = 1; round <= 2; round++) {
+                long bucketNanos = 0;
+                long networkNanos = 0;
+                long bucketEvaluations = 0;
+                long bucketFired = 0;
+                long networkFired = 0;
+                long visitedBefore = network.getNodesVisited();
+                for (int e = 0; e < events; e++) {
+                    IDevice device = sources.get(random.nextInt(sources.size()));
+                    if (device instanceof Thermostat) {
+                        ((Thermostat) device).setCurrentTemperature(60 + random.nextInt(26));
+                    } else if (random.nextBoolean()) {
+                        device.toggle();
+                    } else {
+                        ((Light) device).setBrightness(random.nextInt(101));
+                    }
+
+                    start = System.nanoTime();
+                    CompiledRule[] bucket = buckets.get(device.getId());
+                    if (bucket != null) {
+                        for (CompiledRule rule : bucket) {
+                            if (rule.update()) {
+                                bucketFired++;
+                            }
+                        }
+                        bucketEvaluations += bucket.length;
+                    }
+                    bucketNanos += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    networkFired += network.deviceChanged(device.getId()).size();
+                    networkNanos += System.nanoTime() - start;
+                }
+                long visited = network.getNodesVisited() - visitedBefore;
+                out.println("\n--- round " + round + ", " + events + " device changes ---");
+                out.printf("Buckets:      %8.1f us/change, %6.0f rule conditions/change, fired %d%n",
+                        bucketNanos / 1e3 / events, (double) bucketEvaluations / events, bucketFired);
+                out.printf("Network:      %8.1f us/change, %6.0f nodes/change, fired %d%n",
+                        networkNanos / 1e3 / events, (double) visited / events, networkFired);
+                if (bucketFired != networkFired) {
+                    out.println("WARNING: evaluators disagree on fired rules");
+                }
+            }
+        } finally {
+            quiet.close();
+        }
+    }
+
+    private static String randomTest(Random random, int lights, int thermostats) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return "l" + random.nextInt(lights) + (random.nextBoolean() ? " is on" : " is off");
+            case 1:
+                return "l" + random.nextInt(lights) + ".brightness >= " + (25 * (1 + random.nextInt(3)));
+            default:
+                return "t" + random.nextInt(thermostats) + ".currentTemperature > " + (65 + 5 * random.nextInt(4));
+        }
+    }
+
+    private static int countNodes(RuleDsl.Condition condition) {
+        if (condition instanceof RuleDsl.Junction) {
+            int count = 1;
+            for (RuleDsl.Condition child : ((RuleDsl.Junction) condition).getChildren()) {
+                count += countNodes(child);
+            }
+            return count;
+        }
+        if (condition instanceof RuleDsl.Negation) {
+            return 1 + countNodes(((RuleDsl.Negation) condition).getChild());
+        }
+        return 1;
+    }
+}
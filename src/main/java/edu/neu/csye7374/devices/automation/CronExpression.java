@@ -0,0 +1,173 @@
+package edu.neu.csye7374.devices.automation;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Standard five-field cron expression: minute hour day-of-month month day-of-week.
+ * Fields accept *, numbers, ranges (1-5), lists (1,15), steps (*&#47;10, 8-18/2)
+ * and three-letter month and day names. Day-of-week 0 and 7 are Sunday.
+ * When both day fields are restricted a day matches either of them, as in cron.
+ * The shortcuts @hourly, @daily, @weekly, @monthly and @yearly are supported.
+ */
+public final class CronExpression {
+
+    private static final String[] MONTH_NAMES = {
+        "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"
+    };
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+    // Give up on expressions that never match (e.g. February 30th)
+    private static final int MAX_YEARS_AHEAD = 5;
+
+    private final String expression;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        this.minutes = parseField(fields[0], 0, 59, null, 0);
+        this.hours = parseField(fields[1], 0, 23, null, 0);
+        this.daysOfMonth = parseField(fields[2], 1, 31, null, 0);
+        this.months = parseField(fields[3], 1, 12, MONTH_NAMES, 1);
+        long dow = parseField(fields[4], 0, 7, DAY_NAMES, 0);
+        if ((dow & (1L << 7)) != 0) {
+            dow |= 1L;
+        }
+        this.daysOfWeek = dow;
+        this.dayOfMonthRestricted = !fields[2].equals("*");
+        this.dayOfWeekRestricted = !fields[4].equals("*");
+    }
+
+    /**
+     * Parse a cron expression
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static CronExpression parse(String expression) {
+        String trimmed = expression.trim();
+        switch (trimmed.toLowerCase()) {
+            case "@hourly": return new CronExpression(trimmed, "0 * * * *".split(" "));
+            case "@daily":
+            case "@midnight": return new CronExpression(trimmed, "0 0 * * *".split(" "));
+            case "@weekly": return new CronExpression(trimmed, "0 0 * * 0".split(" "));
+            case "@monthly": return new CronExpression(trimmed, "0 0 1 * *".split(" "));
+            case "@yearly":
+            case "@annually": return new CronExpression(trimmed, "0 0 1 1 *".split(" "));
+            default: break;
+        }
+        String[] fields = trimmed.split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Cron expression must have 5 fields: " + expression);
+        }
+        return new CronExpression(trimmed, fields);
+    }
+
+    /**
+     * Next matching minute strictly after the given time
+     * @param afterMillis Epoch milliseconds
+     * @param zone Zone the expression is evaluated in
+     * @return Epoch milliseconds of the next fire time, or -1 if it never fires
+     */
+    public long nextFireAfter(long afterMillis, ZoneId zone) {
+        ZonedDateTime start = ZonedDateTime.ofInstant(Instant.ofEpochMilli(afterMillis), zone);
+        ZonedDateTime next = start.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        int lastYear = start.getYear() + MAX_YEARS_AHEAD;
+        while (next.getYear() <= lastYear) {
+            if (!matches(months, next.getMonthValue())) {
+                next = next.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+                continue;
+            }
+            if (!matchesDay(next)) {
+                next = next.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+                continue;
+            }
+            if (!matches(hours, next.getHour())) {
+                next = next.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+                continue;
+            }
+            if (!matches(minutes, next.getMinute())) {
+                next = next.plusMinutes(1);
+                continue;
+            }
+            return next.toInstant().toEpochMilli();
+        }
+        return -1;
+    }
+
+    private boolean matchesDay(ZonedDateTime time) {
+        boolean dom = matches(daysOfMonth, time.getDayOfMonth());
+        boolean dow = matches(daysOfWeek, time.getDayOfWeek().getValue() % 7);
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return dom || dow;
+        }
+        return dom && dow;
+    }
+
+    private static boolean matches(long mask, int value) {
+        return (mask & (1L << value)) != 0;
+    }
+
+    private static long parseField(String field, int min, int max, String[] names, int nameOffset) {
+        long mask = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = Integer.parseInt(part.substring(slash + 1));
+                if (step <= 0) {
+                    throw new IllegalArgumentException("Invalid cron step: " + part);
+                }
+                part = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash > 0) {
+                    from = parseValue(part.substring(0, dash), names, nameOffset);
+                    to = parseValue(part.substring(dash + 1), names, nameOffset);
+                } else {
+                    from = parseValue(part, names, nameOffset);
+                    // "5/15" means every 15 starting at 5
+                    to = slash >= 0 ? max : from;
+                }
+            }
+            if (from < min || to > max || from > to) {
+                throw new IllegalArgumentException("Cron field out of range [" + min + "-" + max + "]: " + field);
+            }
+            for (int value = from; value <= to; value += step) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int parseValue(String value, String[] names, int nameOffset) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(value)) {
+                    return i + nameOffset;
+                }
+            }
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cron value: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,42 @@
+package edu.neu.csye7374.devices.automation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Clock that only moves when told to; used to drive schedules deterministically
+ */
+public class ManualClock implements AutomationClock {
+
+    private final ZoneId zone;
+    private volatile long millis;
+
+    public ManualClock(Instant start, ZoneId zone) {
+        this.millis = start.toEpochMilli();
+        this.zone = zone;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public void advance(Duration duration) {
+        millis += duration.toMillis();
+    }
+
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+
+    @Override
+    public String toString() {
+        return "ManualClock{" + Instant.ofEpochMilli(millis).atZone(zone) + "}";
+    }
+}
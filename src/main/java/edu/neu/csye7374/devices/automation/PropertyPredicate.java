@@ -0,0 +1,173 @@
+package edu.neu.csye7374.devices.automation;
+
+/**
+ * Condition on a numeric device property, evaluated on raw doubles.
+ * Predicates are stateless; the caller passes in whether the condition held
+ * before, which lets hysteresis bands keep a condition active until the value
+ * has moved back past the band instead of flapping around the threshold.
+ */
+public abstract class PropertyPredicate {
+
+    public enum Kind { ABOVE, BELOW, BETWEEN, OUTSIDE }
+
+    /**
+     * @param value The new property value
+     * @param wasActive Whether the condition held after the previous value
+     * @return Whether the condition holds now
+     */
+    public abstract boolean test(double value, boolean wasActive);
+
+    public abstract Kind getKind();
+
+    /**
+     * Threshold for ABOVE / BELOW, low bound for BETWEEN / OUTSIDE
+     */
+    public abstract double getFirst();
+
+    /**
+     * Hysteresis band for ABOVE / BELOW, high bound for BETWEEN / OUTSIDE
+     */
+    public abstract double getSecond();
+
+    /**
+     * Rebuild a predicate from its kind and parameters, e.g. when loading stored rules
+     */
+    public static PropertyPredicate of(Kind kind, double first, double second) {
+        switch (kind) {
+            case ABOVE: return new Above(first, second);
+            case BELOW: return new Below(first, second);
+            case BETWEEN: return new Range(first, second, true);
+            case OUTSIDE:
+            default: return new Range(first, second, false);
+        }
+    }
+
+    /**
+     * Active while value &gt; threshold
+     */
+    public static PropertyPredicate above(double threshold) {
+        return new Above(threshold, 0);
+    }
+
+    /**
+     * Active while value &lt; threshold
+     */
+    public static PropertyPredicate below(double threshold) {
+        return new Below(threshold, 0);
+    }
+
+    /**
+     * Becomes active above threshold, stays active until value drops below threshold - band
+     */
+    public static PropertyPredicate above(double threshold, double band) {
+        return new Above(threshold, band);
+    }
+
+    /**
+     * Becomes active below threshold, stays active until value rises above threshold + band
+     */
+    public static PropertyPredicate below(double threshold, double band) {
+        return new Below(threshold, band);
+    }
+
+    /**
+     * Active while low &lt;= value &lt;= high
+     */
+    public static PropertyPredicate between(double low, double high) {
+        return new Range(low, high, true);
+    }
+
+    /**
+     * Active while value &lt; low or value &gt; high
+     */
+    public static PropertyPredicate outside(double low, double high) {
+        return new Range(low, high, false);
+    }
+
+    private static final class Above extends PropertyPredicate {
+        private final double threshold;
+        private final double band;
+
+        Above(double threshold, double band) {
+            this.threshold = threshold;
+            this.band = Math.abs(band);
+        }
+
+        @Override
+        public boolean test(double value, boolean wasActive) {
+            return wasActive ? value > threshold - band : value > threshold;
+        }
+
+        @Override
+        public Kind getKind() { return Kind.ABOVE; }
+        @Override
+        public double getFirst() { return threshold; }
+        @Override
+        public double getSecond() { return band; }
+
+        @Override
+        public String toString() {
+            return band == 0 ? "> " + threshold : "> " + threshold + " (hysteresis " + band + ")";
+        }
+    }
+
+    private static final class Below extends PropertyPredicate {
+        private final double threshold;
+        private final double band;
+
+        Below(double threshold, double band) {
+            this.threshold = threshold;
+            this.band = Math.abs(band);
+        }
+
+        @Override
+        public boolean test(double value, boolean wasActive) {
+            return wasActive ? value < threshold + band : value < threshold;
+        }
+
+        @Override
+        public Kind getKind() { return Kind.BELOW; }
+        @Override
+        public double getFirst() { return threshold; }
+        @Override
+        public double getSecond() { return band; }
+
+        @Override
+        public String toString() {
+            return band == 0 ? "< " + threshold : "< " + threshold + " (hysteresis " + band + ")";
+        }
+    }
+
+    private static final class Range extends PropertyPredicate {
+        private final double low;
+        private final double high;
+        private final boolean inside;
+
+        Range(double low, double high, boolean inside) {
+            if (low > high) {
+                throw new IllegalArgumentException("Range low must not exceed high: " + low + " > " + high);
+            }
+            this.low = low;
+            this.high = high;
+            this.inside = inside;
+        }
+
+        @Override
+        public boolean test(double value, boolean wasActive) {
+            boolean within = value >= low && value <= high;
+            return within == inside;
+        }
+
+        @Override
+        public Kind getKind() { return inside ? Kind.BETWEEN : Kind.OUTSIDE; }
+        @Override
+        public double getFirst() { return low; }
+        @Override
+        public double getSecond() { return high; }
+
+        @Override
+        public String toString() {
+            return (inside ? "in [" : "outside [") + low + ", " + high + "]";
+        }
+    }
+}
@@ -0,0 +1,714 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.property.PropertyDescriptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * Small rule language, parsed once and compiled into lambda trees:
+ *
+ * <pre>
+ *   when &lt;condition&gt; then &lt;action&gt; [, &lt;action&gt; ...]
+ *
+ *   condition := term (or term)*
+ *   term      := factor (and factor)*
+ *   factor    := not factor | ( condition ) | test
+ *   test      := device is on|off
+ *              | device.property (&gt; | &gt;= | &lt; | &lt;= | == | !=) number
+ *   action    := turn on device | turn off device | toggle device
+ *              | set device.property = value
+ * </pre>
+ *
+ * Device IDs are bare identifiers or quoted strings. Numeric properties are
+ * brightness (lights) and currentTemperature / targetTemperature (thermostats);
+ * set also accepts color and mode. Example:
+ * {@code when sensor_1 is on and hall.currentTemperature > 78 then turn on fan_1, set hall.mode = COOL}
+ *
+ * The parsed tree can also be interpreted directly, which is what compilation
+ * is measured against in RuleDslBenchmark.
+ */
+public final class RuleDsl {
+
+    private RuleDsl() {
+    }
+
+    /**
+     * Parse rule source into a syntax tree
+     * @throws IllegalArgumentException on syntax errors
+     */
+    public static ParsedRule parse(String source) {
+        return new Parser(source).parseRule();
+    }
+
+    /**
+     * Parse and compile a rule, resolving device IDs once
+     * @param name Rule name
+     * @param source Rule source
+     * @param devices Device lookup, typically DeviceRegistry.getInstance()::getDevice
+     * @throws IllegalArgumentException on syntax errors, unknown devices or unsupported properties
+     */
+    public static CompiledRule compile(String name, String source, Function<String, IDevice> devices) {
+        ParsedRule parsed = parse(source);
+        BooleanSupplier condition = parsed.getCondition().compile(devices);
+        List<ActionNode> actionNodes = parsed.getActions();
+        Runnable[] actions = new Runnable[actionNodes.size()];
+        IDevice[] actionDevices = new IDevice[actions.length];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = actionNodes.get(i).compile(devices);
+            actionDevices[i] = devices.apply(actionNodes.get(i).getDeviceId());
+        }
+        Set<String> triggers = new LinkedHashSet<>();
+        parsed.getCondition().collectDevices(triggers);
+        return new CompiledRule(name, source, parsed.getCondition(), condition,
+                actionNodes.toArray(new ActionNode[0]), actionDevices, actions, triggers.toArray(new String[0]), devices);
+    }
+
+    // ---- Syntax tree ----
+
+    /**
+     * Parsed rule: one condition and its ordered actions
+     */
+    public static final class ParsedRule {
+        private final String source;
+        private final Condition condition;
+        private final List<ActionNode> actions;
+
+        ParsedRule(String source, Condition condition, List<ActionNode> actions) {
+            this.source = source;
+            this.condition = condition;
+            this.actions = Collections.unmodifiableList(actions);
+        }
+
+        public String getSource() { return source; }
+        public Condition getCondition() { return condition; }
+        public List<ActionNode> getActions() { return actions; }
+
+        /**
+         * Evaluate the condition by walking the tree (no compilation)
+         */
+        public boolean interpretCondition(Function<String, IDevice> devices) {
+            return condition.interpret(devices);
+        }
+
+        /**
+         * Run the actions by walking the tree (no compilation)
+         */
+        public void interpretActions(Function<String, IDevice> devices) {
+            for (ActionNode action : actions) {
+                action.interpret(devices);
+            }
+        }
+    }
+
+    /**
+     * Condition node
+     */
+    public abstract static class Condition {
+
+        abstract BooleanSupplier compile(Function<String, IDevice> devices);
+
+        abstract boolean interpret(Function<String, IDevice> devices);
+
+        abstract void collectDevices(Set<String> deviceIds);
+
+        private String key;
+
+        /**
+         * Canonical text; equal conditions have equal keys
+         */
+        public final String key() {
+            if (key == null) {
+                key = computeKey();
+            }
+            return key;
+        }
+
+        abstract String computeKey();
+
+        @Override
+        public String toString() {
+            return key();
+        }
+    }
+
+    public enum Operator {
+        GT(">"), GE(">="), LT("<"), LE("<="), EQ("=="), NE("!=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        boolean apply(double left, double right) {
+            switch (this) {
+                case GT: return left > right;
+                case GE: return left >= right;
+                case LT: return left < right;
+                case LE: return left <= right;
+                case EQ: return left == right;
+                case NE:
+                default: return left != right;
+            }
+        }
+
+        static Operator fromSymbol(String symbol) {
+            for (Operator op : values()) {
+                if (op.symbol.equals(symbol)) {
+                    return op;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * "device is on|off"
+     */
+    public static final class StateTest extends Condition {
+        private final String deviceId;
+        private final boolean on;
+
+        StateTest(String deviceId, boolean on) {
+            this.deviceId = deviceId;
+            this.on = on;
+        }
+
+        public String getDeviceId() { return deviceId; }
+        public boolean isOn() { return on; }
+
+        @Override
+        BooleanSupplier compile(Function<String, IDevice> devices) {
+            IDevice device = require(devices, deviceId);
+            return on ? device::isOn : () -> !device.isOn();
+        }
+
+        @Override
+        boolean interpret(Function<String, IDevice> devices) {
+            return require(devices, deviceId).isOn() == on;
+        }
+
+        @Override
+        void collectDevices(Set<String> deviceIds) {
+            deviceIds.add(deviceId);
+        }
+
+        @Override
+        String computeKey() {
+            return deviceId + " is " + (on ? "on" : "off");
+        }
+    }
+
+    /**
+     * "device.property op number"
+     */
+    public static final class Comparison extends Condition {
+        private final String deviceId;
+        private final String property;
+        private final Operator operator;
+        private final double value;
+
+        Comparison(String deviceId, String property, Operator operator, double value) {
+            this.deviceId = deviceId;
+            this.property = property;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        public String getDeviceId() { return deviceId; }
+        public String getProperty() { return property; }
+        public Operator getOperator() { return operator; }
+        public double getValue() { return value; }
+
+        @Override
+        BooleanSupplier compile(Function<String, IDevice> devices) {
+            DoubleSupplier reader = numericReader(require(devices, deviceId), property);
+            double constant = value;
+            // One specialised lambda per operator, so evaluation has no dispatch
+            switch (operator) {
+                case GT: return () -> reader.getAsDouble() > constant;
+                case GE: return () -> reader.getAsDouble() >= constant;
+                case LT: return () -> reader.getAsDouble() < constant;
+                case LE: return () -> reader.getAsDouble() <= constant;
+                case EQ: return () -> reader.getAsDouble() == constant;
+                case NE:
+                default: return () -> reader.getAsDouble() != constant;
+            }
+        }
+
+        @Override
+        boolean interpret(Function<String, IDevice> devices) {
+            return operator.apply(readNumeric(require(devices, deviceId), property), value);
+        }
+
+        @Override
+        void collectDevices(Set<String> deviceIds) {
+            deviceIds.add(deviceId);
+        }
+
+        @Override
+        String computeKey() {
+            return deviceId + "." + property + " " + operator.symbol + " " + value;
+        }
+    }
+
+    /**
+     * Conjunction or disjunction of two or more conditions
+     */
+    public static final class Junction extends Condition {
+        private final boolean and;
+        private final Condition[] children;
+
+        Junction(boolean and, List<Condition> children) {
+            this.and = and;
+            this.children = children.toArray(new Condition[0]);
+        }
+
+        public boolean isAnd() { return and; }
+        public List<Condition> getChildren() { return List.of(children); }
+
+        @Override
+        BooleanSupplier compile(Function<String, IDevice> devices) {
+            BooleanSupplier[] compiled = new BooleanSupplier[children.length];
+            for (int i = 0; i < children.length; i++) {
+                compiled[i] = children[i].compile(devices);
+            }
+            if (compiled.length == 2) {
+                BooleanSupplier left = compiled[0];
+                BooleanSupplier right = compiled[1];
+                return and ? () -> left.getAsBoolean() && right.getAsBoolean()
+                           : () -> left.getAsBoolean() || right.getAsBoolean();
+            }
+            if (and) {
+                return () -> {
+                    for (BooleanSupplier child : compiled) {
+                        if (!child.getAsBoolean()) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            return () -> {
+                for (BooleanSupplier child : compiled) {
+                    if (child.getAsBoolean()) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+
+        @Override
+        boolean interpret(Function<String, IDevice> devices) {
+            for (Condition child : children) {
+                boolean result = child.interpret(devices);
+                if (and != result) {
+                    return result;
+                }
+            }
+            return and;
+        }
+
+        @Override
+        void collectDevices(Set<String> deviceIds) {
+            for (Condition child : children) {
+                child.collectDevices(deviceIds);
+            }
+        }
+
+        /**
+         * Children are sorted, so "a and b" and "b and a" share a key
+         */
+        @Override
+        String computeKey() {
+            String[] keys = new String[children.length];
+            for (int i = 0; i < children.length; i++) {
+                keys[i] = children[i].key();
+            }
+            Arrays.sort(keys);
+            return "(" + String.join(and ? " and " : " or ", keys) + ")";
+        }
+    }
+
+    /**
+     * "not condition"
+     */
+    public static final class Negation extends Condition {
+        private final Condition child;
+
+        Negation(Condition child) {
+            this.child = child;
+        }
+
+        public Condition getChild() { return child; }
+
+        @Override
+        BooleanSupplier compile(Function<String, IDevice> devices) {
+            BooleanSupplier compiled = child.compile(devices);
+            return () -> !compiled.getAsBoolean();
+        }
+
+        @Override
+        boolean interpret(Function<String, IDevice> devices) {
+            return !child.interpret(devices);
+        }
+
+        @Override
+        void collectDevices(Set<String> deviceIds) {
+            child.collectDevices(deviceIds);
+        }
+
+        @Override
+        String computeKey() {
+            return "not " + child.key();
+        }
+    }
+
+    /**
+     * Action node
+     */
+    public static final class ActionNode {
+        public enum Kind { TURN_ON, TURN_OFF, TOGGLE, SET }
+
+        private final Kind kind;
+        private final String deviceId;
+        private final String property;
+        private final String value;
+
+        ActionNode(Kind kind, String deviceId, String property, String value) {
+            this.kind = kind;
+            this.deviceId = deviceId;
+            this.property = property;
+            this.value = value;
+        }
+
+        public Kind getKind() { return kind; }
+        public String getDeviceId() { return deviceId; }
+        public String getProperty() { return property; }
+        public String getValue() { return value; }
+
+        Runnable compile(Function<String, IDevice> devices) {
+            IDevice device = require(devices, deviceId);
+            switch (kind) {
+                case TURN_ON: return device::turnOn;
+                case TURN_OFF: return device::turnOff;
+                case TOGGLE: return device::toggle;
+                case SET:
+                default:
+                    return compileSet(device);
+            }
+        }
+
+        private Runnable compileSet(IDevice device) {
+            PropertyDescriptor descriptor = device.getSchema().get(property);
+            if (descriptor == null || descriptor.isReading()) {
+                throw new IllegalArgumentException("Cannot set " + property + " on " + device.getType() + " " + deviceId);
+            }
+            long raw = descriptor.getKind().isNumeric() ? descriptor.encode(parseNumber(value)) : descriptor.encode(value);
+            if (!descriptor.accepts(raw)) {
+                throw new IllegalArgumentException(property + " must be " + (int) descriptor.getMin() + "-"
+                        + (int) descriptor.getMax() + ": " + value);
+            }
+            int slot = descriptor.getSlot();
+            Object decoded = descriptor.decode(raw);
+            return () -> device.setProperty(slot, decoded);
+        }
+
+        void interpret(Function<String, IDevice> devices) {
+            IDevice device = require(devices, deviceId);
+            switch (kind) {
+                case TURN_ON: device.turnOn(); break;
+                case TURN_OFF: device.turnOff(); break;
+                case TOGGLE: device.toggle(); break;
+                case SET:
+                default:
+                    compileSet(device).run();
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case TURN_ON: return "turn on " + deviceId;
+                case TURN_OFF: return "turn off " + deviceId;
+                case TOGGLE: return "toggle " + deviceId;
+                default: return "set " + deviceId + "." + property + " = " + value;
+            }
+        }
+    }
+
+    // ---- Device access ----
+
+    private static IDevice require(Function<String, IDevice> devices, String deviceId) {
+        IDevice device = devices.apply(deviceId);
+        if (device == null) {
+            throw new IllegalArgumentException("Unknown device: " + deviceId);
+        }
+        return device;
+    }
+
+    /**
+     * Build an unboxed reader for a numeric property, checked once at compile time
+     */
+    static DoubleSupplier numericReader(IDevice device, String property) {
+        int slot = numericSlot(device, property);
+        return () -> device.getNumericProperty(slot);
+    }
+
+    private static double readNumeric(IDevice device, String property) {
+        return device.getNumericProperty(numericSlot(device, property));
+    }
+
+    private static int numericSlot(IDevice device, String property) {
+        PropertyDescriptor descriptor = device.getSchema().get(property);
+        if (descriptor == null || !descriptor.getKind().isNumeric()) {
+            throw new IllegalArgumentException("Unknown numeric property " + property + " for " + device.getType());
+        }
+        return descriptor.getSlot();
+    }
+
+    private static double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a number but found: " + value);
+        }
+    }
+
+    // ---- Tokenizer and recursive-descent parser ----
+
+    private enum TokenType { WORD, STRING, NUMBER, OPERATOR, ASSIGN, DOT, COMMA, LPAREN, RPAREN, END }
+
+    private static final class Token {
+        final TokenType type;
+        final String text;
+        final int position;
+
+        Token(TokenType type, String text, int position) {
+            this.type = type;
+            this.text = text;
+            this.position = position;
+        }
+
+        boolean isKeyword(String keyword) {
+            return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+        }
+    }
+
+    private static final class Parser {
+        private final String source;
+        private final List<Token> tokens;
+        private int index;
+
+        Parser(String source) {
+            this.source = source;
+            this.tokens = tokenize(source);
+        }
+
+        ParsedRule parseRule() {
+            expectKeyword("when");
+            Condition condition = parseOr();
+            expectKeyword("then");
+            List<ActionNode> actions = new ArrayList<>();
+            actions.add(parseAction());
+            while (peek().type == TokenType.COMMA) {
+                index++;
+                actions.add(parseAction());
+            }
+            if (peek().type != TokenType.END) {
+                throw error("Unexpected '" + peek().text + "'");
+            }
+            return new ParsedRule(source, condition, actions);
+        }
+
+        private Condition parseOr() {
+            List<Condition> terms = new ArrayList<>();
+            terms.add(parseAnd());
+            while (peek().isKeyword("or")) {
+                index++;
+                terms.add(parseAnd());
+            }
+            return terms.size() == 1 ? terms.get(0) : new Junction(false, terms);
+        }
+
+        private Condition parseAnd() {
+            List<Condition> factors = new ArrayList<>();
+            factors.add(parseFactor());
+            while (peek().isKeyword("and")) {
+                index++;
+                factors.add(parseFactor());
+            }
+            return factors.size() == 1 ? factors.get(0) : new Junction(true, factors);
+        }
+
+        private Condition parseFactor() {
+            Token token = peek();
+            if (token.isKeyword("not")) {
+                index++;
+                return new Negation(parseFactor());
+            }
+            if (token.type == TokenType.LPAREN) {
+                index++;
+                Condition inner = parseOr();
+                expect(TokenType.RPAREN, "')'");
+                return inner;
+            }
+            String deviceId = parseDeviceId();
+            if (peek().isKeyword("is")) {
+                index++;
+                Token state = next();
+                if (state.isKeyword("on")) {
+                    return new StateTest(deviceId, true);
+                } else if (state.isKeyword("off")) {
+                    return new StateTest(deviceId, false);
+                }
+                throw error("Expected on or off after 'is'", state);
+            }
+            expect(TokenType.DOT, "'is' or '.property'");
+            String property = expect(TokenType.WORD, "property name").text;
+            Token op = expect(TokenType.OPERATOR, "comparison operator");
+            Token number = expect(TokenType.NUMBER, "number");
+            return new Comparison(deviceId, property, Operator.fromSymbol(op.text), Double.parseDouble(number.text));
+        }
+
+        private ActionNode parseAction() {
+            Token token = next();
+            if (token.isKeyword("turn")) {
+                Token direction = next();
+                if (direction.isKeyword("on")) {
+                    return new ActionNode(ActionNode.Kind.TURN_ON, parseDeviceId(), null, null);
+                } else if (direction.isKeyword("off")) {
+                    return new ActionNode(ActionNode.Kind.TURN_OFF, parseDeviceId(), null, null);
+                }
+                throw error("Expected on or off after 'turn'", direction);
+            }
+            if (token.isKeyword("toggle")) {
+                return new ActionNode(ActionNode.Kind.TOGGLE, parseDeviceId(), null, null);
+            }
+            if (token.isKeyword("set")) {
+                String deviceId = parseDeviceId();
+                expect(TokenType.DOT, "'.property'");
+                String property = expect(TokenType.WORD, "property name").text;
+                expect(TokenType.ASSIGN, "'='");
+                Token value = next();
+                if (value.type != TokenType.NUMBER && value.type != TokenType.WORD && value.type != TokenType.STRING) {
+                    throw error("Expected a value", value);
+                }
+                return new ActionNode(ActionNode.Kind.SET, deviceId, property, value.text);
+            }
+            throw error("Expected turn on, turn off, toggle or set", token);
+        }
+
+        private String parseDeviceId() {
+            Token token = next();
+            if (token.type == TokenType.WORD || token.type == TokenType.STRING) {
+                return token.text;
+            }
+            throw error("Expected a device ID", token);
+        }
+
+        private Token peek() {
+            return tokens.get(index);
+        }
+
+        private Token next() {
+            Token token = tokens.get(index);
+            if (token.type != TokenType.END) {
+                index++;
+            }
+            return token;
+        }
+
+        private Token expect(TokenType type, String description) {
+            Token token = next();
+            if (token.type != type) {
+                throw error("Expected " + description, token);
+            }
+            return token;
+        }
+
+        private void expectKeyword(String keyword) {
+            Token token = next();
+            if (!token.isKeyword(keyword)) {
+                throw error("Expected '" + keyword + "'", token);
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return error(message, peek());
+        }
+
+        private IllegalArgumentException error(String message, Token token) {
+            String found = token.type == TokenType.END ? "end of rule" : "'" + token.text + "'";
+            return new IllegalArgumentException(message + " at position " + token.position + ", found " + found
+                    + ": " + source);
+        }
+
+        private static List<Token> tokenize(String source) {
+            List<Token> tokens = new ArrayList<>();
+            int i = 0;
+            while (i < source.length()) {
+                char c = source.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (Character.isLetter(c) || c == '_') {
+                    int start = i;
+                    while (i < source.length() && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) {
+                        i++;
+                    }
+                    tokens.add(new Token(TokenType.WORD, source.substring(start, i), start));
+                } else if (Character.isDigit(c) || (c == '-' && i + 1 < source.length() && Character.isDigit(source.charAt(i + 1)))) {
+                    int start = i++;
+                    while (i < source.length() && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                        i++;
+                    }
+                    tokens.add(new Token(TokenType.NUMBER, source.substring(start, i), start));
+                } else if (c == '"' || c == '\'') {
+                    int end = source.indexOf(c, i + 1);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unterminated string at position " + i + ": " + source);
+                    }
+                    tokens.add(new Token(TokenType.STRING, source.substring(i + 1, end), i));
+                    i = end + 1;
+                } else if (c == '>' || c == '<' || c == '!' || c == '=') {
+                    boolean twoChar = i + 1 < source.length() && source.charAt(i + 1) == '=';
+                    String op = source.substring(i, i + (twoChar ? 2 : 1));
+                    if (op.equals("=")) {
+                        tokens.add(new Token(TokenType.ASSIGN, op, i));
+                    } else if (op.equals("!")) {
+                        throw new IllegalArgumentException("Unexpected '!' at position " + i + ": " + source);
+                    } else {
+                        tokens.add(new Token(TokenType.OPERATOR, op, i));
+                    }
+                    i += op.length();
+                } else if (c == '.') {
+                    tokens.add(new Token(TokenType.DOT, ".", i++));
+                } else if (c == ',') {
+                    tokens.add(new Token(TokenType.COMMA, ",", i++));
+                } else if (c == '(') {
+                    tokens.add(new Token(TokenType.LPAREN, "(", i++));
+                } else if (c == ')') {
+                    tokens.add(new Token(TokenType.RPAREN, ")", i++));
+                } else {
+                    throw new IllegalArgumentException("Unexpected character '" + c + "' at position " + i + ": " + source);
+                }
+            }
+            tokens.add(new Token(TokenType.END, "", source.length()));
+            return tokens;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.template.AutomationRule;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.devices.concrete.Thermostat;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares rule condition evaluation paths: the legacy string-matched
+ * AutomationRule trigger, the DSL tree interpreted by name, and the same
+ * tree compiled to lambdas. Reports ns and bytes allocated per evaluation.
+ * Options: evaluations=10000000
+ */
+public class RuleDslBenchmark {
+
+    private static final String MULTI_CONDITION =
+            "when (motion is on and hall.currentTemperature > 70) or (lamp.brightness >= 50 and not door is on) "
+                    + "then turn on fan";
+
+    public static void run(String[] args) {
+        int evaluations = Benchmarks.options(args, "evaluations").get("evaluations", 10_000_000, 1);
+
+        Map<String, IDevice> devices = new HashMap<>();
+        QuietConsole console = QuietConsole.silence(true);
+        try {
+            Light motion = new Light("motion", "Motion");
+            Light lamp = new Light("lamp", "Lamp");
+            Light door = new Light("door", "Door");
+            Light fan = new Light("fan", "Fan");
+            Thermostat hall = new Thermostat("hall", "Hall");
+            motion.turnOn();
+            lamp.setBrightness(60);
+            hall.setCurrentTemperature(68);
+            for (IDevice device : new IDevice[]{motion, lamp, door, fan, hall}) {
+                devices.put(device.getId(), device);
+            }
+        } finally {
+            console.close();
+        }
+
+        IDevice motion = devices.get("motion");
+        AutomationRule legacy = new AutomationRule("legacy", motion, "ON", devices.get("fan"), "turn on");
+        RuleDsl.ParsedRule singleTree = RuleDsl.parse("when motion is on then turn on fan");
+        CompiledRule single = RuleDsl.compile("single", singleTree.getSource(), devices::get);
+        RuleDsl.ParsedRule multiTree = RuleDsl.parse(MULTI_CONDITION);
+        CompiledRule multi = RuleDsl.compile("multi", MULTI_CONDITION, devices::get);
+
+        // Repeat once so the second round runs on warmed-up code
+        for (int round = 1; round <= 2; round++) {
+            System.out.println("\n=== RULE DSL BENCHMARK (round " + round + ", " + evaluations + " evaluations) ===");
+            final int n = evaluations;
+            report("Single, legacy string trigger", n, () -> {
+                int hits = 0;
+                for (int i = 0; i < n; i++) {
+                    if (legacy.shouldTrigger(motion, motion.getPowerState())) {
+                        hits++;
+                    }
+                }
+                return hits;
+            });
+            report("Single, interpreted tree", n, () -> {
+                int hits = 0;
+                for (int i = 0; i < n; i++) {
+                    if (singleTree.interpretCondition(devices::get)) {
+                        hits++;
+                    }
+                }
+                return hits;
+            });
+            report("Single, compiled", n, () -> countTrue(single, n));
+            report("Multi, interpreted tree", n, () -> {
+                int hits = 0;
+                for (int i = 0; i < n; i++) {
+                    if (multiTree.interpretCondition(devices::get)) {
+                        hits++;
+                    }
+                }
+                return hits;
+            });
+            report("Multi, compiled", n, () -> countTrue(multi, n));
+        }
+    }
+
+    private static int countTrue(CompiledRule rule, int n) {
+        int hits = 0;
+        for (int i = 0; i < n; i++) {
+            if (rule.test()) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private interface Loop {
+        int run();
+    }
+
+    private static void report(String label, int evaluations, Loop loop) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        int hits = loop.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        System.out.printf("%-32s %7.1f ns/eval  %6.2f B/eval  (true %d)%n", label,
+                (double) elapsed / evaluations, allocated < 0 ? Double.NaN : (double) allocated / evaluations, hits);
+    }
+
+    /**
+     * Bytes allocated by the current thread, or -1 where the JVM does not report it
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,1004 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.template.AutomationRule;
+import edu.neu.csye7374.core.template.RuleAction;
+import edu.neu.csye7374.devices.state.PowerState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Dry run of an engine's rules: events are evaluated against a shadow of the
+ * device state and nothing is switched.
+ *
+ * The simulator takes a snapshot of the engine's device-triggered, threshold
+ * and compiled DSL rules and of the current state of every device they use,
+ * interned into arrays. Each worker reads the snapshot through a copy-on-write
+ * shadow: an array is copied the first time the worker writes to it, and
+ * writes are journalled so the shadow can be rolled back to the snapshot in
+ * time proportional to what the last event touched. Actions that change a
+ * device feed back in as new state changes, wave by wave, so cascades and
+ * their depth show up in the result. Conflicting actions within a wave are
+ * resolved with the engine's conflict policy.
+ *
+ * Scheduled and debounced rules depend on time and are not simulated.
+ */
+public class RuleSimulator {
+
+    public static final int DEFAULT_MAX_DEPTH = 16;
+
+    private final ActionResolver.Policy policy;
+    private final int maxDepth;
+    private final Map<String, Integer> deviceIndex = new HashMap<>();
+    private final List<String> deviceIds = new ArrayList<>();
+    private final Map<String, Integer> slotIndex = new HashMap<>();
+    private final List<Integer> slotDevices = new ArrayList<>();
+    private final List<String> slotProperties = new ArrayList<>();
+    // Snapshot, read-only once built
+    private final boolean[] basePower;
+    private final double[] baseValues;
+    private final boolean[] baseThresholdActive;
+    private final boolean[] baseDslActive;
+    private final SimRule[][] onRules;
+    private final SimRule[][] offRules;
+    private final ThresholdSim[][] thresholdsBySlot;
+    private final DslSim[][] dslByDevice;
+    private final int dslCount;
+
+    /**
+     * Snapshot an engine's rules and device state
+     */
+    public RuleSimulator(AutomationEngine engine) {
+        this(engine.getRules(), engine.getThresholdRules(), engine.getCompiledRules(),
+                engine.getConflictPolicy(), DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param maxDepth Cascade waves followed before an event is reported as truncated (a rule loop)
+     */
+    public RuleSimulator(AutomationEngine engine, int maxDepth) {
+        this(engine.getRules(), engine.getThresholdRules(), engine.getCompiledRules(),
+                engine.getConflictPolicy(), maxDepth);
+    }
+
+    RuleSimulator(List<AutomationRule> rules, List<ThresholdRule> thresholds, List<CompiledRule> compiledRules,
+                  ActionResolver.Policy policy, int maxDepth) {
+        this.policy = policy;
+        this.maxDepth = Math.max(1, maxDepth);
+        Map<String, IDevice> resolved = new HashMap<>();
+
+        List<SimRule> stateRules = new ArrayList<>();
+        List<Integer> stateTriggers = new ArrayList<>();
+        List<Boolean> stateOn = new ArrayList<>();
+        for (AutomationRule rule : rules) {
+            String trigger = rule.getTriggerDeviceId();
+            RuleAction action = rule.getRuleAction();
+            PowerState triggerState = rule.getTriggerPowerState();
+            if (trigger == null || action == null || triggerState == null) {
+                continue;
+            }
+            remember(resolved, trigger, rule.getTriggerDevice());
+            remember(resolved, rule.getActionDeviceId(), rule.getActionDevice());
+            stateTriggers.add(intern(trigger));
+            stateOn.add(triggerState.isOn());
+            stateRules.add(new SimRule(rule.getName(), rule.getPriority(),
+                    new SimAction[] { powerAction(rule.getActionDeviceId(), action) }));
+        }
+
+        List<ThresholdSim> thresholdSims = new ArrayList<>();
+        List<Boolean> thresholdActive = new ArrayList<>();
+        for (ThresholdRule rule : thresholds) {
+            if (rule.getRuleAction() == null) {
+                continue;
+            }
+            remember(resolved, rule.getSourceDeviceId(), rule.getSourceDevice());
+            remember(resolved, rule.getActionDeviceId(), rule.getActionDevice());
+            int slot = slot(rule.getSourceDeviceId(), rule.getProperty());
+            SimRule sim = new SimRule(rule.getName(), rule.getPriority(),
+                    new SimAction[] { powerAction(rule.getActionDeviceId(), rule.getRuleAction()) });
+            thresholdSims.add(new ThresholdSim(sim, slot, rule.getPredicate(), thresholdSims.size()));
+            thresholdActive.add(rule.isActive());
+        }
+
+        List<DslSim> dslSims = new ArrayList<>();
+        List<Boolean> dslActive = new ArrayList<>();
+        for (CompiledRule rule : compiledRules) {
+            Function<String, IDevice> lookup = rule.getDevices();
+            for (String id : rule.getTriggerDeviceIds()) {
+                remember(resolved, id, lookup.apply(id));
+            }
+            RuleDsl.ActionNode[] nodes = rule.getActionNodes();
+            SimAction[] actions = new SimAction[nodes.length];
+            for (int i = 0; i < actions.length; i++) {
+                RuleDsl.ActionNode node = nodes[i];
+                remember(resolved, node.getDeviceId(), lookup.apply(node.getDeviceId()));
+                actions[i] = dslAction(node);
+            }
+            SimCondition condition = compile(rule.getConditionTree());
+            Set<Integer> reads = new LinkedHashSet<>();
+            for (String id : rule.getTriggerDeviceIds()) {
+                reads.add(intern(id));
+            }
+            dslSims.add(new DslSim(new SimRule(rule.getName(), rule.getPriority(), actions), condition,
+                    reads, dslSims.size()));
+            dslActive.add(rule.isActive());
+        }
+
+        int devices = deviceIds.size();
+        basePower = new boolean[devices];
+        for (int d = 0; d < devices; d++) {
+            IDevice device = resolved.get(deviceIds.get(d));
+            basePower[d] = device != null && device.isOn();
+        }
+        baseValues = new double[slotDevices.size()];
+        for (int s = 0; s < baseValues.length; s++) {
+            baseValues[s] = readValue(resolved.get(deviceIds.get(slotDevices.get(s))), slotProperties.get(s));
+        }
+
+        onRules = bucket(stateRules, stateTriggers, stateOn, true, devices);
+        offRules = bucket(stateRules, stateTriggers, stateOn, false, devices);
+
+        List<List<ThresholdSim>> bySlot = new ArrayList<>();
+        for (int s = 0; s < baseValues.length; s++) {
+            bySlot.add(new ArrayList<>());
+        }
+        for (ThresholdSim sim : thresholdSims) {
+            bySlot.get(sim.slot).add(sim);
+        }
+        thresholdsBySlot = new ThresholdSim[baseValues.length][];
+        for (int s = 0; s < baseValues.length; s++) {
+            thresholdsBySlot[s] = bySlot.get(s).toArray(new ThresholdSim[0]);
+        }
+        baseThresholdActive = toArray(thresholdActive);
+
+        List<List<DslSim>> byDevice = new ArrayList<>();
+        for (int d = 0; d < devices; d++) {
+            byDevice.add(new ArrayList<>());
+        }
+        for (DslSim sim : dslSims) {
+            for (int device : sim.reads) {
+                byDevice.get(device).add(sim);
+            }
+        }
+        dslByDevice = new DslSim[devices][];
+        for (int d = 0; d < devices; d++) {
+            dslByDevice[d] = byDevice.get(d).toArray(new DslSim[0]);
+        }
+        baseDslActive = toArray(dslActive);
+        dslCount = dslSims.size();
+    }
+
+    // ---- Running ----
+
+    /**
+     * Simulate one event against the snapshot and trace everything it causes
+     */
+    public Trace simulate(Event event) {
+        Shadow shadow = new Shadow(false);
+        Summary summary = new Summary(deviceIds.size(), maxDepth);
+        Trace trace = new Trace(event);
+        run(event, shadow, summary, trace);
+        return trace;
+    }
+
+    /**
+     * Simulate each event independently against the snapshot, in parallel.
+     * Results do not depend on the number of threads.
+     * @param threads Worker threads; the events are split into that many contiguous chunks
+     */
+    public Summary simulateAll(List<Event> events, int threads) {
+        int workers = Math.max(1, Math.min(threads, events.size()));
+        if (workers == 1) {
+            return runChunk(events, 0, events.size(), true);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "rule-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Summary>> parts = new ArrayList<>();
+            int chunk = (events.size() + workers - 1) / workers;
+            for (int from = 0; from < events.size(); from += chunk) {
+                int start = from;
+                int end = Math.min(events.size(), from + chunk);
+                parts.add(pool.submit(() -> runChunk(events, start, end, true)));
+            }
+            Summary total = new Summary(deviceIds.size(), maxDepth);
+            for (Future<Summary> part : parts) {
+                total.merge(part.get());
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Replay an event log in order, letting each event see the state left by
+     * the previous ones
+     */
+    public Summary replay(List<Event> events) {
+        return runChunk(events, 0, events.size(), false);
+    }
+
+    private Summary runChunk(List<Event> events, int from, int to, boolean independent) {
+        long start = System.nanoTime();
+        Shadow shadow = new Shadow(independent);
+        Summary summary = new Summary(deviceIds.size(), maxDepth);
+        for (int i = from; i < to; i++) {
+            run(events.get(i), shadow, summary, null);
+            if (independent) {
+                shadow.reset();
+            }
+        }
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    private void run(Event event, Shadow shadow, Summary summary, Trace trace) {
+        summary.events++;
+        Integer device = deviceIndex.get(event.deviceId);
+        if (device == null) {
+            summary.depthHistogram[0]++;
+            return;
+        }
+        IntList powerChanges = shadow.powerChanges;
+        IntList valueChanges = shadow.valueChanges;
+        powerChanges.clear();
+        valueChanges.clear();
+        if (event.property == null) {
+            shadow.setPower(device, event.on);
+            powerChanges.add(device);
+        } else {
+            Integer slot = slotIndex.get(event.deviceId + "." + event.property);
+            if (slot == null) {
+                summary.depthHistogram[0]++;
+                return;
+            }
+            shadow.setValue(slot, event.value);
+            valueChanges.add(slot);
+        }
+        if (trace != null) {
+            trace.touched.add(device);
+        }
+
+        int depth = 0;
+        while (!powerChanges.isEmpty() || !valueChanges.isEmpty()) {
+            if (depth == maxDepth) {
+                summary.truncated++;
+                if (trace != null) {
+                    trace.truncated = true;
+                }
+                break;
+            }
+            depth++;
+            collectFired(shadow, summary, trace, depth);
+            powerChanges.clear();
+            valueChanges.clear();
+            applyWinners(shadow, summary, trace, depth);
+        }
+        // The last wave changed nothing unless the cascade was cut off
+        int settled = powerChanges.isEmpty() && valueChanges.isEmpty() ? depth - 1 : depth;
+        summary.depthHistogram[settled]++;
+        summary.maxDepth = Math.max(summary.maxDepth, settled);
+        if (trace != null) {
+            trace.depth = settled;
+            for (int touched : trace.touched) {
+                trace.finalStates.put(deviceIds.get(touched), PowerState.of(shadow.power(touched)).getLabel());
+            }
+        }
+    }
+
+    /**
+     * Find the rules fired by the current wave of changes and propose their actions
+     */
+    private void collectFired(Shadow shadow, Summary summary, Trace trace, int depth) {
+        shadow.proposals.clear();
+        shadow.wave++;
+        IntList powerChanges = shadow.powerChanges;
+        for (int i = 0; i < powerChanges.size(); i++) {
+            int device = powerChanges.get(i);
+            SimRule[] fired = shadow.power(device) ? onRules[device] : offRules[device];
+            for (SimRule rule : fired) {
+                propose(shadow, summary, trace, depth, rule);
+            }
+        }
+        IntList valueChanges = shadow.valueChanges;
+        for (int i = 0; i < valueChanges.size(); i++) {
+            int slot = valueChanges.get(i);
+            double value = shadow.value(slot);
+            for (ThresholdSim threshold : thresholdsBySlot[slot]) {
+                boolean wasActive = shadow.thresholdActive(threshold.index);
+                boolean active = threshold.predicate.test(value, wasActive);
+                if (active != wasActive) {
+                    shadow.setThresholdActive(threshold.index, active);
+                    if (active) {
+                        propose(shadow, summary, trace, depth, threshold.rule);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < powerChanges.size(); i++) {
+            evaluateDsl(shadow, summary, trace, depth, powerChanges.get(i));
+        }
+        for (int i = 0; i < valueChanges.size(); i++) {
+            evaluateDsl(shadow, summary, trace, depth, slotDevices.get(valueChanges.get(i)));
+        }
+    }
+
+    private void evaluateDsl(Shadow shadow, Summary summary, Trace trace, int depth, int device) {
+        for (DslSim dsl : dslByDevice[device]) {
+            // A rule reading several changed devices is evaluated once per wave
+            if (shadow.dslStamp[dsl.index] == shadow.wave) {
+                continue;
+            }
+            shadow.dslStamp[dsl.index] = shadow.wave;
+            boolean wasActive = shadow.dslActive(dsl.index);
+            boolean active = dsl.condition.test(shadow);
+            if (active != wasActive) {
+                shadow.setDslActive(dsl.index, active);
+                if (active) {
+                    propose(shadow, summary, trace, depth, dsl.rule);
+                }
+            }
+        }
+    }
+
+    private void propose(Shadow shadow, Summary summary, Trace trace, int depth, SimRule rule) {
+        summary.rulesFired++;
+        if (trace != null) {
+            trace.fired.add(new TraceStep(depth, rule.name, "fired"));
+        }
+        for (SimAction action : rule.actions) {
+            shadow.proposals.add(new Proposal(rule, action));
+        }
+    }
+
+    /**
+     * Keep one action per device and property, apply the winners to the shadow
+     * and queue the changes they make as the next wave
+     */
+    private void applyWinners(Shadow shadow, Summary summary, Trace trace, int depth) {
+        List<Proposal> proposals = shadow.proposals;
+        List<Proposal> winners = shadow.winners;
+        winners.clear();
+        for (Proposal proposal : proposals) {
+            int existing = findWinner(shadow, proposal.action);
+            if (existing < 0) {
+                if (proposal.action.slot == -1) {
+                    shadow.powerWinnerWave[proposal.action.device] = shadow.wave;
+                    shadow.powerWinner[proposal.action.device] = winners.size();
+                }
+                winners.add(proposal);
+                continue;
+            }
+            Proposal current = winners.get(existing);
+            Proposal loser = proposal;
+            if (policy == ActionResolver.Policy.LAST_WRITER || proposal.rule.priority >= current.rule.priority) {
+                winners.set(existing, proposal);
+                loser = current;
+            }
+            summary.actionsSuppressed++;
+            if (trace != null) {
+                trace.suppressed.add(new TraceStep(depth, loser.rule.name, loser.action.description));
+            }
+        }
+        for (Proposal winner : winners) {
+            SimAction action = winner.action;
+            int device = action.device;
+            boolean changed;
+            if (action.power != null) {
+                boolean before = shadow.power(device);
+                boolean after = action.power == RuleAction.TOGGLE ? !before
+                        : action.power == RuleAction.TURN_ON;
+                changed = after != before;
+                if (changed) {
+                    shadow.setPower(device, after);
+                    shadow.powerChanges.add(device);
+                }
+            } else if (action.slot >= 0) {
+                changed = shadow.value(action.slot) != action.value;
+                if (changed) {
+                    shadow.setValue(action.slot, action.value);
+                    shadow.valueChanges.add(action.slot);
+                }
+            } else {
+                // Non-numeric setting (color, mode): recorded, no rule reads it
+                changed = true;
+            }
+            if (!changed) {
+                continue;
+            }
+            summary.actionsApplied++;
+            summary.deviceTouches[device]++;
+            if (trace != null) {
+                trace.touched.add(device);
+                trace.actions.add(new TraceStep(depth, winner.rule.name, action.description));
+            }
+        }
+    }
+
+    /**
+     * Index of the current winner for the action's device and property, or -1.
+     * Power actions, by far the most common, are looked up by device.
+     */
+    private static int findWinner(Shadow shadow, SimAction action) {
+        if (action.slot == -1) {
+            return shadow.powerWinnerWave[action.device] == shadow.wave ? shadow.powerWinner[action.device] : -1;
+        }
+        List<Proposal> winners = shadow.winners;
+        for (int w = 0; w < winners.size(); w++) {
+            SimAction other = winners.get(w).action;
+            if (other.device == action.device && other.slot == action.slot) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    // ---- Snapshot construction ----
+
+    private int intern(String deviceId) {
+        Integer index = deviceIndex.get(deviceId);
+        if (index == null) {
+            index = deviceIds.size();
+            deviceIndex.put(deviceId, index);
+            deviceIds.add(deviceId);
+        }
+        return index;
+    }
+
+    private int slot(String deviceId, String property) {
+        String key = deviceId + "." + property;
+        Integer index = slotIndex.get(key);
+        if (index == null) {
+            index = slotDevices.size();
+            slotIndex.put(key, index);
+            slotDevices.add(intern(deviceId));
+            slotProperties.add(property);
+        }
+        return index;
+    }
+
+    private static void remember(Map<String, IDevice> resolved, String deviceId, IDevice device) {
+        if (device != null) {
+            resolved.putIfAbsent(deviceId, device);
+        }
+    }
+
+    private static double readValue(IDevice device, String property) {
+        if (device == null) {
+            return Double.NaN;
+        }
+        try {
+            return RuleDsl.numericReader(device, property).getAsDouble();
+        } catch (IllegalArgumentException e) {
+            // Property only ever arrives through events
+            return Double.NaN;
+        }
+    }
+
+    private SimAction powerAction(String deviceId, RuleAction action) {
+        return new SimAction(intern(deviceId), -1, action, 0, action.getLabel() + " " + deviceId);
+    }
+
+    private SimAction dslAction(RuleDsl.ActionNode node) {
+        switch (node.getKind()) {
+            case TURN_ON: return new SimAction(intern(node.getDeviceId()), -1, RuleAction.TURN_ON, 0, node.toString());
+            case TURN_OFF: return new SimAction(intern(node.getDeviceId()), -1, RuleAction.TURN_OFF, 0, node.toString());
+            case TOGGLE: return new SimAction(intern(node.getDeviceId()), -1, RuleAction.TOGGLE, 0, node.toString());
+            case SET:
+            default:
+                int device = intern(node.getDeviceId());
+                try {
+                    double value = Double.parseDouble(node.getValue());
+                    return new SimAction(device, slot(node.getDeviceId(), node.getProperty()), null, value, node.toString());
+                } catch (NumberFormatException e) {
+                    // color / mode; keyed by property so two settings of it still conflict
+                    int key = -2 - Math.floorMod(node.getProperty().hashCode(), 1000);
+                    return new SimAction(device, key, null, 0, node.toString());
+                }
+        }
+    }
+
+    /**
+     * Compile a condition tree against the shadow's arrays instead of live devices
+     */
+    private SimCondition compile(RuleDsl.Condition condition) {
+        if (condition instanceof RuleDsl.StateTest) {
+            RuleDsl.StateTest test = (RuleDsl.StateTest) condition;
+            int device = intern(test.getDeviceId());
+            return test.isOn() ? shadow -> shadow.power(device) : shadow -> !shadow.power(device);
+        }
+        if (condition instanceof RuleDsl.Comparison) {
+            RuleDsl.Comparison comparison = (RuleDsl.Comparison) condition;
+            int slot = slot(comparison.getDeviceId(), comparison.getProperty());
+            RuleDsl.Operator operator = comparison.getOperator();
+            double constant = comparison.getValue();
+            return shadow -> operator.apply(shadow.value(slot), constant);
+        }
+        if (condition instanceof RuleDsl.Negation) {
+            SimCondition child = compile(((RuleDsl.Negation) condition).getChild());
+            return shadow -> !child.test(shadow);
+        }
+        RuleDsl.Junction junction = (RuleDsl.Junction) condition;
+        SimCondition[] children = new SimCondition[junction.getChildren().size()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = compile(junction.getChildren().get(i));
+        }
+        if (junction.isAnd()) {
+            return shadow -> {
+                for (SimCondition child : children) {
+                    if (!child.test(shadow)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        return shadow -> {
+            for (SimCondition child : children) {
+                if (child.test(shadow)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static SimRule[][] bucket(List<SimRule> rules, List<Integer> triggers, List<Boolean> states,
+                                      boolean on, int devices) {
+        List<List<SimRule>> buckets = new ArrayList<>();
+        for (int d = 0; d < devices; d++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            if (states.get(i) == on) {
+                buckets.get(triggers.get(i)).add(rules.get(i));
+            }
+        }
+        SimRule[][] result = new SimRule[devices][];
+        for (int d = 0; d < devices; d++) {
+            result[d] = buckets.get(d).toArray(new SimRule[0]);
+        }
+        return result;
+    }
+
+    private static boolean[] toArray(List<Boolean> values) {
+        boolean[] result = new boolean[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Number of devices referenced by the simulated rules
+     */
+    public int getDeviceCount() {
+        return deviceIds.size();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    // ---- Events and results ----
+
+    /**
+     * An input event: a device reporting a power state or a numeric property value
+     */
+    public static final class Event {
+        private final String deviceId;
+        private final String property;
+        private final boolean on;
+        private final double value;
+
+        private Event(String deviceId, String property, boolean on, double value) {
+            this.deviceId = deviceId;
+            this.property = property;
+            this.on = on;
+            this.value = value;
+        }
+
+        public static Event state(String deviceId, boolean on) {
+            return new Event(deviceId, null, on, 0);
+        }
+
+        public static Event property(String deviceId, String property, double value) {
+            return new Event(deviceId, property, false, value);
+        }
+
+        public String getDeviceId() { return deviceId; }
+
+        @Override
+        public String toString() {
+            return property == null ? deviceId + " is " + PowerState.of(on) : deviceId + "." + property + " = " + value;
+        }
+    }
+
+    /**
+     * One line of a trace
+     */
+    public static final class TraceStep {
+        private final int depth;
+        private final String ruleName;
+        private final String detail;
+
+        TraceStep(int depth, String ruleName, String detail) {
+            this.depth = depth;
+            this.ruleName = ruleName;
+            this.detail = detail;
+        }
+
+        public int getDepth() { return depth; }
+        public String getRuleName() { return ruleName; }
+        public String getDetail() { return detail; }
+
+        @Override
+        public String toString() {
+            return "[" + depth + "] " + ruleName + ": " + detail;
+        }
+    }
+
+    /**
+     * Everything one simulated event caused
+     */
+    public static final class Trace {
+        private final Event event;
+        private final List<TraceStep> fired = new ArrayList<>();
+        private final List<TraceStep> actions = new ArrayList<>();
+        private final List<TraceStep> suppressed = new ArrayList<>();
+        private final Set<Integer> touched = new LinkedHashSet<>();
+        private final Map<String, String> finalStates = new LinkedHashMap<>();
+        private int depth;
+        private boolean truncated;
+
+        Trace(Event event) {
+            this.event = event;
+        }
+
+        public Event getEvent() { return event; }
+        public List<TraceStep> getFiredRules() { return Collections.unmodifiableList(fired); }
+        public List<TraceStep> getActions() { return Collections.unmodifiableList(actions); }
+        public List<TraceStep> getSuppressed() { return Collections.unmodifiableList(suppressed); }
+
+        /**
+         * Power state of every device the event touched, after the cascade settled
+         */
+        public Map<String, String> getFinalStates() { return Collections.unmodifiableMap(finalStates); }
+
+        /**
+         * Number of cascade waves that changed something
+         */
+        public int getDepth() { return depth; }
+
+        /**
+         * Whether the cascade was cut off at the depth limit, usually a rule loop
+         */
+        public boolean isTruncated() { return truncated; }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("Dry run: ").append(event)
+                    .append(" (depth ").append(depth).append(truncated ? ", truncated)" : ")").append('\n');
+            for (TraceStep step : fired) {
+                text.append("  fired      ").append(step).append('\n');
+            }
+            for (TraceStep step : actions) {
+                text.append("  applied    ").append(step).append('\n');
+            }
+            for (TraceStep step : suppressed) {
+                text.append("  suppressed ").append(step).append('\n');
+            }
+            text.append("  result     ").append(finalStates);
+            return text.toString();
+        }
+    }
+
+    /**
+     * Aggregate counts over many simulated events
+     */
+    public final class Summary {
+        private long events;
+        private long rulesFired;
+        private long actionsApplied;
+        private long actionsSuppressed;
+        private long truncated;
+        private int maxDepth;
+        private long elapsedNanos;
+        private final long[] depthHistogram;
+        private final long[] deviceTouches;
+
+        Summary(int devices, int depthLimit) {
+            depthHistogram = new long[depthLimit + 1];
+            deviceTouches = new long[devices];
+        }
+
+        void merge(Summary other) {
+            events += other.events;
+            rulesFired += other.rulesFired;
+            actionsApplied += other.actionsApplied;
+            actionsSuppressed += other.actionsSuppressed;
+            truncated += other.truncated;
+            maxDepth = Math.max(maxDepth, other.maxDepth);
+            // Chunks run side by side, so the slowest one is the wall time
+            elapsedNanos = Math.max(elapsedNanos, other.elapsedNanos);
+            for (int i = 0; i < depthHistogram.length; i++) {
+                depthHistogram[i] += other.depthHistogram[i];
+            }
+            for (int i = 0; i < deviceTouches.length; i++) {
+                deviceTouches[i] += other.deviceTouches[i];
+            }
+        }
+
+        public long getEvents() { return events; }
+        public long getRulesFired() { return rulesFired; }
+        public long getActionsApplied() { return actionsApplied; }
+        public long getActionsSuppressed() { return actionsSuppressed; }
+        public long getTruncated() { return truncated; }
+        public int getMaxDepth() { return maxDepth; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * Events per cascade depth; index 0 counts events that changed nothing further
+         */
+        public long[] getDepthHistogram() { return depthHistogram.clone(); }
+
+        /**
+         * Number of times rules changed each device
+         */
+        public Map<String, Long> getDeviceTouches() {
+            Map<String, Long> touches = new LinkedHashMap<>();
+            for (int d = 0; d < deviceTouches.length; d++) {
+                if (deviceTouches[d] > 0) {
+                    touches.put(deviceIds.get(d), deviceTouches[d]);
+                }
+            }
+            return touches;
+        }
+
+        /**
+         * The devices rules changed most often, most touched first
+         */
+        public List<String> getMostTouchedDevices(int limit) {
+            Integer[] order = new Integer[deviceTouches.length];
+            for (int d = 0; d < order.length; d++) {
+                order[d] = d;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(deviceTouches[b], deviceTouches[a]));
+            List<String> result = new ArrayList<>();
+            for (int i = 0; i < Math.min(limit, order.length) && deviceTouches[order[i]] > 0; i++) {
+                result.add(deviceIds.get(order[i]) + " (" + deviceTouches[order[i]] + ")");
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d events, %d rules fired, %d actions applied, %d suppressed, max depth %d, "
+                            + "%d truncated, %d devices touched",
+                    events, rulesFired, actionsApplied, actionsSuppressed, maxDepth, truncated,
+                    getDeviceTouches().size());
+        }
+    }
+
+    // ---- Internals ----
+
+    private interface SimCondition {
+        boolean test(Shadow shadow);
+    }
+
+    private static final class SimRule {
+        final String name;
+        final int priority;
+        final SimAction[] actions;
+
+        SimRule(String name, int priority, SimAction[] actions) {
+            this.name = name;
+            this.priority = priority;
+            this.actions = actions;
+        }
+    }
+
+    private static final class SimAction {
+        final int device;
+        // Numeric property slot, -1 for power, below that a non-numeric property;
+        // also the conflict key within the device
+        final int slot;
+        final RuleAction power;
+        final double value;
+        final String description;
+
+        SimAction(int device, int slot, RuleAction power, double value, String description) {
+            this.device = device;
+            this.slot = slot;
+            this.power = power;
+            this.value = value;
+            this.description = description;
+        }
+    }
+
+    private static final class ThresholdSim {
+        final SimRule rule;
+        final int slot;
+        final PropertyPredicate predicate;
+        final int index;
+
+        ThresholdSim(SimRule rule, int slot, PropertyPredicate predicate, int index) {
+            this.rule = rule;
+            this.slot = slot;
+            this.predicate = predicate;
+            this.index = index;
+        }
+    }
+
+    private static final class DslSim {
+        final SimRule rule;
+        final SimCondition condition;
+        final int[] reads;
+        final int index;
+
+        DslSim(SimRule rule, SimCondition condition, Set<Integer> reads, int index) {
+            this.rule = rule;
+            this.condition = condition;
+            this.reads = reads.stream().mapToInt(Integer::intValue).toArray();
+            this.index = index;
+        }
+    }
+
+    private static final class Proposal {
+        final SimRule rule;
+        final SimAction action;
+
+        Proposal(SimRule rule, SimAction action) {
+            this.rule = rule;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Per-worker view of the snapshot. Arrays are shared with the snapshot
+     * until first written; with journalling on, reset() restores the
+     * snapshot values of everything written since the last reset.
+     */
+    private final class Shadow {
+        private static final int POWER = 0;
+        private static final int VALUE = 1;
+        private static final int THRESHOLD = 2;
+        private static final int DSL = 3;
+
+        private boolean[] power = basePower;
+        private double[] values = baseValues;
+        private boolean[] thresholdActive = baseThresholdActive;
+        private boolean[] dslActive = baseDslActive;
+        private boolean powerCopied;
+        private boolean valuesCopied;
+        private boolean thresholdCopied;
+        private boolean dslCopied;
+
+        private final boolean journalling;
+        private final IntList journalKinds = new IntList();
+        private final IntList journalIndexes = new IntList();
+
+        // Scratch state reused across events
+        final IntList powerChanges = new IntList();
+        final IntList valueChanges = new IntList();
+        final List<Proposal> proposals = new ArrayList<>();
+        final List<Proposal> winners = new ArrayList<>();
+        // Per-wave stamps, so neither needs clearing between waves
+        final int[] dslStamp = new int[dslCount];
+        final int[] powerWinnerWave = new int[deviceIds.size()];
+        final int[] powerWinner = new int[deviceIds.size()];
+        int wave;
+
+        Shadow(boolean journalling) {
+            this.journalling = journalling;
+        }
+
+        boolean power(int device) { return power[device]; }
+        double value(int slot) { return values[slot]; }
+        boolean thresholdActive(int index) { return thresholdActive[index]; }
+        boolean dslActive(int index) { return dslActive[index]; }
+
+        void setPower(int device, boolean on) {
+            if (!powerCopied) {
+                power = power.clone();
+                powerCopied = true;
+            }
+            journal(POWER, device);
+            power[device] = on;
+        }
+
+        void setValue(int slot, double value) {
+            if (!valuesCopied) {
+                values = values.clone();
+                valuesCopied = true;
+            }
+            journal(VALUE, slot);
+            values[slot] = value;
+        }
+
+        void setThresholdActive(int index, boolean active) {
+            if (!thresholdCopied) {
+                thresholdActive = thresholdActive.clone();
+                thresholdCopied = true;
+            }
+            journal(THRESHOLD, index);
+            thresholdActive[index] = active;
+        }
+
+        void setDslActive(int index, boolean active) {
+            if (!dslCopied) {
+                dslActive = dslActive.clone();
+                dslCopied = true;
+            }
+            journal(DSL, index);
+            dslActive[index] = active;
+        }
+
+        private void journal(int kind, int index) {
+            if (journalling) {
+                journalKinds.add(kind);
+                journalIndexes.add(index);
+            }
+        }
+
+        /**
+         * Restore the snapshot values of everything written since the last reset
+         */
+        void reset() {
+            for (int i = 0; i < journalKinds.size(); i++) {
+                int index = journalIndexes.get(i);
+                switch (journalKinds.get(i)) {
+                    case POWER: power[index] = basePower[index]; break;
+                    case VALUE: values[index] = baseValues[index]; break;
+                    case THRESHOLD: thresholdActive[index] = baseThresholdActive[index]; break;
+                    case DSL:
+                    default: dslActive[index] = baseDslActive[index]; break;
+                }
+            }
+            journalKinds.clear();
+            journalIndexes.clear();
+        }
+    }
+
+    /**
+     * Growable int array, so the hot path does not box
+     */
+    private static final class IntList {
+        private int[] items = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        int get(int index) { return items[index]; }
+        int size() { return size; }
+        boolean isEmpty() { return size == 0; }
+        void clear() { size = 0; }
+    }
+}
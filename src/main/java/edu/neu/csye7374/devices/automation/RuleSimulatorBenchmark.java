@@ -0,0 +1,119 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.template.AutomationRule;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.devices.concrete.Thermostat;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds a building-sized rule set (state rules that chain into cascades,
+ * threshold rules and DSL rules), then dry-runs a random event log through
+ * RuleSimulator on one thread and on every core. Both runs must agree.
+ * Options: lights=2000 thermostats=200 rules=4000 dslPercent=10 events=1000000 threads=&lt;cores&gt;
+ */
+public class RuleSimulatorBenchmark {
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "lights", "thermostats", "rules", "dslPercent", "events", "threads");
+        int lights = options.get("lights", 2000, 2);
+        int thermostats = options.get("thermostats", 200, 1);
+        int ruleCount = options.get("rules", 4000, 1);
+        int dslPercent = options.get("dslPercent", 10, 0, 100);
+        int eventCount = options.get("events", 1_000_000, 1);
+        int threads = options.get("threads", Runtime.getRuntime().availableProcessors(), 1);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        try {
+            Map<String, IDevice> devices = new HashMap<>();
+            Light[] lightArray = new Light[lights];
+            for (int i = 0; i < lights; i++) {
+                lightArray[i] = new Light("light_" + i, "Light " + i);
+                devices.put(lightArray[i].getId(), lightArray[i]);
+            }
+            Thermostat[] thermostatArray = new Thermostat[thermostats];
+            for (int i = 0; i < thermostats; i++) {
+                thermostatArray[i] = new Thermostat("thermostat_" + i, "Thermostat " + i);
+                devices.put(thermostatArray[i].getId(), thermostatArray[i]);
+            }
+
+            Random random = new Random(5);
+            AutomationEngine engine = new AutomationEngine(AutomationClock.system());
+            List<AutomationRule> rules = new ArrayList<>();
+            List<CompiledRule> compiled = new ArrayList<>();
+            for (int i = 0; i < ruleCount; i++) {
+                int roll = random.nextInt(100);
+                // Targets near the trigger, so rules chain into cascades a few waves deep
+                int trigger = random.nextInt(lights);
+                Light target = lightArray[(trigger + 1 + random.nextInt(8)) % lights];
+                if (roll < dslPercent) {
+                    String source = "when light_" + trigger + " is on and thermostat_" + random.nextInt(thermostats)
+                            + ".currentTemperature > " + (65 + random.nextInt(15)) + " then turn on " + target.getId();
+                    compiled.add(RuleDsl.compile("Rule " + i, source, devices::get));
+                } else if (roll < dslPercent + 10) {
+                    rules.add(new ThresholdRule("Rule " + i, thermostatArray[random.nextInt(thermostats)],
+                            "currentTemperature", PropertyPredicate.above(65 + random.nextInt(15), 1),
+                            target, "turn on"));
+                } else {
+                    AutomationRule rule = new AutomationRule("Rule " + i, lightArray[trigger],
+                            random.nextBoolean() ? "ON" : "OFF", target, random.nextBoolean() ? "turn on" : "turn off");
+                    rule.setPriority(random.nextInt(3));
+                    rules.add(rule);
+                }
+            }
+            engine.addRules(rules);
+            engine.addCompiledRules(compiled);
+
+            List<RuleSimulator.Event> events = new ArrayList<>(eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                if (random.nextInt(5) == 0) {
+                    events.add(RuleSimulator.Event.property("thermostat_" + random.nextInt(thermostats),
+                            "currentTemperature", 60 + random.nextInt(25)));
+                } else {
+                    events.add(RuleSimulator.Event.state("light_" + random.nextInt(lights), random.nextBoolean()));
+                }
+            }
+
+            long start = System.nanoTime();
+            RuleSimulator simulator = engine.dryRun();
+            long snapshotNanos = System.nanoTime() - start;
+
+            out.println("\n=== RULE DRY-RUN BENCHMARK ===");
+            out.printf("Rules:      %d (%d%% DSL) over %d devices, snapshot in %.1f ms%n", ruleCount, dslPercent,
+                    simulator.getDeviceCount(), snapshotNanos / 1e6);
+            out.println(simulator.simulate(events.get(0)));
+
+            // Warm up, then measure
+            simulator.simulateAll(events.subList(0, Math.min(eventCount, 100_000)), threads);
+            RuleSimulator.Summary single = simulator.simulateAll(events, 1);
+            RuleSimulator.Summary parallel = simulator.simulateAll(events, threads);
+            RuleSimulator.Summary replay = simulator.replay(events);
+
+            out.printf("1 thread:   %.0f events/s  %s%n", rate(single), single);
+            out.printf("%d threads: %.0f events/s  %s%n", threads, rate(parallel), parallel);
+            out.printf("Replay:     %.0f events/s  %s%n", rate(replay), replay);
+            out.println("Depths:     " + Arrays.toString(parallel.getDepthHistogram()));
+            out.println("Hot spots:  " + parallel.getMostTouchedDevices(5));
+            boolean agree = single.getRulesFired() == parallel.getRulesFired()
+                    && single.getActionsApplied() == parallel.getActionsApplied()
+                    && Arrays.equals(single.getDepthHistogram(), parallel.getDepthHistogram());
+            out.println("Agreement:  " + (agree ? "1 thread and " + threads + " threads match" : "MISMATCH"));
+        } finally {
+            quiet.close();
+        }
+    }
+
+    private static double rate(RuleSimulator.Summary summary) {
+        return summary.getEvents() / Math.max(1e-9, summary.getElapsedNanos() / 1e9);
+    }
+}
@@ -0,0 +1,53 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.registry.DeviceRef;
+import edu.neu.csye7374.core.template.AutomationRule;
+
+/**
+ * Automation rule triggered by a numeric property of a device, e.g.
+ * "when the hallway thermostat's currentTemperature goes above 78, turn on the fan".
+ * The rule fires on the transition into the condition, not on every update
+ * while it holds.
+ */
+public class ThresholdRule extends AutomationRule {
+
+    private final DeviceRef sourceDevice;
+    private final String property;
+    private final PropertyPredicate predicate;
+    private boolean active;
+
+    public ThresholdRule(String name, IDevice sourceDevice, String property, PropertyPredicate predicate,
+                         IDevice actionDevice, String action) {
+        super(name, actionDevice, action);
+        this.sourceDevice = new DeviceRef(sourceDevice);
+        this.property = property;
+        this.predicate = predicate;
+    }
+
+    /**
+     * Feed a new property value
+     * @return true if the condition just became active and the rule should fire
+     */
+    boolean update(double value) {
+        boolean wasActive = active;
+        active = predicate.test(value, wasActive);
+        return active && !wasActive;
+    }
+
+    public String getSourceDeviceId() { return sourceDevice.getId(); }
+
+    /**
+     * @return The source device, or null once it has been deleted
+     */
+    public IDevice getSourceDevice() { return sourceDevice.get(); }
+    public String getProperty() { return property; }
+    public PropertyPredicate getPredicate() { return predicate; }
+    public boolean isActive() { return active; }
+
+    @Override
+    public String toString() {
+        return "Rule: " + getName() + " (When " + sourceDevice.getName() + " " + property + " " + predicate
+                + ", " + getAction() + " " + getActionDeviceName() + ")";
+    }
+}
@@ -0,0 +1,236 @@
+package edu.neu.csye7374.devices.automation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: 6 levels of 64 slots, each level 64 times
+ * coarser than the one below. Timers sit in doubly-linked slot lists, so
+ * schedule and cancel are O(1); a timer is cascaded down one level at a time
+ * as its deadline approaches and fires from level 0. Per-level counts let
+ * advanceTo() skip over long idle stretches instead of visiting every tick.
+ */
+public class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    /** Number of ticks the wheel can hold ahead of the current tick */
+    private static final long MAX_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Timeout[][] slots = new Timeout[LEVELS][SLOTS];
+    private final int[] levelCounts = new int[LEVELS];
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis Resolution of the wheel
+     * @param startMillis Current time in epoch milliseconds
+     */
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Schedule a task; deadlines in the past fire on the next advance
+     * @param deadlineMillis Epoch milliseconds at which the task becomes due
+     * @param task Task to run
+     * @return Handle for cancellation
+     */
+    public synchronized Timeout schedule(long deadlineMillis, Runnable task) {
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        if (deadlineTick - currentTick >= MAX_TICKS) {
+            throw new IllegalArgumentException("Deadline is beyond the range of the timing wheel");
+        }
+        Timeout timeout = new Timeout(this, task, deadlineTick);
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancel a pending timer
+     * @return true if the timer was pending and is now cancelled
+     */
+    public synchronized boolean cancel(Timeout timeout) {
+        if (timeout.level < 0) {
+            return false;
+        }
+        unlink(timeout);
+        timeout.cancelled = true;
+        size--;
+        return true;
+    }
+
+    /**
+     * Move the wheel to the given time and run every timer that fell due.
+     * Tasks run on the calling thread, outside the wheel's lock, so they may
+     * schedule or cancel timers themselves.
+     * @param nowMillis Current time in epoch milliseconds
+     * @return Number of tasks run
+     */
+    public int advanceTo(long nowMillis) {
+        List<Timeout> due = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = nowMillis / tickMillis;
+            while (currentTick < targetTick) {
+                if (size == 0) {
+                    currentTick = targetTick;
+                    break;
+                }
+                int lowest = 0;
+                while (levelCounts[lowest] == 0) {
+                    lowest++;
+                }
+                if (lowest > 0) {
+                    // Nothing fires or cascades before the next boundary of the lowest occupied level
+                    int shift = SLOT_BITS * lowest;
+                    long boundary = ((currentTick >>> shift) + 1) << shift;
+                    currentTick = Math.min(targetTick, boundary - 1);
+                    if (currentTick >= targetTick) {
+                        break;
+                    }
+                }
+                currentTick++;
+                processTick(due);
+            }
+        }
+        for (Timeout timeout : due) {
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                System.out.println("AUTOMATION: Scheduled task failed: " + e.getMessage());
+            }
+        }
+        return due.size();
+    }
+
+    private void processTick(List<Timeout> due) {
+        // Cascade from the highest level whose boundary this tick crosses, top-down,
+        // so timers can fall through several levels in the same tick
+        int top = 0;
+        while (top + 1 < LEVELS && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            int index = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+            Timeout timeout = slots[level][index];
+            slots[level][index] = null;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                levelCounts[level]--;
+                insert(timeout);
+                timeout = next;
+            }
+        }
+        int index = (int) currentTick & SLOT_MASK;
+        Timeout timeout = slots[0][index];
+        slots[0][index] = null;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            levelCounts[0]--;
+            timeout.level = -1;
+            timeout.prev = null;
+            timeout.next = null;
+            size--;
+            due.add(timeout);
+            timeout = next;
+        }
+    }
+
+    private void insert(Timeout timeout) {
+        // The level is given by the highest slot digit in which deadline and current tick differ
+        long diff = timeout.deadlineTick ^ currentTick;
+        int level = diff == 0 ? 0 : (63 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+        if (level >= LEVELS) {
+            // The deadline is past the next top-level boundary (but within MAX_TICKS): park it
+            // in its top-level slot, which is not visited again until after that boundary,
+            // and let it cascade from there
+            level = LEVELS - 1;
+        }
+        int index = (int) (timeout.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+        Timeout head = slots[level][index];
+        timeout.level = level;
+        timeout.slot = index;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        slots[level][index] = timeout;
+        levelCounts[level]++;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.level][timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        levelCounts[timeout.level]--;
+        timeout.level = -1;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    /**
+     * Handle to a scheduled timer
+     */
+    public static final class Timeout {
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long deadlineTick;
+        private Timeout prev;
+        private Timeout next;
+        private int level = -1;
+        private int slot;
+        private boolean cancelled;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadlineTick) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+
+        public boolean isPending() {
+            synchronized (wheel) {
+                return level >= 0;
+            }
+        }
+
+        public boolean isCancelled() {
+            synchronized (wheel) {
+                return cancelled;
+            }
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineTick * wheel.tickMillis;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package edu.neu.csye7374.devices.automation;
+
+import edu.neu.csye7374.simulation.Benchmarks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schedules many timers on a ManualClock, cancels a share of them and
+ * advances through the horizon, reporting per-operation cost.
+ * Also checks deadlines that cross the wheel's top-level boundary.
+ * Options: timers=100000 horizonHours=24 cancel=50 (percent) stepSeconds=60
+ */
+public class TimingWheelBenchmark {
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "timers", "horizonHours", "cancel", "stepSeconds");
+        int timers = options.get("timers", 100_000, 1);
+        int horizonHours = options.get("horizonHours", 24, 1);
+        int cancelPercent = options.get("cancel", 50, 0, 100);
+        int stepSeconds = options.get("stepSeconds", 60, 1);
+
+        // Repeat once so the second round runs on warmed-up code
+        for (int round = 1; round <= 2; round++) {
+            ManualClock clock = new ManualClock(Instant.parse("2024-01-01T00:00:00Z"), ZoneId.of("UTC"));
+            AutomationScheduler scheduler = new AutomationScheduler(clock);
+            AtomicLong fired = new AtomicLong();
+            Runnable task = fired::incrementAndGet;
+            Random random = new Random(42);
+            long horizonMillis = Duration.ofHours(horizonHours).toMillis();
+            AutomationScheduler.ScheduledTask[] handles = new AutomationScheduler.ScheduledTask[timers];
+
+            long start = System.nanoTime();
+            for (int i = 0; i < timers; i++) {
+                handles[i] = scheduler.schedule(Duration.ofMillis(1 + (long) (random.nextDouble() * horizonMillis)), task);
+            }
+            long insertNanos = System.nanoTime() - start;
+
+            int toCancel = (int) ((long) timers * cancelPercent / 100);
+            start = System.nanoTime();
+            for (int i = 0; i < toCancel; i++) {
+                handles[i].cancel();
+            }
+            long cancelNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long steps = 0;
+            for (long elapsed = 0; elapsed <= horizonMillis; elapsed += stepSeconds * 1000L) {
+                clock.advance(Duration.ofSeconds(stepSeconds));
+                scheduler.runDueTasks();
+                steps++;
+            }
+            long advanceNanos = System.nanoTime() - start;
+
+            System.out.println("\n=== TIMING WHEEL BENCHMARK (round " + round + ") ===");
+            System.out.printf("Timers:    %d over %d h, %d cancelled%n", timers, horizonHours, toCancel);
+            System.out.printf("Insert:    %.0f ns/timer%n", (double) insertNanos / timers);
+            System.out.printf("Cancel:    %.0f ns/timer%n", toCancel == 0 ? 0.0 : (double) cancelNanos / toCancel);
+            System.out.printf("Advance:   %d steps of %d s in %.1f ms (%.0f ns/fired timer)%n", steps, stepSeconds,
+                    advanceNanos / 1e6, fired.get() == 0 ? 0.0 : (double) advanceNanos / fired.get());
+            System.out.printf("Fired:     %d (expected %d), still pending %d%n",
+                    fired.get(), timers - toCancel, scheduler.getPendingCount());
+        }
+        checkTopBoundary();
+    }
+
+    /**
+     * Deadlines that cross a top-level boundary of the wheel (every 2^36 ticks)
+     * must still be accepted and fire on time
+     */
+    private static void checkTopBoundary() {
+        long boundary = 1L << 36;
+        long[] offsets = {10, 11, 100, 1L << 30, (1L << 36) - 20};
+        int onTime = 0;
+        for (long offset : offsets) {
+            TimingWheel wheel = new TimingWheel(1, boundary - 10);
+            long deadline = boundary - 10 + offset;
+            long[] firedAt = {-1};
+            long[] now = {boundary - 10};
+            wheel.schedule(deadline, () -> firedAt[0] = now[0]);
+            for (long step : new long[]{deadline - 1, deadline}) {
+                now[0] = step;
+                wheel.advanceTo(step);
+            }
+            if (firedAt[0] == deadline) {
+                onTime++;
+            }
+        }
+        System.out.printf("Boundary:  %d of %d deadlines across a 2^36-tick boundary fired on time%n",
+                onTime, offsets.length);
+    }
+}
@@ -2,49 +2,47 @@ package edu.neu.csye7374.devices.concrete;
 
 import edu.neu.csye7374.core.device.AbstractDevice;
 import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.property.PropertySchema;
 import edu.neu.csye7374.core.strategy.DeviceOperationStrategy;
 import edu.neu.csye7374.core.strategy.Operation;
-import edu.neu.csye7374.core.strategy.LightOperationStrategy;
+import edu.neu.csye7374.core.strategy.StrategyRegistry;
 
 /**
  * Light device implementation
  */
 public class Light extends AbstractDevice {
     
-    private int brightness;
-    private LightColor color;
+    // Slots of the properties this class exposes as typed accessors
+    public static final int BRIGHTNESS = PropertySchema.forType(DeviceType.LIGHT).requireSlot("brightness");
+    public static final int COLOR = PropertySchema.forType(DeviceType.LIGHT).requireSlot("color");
+    
     private DeviceOperationStrategy operationStrategy;
     
     public Light(String id, String name) {
         super(id, name, DeviceType.LIGHT);
-        this.brightness = 100;
-        this.color = LightColor.BRIGHT_WHITE;
-        this.operationStrategy = new LightOperationStrategy();
+        this.operationStrategy = StrategyRegistry.getInstance().getStrategy(DeviceType.LIGHT);
     }
     
     // Light-specific operations
     public void setBrightness(int brightness) {
-        if (brightness >= 0 && brightness <= 100) {
-            int oldBrightness = this.brightness;
-            this.brightness = brightness;
-            System.out.println(name + " brightness set to " + brightness + "%");
-            notifyPropertyChange("brightness", oldBrightness, brightness);
-        }
+        setRawProperty(BRIGHTNESS, brightness);
     }
     
     public int getBrightness() {
-        return brightness;
+        return properties.getInt(BRIGHTNESS);
     }
     
     public void setColor(LightColor color) {
-        LightColor oldColor = this.color;
-        this.color = color;
-        System.out.println(name + " color set to " + color.toString().toLowerCase());
-        notifyPropertyChange("color", oldColor, color);
+        setRawProperty(COLOR, color.ordinal());
     }
     
     public LightColor getColor() {
-        return color;
+        return (LightColor) getProperty(COLOR);
+    }
+    
+    @Override
+    protected void onReset() {
+        operationStrategy = StrategyRegistry.getInstance().getStrategy(DeviceType.LIGHT);
     }
     
     public void setOperationStrategy(DeviceOperationStrategy strategy) {
@@ -55,10 +53,18 @@ public class Light extends AbstractDevice {
         return operationStrategy.execute(this, operation);
     }
     
+    /**
+     * Run an operation without building a result string
+     * @return false if the strategy does not support it
+     */
+    public boolean performOperation(Operation operation) {
+        return operationStrategy.perform(this, operation);
+    }
+    
     @Override
     public void turnOn() {
         super.turnOn();
-        System.out.println(name + " light is now ON with " + brightness + "% brightness and " + color + " color");
+        System.out.println(name + " light is now ON with " + getBrightness() + "% brightness and " + getColor() + " color");
     }
     
     @Override
@@ -70,6 +76,6 @@ public class Light extends AbstractDevice {
     @Override
     public String toString() {
         return String.format("Light{id=%s, name=%s, state=%s, brightness=%d%%, color=%s}", 
-                           id, name, state, brightness, color);
+                           id, name, powerState, getBrightness(), getColor());
     }
 } 
@@ -0,0 +1,44 @@
+package edu.neu.csye7374.devices.concrete;
+
+import edu.neu.csye7374.core.command.DeviceReceiver;
+import edu.neu.csye7374.core.command.LightReceiver;
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.factory.DeviceTypeProvider;
+import edu.neu.csye7374.core.strategy.DeviceOperationStrategy;
+import edu.neu.csye7374.core.strategy.LightOperationStrategy;
+
+import java.util.List;
+
+/**
+ * Device type provider for lights
+ */
+public class LightProvider implements DeviceTypeProvider {
+
+    @Override
+    public DeviceType getType() { return DeviceType.LIGHT; }
+
+    @Override
+    public IDevice create(String id, String name) {
+        return new Light(id, name);
+    }
+
+    @Override
+    public String getManufacturer() { return "SmartLight Inc."; }
+
+    @Override
+    public String getModel() { return "SL-2024"; }
+
+    @Override
+    public List<String> getCapabilities() { return List.of("Brightness", "Color"); }
+
+    @Override
+    public DeviceReceiver createReceiver(IDevice device) {
+        return new LightReceiver((Light) device);
+    }
+
+    @Override
+    public DeviceOperationStrategy getOperationStrategy() {
+        return LightOperationStrategy.INSTANCE;
+    }
+}
@@ -2,8 +2,9 @@ package edu.neu.csye7374.devices.concrete;
 
 import edu.neu.csye7374.core.device.AbstractDevice;
 import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.property.PropertySchema;
 import edu.neu.csye7374.core.strategy.DeviceOperationStrategy;
-import edu.neu.csye7374.core.strategy.ThermostatOperationStrategy;
+import edu.neu.csye7374.core.strategy.StrategyRegistry;
 import edu.neu.csye7374.core.strategy.Operation;
 
 /**
@@ -11,51 +12,51 @@ import edu.neu.csye7374.core.strategy.Operation;
  */
 public class Thermostat extends AbstractDevice {
     
-    private double currentTemperature;
-    private double targetTemperature;
-    private ThermostatMode mode;
+    // Slots of the properties this class exposes as typed accessors
+    public static final int CURRENT_TEMPERATURE =
+            PropertySchema.forType(DeviceType.THERMOSTAT).requireSlot("currentTemperature");
+    public static final int TARGET_TEMPERATURE =
+            PropertySchema.forType(DeviceType.THERMOSTAT).requireSlot("targetTemperature");
+    public static final int MODE = PropertySchema.forType(DeviceType.THERMOSTAT).requireSlot("mode");
+    
     private DeviceOperationStrategy operationStrategy;
     
     public Thermostat(String id, String name) {
         super(id, name, DeviceType.THERMOSTAT);
-        this.currentTemperature = 72.0;
-        this.targetTemperature = 72.0;
-        this.mode = ThermostatMode.HEAT;
-        this.operationStrategy = new ThermostatOperationStrategy();
+        this.operationStrategy = StrategyRegistry.getInstance().getStrategy(DeviceType.THERMOSTAT);
     }
     
     // Thermostat-specific operations
     public void setTargetTemperature(double temperature) {
-        if (temperature >= 50 && temperature <= 90) {
-            double oldTemp = this.targetTemperature;
-            this.targetTemperature = temperature;
-            System.out.println(name + " target temperature set to " + temperature + "°F");
-            notifyPropertyChange("targetTemperature", oldTemp, temperature);
-        }
+        setRawProperty(TARGET_TEMPERATURE, Double.doubleToRawLongBits(temperature));
     }
     
     public double getTargetTemperature() {
-        return targetTemperature;
+        return properties.getDouble(TARGET_TEMPERATURE);
     }
     
+    /**
+     * Report a sensor reading; observers hear about it only if it changed
+     */
     public void setCurrentTemperature(double temperature) {
-        this.currentTemperature = temperature;
-        System.out.println(name + " current temperature is " + temperature + "°F");
+        setRawProperty(CURRENT_TEMPERATURE, Double.doubleToRawLongBits(temperature));
     }
     
     public double getCurrentTemperature() {
-        return currentTemperature;
+        return properties.getDouble(CURRENT_TEMPERATURE);
     }
     
     public void setMode(ThermostatMode mode) {
-        ThermostatMode oldMode = this.mode;
-        this.mode = mode;
-        System.out.println(name + " mode set to " + mode);
-        notifyPropertyChange("mode", oldMode, mode);
+        setRawProperty(MODE, mode.ordinal());
     }
     
     public ThermostatMode getMode() {
-        return mode;
+        return (ThermostatMode) getProperty(MODE);
+    }
+    
+    @Override
+    protected void onReset() {
+        operationStrategy = StrategyRegistry.getInstance().getStrategy(DeviceType.THERMOSTAT);
     }
     
     public void setOperationStrategy(DeviceOperationStrategy strategy) {
@@ -66,10 +67,18 @@ public class Thermostat extends AbstractDevice {
         return operationStrategy.execute(this, operation);
     }
     
+    /**
+     * Run an operation without building a result string
+     * @return false if the strategy does not support it
+     */
+    public boolean performOperation(Operation operation) {
+        return operationStrategy.perform(this, operation);
+    }
+    
     @Override
     public void turnOn() {
         super.turnOn();
-        System.out.println(name + " thermostat is now ON, target: " + targetTemperature + "°F, mode: " + mode);
+        System.out.println(name + " thermostat is now ON, target: " + getTargetTemperature() + "°F, mode: " + getMode());
     }
     
     @Override
@@ -81,6 +90,6 @@ public class Thermostat extends AbstractDevice {
     @Override
     public String toString() {
         return String.format("Thermostat{id=%s, name=%s, state=%s, current=%.1f°F, target=%.1f°F, mode=%s}", 
-                           id, name, state, currentTemperature, targetTemperature, mode);
+                           id, name, powerState, getCurrentTemperature(), getTargetTemperature(), getMode());
     }
 } 
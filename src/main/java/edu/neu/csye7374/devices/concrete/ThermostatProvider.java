@@ -0,0 +1,44 @@
+package edu.neu.csye7374.devices.concrete;
+
+import edu.neu.csye7374.core.command.DeviceReceiver;
+import edu.neu.csye7374.core.command.ThermostatReceiver;
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.factory.DeviceTypeProvider;
+import edu.neu.csye7374.core.strategy.DeviceOperationStrategy;
+import edu.neu.csye7374.core.strategy.ThermostatOperationStrategy;
+
+import java.util.List;
+
+/**
+ * Device type provider for thermostats
+ */
+public class ThermostatProvider implements DeviceTypeProvider {
+
+    @Override
+    public DeviceType getType() { return DeviceType.THERMOSTAT; }
+
+    @Override
+    public IDevice create(String id, String name) {
+        return new Thermostat(id, name);
+    }
+
+    @Override
+    public String getManufacturer() { return "ClimateControl Corp."; }
+
+    @Override
+    public String getModel() { return "CC-2024"; }
+
+    @Override
+    public List<String> getCapabilities() { return List.of("Temperature", "Mode"); }
+
+    @Override
+    public DeviceReceiver createReceiver(IDevice device) {
+        return new ThermostatReceiver((Thermostat) device);
+    }
+
+    @Override
+    public DeviceOperationStrategy getOperationStrategy() {
+        return ThermostatOperationStrategy.INSTANCE;
+    }
+}
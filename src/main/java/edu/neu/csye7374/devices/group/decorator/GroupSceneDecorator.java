@@ -1,5 +1,6 @@
 package edu.neu.csye7374.devices.group.decorator;
 
+import edu.neu.csye7374.core.actor.DeviceActorSystem;
 import edu.neu.csye7374.core.device.IDevice;
 import edu.neu.csye7374.core.factory.DeviceType;
 import edu.neu.csye7374.core.command.CommandExecutor;
@@ -18,6 +19,7 @@ public class GroupSceneDecorator implements IDeviceComponent {
     private final IDeviceComponent wrapped;
     private CommandExecutor commandExecutor;
     private DeviceCommandFactory commandFactory;
+    private DeviceActorSystem deviceActors;
 
     public GroupSceneDecorator(IDeviceComponent wrapped) {
         this.wrapped = wrapped;
@@ -31,6 +33,16 @@ public class GroupSceneDecorator implements IDeviceComponent {
         this.commandFactory = commandFactory;
     }
 
+    /**
+     * Queue each device's part of a scene applied without commands on that
+     * device's mailbox (see UIFacade.setSequencedExecution); with command
+     * dependencies set, sequencing is up to the command executor.
+     * @param deviceActors Actor system to use, or null to apply on the calling thread
+     */
+    public void setDeviceActors(DeviceActorSystem deviceActors) {
+        this.deviceActors = deviceActors;
+    }
+
     /**
      * Apply a scene to all compatible devices inside the wrapped component.
      */
@@ -67,6 +79,8 @@ public class GroupSceneDecorator implements IDeviceComponent {
         // Use commands if available, otherwise fall back to direct calls
         if (commandExecutor != null && commandFactory != null) {
             applyLightSceneUsingCommands(light, scene);
+        } else if (deviceActors != null) {
+            deviceActors.tell(light, device -> applyLightSceneDirect((Light) device, scene));
         } else {
             applyLightSceneDirect(light, scene);
         }
@@ -76,6 +90,8 @@ public class GroupSceneDecorator implements IDeviceComponent {
         // Use commands if available, otherwise fall back to direct calls
         if (commandExecutor != null && commandFactory != null) {
             applyThermostatSceneUsingCommands(thermostat, scene);
+        } else if (deviceActors != null) {
+            deviceActors.tell(thermostat, device -> applyThermostatSceneDirect((Thermostat) device, scene));
         } else {
             applyThermostatSceneDirect(thermostat, scene);
         }
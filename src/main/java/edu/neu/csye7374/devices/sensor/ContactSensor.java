@@ -0,0 +1,13 @@
+package edu.neu.csye7374.devices.sensor;
+
+import edu.neu.csye7374.core.factory.DeviceType;
+
+/**
+ * Door/window contact sensor; reports 1 while open and 0 while closed
+ */
+public class ContactSensor extends SensorDevice {
+
+    public ContactSensor(String id, String name) {
+        super(id, name, DeviceType.CONTACT_SENSOR, "open", true);
+    }
+}
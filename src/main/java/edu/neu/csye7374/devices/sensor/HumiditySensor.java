@@ -0,0 +1,13 @@
+package edu.neu.csye7374.devices.sensor;
+
+import edu.neu.csye7374.core.factory.DeviceType;
+
+/**
+ * Humidity sensor; reports relative humidity in percent
+ */
+public class HumiditySensor extends SensorDevice {
+
+    public HumiditySensor(String id, String name) {
+        super(id, name, DeviceType.HUMIDITY_SENSOR, "humidity", false);
+    }
+}
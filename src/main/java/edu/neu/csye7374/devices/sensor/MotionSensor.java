@@ -0,0 +1,13 @@
+package edu.neu.csye7374.devices.sensor;
+
+import edu.neu.csye7374.core.factory.DeviceType;
+
+/**
+ * Motion sensor; reports 1 while motion is detected and 0 otherwise
+ */
+public class MotionSensor extends SensorDevice {
+
+    public MotionSensor(String id, String name) {
+        super(id, name, DeviceType.MOTION_SENSOR, "motion", true);
+    }
+}
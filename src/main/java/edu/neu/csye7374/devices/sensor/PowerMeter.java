@@ -0,0 +1,13 @@
+package edu.neu.csye7374.devices.sensor;
+
+import edu.neu.csye7374.core.factory.DeviceType;
+
+/**
+ * Power meter; reports instantaneous draw in watts
+ */
+public class PowerMeter extends SensorDevice {
+
+    public PowerMeter(String id, String name) {
+        super(id, name, DeviceType.POWER_METER, "power", false);
+    }
+}
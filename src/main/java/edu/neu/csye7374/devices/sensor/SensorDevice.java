@@ -0,0 +1,130 @@
+package edu.neu.csye7374.devices.sensor;
+
+import edu.neu.csye7374.core.device.AbstractDevice;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.metrics.Counter;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+import edu.neu.csye7374.core.property.PropertyDescriptor;
+
+/**
+ * Base class for sensors that report many samples per second. Samples arrive
+ * in batches through ingest; the device keeps the latest sample in its
+ * reading slot, folds the batch into its SensorStats and notifies observers
+ * once per batch rather than once per sample. Binary sensors (motion,
+ * contact) split a batch at every edge, so each transition still reaches
+ * rules.
+ */
+public abstract class SensorDevice extends AbstractDevice {
+
+    private static final Counter SAMPLES = MetricsRegistry.getInstance().counter("sensor.samples");
+    private static final Counter BATCHES = MetricsRegistry.getInstance().counter("sensor.batches");
+
+    private final PropertyDescriptor reading;
+    private final boolean binary;
+    private final SensorStats stats = new SensorStats();
+    private final double[] single = new double[1];
+
+    protected SensorDevice(String id, String name, DeviceType type, String readingName, boolean binary) {
+        super(id, name, type);
+        this.reading = schema.get(readingName);
+        if (reading == null) {
+            throw new IllegalStateException(type + " has no reading " + readingName);
+        }
+        this.binary = binary;
+    }
+
+    @Override
+    protected void onReset() {
+        stats.reset();
+    }
+
+    /**
+     * Name of the property the samples are for, e.g. "motion" or "power"
+     */
+    public String getReadingName() {
+        return reading.getName();
+    }
+
+    public int getReadingSlot() {
+        return reading.getSlot();
+    }
+
+    /**
+     * Latest sample
+     */
+    public double getReading() {
+        return properties.getDouble(reading.getSlot());
+    }
+
+    /**
+     * Whether samples are 0/1 states (values of 0.5 and above count as 1)
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Running statistics over every sample ingested
+     */
+    public SensorStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Report a single sample
+     */
+    public synchronized void ingest(double sample) {
+        single[0] = sample;
+        ingest(single, 0, 1);
+    }
+
+    /**
+     * Report a batch of samples, oldest first. The array is not retained;
+     * binary sensors round its samples to 0/1 in place.
+     */
+    public synchronized void ingest(double[] samples, int offset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        if (binary) {
+            normalize(samples, offset, length);
+        }
+        stats.add(samples, offset, length);
+        SAMPLES.add(length);
+        BATCHES.increment();
+        if (!binary) {
+            publish(samples, offset, length);
+            return;
+        }
+        // One segment per run of equal states, so every edge is published
+        int start = offset;
+        int end = offset + length;
+        for (int i = offset + 1; i < end; i++) {
+            if (samples[i] != samples[i - 1]) {
+                publish(samples, start, i - start);
+                start = i;
+            }
+        }
+        publish(samples, start, end - start);
+    }
+
+    private void publish(double[] samples, int offset, int length) {
+        int slot = reading.getSlot();
+        double previous = properties.getDouble(slot);
+        properties.set(slot, Double.doubleToRawLongBits(samples[offset + length - 1]));
+        notifySamples(reading.getName(), previous, samples, offset, length);
+    }
+
+    private static void normalize(double[] samples, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            samples[i] = samples[i] >= 0.5 ? 1 : 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{id=%s, name=%s, state=%s, %s=%s, samples=%d}", getClass().getSimpleName(),
+                id, name, powerState, reading.getName(), reading.format(properties.get(reading.getSlot())),
+                stats.getCount());
+    }
+}
@@ -0,0 +1,228 @@
+package edu.neu.csye7374.devices.sensor;
+
+import edu.neu.csye7374.core.builder.RuleBuilder;
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceFactory;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.observer.DeviceObserver;
+import edu.neu.csye7374.core.observer.ObserverRouter;
+import edu.neu.csye7374.devices.automation.AutomationEngine;
+import edu.neu.csye7374.devices.automation.CompiledRule;
+import edu.neu.csye7374.devices.automation.PropertyPredicate;
+import edu.neu.csye7374.devices.automation.RuleDsl;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Sample ingestion throughput on one thread. Motion, contact, power and
+ * humidity sensors feed threshold rules and DSL rules through the automation
+ * engine while their stats are kept as telemetry. Compares whole batches,
+ * single samples buffered by a SensorIngestor, and the per-sample property
+ * path with one observer call per sample.
+ * Options: sensors=1000 lights=100 samples=10000000 batch=256
+ */
+public class SensorIngestBenchmark {
+
+    private static final DeviceType[] TYPES = {
+            DeviceType.MOTION_SENSOR, DeviceType.CONTACT_SENSOR, DeviceType.POWER_METER, DeviceType.HUMIDITY_SENSOR
+    };
+    // Pre-generated batches per sensor type, reused round-robin
+    private static final int PATTERNS = 64;
+
+    public static void run(String[] args) {
+        Benchmarks.Options options = Benchmarks.options(args, "sensors", "lights", "samples", "batch");
+        int sensorCount = options.get("sensors", 1000, TYPES.length);
+        int lightCount = options.get("lights", 100, 1);
+        int samples = options.get("samples", 10_000_000, 1);
+        int batch = options.get("batch", SensorIngestor.DEFAULT_BATCH_SIZE, 1);
+
+        QuietConsole quiet = QuietConsole.silence(true);
+        PrintStream out = quiet.console();
+        List<IDevice> created = new ArrayList<>();
+        try {
+            Map<String, IDevice> devices = new HashMap<>();
+            Light[] lights = new Light[lightCount];
+            for (int i = 0; i < lightCount; i++) {
+                lights[i] = new Light("bench_light_" + i, "Light " + i);
+                devices.put(lights[i].getId(), lights[i]);
+                created.add(lights[i]);
+            }
+            SensorDevice[] sensors = new SensorDevice[sensorCount];
+            for (int i = 0; i < sensorCount; i++) {
+                DeviceType type = TYPES[i % TYPES.length];
+                sensors[i] = (SensorDevice) DeviceFactory.createDevice(type, "bench_" + type.name().toLowerCase() + "_" + i,
+                        type + " " + i);
+                devices.put(sensors[i].getId(), sensors[i]);
+                created.add(sensors[i]);
+            }
+
+            // Power and humidity drive threshold rules, motion and contact drive DSL rules
+            AutomationEngine engine = new AutomationEngine();
+            List<CompiledRule> compiled = new ArrayList<>();
+            int thresholdRules = 0;
+            for (int i = 0; i < sensorCount; i++) {
+                SensorDevice sensor = sensors[i];
+                Light light = lights[i % lightCount];
+                switch (sensor.getType()) {
+                    case POWER_METER:
+                        engine.addRule(new RuleBuilder().named("Overload " + i)
+                                .whenProperty(sensor, "power", PropertyPredicate.above(1500, 100))
+                                .then("turn on", light).build());
+                        thresholdRules++;
+                        break;
+                    case HUMIDITY_SENSOR:
+                        engine.addRule(new RuleBuilder().named("Damp " + i)
+                                .whenProperty(sensor, "humidity", PropertyPredicate.above(70, 2))
+                                .then("turn off", light).build());
+                        thresholdRules++;
+                        break;
+                    case MOTION_SENSOR:
+                        compiled.add(RuleDsl.compile("Motion " + i,
+                                "when " + sensor.getId() + ".motion == 1 then turn on " + light.getId(), devices::get));
+                        break;
+                    default:
+                        compiled.add(RuleDsl.compile("Door " + i,
+                                "when " + sensor.getId() + ".open == 1 then toggle " + light.getId(), devices::get));
+                }
+                sensor.addObserver(engine.getPropertyObserver());
+            }
+            engine.addCompiledRules(compiled);
+            long[] transitions = new long[1];
+            DeviceObserver counter = new DeviceObserver() {
+                @Override
+                public void onDeviceStateChanged(IDevice device, String oldState, String newState) {
+                    transitions[0]++;
+                }
+
+                @Override
+                public String getObserverName() {
+                    return "Sensor Benchmark Counter";
+                }
+            };
+            for (Light light : lights) {
+                light.addObserver(counter);
+            }
+
+            double[][][] patterns = generatePatterns(batch);
+
+            out.println("\n=== SENSOR INGEST BENCHMARK ===");
+            out.printf("%d sensors, %d lights, %d threshold + %d DSL rules, batch=%d%n",
+                    sensorCount, lightCount, thresholdRules, compiled.size(), batch);
+
+            // Warm up, then measure; samples are spread evenly over the sensors
+            runBatches(sensors, patterns, Math.min(samples, 1_000_000), batch);
+            transitions[0] = 0;
+            long start = System.nanoTime();
+            long sent = runBatches(sensors, patterns, samples, batch);
+            report(out, "Batches", sent, System.nanoTime() - start, transitions[0]);
+
+            int buffered = Math.max(1, samples / 2);
+            SensorIngestor ingestor = new SensorIngestor(batch);
+            transitions[0] = 0;
+            start = System.nanoTime();
+            sent = runIngestor(ingestor, sensors, patterns, buffered, batch);
+            report(out, "Ingestor", sent, System.nanoTime() - start, transitions[0]);
+
+            int single = Math.max(1, samples / 50);
+            transitions[0] = 0;
+            start = System.nanoTime();
+            sent = runPerSample(sensors, patterns, single, batch);
+            report(out, "Per sample", sent, System.nanoTime() - start, transitions[0]);
+
+            out.println("Telemetry:");
+            for (int t = 0; t < TYPES.length && t < sensorCount; t++) {
+                out.printf("  %-16s %s%n", sensors[t].getId(), sensors[t].getStats());
+            }
+        } finally {
+            ObserverRouter router = ObserverRouter.getInstance();
+            for (IDevice device : created) {
+                router.removeDevice(device.getId());
+            }
+            quiet.close();
+        }
+    }
+
+    private static long runBatches(SensorDevice[] sensors, double[][][] patterns, int samples, int batch) {
+        long sent = 0;
+        for (int round = 0; sent < samples; round++) {
+            for (int i = 0; i < sensors.length && sent < samples; i++) {
+                double[] data = patterns[i % TYPES.length][(round + i) % PATTERNS];
+                int length = (int) Math.min(batch, samples - sent);
+                sensors[i].ingest(data, 0, length);
+                sent += length;
+            }
+        }
+        return sent;
+    }
+
+    private static long runIngestor(SensorIngestor ingestor, SensorDevice[] sensors, double[][][] patterns,
+                                    int samples, int batch) {
+        long sent = 0;
+        for (int round = 0; sent < samples; round++) {
+            int index = round % batch;
+            int pattern = round / batch;
+            for (int i = 0; i < sensors.length && sent < samples; i++, sent++) {
+                ingestor.offer(sensors[i], patterns[i % TYPES.length][(pattern + i) % PATTERNS][index]);
+            }
+        }
+        ingestor.flush();
+        return sent;
+    }
+
+    private static long runPerSample(SensorDevice[] sensors, double[][][] patterns, int samples, int batch) {
+        long sent = 0;
+        for (int round = 0; sent < samples; round++) {
+            int index = round % batch;
+            int pattern = round / batch;
+            for (int i = 0; i < sensors.length && sent < samples; i++, sent++) {
+                SensorDevice sensor = sensors[i];
+                sensor.setProperty(sensor.getReadingSlot(), patterns[i % TYPES.length][(pattern + i) % PATTERNS][index]);
+            }
+        }
+        return sent;
+    }
+
+    private static void report(PrintStream out, String label, long samples, long nanos, long transitions) {
+        out.printf("%-11s %,12d samples in %7.1f ms  %,14.0f samples/s  %,8d light transitions%n",
+                label, samples, nanos / 1e6, samples / (nanos / 1e9), transitions);
+    }
+
+    /**
+     * Per type: PATTERNS batches of plausible readings. Binary sensors change
+     * state rarely; power and humidity random-walk and now and then cross
+     * their rule thresholds.
+     */
+    private static double[][][] generatePatterns(int batch) {
+        Random random = new Random(43);
+        double[][][] patterns = new double[TYPES.length][PATTERNS][batch];
+        for (int t = 0; t < TYPES.length; t++) {
+            double value = t == 2 ? 800 : t == 3 ? 50 : 0;
+            for (int p = 0; p < PATTERNS; p++) {
+                for (int s = 0; s < batch; s++) {
+                    switch (TYPES[t]) {
+                        case POWER_METER:
+                            value = Math.max(0, Math.min(2500, value + random.nextGaussian() * 40));
+                            break;
+                        case HUMIDITY_SENSOR:
+                            value = Math.max(20, Math.min(90, value + random.nextGaussian() * 0.8));
+                            break;
+                        default:
+                            if (random.nextInt(500) == 0) {
+                                value = 1 - value;
+                            }
+                    }
+                    patterns[t][p][s] = value;
+                }
+            }
+        }
+        return patterns;
+    }
+}
@@ -0,0 +1,95 @@
+package edu.neu.csye7374.devices.sensor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects samples that arrive one at a time (from a network feed, say) into
+ * per-sensor buffers and hands them to the sensor as one batch when a buffer
+ * fills or on flush. Samples for different sensors are buffered independently.
+ */
+public class SensorIngestor {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final int batchSize;
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+
+    public SensorIngestor() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public SensorIngestor(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Buffer one sample; delivers the sensor's batch if this fills it
+     */
+    public void offer(SensorDevice sensor, double sample) {
+        Buffer buffer = buffers.get(sensor.getId());
+        if (buffer == null) {
+            buffer = buffers.computeIfAbsent(sensor.getId(), id -> new Buffer(sensor, batchSize));
+        }
+        buffer.offer(sample);
+    }
+
+    /**
+     * Deliver every partly filled batch
+     */
+    public void flush() {
+        for (Buffer buffer : buffers.values()) {
+            buffer.flush();
+        }
+    }
+
+    /**
+     * Deliver a sensor's pending samples and stop buffering for it
+     */
+    public void remove(String sensorId) {
+        Buffer buffer = buffers.remove(sensorId);
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
+
+    /**
+     * Samples buffered but not yet delivered, across all sensors
+     */
+    public int getPending() {
+        int pending = 0;
+        for (Buffer buffer : buffers.values()) {
+            pending += buffer.size();
+        }
+        return pending;
+    }
+
+    private static final class Buffer {
+        private final SensorDevice sensor;
+        private final double[] samples;
+        private int size;
+
+        Buffer(SensorDevice sensor, int capacity) {
+            this.sensor = sensor;
+            this.samples = new double[capacity];
+        }
+
+        synchronized void offer(double sample) {
+            samples[size++] = sample;
+            if (size == samples.length) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            if (size > 0) {
+                sensor.ingest(samples, 0, size);
+                size = 0;
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+}
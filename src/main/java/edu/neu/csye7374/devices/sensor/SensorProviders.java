@@ -0,0 +1,76 @@
+package edu.neu.csye7374.devices.sensor;
+
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.factory.DeviceTypeProvider;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Device type providers for the sensors. Sensors take no commands, so they
+ * have no receiver and use the basic operation strategy.
+ */
+public final class SensorProviders {
+
+    private SensorProviders() {
+    }
+
+    private abstract static class SensorProvider implements DeviceTypeProvider {
+        private final DeviceType type;
+        private final String manufacturer;
+        private final String model;
+        private final String capability;
+        private final BiFunction<String, String, SensorDevice> constructor;
+
+        SensorProvider(DeviceType type, String manufacturer, String model, String capability,
+                       BiFunction<String, String, SensorDevice> constructor) {
+            this.type = type;
+            this.manufacturer = manufacturer;
+            this.model = model;
+            this.capability = capability;
+            this.constructor = constructor;
+        }
+
+        @Override
+        public DeviceType getType() { return type; }
+
+        @Override
+        public IDevice create(String id, String name) {
+            return constructor.apply(id, name);
+        }
+
+        @Override
+        public String getManufacturer() { return manufacturer; }
+
+        @Override
+        public String getModel() { return model; }
+
+        @Override
+        public List<String> getCapabilities() { return List.of(capability); }
+    }
+
+    public static class Motion extends SensorProvider {
+        public Motion() {
+            super(DeviceType.MOTION_SENSOR, "SenseWorks Ltd.", "SW-M100", "Motion", MotionSensor::new);
+        }
+    }
+
+    public static class Contact extends SensorProvider {
+        public Contact() {
+            super(DeviceType.CONTACT_SENSOR, "SenseWorks Ltd.", "SW-C100", "Contact", ContactSensor::new);
+        }
+    }
+
+    public static class Power extends SensorProvider {
+        public Power() {
+            super(DeviceType.POWER_METER, "GridWatch Inc.", "GW-P200", "Power", PowerMeter::new);
+        }
+    }
+
+    public static class Humidity extends SensorProvider {
+        public Humidity() {
+            super(DeviceType.HUMIDITY_SENSOR, "ClimateControl Corp.", "CC-H100", "Humidity", HumiditySensor::new);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package edu.neu.csye7374.devices.sensor;
+
+/**
+ * Running count, min, max and mean of a sensor's samples. Updated once per
+ * batch by the owning sensor; readers get a consistent view.
+ */
+public final class SensorStats {
+
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    synchronized void add(double[] samples, int offset, int length) {
+        double batchSum = 0;
+        double batchMin = min;
+        double batchMax = max;
+        for (int i = offset; i < offset + length; i++) {
+            double sample = samples[i];
+            batchSum += sample;
+            if (sample < batchMin) {
+                batchMin = sample;
+            }
+            if (sample > batchMax) {
+                batchMax = sample;
+            }
+        }
+        count += length;
+        sum += batchSum;
+        min = batchMin;
+        max = batchMax;
+    }
+
+    public synchronized long getCount() { return count; }
+
+    /**
+     * @return The smallest sample, or NaN before the first one
+     */
+    public synchronized double getMin() { return count == 0 ? Double.NaN : min; }
+
+    /**
+     * @return The largest sample, or NaN before the first one
+     */
+    public synchronized double getMax() { return count == 0 ? Double.NaN : max; }
+
+    /**
+     * @return The mean sample, or NaN before the first one
+     */
+    public synchronized double getMean() { return count == 0 ? Double.NaN : sum / count; }
+
+    public synchronized void reset() {
+        count = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("SensorStats{count=%d, min=%.2f, max=%.2f, mean=%.2f}", count, getMin(), getMax(), getMean());
+    }
+}
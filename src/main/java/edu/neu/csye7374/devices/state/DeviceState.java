@@ -38,4 +38,10 @@ public interface DeviceState {
      * @return State descriptions
      */
     String getStateDescription();
+    
+    /**
+     * Get the power state this behavior implements
+     * @return Power state
+     */
+    PowerState getPowerState();
 } 
@@ -7,10 +7,16 @@ import edu.neu.csye7374.core.device.IDevice;
  */
 public class OffState implements DeviceState {
     
+    /** Stateless, so every device shares this instance */
+    public static final OffState INSTANCE = new OffState();
+    
+    private OffState() {
+    }
+    
     @Override
     public void turnOn(IDevice device) {
         System.out.println(device.getName() + " turning ON");
-        device.setState("ON");
+        device.setPowerState(PowerState.ON);
     }
     
     @Override
@@ -25,11 +31,16 @@ public class OffState implements DeviceState {
     
     @Override
     public String getStateName() {
-        return "OFF";
+        return PowerState.OFF.getLabel();
     }
     
     @Override
     public String getStateDescription() {
         return "Device is powered off and inactive";
     }
+    
+    @Override
+    public PowerState getPowerState() {
+        return PowerState.OFF;
+    }
 } 
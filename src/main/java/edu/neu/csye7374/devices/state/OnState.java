@@ -7,6 +7,12 @@ import edu.neu.csye7374.core.device.IDevice;
  */
 public class OnState implements DeviceState {
     
+    /** Stateless, so every device shares this instance */
+    public static final OnState INSTANCE = new OnState();
+    
+    private OnState() {
+    }
+    
     @Override
     public void turnOn(IDevice device) {
         System.out.println(device.getName() + " is already ON");
@@ -15,7 +21,7 @@ public class OnState implements DeviceState {
     @Override
     public void turnOff(IDevice device) {
         System.out.println(device.getName() + " turning OFF");
-        device.setState("OFF");
+        device.setPowerState(PowerState.OFF);
     }
     
     @Override
@@ -25,11 +31,16 @@ public class OnState implements DeviceState {
     
     @Override
     public String getStateName() {
-        return "ON";
+        return PowerState.ON.getLabel();
     }
     
     @Override
     public String getStateDescription() {
         return "Device is powered on and operational";
     }
+    
+    @Override
+    public PowerState getPowerState() {
+        return PowerState.ON;
+    }
 } 
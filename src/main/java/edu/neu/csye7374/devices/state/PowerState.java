@@ -0,0 +1,61 @@
+package edu.neu.csye7374.devices.state;
+
+/**
+ * Typed power state of a device. Each constant carries its display label and
+ * the shared DeviceState that implements transitions from it, so devices hold
+ * a constant instead of a string and their own state objects.
+ */
+public enum PowerState {
+    ON("ON", true),
+    OFF("OFF", false);
+
+    private final String label;
+    private final boolean on;
+
+    PowerState(String label, boolean on) {
+        this.label = label;
+        this.on = on;
+    }
+
+    /**
+     * Label shown to users and passed to string-based observers ("ON"/"OFF")
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isOn() {
+        return on;
+    }
+
+    /**
+     * Shared State-pattern object for this power state
+     */
+    public DeviceState getBehavior() {
+        return on ? OnState.INSTANCE : OffState.INSTANCE;
+    }
+
+    public static PowerState of(boolean on) {
+        return on ? ON : OFF;
+    }
+
+    /**
+     * Parse a label such as "ON" or "off"
+     * @throws IllegalArgumentException if the label names no power state
+     */
+    public static PowerState fromLabel(String label) {
+        if (label != null) {
+            for (PowerState state : values()) {
+                if (state.label.equalsIgnoreCase(label.trim())) {
+                    return state;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown power state: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -1,6 +1,8 @@
     package edu.neu.csye7374.flyweight;
 
     import edu.neu.csye7374.core.factory.DeviceType;
+    import edu.neu.csye7374.core.factory.DeviceTypeProvider;
+    import edu.neu.csye7374.core.factory.DeviceTypeRegistry;
 
     import java.util.ArrayList;
     import java.util.List;
@@ -51,22 +53,16 @@
             
             public DeviceFlyweight(DeviceType deviceType) {
                 this.deviceType = deviceType;
-                // Set manufacturer and model based on device type
-                switch (deviceType) {
-                    case LIGHT:
-                        this.manufacturer = "SmartLight Inc.";
-                        this.model = "SL-2024";
-                        this.capabilities = new ArrayList<>(List.of("Brightness", "Color"));
-                        break;
-                    case THERMOSTAT:
-                        this.manufacturer = "ClimateControl Corp.";
-                        this.model = "CC-2024";
-                        this.capabilities = new ArrayList<>(List.of("Mode"));
-                        break;
-                    default:
-                        this.manufacturer = "Generic Manufacturer";
-                        this.model = "Generic Model";
-                        this.capabilities = new ArrayList<>();
+                // Manufacturer, model and capabilities come from the type's provider
+                DeviceTypeProvider provider = DeviceTypeRegistry.getInstance().getProvider(deviceType);
+                if (provider != null) {
+                    this.manufacturer = provider.getManufacturer();
+                    this.model = provider.getModel();
+                    this.capabilities = new ArrayList<>(provider.getCapabilities());
+                } else {
+                    this.manufacturer = "Generic Manufacturer";
+                    this.model = "Generic Model";
+                    this.capabilities = new ArrayList<>();
                 }
             }
             
@@ -0,0 +1,261 @@
+package edu.neu.csye7374.remote;
+
+import edu.neu.csye7374.devices.concrete.LightColor;
+import edu.neu.csye7374.devices.concrete.ThermostatMode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Client for CommandServer. Requests are buffered and sent on flush() (or when
+ * the buffer fills), so callers can pipeline many commands per round trip.
+ * Each request returns a future completed with the response status.
+ */
+public class CommandClient implements Closeable {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Map<Integer, CompletableFuture<Byte>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    private final Thread readerThread;
+    private volatile Consumer<RemoteEvent> eventListener;
+    private volatile boolean closed;
+
+    private CommandClient(SocketChannel channel) {
+        this.channel = channel;
+        this.readerThread = new Thread(this::readLoop, "command-client-reader");
+        this.readerThread.setDaemon(true);
+    }
+
+    /**
+     * Connect to a command server
+     */
+    public static CommandClient connect(String host, int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        CommandClient client = new CommandClient(channel);
+        client.readerThread.start();
+        return client;
+    }
+
+    /**
+     * Set the listener for events pushed by the server (called on the reader thread)
+     */
+    public void setEventListener(Consumer<RemoteEvent> eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    public CompletableFuture<Byte> ping() {
+        return send(CommandProtocol.PING, EMPTY, EMPTY);
+    }
+
+    public CompletableFuture<Byte> turnOn(String deviceId) {
+        return send(CommandProtocol.TURN_ON, CommandProtocol.utf8(deviceId), EMPTY);
+    }
+
+    public CompletableFuture<Byte> turnOff(String deviceId) {
+        return send(CommandProtocol.TURN_OFF, CommandProtocol.utf8(deviceId), EMPTY);
+    }
+
+    public CompletableFuture<Byte> toggle(String deviceId) {
+        return send(CommandProtocol.TOGGLE, CommandProtocol.utf8(deviceId), EMPTY);
+    }
+
+    public CompletableFuture<Byte> setBrightness(String deviceId, int brightness) {
+        return send(CommandProtocol.SET_BRIGHTNESS, CommandProtocol.utf8(deviceId), new byte[]{(byte) brightness});
+    }
+
+    public CompletableFuture<Byte> setColor(String deviceId, LightColor color) {
+        return send(CommandProtocol.SET_COLOR, CommandProtocol.utf8(deviceId), new byte[]{(byte) color.ordinal()});
+    }
+
+    public CompletableFuture<Byte> setTargetTemperature(String deviceId, double temperature) {
+        short tenths = (short) Math.round(temperature * 10);
+        return send(CommandProtocol.SET_TARGET_TEMPERATURE, CommandProtocol.utf8(deviceId),
+                new byte[]{(byte) (tenths >> 8), (byte) tenths});
+    }
+
+    public CompletableFuture<Byte> setMode(String deviceId, ThermostatMode mode) {
+        return send(CommandProtocol.SET_MODE, CommandProtocol.utf8(deviceId), new byte[]{(byte) mode.ordinal()});
+    }
+
+    public CompletableFuture<Byte> undo() {
+        return send(CommandProtocol.UNDO, EMPTY, EMPTY);
+    }
+
+    public CompletableFuture<Byte> redo() {
+        return send(CommandProtocol.REDO, EMPTY, EMPTY);
+    }
+
+    /**
+     * Subscribe to events of one device, or of all devices when deviceId is null or empty
+     */
+    public CompletableFuture<Byte> subscribe(String deviceId) {
+        return send(CommandProtocol.SUBSCRIBE, CommandProtocol.utf8(deviceId), EMPTY);
+    }
+
+    public CompletableFuture<Byte> unsubscribe(String deviceId) {
+        return send(CommandProtocol.UNSUBSCRIBE, CommandProtocol.utf8(deviceId), EMPTY);
+    }
+
+    /**
+     * Queue a raw request; it is written on the next flush()
+     */
+    public synchronized CompletableFuture<Byte> send(byte opcode, byte[] deviceId, byte[] payload) {
+        CompletableFuture<Byte> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IOException("Client is closed"));
+            return future;
+        }
+        int requestId = nextRequestId.incrementAndGet();
+        pending.put(requestId, future);
+        try {
+            if (out.remaining() < CommandProtocol.requestSize(deviceId, payload)) {
+                flush();
+            }
+            CommandProtocol.writeRequest(out, opcode, requestId, deviceId, payload);
+        } catch (IOException e) {
+            pending.remove(requestId);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Write all buffered requests to the server
+     */
+    public synchronized void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Number of requests still waiting for a response
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+        failPending(new IOException("Connection closed"));
+    }
+
+    private void readLoop() {
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                while (in.remaining() >= CommandProtocol.LENGTH_PREFIX) {
+                    int bodyLength = in.getShort(in.position()) & 0xFFFF;
+                    if (in.remaining() < CommandProtocol.LENGTH_PREFIX + bodyLength) {
+                        break;
+                    }
+                    in.position(in.position() + CommandProtocol.LENGTH_PREFIX);
+                    int frameEnd = in.position() + bodyLength;
+                    byte type = in.get();
+                    if (type == CommandProtocol.RESPONSE) {
+                        int requestId = in.getInt();
+                        byte status = in.get();
+                        CompletableFuture<Byte> future = pending.remove(requestId);
+                        if (future != null) {
+                            future.complete(status);
+                        }
+                    } else if (type == CommandProtocol.EVENT) {
+                        dispatchEvent(in);
+                    }
+                    in.position(frameEnd);
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            // Fall through and fail whatever is still pending
+        }
+        closed = true;
+        failPending(new IOException("Connection closed by server"));
+    }
+
+    private void dispatchEvent(ByteBuffer in) {
+        Consumer<RemoteEvent> listener = eventListener;
+        if (listener == null) {
+            return;
+        }
+        int sequence = in.getInt();
+        String deviceId = readString(in);
+        byte kind = in.get();
+        if (kind == CommandProtocol.EVENT_STATE) {
+            listener.accept(new RemoteEvent(sequence, deviceId, in.get() != 0, null, null));
+        } else if (kind == CommandProtocol.EVENT_PROPERTY) {
+            String property = readString(in);
+            String value = readString(in);
+            listener.accept(new RemoteEvent(sequence, deviceId, false, property, value));
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.get() & 0xFF;
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private void failPending(IOException cause) {
+        for (Integer requestId : pending.keySet()) {
+            CompletableFuture<Byte> future = pending.remove(requestId);
+            if (future != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * Event pushed by the server. State events carry the power state;
+     * property events carry the property name and its new value.
+     */
+    public static class RemoteEvent {
+        private final int sequence;
+        private final String deviceId;
+        private final boolean on;
+        private final String property;
+        private final String value;
+
+        RemoteEvent(int sequence, String deviceId, boolean on, String property, String value) {
+            this.sequence = sequence;
+            this.deviceId = deviceId;
+            this.on = on;
+            this.property = property;
+            this.value = value;
+        }
+
+        public int getSequence() { return sequence; }
+        public String getDeviceId() { return deviceId; }
+        public boolean isStateEvent() { return property == null; }
+        public boolean isOn() { return on; }
+        public String getProperty() { return property; }
+        public String getValue() { return value; }
+
+        @Override
+        public String toString() {
+            return isStateEvent()
+                    ? "#" + sequence + " " + deviceId + " -> " + (on ? "ON" : "OFF")
+                    : "#" + sequence + " " + deviceId + " " + property + " -> " + value;
+        }
+    }
+}
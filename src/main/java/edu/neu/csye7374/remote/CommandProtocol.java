@@ -0,0 +1,174 @@
+package edu.neu.csye7374.remote;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary protocol spoken by CommandServer and CommandClient.
+ *
+ * Every frame is length-prefixed: [u16 bodyLength][body]. Request bodies are
+ * [u8 opcode][i32 requestId][u8 deviceIdLength][deviceId UTF-8][payload].
+ * Responses are [u8 RESPONSE][i32 requestId][u8 status] and pushed events are
+ * [u8 EVENT][i32 sequence][u8 deviceIdLength][deviceId][u8 kind][kind payload].
+ * Clients may pipeline any number of requests without waiting for responses;
+ * responses come back in request order.
+ */
+public final class CommandProtocol {
+
+    // Request opcodes
+    public static final byte PING = 0x01;
+    public static final byte TURN_ON = 0x10;
+    public static final byte TURN_OFF = 0x11;
+    public static final byte TOGGLE = 0x12;
+    /** Payload: u8 brightness 0-100 */
+    public static final byte SET_BRIGHTNESS = 0x20;
+    /** Payload: u8 LightColor ordinal */
+    public static final byte SET_COLOR = 0x21;
+    /** Payload: i16 temperature in tenths of a degree Fahrenheit */
+    public static final byte SET_TARGET_TEMPERATURE = 0x30;
+    /** Payload: u8 ThermostatMode ordinal */
+    public static final byte SET_MODE = 0x31;
+    public static final byte UNDO = 0x40;
+    public static final byte REDO = 0x41;
+    /** Subscribe to events of a device; an empty device ID subscribes to all devices */
+    public static final byte SUBSCRIBE = 0x50;
+    public static final byte UNSUBSCRIBE = 0x51;
+
+    // Server to client frame types
+    public static final byte RESPONSE = (byte) 0x80;
+    public static final byte EVENT = (byte) 0x81;
+
+    // Response status codes
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_UNKNOWN_DEVICE = 1;
+    public static final byte STATUS_UNSUPPORTED = 2;
+    public static final byte STATUS_BAD_REQUEST = 3;
+    public static final byte STATUS_ERROR = 4;
+
+    // Event kinds
+    /** Payload: u8 1 for ON, 0 for OFF */
+    public static final byte EVENT_STATE = 0;
+    /** Payload: [u8 nameLength][name][u8 valueLength][value UTF-8] */
+    public static final byte EVENT_PROPERTY = 1;
+
+    public static final int LENGTH_PREFIX = 2;
+    public static final int MAX_FRAME_BODY = 0xFFFF;
+    public static final int MAX_ID_LENGTH = 0xFF;
+    /** Largest valid request body: header, the longest device ID and the largest payload (i16) */
+    public static final int MAX_REQUEST_BODY = 1 + 4 + 1 + MAX_ID_LENGTH + 2;
+
+    private CommandProtocol() {
+    }
+
+    /**
+     * Write a complete request frame
+     * @param buffer Target buffer (must have room for the frame)
+     * @param opcode Request opcode
+     * @param requestId Client-chosen correlation ID
+     * @param deviceId Device ID bytes (UTF-8), may be empty
+     * @param payload Opcode-specific payload, may be empty
+     */
+    public static void writeRequest(ByteBuffer buffer, byte opcode, int requestId, byte[] deviceId, byte[] payload) {
+        int body = 1 + 4 + 1 + deviceId.length + payload.length;
+        buffer.putShort((short) body);
+        buffer.put(opcode);
+        buffer.putInt(requestId);
+        buffer.put((byte) deviceId.length);
+        buffer.put(deviceId);
+        buffer.put(payload);
+    }
+
+    public static int requestSize(byte[] deviceId, byte[] payload) {
+        return LENGTH_PREFIX + 1 + 4 + 1 + deviceId.length + payload.length;
+    }
+
+    public static void writeResponse(ByteBuffer buffer, int requestId, byte status) {
+        buffer.putShort((short) 6);
+        buffer.put(RESPONSE);
+        buffer.putInt(requestId);
+        buffer.put(status);
+    }
+
+    public static final int RESPONSE_SIZE = LENGTH_PREFIX + 6;
+
+    /**
+     * Encode a state change event frame
+     */
+    public static byte[] encodeStateEvent(int sequence, String deviceId, boolean on) {
+        byte[] id = utf8(deviceId);
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_PREFIX + 1 + 4 + 1 + id.length + 1 + 1);
+        buffer.putShort((short) (buffer.capacity() - LENGTH_PREFIX));
+        buffer.put(EVENT);
+        buffer.putInt(sequence);
+        buffer.put((byte) id.length);
+        buffer.put(id);
+        buffer.put(EVENT_STATE);
+        buffer.put((byte) (on ? 1 : 0));
+        return buffer.array();
+    }
+
+    /**
+     * Encode a property change event frame
+     */
+    public static byte[] encodePropertyEvent(int sequence, String deviceId, String property, String value) {
+        byte[] id = utf8(deviceId);
+        byte[] name = truncatedUtf8(property);
+        byte[] val = truncatedUtf8(value);
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_PREFIX + 1 + 4 + 1 + id.length + 1 + 1 + name.length + 1 + val.length);
+        buffer.putShort((short) (buffer.capacity() - LENGTH_PREFIX));
+        buffer.put(EVENT);
+        buffer.putInt(sequence);
+        buffer.put((byte) id.length);
+        buffer.put(id);
+        buffer.put(EVENT_PROPERTY);
+        buffer.put((byte) name.length);
+        buffer.put(name);
+        buffer.put((byte) val.length);
+        buffer.put(val);
+        return buffer.array();
+    }
+
+    /**
+     * Encode a device ID, rejecting IDs that do not fit the one-byte length field
+     */
+    public static byte[] utf8(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Value too long for protocol field: " + value);
+        }
+        return bytes;
+    }
+
+    /**
+     * Encode a property name or value, cutting it to the one-byte length field
+     * at a character boundary instead of rejecting it
+     */
+    private static byte[] truncatedUtf8(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_ID_LENGTH) {
+            return bytes;
+        }
+        int length = MAX_ID_LENGTH;
+        // Do not split a multi-byte character: back up over continuation bytes (10xxxxxx)
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        byte[] truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+
+    /**
+     * Human-readable name of a status code
+     */
+    public static String statusName(byte status) {
+        switch (status) {
+            case STATUS_OK: return "OK";
+            case STATUS_UNKNOWN_DEVICE: return "UNKNOWN_DEVICE";
+            case STATUS_UNSUPPORTED: return "UNSUPPORTED";
+            case STATUS_BAD_REQUEST: return "BAD_REQUEST";
+            case STATUS_ERROR: return "ERROR";
+            default: return "STATUS_" + status;
+        }
+    }
+}
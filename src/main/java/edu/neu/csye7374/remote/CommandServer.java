@@ -0,0 +1,495 @@
+package edu.neu.csye7374.remote;
+
+import edu.neu.csye7374.core.command.CommandManager;
+import edu.neu.csye7374.core.command.DeviceCommand;
+import edu.neu.csye7374.core.command.ReceiverCommandFactory;
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.metrics.Counter;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+import edu.neu.csye7374.core.observer.DeviceObserver;
+import edu.neu.csye7374.core.observer.ObserverRouter;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.devices.concrete.LightColor;
+import edu.neu.csye7374.devices.concrete.Thermostat;
+import edu.neu.csye7374.devices.concrete.ThermostatMode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking TCP server for remote controllers (wall panels, hubs).
+ * A single selector thread decodes pipelined CommandProtocol requests, runs
+ * them through DeviceCommandFactory commands and the CommandManager, and
+ * writes all responses produced by one read as a single batch. Device events
+ * are pushed to subscribed connections.
+ */
+public class CommandServer implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    // Stop reading from a client that is not draining its responses
+    private static final int OUTBOUND_HIGH_WATER = 4 * 1024 * 1024;
+    // Events beyond this many queued bytes per connection are dropped
+    private static final int MAX_PENDING_EVENT_BYTES = 1024 * 1024;
+
+    private final DeviceRegistry registry;
+    private final ReceiverCommandFactory commandFactory;
+    private final CommandManager commandManager;
+    private final EventPusher eventPusher = new EventPusher();
+    // Set on the selector thread when the first client subscribes
+    private boolean observing;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Queue<Connection> connectionsWithEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger eventSequence = new AtomicInteger();
+
+    private final Counter requestCounter;
+    private final Counter droppedEventCounter;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    public CommandServer(DeviceRegistry registry, ReceiverCommandFactory commandFactory, CommandManager commandManager) {
+        this.registry = registry;
+        this.commandFactory = commandFactory;
+        this.commandManager = commandManager;
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.requestCounter = metrics.counter("remote.requests");
+        this.droppedEventCounter = metrics.counter("remote.events.dropped");
+    }
+
+    /**
+     * Bind and start the selector thread
+     * @param address Address to listen on (port 0 picks a free port)
+     */
+    public void start(InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        selectorThread = new Thread(this::runLoop, "command-server-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        System.out.println("REMOTE: Command server listening on " + serverChannel.getLocalAddress());
+    }
+
+    /**
+     * Get the bound port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (selectorThread != null) {
+            try {
+                selectorThread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Devices must not keep a closed server and its connections reachable
+        ObserverRouter.getInstance().unsubscribeAll(eventPusher);
+    }
+
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.flush();
+                            }
+                        }
+                    } catch (IOException e) {
+                        Object attachment = key.attachment();
+                        if (attachment instanceof Connection) {
+                            ((Connection) attachment).close();
+                        }
+                    }
+                }
+                // Deliver events queued by other threads (e.g. the UI thread changing devices)
+                Connection connection;
+                while ((connection = connectionsWithEvents.poll()) != null) {
+                    connection.hasQueuedEvents.set(false);
+                    try {
+                        connection.drainEvents();
+                        connection.flush();
+                    } catch (IOException e) {
+                        connection.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("REMOTE: Selector loop failed: " + e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException ignored) {
+                // Shutting down anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.add(connection);
+    }
+
+    /**
+     * Execute one decoded request and return its status
+     */
+    private byte handle(Connection connection, byte opcode, String deviceId, ByteBuffer frame, int payloadEnd) {
+        requestCounter.increment();
+        switch (opcode) {
+            case CommandProtocol.PING:
+                return CommandProtocol.STATUS_OK;
+            case CommandProtocol.UNDO:
+                if (!commandManager.canUndo()) {
+                    return CommandProtocol.STATUS_UNSUPPORTED;
+                }
+                commandManager.undoLast();
+                return CommandProtocol.STATUS_OK;
+            case CommandProtocol.REDO:
+                if (!commandManager.canRedo()) {
+                    return CommandProtocol.STATUS_UNSUPPORTED;
+                }
+                commandManager.redoLast();
+                return CommandProtocol.STATUS_OK;
+            case CommandProtocol.SUBSCRIBE:
+                return subscribe(connection, deviceId);
+            case CommandProtocol.UNSUBSCRIBE:
+                if (deviceId.isEmpty()) {
+                    connection.allDevices = false;
+                    connection.deviceIds.clear();
+                } else {
+                    connection.deviceIds.remove(deviceId);
+                }
+                return CommandProtocol.STATUS_OK;
+            default:
+                break;
+        }
+
+        IDevice device = registry.getDevice(deviceId);
+        if (device == null) {
+            return CommandProtocol.STATUS_UNKNOWN_DEVICE;
+        }
+        int payloadLength = payloadEnd - frame.position();
+        DeviceCommand command;
+        switch (opcode) {
+            case CommandProtocol.TURN_ON:
+                command = commandFactory.createTurnOnCommand(device);
+                break;
+            case CommandProtocol.TURN_OFF:
+                command = commandFactory.createTurnOffCommand(device);
+                break;
+            case CommandProtocol.TOGGLE:
+                command = commandFactory.createToggleCommand(device);
+                break;
+            case CommandProtocol.SET_BRIGHTNESS: {
+                if (!(device instanceof Light)) return CommandProtocol.STATUS_UNSUPPORTED;
+                if (payloadLength < 1) return CommandProtocol.STATUS_BAD_REQUEST;
+                int brightness = frame.get() & 0xFF;
+                if (brightness > 100) return CommandProtocol.STATUS_BAD_REQUEST;
+                command = commandFactory.createSetBrightnessCommand((Light) device, brightness);
+                break;
+            }
+            case CommandProtocol.SET_COLOR: {
+                if (!(device instanceof Light)) return CommandProtocol.STATUS_UNSUPPORTED;
+                if (payloadLength < 1) return CommandProtocol.STATUS_BAD_REQUEST;
+                int ordinal = frame.get() & 0xFF;
+                LightColor[] colors = LightColor.values();
+                if (ordinal >= colors.length) return CommandProtocol.STATUS_BAD_REQUEST;
+                command = commandFactory.createSetColorCommand((Light) device, colors[ordinal]);
+                break;
+            }
+            case CommandProtocol.SET_TARGET_TEMPERATURE: {
+                if (!(device instanceof Thermostat)) return CommandProtocol.STATUS_UNSUPPORTED;
+                if (payloadLength < 2) return CommandProtocol.STATUS_BAD_REQUEST;
+                double temperature = frame.getShort() / 10.0;
+                if (temperature < 50 || temperature > 90) return CommandProtocol.STATUS_BAD_REQUEST;
+                command = commandFactory.createSetTargetTemperatureCommand((Thermostat) device, temperature);
+                break;
+            }
+            case CommandProtocol.SET_MODE: {
+                if (!(device instanceof Thermostat)) return CommandProtocol.STATUS_UNSUPPORTED;
+                if (payloadLength < 1) return CommandProtocol.STATUS_BAD_REQUEST;
+                int ordinal = frame.get() & 0xFF;
+                ThermostatMode[] modes = ThermostatMode.values();
+                if (ordinal >= modes.length) return CommandProtocol.STATUS_BAD_REQUEST;
+                command = commandFactory.createSetModeCommand((Thermostat) device, modes[ordinal]);
+                break;
+            }
+            default:
+                return CommandProtocol.STATUS_BAD_REQUEST;
+        }
+        if (command == null) {
+            return CommandProtocol.STATUS_UNSUPPORTED;
+        }
+        switch (commandManager.run(command).getStatus()) {
+            case OK: return CommandProtocol.STATUS_OK;
+            case REJECTED: return CommandProtocol.STATUS_BAD_REQUEST;
+            default: return CommandProtocol.STATUS_ERROR;
+        }
+    }
+
+    private byte subscribe(Connection connection, String deviceId) {
+        if (!deviceId.isEmpty() && registry.getDevice(deviceId) == null) {
+            return CommandProtocol.STATUS_UNKNOWN_DEVICE;
+        }
+        if (!observing) {
+            // One subscription to every device, including devices created later;
+            // the pusher filters by each connection's subscriptions
+            ObserverRouter.getInstance().subscribeAll(eventPusher);
+            observing = true;
+        }
+        if (deviceId.isEmpty()) {
+            connection.allDevices = true;
+        } else {
+            connection.deviceIds.add(deviceId);
+        }
+        return CommandProtocol.STATUS_OK;
+    }
+
+    /**
+     * Per-client state: buffers, subscriptions and queued events
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+        private volatile boolean allDevices;
+        private final Set<String> deviceIds = ConcurrentHashMap.newKeySet();
+        private final Queue<byte[]> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queuedEventBytes = new AtomicInteger();
+        private final AtomicBoolean hasQueuedEvents = new AtomicBoolean();
+        private boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        boolean isSubscribed(String deviceId) {
+            return allDevices || deviceIds.contains(deviceId);
+        }
+
+        void read() throws IOException {
+            int read = channel.read(in);
+            if (read < 0) {
+                close();
+                return;
+            }
+            in.flip();
+            // Decode every complete frame in the buffer; responses accumulate in one batch
+            while (in.remaining() >= CommandProtocol.LENGTH_PREFIX) {
+                int bodyLength = in.getShort(in.position()) & 0xFFFF;
+                // A frame longer than any valid request (or than the buffer) could never complete
+                if (bodyLength < 6 || bodyLength > CommandProtocol.MAX_REQUEST_BODY
+                        || bodyLength > in.capacity() - CommandProtocol.LENGTH_PREFIX) {
+                    close();
+                    return;
+                }
+                if (in.remaining() < CommandProtocol.LENGTH_PREFIX + bodyLength) {
+                    break;
+                }
+                in.position(in.position() + CommandProtocol.LENGTH_PREFIX);
+                int frameEnd = in.position() + bodyLength;
+                byte opcode = in.get();
+                int requestId = in.getInt();
+                int idLength = in.get() & 0xFF;
+                byte status;
+                if (in.position() + idLength > frameEnd) {
+                    status = CommandProtocol.STATUS_BAD_REQUEST;
+                } else {
+                    String deviceId = idLength == 0 ? ""
+                            : new String(in.array(), in.position(), idLength, StandardCharsets.UTF_8);
+                    in.position(in.position() + idLength);
+                    try {
+                        status = handle(this, opcode, deviceId, in, frameEnd);
+                    } catch (RuntimeException e) {
+                        status = CommandProtocol.STATUS_ERROR;
+                    }
+                }
+                in.position(frameEnd);
+                ensureOutCapacity(CommandProtocol.RESPONSE_SIZE);
+                CommandProtocol.writeResponse(out, requestId, status);
+            }
+            in.compact();
+            drainEvents();
+            flush();
+        }
+
+        void enqueueEvent(byte[] frame) {
+            if (queuedEventBytes.addAndGet(frame.length) > MAX_PENDING_EVENT_BYTES) {
+                queuedEventBytes.addAndGet(-frame.length);
+                droppedEventCounter.increment();
+                return;
+            }
+            events.add(frame);
+            if (hasQueuedEvents.compareAndSet(false, true)) {
+                connectionsWithEvents.add(this);
+            }
+        }
+
+        void drainEvents() throws IOException {
+            byte[] frame;
+            while ((frame = events.poll()) != null) {
+                queuedEventBytes.addAndGet(-frame.length);
+                ensureOutCapacity(frame.length);
+                out.put(frame);
+            }
+        }
+
+        private void ensureOutCapacity(int bytes) throws IOException {
+            if (out.remaining() >= bytes) {
+                return;
+            }
+            flush();
+            if (out.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+        }
+
+        void flush() throws IOException {
+            if (closed) {
+                return;
+            }
+            out.flip();
+            if (out.hasRemaining()) {
+                channel.write(out);
+            }
+            boolean pending = out.hasRemaining();
+            int pendingBytes = out.remaining();
+            out.compact();
+            int ops = pendingBytes > OUTBOUND_HIGH_WATER ? 0 : SelectionKey.OP_READ;
+            if (pending) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            if (key.isValid() && key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            connections.remove(this);
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Connection is gone either way
+            }
+        }
+    }
+
+    /**
+     * Observer attached to subscribed devices; encodes each event once and
+     * queues it on every interested connection.
+     */
+    private class EventPusher implements DeviceObserver {
+
+        @Override
+        public void onDeviceStateChanged(IDevice device, String oldState, String newState) {
+            byte[] frame = null;
+            for (Connection connection : connections) {
+                if (connection.isSubscribed(device.getId())) {
+                    if (frame == null) {
+                        frame = CommandProtocol.encodeStateEvent(eventSequence.incrementAndGet(),
+                                device.getId(), device.isOn());
+                    }
+                    connection.enqueueEvent(frame);
+                }
+            }
+            wakeSelector(frame);
+        }
+
+        @Override
+        public void onDevicePropertyChanged(IDevice device, String propertyName, Object oldValue, Object newValue) {
+            byte[] frame = null;
+            for (Connection connection : connections) {
+                if (connection.isSubscribed(device.getId())) {
+                    if (frame == null) {
+                        frame = CommandProtocol.encodePropertyEvent(eventSequence.incrementAndGet(),
+                                device.getId(), propertyName, String.valueOf(newValue));
+                    }
+                    connection.enqueueEvent(frame);
+                }
+            }
+            wakeSelector(frame);
+        }
+
+        private void wakeSelector(byte[] frame) {
+            // Events raised on the selector thread are flushed with the current response batch
+            if (frame != null && Thread.currentThread() != selectorThread) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public String getObserverName() {
+            return "Remote Command Server";
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package edu.neu.csye7374.remote;
+
+import edu.neu.csye7374.core.command.CommandManager;
+import edu.neu.csye7374.core.command.ReceiverCommandFactory;
+import edu.neu.csye7374.core.factory.DeviceFactory;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.metrics.LatencyHistogram;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
+import edu.neu.csye7374.simulation.Benchmarks;
+import edu.neu.csye7374.simulation.QuietConsole;
+
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Localhost throughput/latency benchmark for CommandServer.
+ * Sends toggle and brightness commands with a bounded number of requests
+ * in flight and reports round-trip percentiles.
+ * Options: lights=100 requests=200000 window=256 warmup=20000
+ */
+public class CommandServerBenchmark {
+
+    private int lights = 100;
+    private int requests = 200_000;
+    private int window = 256;
+    private int warmup = 20_000;
+
+    public static void run(String[] args) {
+        CommandServerBenchmark benchmark = new CommandServerBenchmark();
+        Benchmarks.Options options = Benchmarks.options(args, "lights", "requests", "window", "warmup");
+        benchmark.lights = options.get("lights", benchmark.lights, 1);
+        benchmark.requests = options.get("requests", benchmark.requests, 1);
+        benchmark.window = options.get("window", benchmark.window, 1);
+        benchmark.warmup = options.get("warmup", benchmark.warmup, 0);
+        benchmark.execute();
+    }
+
+    private void execute() {
+        try (QuietConsole quiet = QuietConsole.silence(true)) {
+            PrintStream out = quiet.console();
+            DeviceRegistry registry = DeviceRegistry.getInstance();
+            String[] ids = new String[lights];
+            for (int i = 0; i < lights; i++) {
+                ids[i] = "bench_light_" + i;
+                registry.registerDevice(DeviceFactory.createDevice(DeviceType.LIGHT, ids[i], "Bench Light " + i));
+            }
+            CommandManager commandManager = new CommandManager();
+            try (CommandServer server = new CommandServer(registry, new ReceiverCommandFactory(), commandManager)) {
+                server.start(new InetSocketAddress("127.0.0.1", 0));
+                try (CommandClient client = CommandClient.connect("127.0.0.1", server.getPort())) {
+                    out.println("Warming up with " + warmup + " requests...");
+                    drive(client, ids, warmup, commandManager, null);
+
+                    LatencyHistogram roundTrip = new LatencyHistogram("remote.roundTrip");
+                    long start = System.nanoTime();
+                    long failures = drive(client, ids, requests, commandManager, roundTrip);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+
+                    LatencyHistogram.Snapshot s = roundTrip.snapshot();
+                    out.println("\n=== REMOTE COMMAND BENCHMARK ===");
+                    out.printf("Requests:    %d in %.3f s (window %d, %d lights)%n", requests, seconds, window, lights);
+                    out.printf("Throughput:  %.0f requests/s%n", requests / seconds);
+                    out.printf("Round trip:  p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+                            s.getP50() / 1e3, s.getP99() / 1e3, s.getP999() / 1e3, s.getMaxNanos() / 1e3);
+                    out.printf("Failures:    %d%n", failures);
+                }
+            }
+            for (String id : ids) {
+                registry.unregisterDevice(id);
+            }
+        } catch (Exception e) {
+            System.err.println("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    private long drive(CommandClient client, String[] ids, int count, CommandManager commandManager,
+                       LatencyHistogram histogram) throws Exception {
+        Semaphore inFlight = new Semaphore(window);
+        AtomicLong failures = new AtomicLong();
+        CompletableFuture<Byte> last = null;
+        for (int i = 0; i < count; i++) {
+            if (!inFlight.tryAcquire()) {
+                client.flush();
+                inFlight.acquire();
+            }
+            String id = ids[i % ids.length];
+            long sent = System.nanoTime();
+            CompletableFuture<Byte> future = (i & 1) == 0 ? client.toggle(id) : client.setBrightness(id, i % 101);
+            future.whenComplete((status, error) -> {
+                if (histogram != null) {
+                    histogram.recordSince(sent);
+                }
+                if (error != null || status != CommandProtocol.STATUS_OK) {
+                    failures.incrementAndGet();
+                }
+                inFlight.release();
+            });
+            last = future;
+        }
+        client.flush();
+        if (last != null) {
+            last.join();
+        }
+        inFlight.acquire(window);
+        // The server is idle now, so the undo history can be dropped safely
+        commandManager.clearHistory();
+        return failures.get();
+    }
+}
@@ -0,0 +1,77 @@
+package edu.neu.csye7374.remote;
+
+import edu.neu.csye7374.core.command.CommandManager;
+import edu.neu.csye7374.core.command.ReceiverCommandFactory;
+import edu.neu.csye7374.core.facade.UIFacade;
+import edu.neu.csye7374.core.factory.DeviceFactory;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.observer.DeviceEventHub;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+
+/**
+ * Runs a standalone command server with a small demo fleet until Enter is pressed.
+ * Options: port=9090 lights=10 thermostats=2 events=8081 (HTTP event stream, 0 to disable)
+ * import=devices.csv (CSV or JSON-lines device definitions, added to the demo fleet)
+ */
+public class CommandServerLauncher {
+
+    public static void run(String[] args) {
+        int port = 9090;
+        int lights = 10;
+        int thermostats = 2;
+        int eventsPort = 8081;
+        String importFile = null;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            if (arg.startsWith("import=")) {
+                importFile = arg.substring(eq + 1);
+                continue;
+            }
+            int value = Integer.parseInt(arg.substring(eq + 1));
+            switch (arg.substring(0, eq)) {
+                case "port": port = value; break;
+                case "lights": lights = value; break;
+                case "thermostats": thermostats = value; break;
+                case "events": eventsPort = value; break;
+                default: System.err.println("Unknown server option: " + arg);
+            }
+        }
+
+        UIFacade facade = UIFacade.getInstance();
+        for (int i = 0; i < lights; i++) {
+            facade.registerDevice(DeviceFactory.createDevice(DeviceType.LIGHT, "light_" + i, "Light " + i));
+        }
+        for (int i = 0; i < thermostats; i++) {
+            facade.registerDevice(DeviceFactory.createDevice(DeviceType.THERMOSTAT, "thermostat_" + i, "Thermostat " + i));
+        }
+        if (importFile != null) {
+            try {
+                facade.importDevices(Paths.get(importFile));
+            } catch (IOException e) {
+                System.err.println("Device import failed: " + e.getMessage());
+            }
+        }
+
+        DeviceRegistry registry = DeviceRegistry.getInstance();
+        EventStreamServer eventServer = new EventStreamServer(DeviceEventHub.getInstance());
+        try (CommandServer server = new CommandServer(registry, new ReceiverCommandFactory(), new CommandManager())) {
+            server.start(new InetSocketAddress(port));
+            if (eventsPort > 0) {
+                eventServer.start(new InetSocketAddress(eventsPort));
+            }
+            System.out.println("Serving " + registry.getDeviceCount() + " devices. Press Enter to stop.");
+            System.in.read();
+        } catch (IOException e) {
+            System.err.println("Command server failed: " + e.getMessage());
+        } finally {
+            eventServer.close();
+        }
+    }
+}
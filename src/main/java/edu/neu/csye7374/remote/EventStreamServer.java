@@ -0,0 +1,215 @@
+package edu.neu.csye7374.remote;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.observer.DeviceEvent;
+import edu.neu.csye7374.core.observer.DeviceEventHub;
+import edu.neu.csye7374.core.observer.EventFilter;
+import edu.neu.csye7374.core.observer.EventSubscription;
+import edu.neu.csye7374.core.observer.EventSubscription.OverflowPolicy;
+import edu.neu.csye7374.devices.group.IDeviceComponent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP transport for DeviceEventHub subscriptions.
+ *
+ * GET /events streams events as Server-Sent Events, or as tab-separated lines
+ * with format=lines (easy to follow with curl). Query parameters:
+ * device (comma-separated IDs), type (LIGHT, THERMOSTAT), group (registered
+ * group name), buffer (events) and overflow (drop_oldest, drop_newest, disconnect).
+ */
+public class EventStreamServer implements Closeable {
+
+    private static final int HEARTBEAT_SECONDS = 15;
+    private static final int MAX_BATCH = 256;
+
+    private final DeviceEventHub hub;
+    private HttpServer server;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public EventStreamServer(DeviceEventHub hub) {
+        this.hub = hub;
+    }
+
+    /**
+     * Bind and start serving
+     * @param address Address to listen on (port 0 picks a free port)
+     */
+    public void start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        // Each open stream holds a thread while it waits for events
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "event-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/events", this::handleEvents);
+        running = true;
+        server.start();
+        System.out.println("EVENTS: Streaming device events on http://" + address.getHostString() + ":" + getPort() + "/events");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Only GET is supported");
+            return;
+        }
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        EventFilter filter;
+        int capacity;
+        OverflowPolicy policy;
+        try {
+            filter = buildFilter(params);
+            capacity = Integer.parseInt(params.getOrDefault("buffer", String.valueOf(DeviceEventHub.DEFAULT_CAPACITY)));
+            policy = OverflowPolicy.valueOf(params.getOrDefault("overflow", "drop_oldest").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        if (capacity <= 0) {
+            sendError(exchange, 400, "buffer must be positive");
+            return;
+        }
+
+        boolean lines = "lines".equals(params.get("format"));
+        exchange.getResponseHeaders().set("Content-Type",
+                lines ? "text/plain; charset=utf-8" : "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        try (EventSubscription subscription = hub.subscribe(filter, capacity, policy);
+             OutputStream body = exchange.getResponseBody()) {
+            if (!lines) {
+                write(body, ": subscription " + subscription.getId() + " " + filter + "\n\n");
+            }
+            stream(subscription, body, lines);
+            if (subscription.isClosed() && running && !lines) {
+                write(body, "event: disconnect\ndata: slow consumer\n\n");
+            }
+        } catch (IOException e) {
+            // Client went away; closing the subscription detaches it from the hub
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void stream(EventSubscription subscription, OutputStream body, boolean lines)
+            throws IOException, InterruptedException {
+        List<DeviceEvent> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder chunk = new StringBuilder(4096);
+        while (running && !subscription.isClosed()) {
+            DeviceEvent first = subscription.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+            if (first == null) {
+                // Heartbeat keeps proxies from timing out and detects dead clients
+                write(body, lines ? "\n" : ": keepalive\n\n");
+                continue;
+            }
+            batch.add(first);
+            subscription.drainTo(batch, MAX_BATCH - 1);
+            for (DeviceEvent event : batch) {
+                if (lines) {
+                    chunk.append(event.toLine()).append('\n');
+                } else {
+                    chunk.append("id: ").append(event.getSequence())
+                         .append("\nevent: ").append(event.getKind() == DeviceEvent.Kind.STATE ? "state" : "property")
+                         .append("\ndata: ").append(event.toJson()).append("\n\n");
+                }
+            }
+            write(body, chunk.toString());
+            chunk.setLength(0);
+            batch.clear();
+        }
+    }
+
+    private EventFilter buildFilter(Map<String, String> params) {
+        EventFilter.Builder builder = EventFilter.builder();
+        String devices = params.get("device");
+        if (devices != null) {
+            for (String id : devices.split(",")) {
+                builder.device(id.trim());
+            }
+        }
+        String types = params.get("type");
+        if (types != null) {
+            for (String type : types.split(",")) {
+                try {
+                    builder.type(DeviceType.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown device type: " + type);
+                }
+            }
+        }
+        String groupName = params.get("group");
+        if (groupName != null) {
+            IDeviceComponent group = hub.getGroup(groupName);
+            if (group == null) {
+                throw new IllegalArgumentException("Unknown group: " + groupName);
+            }
+            builder.group(group);
+        }
+        return builder.build();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void write(OutputStream body, String text) throws IOException {
+        body.write(text.getBytes(StandardCharsets.UTF_8));
+        body.flush();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+}
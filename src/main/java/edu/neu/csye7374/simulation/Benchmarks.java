@@ -0,0 +1,149 @@
+package edu.neu.csye7374.simulation;
+
+import edu.neu.csye7374.core.actor.DeviceActorBenchmark;
+import edu.neu.csye7374.core.command.CoalescingBenchmark;
+import edu.neu.csye7374.core.command.CommandBenchmark;
+import edu.neu.csye7374.core.command.SchedulerBenchmark;
+import edu.neu.csye7374.core.factory.DevicePoolBenchmark;
+import edu.neu.csye7374.core.persistence.RuleStoreBenchmark;
+import edu.neu.csye7374.core.provisioning.ProvisioningBenchmark;
+import edu.neu.csye7374.core.strategy.StrategyBenchmark;
+import edu.neu.csye7374.devices.automation.ConditionNetworkBenchmark;
+import edu.neu.csye7374.devices.automation.RuleDslBenchmark;
+import edu.neu.csye7374.devices.automation.RuleSimulatorBenchmark;
+import edu.neu.csye7374.devices.automation.TimingWheelBenchmark;
+import edu.neu.csye7374.devices.sensor.SensorIngestBenchmark;
+import edu.neu.csye7374.remote.CommandServerBenchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entry point for the micro-benchmarks, selected by name:
+ * --bench &lt;name&gt; [key=value ...]
+ */
+public class Benchmarks {
+
+    public static void run(String[] args) {
+        if (args.length == 0) {
+            printUsage();
+            return;
+        }
+        String[] options = Arrays.copyOfRange(args, 1, args.length);
+        switch (args[0]) {
+            case "remote":
+                CommandServerBenchmark.run(options);
+                break;
+            case "timers":
+                TimingWheelBenchmark.run(options);
+                break;
+            case "rules":
+                RuleDslBenchmark.run(options);
+                break;
+            case "network":
+                ConditionNetworkBenchmark.run(options);
+                break;
+            case "store":
+                RuleStoreBenchmark.run(options);
+                break;
+            case "dryrun":
+                RuleSimulatorBenchmark.run(options);
+                break;
+            case "actors":
+                DeviceActorBenchmark.run(options);
+                break;
+            case "sensors":
+                SensorIngestBenchmark.run(options);
+                break;
+            case "provision":
+                ProvisioningBenchmark.run(options);
+                break;
+            case "pool":
+                DevicePoolBenchmark.run(options);
+                break;
+            case "strategies":
+                StrategyBenchmark.run(options);
+                break;
+            case "commands":
+                CommandBenchmark.run(options);
+                break;
+            case "coalesce":
+                CoalescingBenchmark.run(options);
+                break;
+            case "scheduler":
+                SchedulerBenchmark.run(options);
+                break;
+            default:
+                System.err.println("Unknown benchmark: " + args[0]);
+                printUsage();
+        }
+    }
+
+    /**
+     * Parse a benchmark's key=value options. Unknown keys and values that are
+     * not integers are reported on stderr and skipped, so the default applies.
+     * @param keys Option names the benchmark accepts
+     */
+    public static Options options(String[] args, String... keys) {
+        Map<String, Integer> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String key = eq > 0 ? arg.substring(0, eq) : arg;
+            if (eq <= 0 || !Arrays.asList(keys).contains(key)) {
+                System.err.println("Unknown benchmark option: " + arg + " (options: " + String.join(", ", keys) + ")");
+                continue;
+            }
+            try {
+                values.put(key, Integer.parseInt(arg.substring(eq + 1).trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring benchmark option " + arg + ": not an integer");
+            }
+        }
+        return new Options(values);
+    }
+
+    /**
+     * Integer options given on the command line
+     */
+    public static final class Options {
+        private final Map<String, Integer> values;
+
+        private Options(Map<String, Integer> values) {
+            this.values = values;
+        }
+
+        /**
+         * @return The option's value raised to at least min, or defaultValue if it was not given
+         */
+        public int get(String key, int defaultValue, int min) {
+            return get(key, defaultValue, min, Integer.MAX_VALUE);
+        }
+
+        /**
+         * @return The option's value clamped to [min, max], or defaultValue if it was not given
+         */
+        public int get(String key, int defaultValue, int min, int max) {
+            Integer value = values.get(key);
+            return value == null ? defaultValue : Math.min(max, Math.max(min, value));
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: --bench <name> [key=value ...]");
+        System.out.println("  remote     Command server round trips (lights, requests, window, warmup)");
+        System.out.println("  timers     Automation timing wheel (timers, horizonHours, cancel, stepSeconds)");
+        System.out.println("  rules      Rule condition evaluation, legacy vs interpreted vs compiled (evaluations)");
+        System.out.println("  network    Shared condition network vs per-rule evaluation (rules, lights, thermostats, contexts, events)");
+        System.out.println("  store      Rule store write and cold load (rules, lights, thermostats, dslPercent, rounds)");
+        System.out.println("  dryrun     Rule simulation over an event log, 1 thread vs all cores (lights, thermostats, rules, dslPercent, events, threads)");
+        System.out.println("  actors     Per-device mailboxes vs a global lock, 1..N threads (devices, messages, work, maxThreads)");
+        System.out.println("  sensors    Sensor sample ingestion into rules and telemetry (sensors, lights, samples, batch)");
+        System.out.println("  provision  Bulk device import from CSV and JSON lines, 1 vs N workers (devices, threads, batch)");
+        System.out.println("  pool       Device create/delete churn with and without recycling (live, ops, capacity)");
+        System.out.println("  strategies Operation dispatch with and without result strings (lights, thermostats, operations)");
+        System.out.println("  commands   Command execution with and without result messages (lights, thermostats, commands, history)");
+        System.out.println("  coalesce   Slider drags with and without command coalescing (lights, thermostats, drags, window)");
+        System.out.println("  scheduler  Interactive and emergency latency under a bulk flood, one lane vs lanes (lights, bulk, interactive, intervalMillis)");
+    }
+}
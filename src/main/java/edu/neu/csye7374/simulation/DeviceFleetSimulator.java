@@ -0,0 +1,378 @@
+package edu.neu.csye7374.simulation;
+
+import edu.neu.csye7374.core.builder.RuleBuilder;
+import edu.neu.csye7374.core.command.CommandManager;
+import edu.neu.csye7374.core.command.DeviceCommand;
+import edu.neu.csye7374.core.command.ReceiverCommandFactory;
+import edu.neu.csye7374.core.device.IDevice;
+import edu.neu.csye7374.core.factory.DeviceFactory;
+import edu.neu.csye7374.core.factory.DeviceType;
+import edu.neu.csye7374.core.metrics.LatencyHistogram;
+import edu.neu.csye7374.core.metrics.MetricsRegistry;
+import edu.neu.csye7374.core.metrics.MetricsSnapshot;
+import edu.neu.csye7374.core.observer.DeviceObserver;
+import edu.neu.csye7374.core.registry.DeviceRegistry;
+import edu.neu.csye7374.devices.automation.AutomationEngine;
+import edu.neu.csye7374.devices.concrete.Light;
+import edu.neu.csye7374.devices.concrete.LightColor;
+import edu.neu.csye7374.devices.concrete.Thermostat;
+import edu.neu.csye7374.devices.concrete.ThermostatMode;
+import edu.neu.csye7374.devices.group.DeviceAdapter;
+import edu.neu.csye7374.devices.group.DeviceGroup;
+import edu.neu.csye7374.devices.group.decorator.GroupSceneDecorator;
+import edu.neu.csye7374.devices.group.decorator.Scene;
+import edu.neu.csye7374.devices.state.PowerState;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load generator for a building full of devices.
+ * Creates lights and thermostats through DeviceFactory, arranges them into a
+ * building/floor/room group hierarchy and replays a synthetic event stream
+ * through the full command, observer and automation path.
+ */
+public class DeviceFleetSimulator {
+
+    /**
+     * Kinds of events replayed by the simulator
+     */
+    public enum EventType {
+        TEMPERATURE_DRIFT, MOTION, SCENE_ACTIVATION
+    }
+
+    // Trim undo history periodically so long runs do not grow without bound
+    private static final int MAX_HISTORY = 10_000;
+
+    private final SimulationConfig config;
+    private final Random random;
+    private final DeviceRegistry registry = DeviceRegistry.getInstance();
+    private final CommandManager commandManager = new CommandManager();
+    private final ReceiverCommandFactory commandFactory = new ReceiverCommandFactory();
+    private final AutomationEngine automationEngine = new AutomationEngine();
+    private final AutomationForwarder automationForwarder = new AutomationForwarder();
+
+    private final DeviceGroup building = new DeviceGroup("sim_building", "Simulated Building");
+    private final List<Room> rooms = new ArrayList<>();
+    private final List<Thermostat> thermostats = new ArrayList<>();
+    private final Scene[] scenes;
+
+    private final LatencyHistogram overall = new LatencyHistogram("simulation.event");
+    private final Map<EventType, LatencyHistogram> byType = new EnumMap<>(EventType.class);
+
+    private long commandsExecuted;
+
+    public DeviceFleetSimulator(SimulationConfig config) {
+        this.config = config;
+        this.random = new Random(config.getSeed());
+        for (EventType type : EventType.values()) {
+            byType.put(type, new LatencyHistogram("simulation.event." + type.name().toLowerCase()));
+        }
+        this.scenes = new Scene[] {
+            new Scene.Builder("Evening Relax")
+                    .lightsOn(true)
+                    .lightBrightness(40)
+                    .lightColor(LightColor.WARM_WHITE)
+                    .thermostatOn(true)
+                    .thermostatTarget(72.0)
+                    .thermostatMode(ThermostatMode.HEAT)
+                    .build(),
+            new Scene.Builder("Movie Night")
+                    .lightsOff(true)
+                    .thermostatOn(true)
+                    .thermostatTarget(68.0)
+                    .thermostatMode(ThermostatMode.COOL)
+                    .build(),
+            new Scene.Builder("Workday")
+                    .lightsOn(true)
+                    .lightBrightness(100)
+                    .lightColor(LightColor.BRIGHT_WHITE)
+                    .build()
+        };
+    }
+
+    /**
+     * Create devices, groups and per-room automation rules
+     */
+    public void setUp() {
+        for (int f = 0; f < config.getFloors(); f++) {
+            DeviceGroup floor = new DeviceGroup("sim_floor_" + f, "Floor " + f);
+            building.addComponent(floor);
+            for (int r = 0; r < config.getRoomsPerFloor(); r++) {
+                DeviceGroup roomGroup = new DeviceGroup("sim_room_" + f + "_" + r, "Floor " + f + " Room " + r);
+                floor.addComponent(roomGroup);
+                rooms.add(new Room(roomGroup));
+            }
+        }
+
+        // Distribute devices round-robin so every room gets a similar mix
+        for (int i = 0; i < config.getLights(); i++) {
+            Room room = rooms.get(i % rooms.size());
+            Light light = (Light) createDevice(DeviceType.LIGHT, "sim_light_" + i, room.group.getName() + " Light " + i);
+            room.lights.add(light);
+            room.group.addComponent(new DeviceAdapter(light));
+        }
+        for (int i = 0; i < config.getThermostats(); i++) {
+            Room room = rooms.get(i % rooms.size());
+            Thermostat thermostat = (Thermostat) createDevice(DeviceType.THERMOSTAT, "sim_thermostat_" + i,
+                    room.group.getName() + " Thermostat " + i);
+            room.thermostats.add(thermostat);
+            thermostats.add(thermostat);
+            room.group.addComponent(new DeviceAdapter(thermostat));
+        }
+
+        // The first light in each room acts as the motion light and drives the rest of the room
+        for (Room room : rooms) {
+            if (room.lights.isEmpty()) {
+                continue;
+            }
+            Light motionLight = room.lights.get(0);
+            if (room.lights.size() > 1) {
+                Light companion = room.lights.get(1);
+                automationEngine.addRule(new RuleBuilder().named(room.group.getName() + " occupied")
+                        .when(motionLight, "ON").then("turn on", companion).build());
+                automationEngine.addRule(new RuleBuilder().named(room.group.getName() + " vacant")
+                        .when(motionLight, "OFF").then("turn off", companion).build());
+            }
+            if (!room.thermostats.isEmpty()) {
+                automationEngine.addRule(new RuleBuilder().named(room.group.getName() + " climate")
+                        .when(motionLight, "ON").then("turn on", room.thermostats.get(0)).build());
+            }
+        }
+    }
+
+    private IDevice createDevice(DeviceType type, String id, String name) {
+        IDevice device = DeviceFactory.createDevice(type, id, name);
+        registry.registerDevice(device);
+        device.addObserver(automationForwarder);
+        return device;
+    }
+
+    /**
+     * Run warmup and measured phases and print a report to the console
+     */
+    public void run() {
+        PrintStream console;
+        try (QuietConsole quiet = QuietConsole.silence(!config.isVerbose())) {
+            console = quiet.console();
+            commandManager.setLogging(config.isVerbose());
+            console.println("Simulation: " + config);
+            setUp();
+            console.println("Created " + registry.getDeviceCount() + " registered devices in "
+                    + rooms.size() + " rooms, " + automationEngine.getRules().size() + " automation rules");
+
+            if (config.getWarmupEvents() > 0) {
+                console.println("Warming up with " + config.getWarmupEvents() + " events...");
+                replay(config.getWarmupEvents());
+                resetCounters();
+            }
+
+            console.println("Replaying " + config.getEvents() + " events...");
+            long start = System.nanoTime();
+            replay(config.getEvents());
+            long elapsed = System.nanoTime() - start;
+            printReport(console, elapsed);
+        }
+    }
+
+    private void replay(int eventCount) {
+        long interval = config.getTargetRate() > 0 ? 1_000_000_000L / config.getTargetRate() : 0;
+        long next = System.nanoTime();
+        for (int i = 0; i < eventCount; i++) {
+            long intended = System.nanoTime();
+            if (interval > 0) {
+                // Open-loop pacing: measure from the intended start so stalls are not hidden
+                next += interval;
+                intended = next - interval;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            EventType type = nextEventType();
+            dispatch(type);
+            long latency = System.nanoTime() - intended;
+            overall.record(latency);
+            byType.get(type).record(latency);
+
+            if (commandManager.getCommandCount() > MAX_HISTORY) {
+                commandManager.clearHistory();
+            }
+        }
+    }
+
+    private EventType nextEventType() {
+        int total = config.getDriftWeight() + config.getMotionWeight() + config.getSceneWeight();
+        int roll = random.nextInt(total);
+        if (roll < config.getDriftWeight() && !thermostats.isEmpty()) {
+            return EventType.TEMPERATURE_DRIFT;
+        }
+        if (roll < config.getDriftWeight() + config.getMotionWeight()) {
+            return EventType.MOTION;
+        }
+        return EventType.SCENE_ACTIVATION;
+    }
+
+    private void dispatch(EventType type) {
+        switch (type) {
+            case TEMPERATURE_DRIFT:
+                temperatureDrift();
+                break;
+            case MOTION:
+                motion();
+                break;
+            case SCENE_ACTIVATION:
+                sceneActivation();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * A thermostat sensor reports a slightly different temperature; the
+     * thermostat switches mode when it drifts well past its target.
+     */
+    private void temperatureDrift() {
+        Thermostat thermostat = thermostats.get(random.nextInt(thermostats.size()));
+        double reading = thermostat.getCurrentTemperature() + random.nextGaussian() * 0.5;
+        reading = Math.max(55.0, Math.min(95.0, reading));
+        thermostat.setCurrentTemperature(reading);
+
+        double delta = reading - thermostat.getTargetTemperature();
+        if (delta > 3.0 && thermostat.getMode() == ThermostatMode.HEAT) {
+            execute(commandFactory.createSetModeCommand(thermostat, ThermostatMode.COOL));
+        } else if (delta < -3.0 && thermostat.getMode() == ThermostatMode.COOL) {
+            execute(commandFactory.createSetModeCommand(thermostat, ThermostatMode.HEAT));
+        }
+    }
+
+    /**
+     * Motion detected (or cleared) in a room toggles its motion light;
+     * automation rules then cascade to the rest of the room.
+     */
+    private void motion() {
+        Room room = rooms.get(random.nextInt(rooms.size()));
+        if (room.lights.isEmpty()) {
+            return;
+        }
+        Light motionLight = room.lights.get(0);
+        execute(motionLight.isOn()
+                ? commandFactory.createTurnOffCommand(motionLight)
+                : commandFactory.createTurnOnCommand(motionLight));
+    }
+
+    private void sceneActivation() {
+        Room room = rooms.get(random.nextInt(rooms.size()));
+        GroupSceneDecorator decorated = new GroupSceneDecorator(room.group);
+        decorated.setCommandExecutionDependencies(this::execute, commandFactory);
+        decorated.applyScene(scenes[random.nextInt(scenes.length)]);
+    }
+
+    private void execute(DeviceCommand command) {
+        if (command != null) {
+            commandManager.run(command);
+            commandsExecuted++;
+        }
+    }
+
+    private void resetCounters() {
+        overall.reset();
+        for (LatencyHistogram histogram : byType.values()) {
+            histogram.reset();
+        }
+        MetricsRegistry.getInstance().reset();
+        commandsExecuted = 0;
+        automationForwarder.stateChanges = 0;
+        automationForwarder.propertyChanges = 0;
+        commandManager.clearHistory();
+    }
+
+    private void printReport(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        out.println();
+        out.println("=== SIMULATION REPORT ===");
+        out.printf("Events:            %d in %.3f s%n", overall.getCount(), seconds);
+        out.printf("Throughput:        %.0f events/s%n", overall.getCount() / seconds);
+        out.printf("Commands executed: %d (%.0f/s, last 5 s window: %.0f/s)%n", commandsExecuted,
+                commandsExecuted / seconds, commandManager.getStatistics().getExecuteRate(5));
+        out.printf("Observer events:   %d state changes, %d property changes%n",
+                automationForwarder.stateChanges, automationForwarder.propertyChanges);
+        out.println("Latency (all):     " + summary(overall));
+        for (EventType type : EventType.values()) {
+            out.printf("  %-18s %s%n", type + ":", summary(byType.get(type)));
+        }
+
+        MetricsSnapshot snapshot = MetricsRegistry.getInstance().snapshot();
+        out.println();
+        out.println("=== PIPELINE METRICS ===");
+        out.print(snapshot.toText());
+        if (config.getMetricsFile() != null) {
+            try {
+                snapshot.writeTo(Paths.get(config.getMetricsFile()), config.getMetricsFile().endsWith(".json"));
+                out.println("Metrics written to " + config.getMetricsFile());
+            } catch (IOException e) {
+                System.err.println("Could not write metrics: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String summary(LatencyHistogram histogram) {
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+        if (s.getCount() == 0) {
+            return "no samples";
+        }
+        return String.format("n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                s.getCount(), s.getMeanNanos() / 1000.0, s.getP50() / 1000.0, s.getPercentile(90) / 1000.0,
+                s.getP99() / 1000.0, s.getP999() / 1000.0, s.getMaxNanos() / 1000.0);
+    }
+
+    /**
+     * Forwards device state changes to the automation engine, like the UI controller does
+     */
+    private class AutomationForwarder implements DeviceObserver {
+        private long stateChanges;
+        private long propertyChanges;
+
+        @Override
+        public void onDevicePowerStateChanged(IDevice device, PowerState oldState, PowerState newState) {
+            stateChanges++;
+            automationEngine.processStateChange(device, newState);
+        }
+
+        @Override
+        public void onDeviceStateChanged(IDevice device, String oldState, String newState) {
+            // Handled by onDevicePowerStateChanged
+        }
+
+        @Override
+        public void onDevicePropertyChanged(IDevice device, String propertyName, Object oldValue, Object newValue) {
+            propertyChanges++;
+        }
+
+        @Override
+        public String getObserverName() {
+            return "Simulation Automation Forwarder";
+        }
+    }
+
+    /**
+     * A room group with typed access to its devices
+     */
+    private static class Room {
+        private final DeviceGroup group;
+        private final List<Light> lights = new ArrayList<>();
+        private final List<Thermostat> thermostats = new ArrayList<>();
+
+        Room(DeviceGroup group) {
+            this.group = group;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package edu.neu.csye7374.simulation;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Temporarily discards System.out so device logging does not dominate load runs.
+ * Use with try-with-resources; the original stream is restored on close.
+ */
+public class QuietConsole implements AutoCloseable {
+
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    private final PrintStream original;
+
+    private QuietConsole(PrintStream original) {
+        this.original = original;
+    }
+
+    /**
+     * Silence System.out until the returned handle is closed
+     * @param quiet false to leave the console untouched (verbose runs)
+     * @return Handle restoring the original stream
+     */
+    public static QuietConsole silence(boolean quiet) {
+        QuietConsole handle = new QuietConsole(System.out);
+        if (quiet) {
+            System.setOut(DISCARD);
+        }
+        return handle;
+    }
+
+    /**
+     * Stream that still reaches the real console while silenced
+     */
+    public PrintStream console() {
+        return original;
+    }
+
+    @Override
+    public void close() {
+        System.setOut(original);
+    }
+}
@@ -0,0 +1,175 @@
+package edu.neu.csye7374.simulation;
+
+/**
+ * Settings for a headless fleet simulation run.
+ * Built with the Builder or parsed from "key=value" command line arguments.
+ */
+public class SimulationConfig {
+
+    private final int lights;
+    private final int thermostats;
+    private final int floors;
+    private final int roomsPerFloor;
+    private final int targetRate;
+    private final int events;
+    private final int warmupEvents;
+    private final int driftWeight;
+    private final int motionWeight;
+    private final int sceneWeight;
+    private final long seed;
+    private final boolean verbose;
+    private final String metricsFile;
+
+    private SimulationConfig(Builder builder) {
+        this.lights = builder.lights;
+        this.thermostats = builder.thermostats;
+        this.floors = builder.floors;
+        this.roomsPerFloor = builder.roomsPerFloor;
+        this.targetRate = builder.targetRate;
+        this.events = builder.events;
+        this.warmupEvents = builder.warmupEvents;
+        this.driftWeight = builder.driftWeight;
+        this.motionWeight = builder.motionWeight;
+        this.sceneWeight = builder.sceneWeight;
+        this.seed = builder.seed;
+        this.verbose = builder.verbose;
+        this.metricsFile = builder.metricsFile;
+    }
+
+    public int getLights() { return lights; }
+    public int getThermostats() { return thermostats; }
+    public int getFloors() { return floors; }
+    public int getRoomsPerFloor() { return roomsPerFloor; }
+    public int getRoomCount() { return floors * roomsPerFloor; }
+    /** Target events per second; 0 means run unthrottled */
+    public int getTargetRate() { return targetRate; }
+    public int getEvents() { return events; }
+    public int getWarmupEvents() { return warmupEvents; }
+    public int getDriftWeight() { return driftWeight; }
+    public int getMotionWeight() { return motionWeight; }
+    public int getSceneWeight() { return sceneWeight; }
+    public long getSeed() { return seed; }
+    public boolean isVerbose() { return verbose; }
+    /** File the metrics snapshot is exported to (JSON when it ends in .json), or null */
+    public String getMetricsFile() { return metricsFile; }
+
+    /**
+     * Parse "key=value" arguments, e.g. lights=1000 thermostats=100 rate=5000
+     * @param args Arguments following the --simulate flag
+     * @return The parsed configuration
+     */
+    public static SimulationConfig fromArgs(String[] args) {
+        Builder builder = new Builder();
+        for (String arg : args) {
+            String trimmed = arg.startsWith("--") ? arg.substring(2) : arg;
+            int eq = trimmed.indexOf('=');
+            if (eq <= 0) {
+                if (trimmed.equals("verbose")) {
+                    builder.verbose(true);
+                }
+                continue;
+            }
+            String key = trimmed.substring(0, eq).toLowerCase();
+            String value = trimmed.substring(eq + 1);
+            switch (key) {
+                case "lights": builder.lights(Integer.parseInt(value)); break;
+                case "thermostats": builder.thermostats(Integer.parseInt(value)); break;
+                case "floors": builder.floors(Integer.parseInt(value)); break;
+                case "rooms": builder.roomsPerFloor(Integer.parseInt(value)); break;
+                case "rate": builder.targetRate(Integer.parseInt(value)); break;
+                case "events": builder.events(Integer.parseInt(value)); break;
+                case "warmup": builder.warmupEvents(Integer.parseInt(value)); break;
+                case "mix": builder.mix(value); break;
+                case "seed": builder.seed(Long.parseLong(value)); break;
+                case "metrics": builder.metricsFile(value); break;
+                default:
+                    System.err.println("Unknown simulation option: " + key);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SimulationConfig{lights=%d, thermostats=%d, floors=%d, roomsPerFloor=%d, "
+                + "rate=%s, events=%d, warmup=%d, mix=%d/%d/%d, seed=%d}",
+                lights, thermostats, floors, roomsPerFloor,
+                targetRate > 0 ? targetRate + "/s" : "unthrottled",
+                events, warmupEvents, driftWeight, motionWeight, sceneWeight, seed);
+    }
+
+    public static class Builder {
+        private int lights = 200;
+        private int thermostats = 40;
+        private int floors = 2;
+        private int roomsPerFloor = 10;
+        private int targetRate = 0;
+        private int events = 100_000;
+        private int warmupEvents = 10_000;
+        private int driftWeight = 60;
+        private int motionWeight = 35;
+        private int sceneWeight = 5;
+        private long seed = 42L;
+        private boolean verbose;
+        private String metricsFile;
+
+        public Builder lights(int lights) {
+            this.lights = Math.max(0, lights); return this;
+        }
+
+        public Builder thermostats(int thermostats) {
+            this.thermostats = Math.max(0, thermostats); return this;
+        }
+
+        public Builder floors(int floors) {
+            this.floors = Math.max(1, floors); return this;
+        }
+
+        public Builder roomsPerFloor(int roomsPerFloor) {
+            this.roomsPerFloor = Math.max(1, roomsPerFloor); return this;
+        }
+
+        public Builder targetRate(int targetRate) {
+            this.targetRate = Math.max(0, targetRate); return this;
+        }
+
+        public Builder events(int events) {
+            this.events = Math.max(1, events); return this;
+        }
+
+        public Builder warmupEvents(int warmupEvents) {
+            this.warmupEvents = Math.max(0, warmupEvents); return this;
+        }
+
+        /**
+         * Set the event mix as "drift/motion/scene" weights, e.g. "60/35/5"
+         */
+        public Builder mix(String mix) {
+            String[] parts = mix.split("/");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Event mix must be drift/motion/scene, got: " + mix);
+            }
+            this.driftWeight = Math.max(0, Integer.parseInt(parts[0].trim()));
+            this.motionWeight = Math.max(0, Integer.parseInt(parts[1].trim()));
+            this.sceneWeight = Math.max(0, Integer.parseInt(parts[2].trim()));
+            if (driftWeight + motionWeight + sceneWeight == 0) {
+                throw new IllegalArgumentException("Event mix must have at least one non-zero weight");
+            }
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed; return this;
+        }
+
+        public Builder verbose(boolean verbose) {
+            this.verbose = verbose; return this;
+        }
+
+        public Builder metricsFile(String metricsFile) {
+            this.metricsFile = metricsFile; return this;
+        }
+
+        public SimulationConfig build() { return new SimulationConfig(this); }
+    }
+}
@@ -2,6 +2,7 @@ package edu.neu.csye7374.userInterface;
 
 import edu.neu.csye7374.core.device.IDevice;
 import edu.neu.csye7374.core.observer.DeviceObserver;
+import edu.neu.csye7374.devices.state.PowerState;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,8 +52,8 @@ public class UIUpdateObserver implements DeviceObserver {
             device.getId(),
             device.getName(),
             "DEVICE_ON",
-            "OFF",
-            "ON",
+            PowerState.OFF.getLabel(),
+            PowerState.ON.getLabel(),
             LocalDateTime.now()
         );
         
@@ -69,8 +70,8 @@ public class UIUpdateObserver implements DeviceObserver {
             device.getId(),
             device.getName(),
             "DEVICE_OFF",
-            "ON",
-            "OFF",
+            PowerState.ON.getLabel(),
+            PowerState.OFF.getLabel(),
             LocalDateTime.now()
         );
         